@@ -0,0 +1,138 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of allocation plans keyed by district-set snapshot, total
+ * resources, allocation policy and risk model signature. Entries are
+ * bounded both by count and by an estimated memory footprint.
+ *
+ * Snapshots are compared by identity. A {@link PersistentVector} never
+ * changes once handed out, and undo and redo restore the very snapshot an
+ * edit replaced, so toggling an edit back and forth finds the plans built
+ * for each side. Plans for snapshots no longer in use are never looked up
+ * again and age out through the LRU limits.
+ */
+public class AllocationCache {
+    // Rough per-entry costs used to estimate the footprint of a cached plan
+    private static final long PLAN_OVERHEAD_BYTES = 128;
+    private static final long SORTED_ENTRY_BYTES = 8;
+    private static final long RESULT_ENTRY_BYTES = 40;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, AllocationPlan> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+
+    /**
+     * Constructor for AllocationCache
+     *
+     * @param maxEntries Maximum number of cached plans
+     * @param maxBytes Maximum estimated memory held by cached plans
+     */
+    public AllocationCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Looks up a cached plan
+     *
+     * @param districts Snapshot of the district set the plan was built from
+     * @param totalResources Total resources used for the plan
+     * @param policyName Name of the allocation policy used for the plan
+     * @return The cached plan, or null if absent
+     */
+    public synchronized AllocationPlan get(PersistentVector<District> districts, int totalResources,
+            String policyName) {
+        return entries.get(new Key(districts, totalResources, policyName, RiskStatistics.getModelSignature()));
+    }
+
+    /**
+     * Stores a plan, evicting least recently used plans if over budget
+     */
+    public synchronized void put(PersistentVector<District> districts, int totalResources, AllocationPlan plan) {
+        Key key = new Key(districts, totalResources, plan.getPolicyName(), RiskStatistics.getModelSignature());
+        AllocationPlan previous = entries.put(key, plan);
+        if (previous != null) {
+            currentBytes -= estimateBytes(previous);
+        }
+        currentBytes += estimateBytes(plan);
+        evict();
+    }
+
+    /**
+     * Removes all cached plans
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * Evicts least recently used plans until both limits are respected
+     */
+    private void evict() {
+        Iterator<Map.Entry<Key, AllocationPlan>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && it.hasNext()) {
+            Map.Entry<Key, AllocationPlan> entry = it.next();
+            currentBytes -= estimateBytes(entry.getValue());
+            it.remove();
+        }
+    }
+
+    private static long estimateBytes(AllocationPlan plan) {
+        return PLAN_OVERHEAD_BYTES
+                + plan.getSortedDistricts().size() * SORTED_ENTRY_BYTES
+                + plan.getAllocationResults().size() * RESULT_ENTRY_BYTES;
+    }
+
+    /**
+     * Cache key combining district-set snapshot, budget, policy and model weights
+     */
+    private static final class Key {
+        final PersistentVector<District> districts;
+        final int totalResources;
+        final String policyName;
+        final long modelSignature;
+
+        Key(PersistentVector<District> districts, int totalResources, String policyName, long modelSignature) {
+            this.districts = districts;
+            this.totalResources = totalResources;
+            this.policyName = policyName;
+            this.modelSignature = modelSignature;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return districts == other.districts
+                    && totalResources == other.totalResources
+                    && policyName.equals(other.policyName)
+                    && modelSignature == other.modelSignature;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = System.identityHashCode(districts);
+            h = 31 * h + totalResources;
+            h = 31 * h + policyName.hashCode();
+            h = 31 * h + Long.hashCode(modelSignature);
+            return h;
+        }
+    }
+}
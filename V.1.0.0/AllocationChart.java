@@ -0,0 +1,427 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * The allocation bar chart shown on the Visualization tab: one bar per
+ * funded district, with demand drawn behind the allocated amount.
+ *
+ * Painting works on any {@link Graphics2D}, so the same chart is drawn by
+ * the GUI and, in headless mode, into images for briefing packs. Fonts and
+ * colors are created once and shared, since both are immutable.
+ *
+ * For batches, scenarios are grouped by risk weights. Each group's districts
+ * are scored once, its scenarios are allocated and rendered on a fixed
+ * thread pool, and the scored list is dropped before the next group starts,
+ * so only one list is held however many scenarios there are. Each worker
+ * thread keeps its own image buffer and PNG writer and reuses them for
+ * every chart it draws of the same size.
+ *
+ * Usage:
+ * <pre>
+ * java AllocationChart --districts districts.csv --scenarios scenarios.csv --out-dir charts
+ *     [--width 1200] [--height 600] [--threads n]
+ * </pre>
+ */
+public class AllocationChart {
+    public static final int DEFAULT_WIDTH = 1200;
+    public static final int DEFAULT_HEIGHT = 600;
+
+    private static final Color PRIMARY_COLOR = new Color(25, 118, 210);
+    private static final Color CARD_COLOR = new Color(255, 255, 255);
+    private static final Color TEXT_COLOR = new Color(33, 33, 33);
+    private static final Color AXIS_COLOR = new Color(180, 180, 180);
+    private static final Color GRID_COLOR = new Color(240, 240, 240);
+    private static final Color DEMAND_FILL_COLOR = new Color(240, 240, 240);
+    private static final Color DEMAND_OUTLINE_COLOR = new Color(200, 200, 200);
+    private static final Color FULL_COLOR = new Color(40, 167, 69);
+    private static final Color FULL_COLOR_BRIGHT = FULL_COLOR.brighter();
+    private static final Color PARTIAL_COLOR = new Color(255, 193, 7);
+    private static final Color PARTIAL_COLOR_BRIGHT = PARTIAL_COLOR.brighter();
+    private static final Color LEGEND_FILL_COLOR = new Color(250, 250, 250);
+    private static final Color LEGEND_OUTLINE_COLOR = new Color(230, 230, 230);
+
+    private static final Font AXIS_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+    private static final Font PERCENT_FONT = new Font("Segoe UI", Font.BOLD, 10);
+    private static final Font NAME_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+    private static final Font LEGEND_FONT = new Font("Segoe UI", Font.PLAIN, 12);
+    private static final Font STATS_FONT = new Font("Segoe UI", Font.BOLD, 12);
+    private static final BasicStroke AXIS_STROKE = new BasicStroke(1);
+
+    // Per-thread buffer and encoder, reused across charts in a batch
+    private static final ThreadLocal<BufferedImage> IMAGE = new ThreadLocal<>();
+    private static final ThreadLocal<ImageWriter> PNG_WRITER = ThreadLocal.withInitial(() ->
+            ImageIO.getImageWritersByFormatName("png").next());
+
+    /**
+     * Paints the chart
+     *
+     * @param g2d Graphics to paint into
+     * @param width Width of the chart area
+     * @param height Height of the chart area
+     * @param results Funded districts in priority order
+     * @param totalResources Budget shown in the footer
+     * @param remainingResources Unallocated resources shown in the footer
+     */
+    public static void paint(Graphics2D g2d, int width, int height, List<AllocationResult> results,
+            int totalResources, int remainingResources) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        int barWidth = Math.min(60, width / (results.size() + 2));
+        int maxBarHeight = height - 100;
+        int baseline = height - 50;
+        int barSpacing = 20;
+        int chartStartX = 70;
+
+        // Set background
+        g2d.setColor(CARD_COLOR);
+        g2d.fillRect(0, 0, width, height);
+
+        // Find maximum resource demand for scaling
+        int maxDemand = 1; // Avoid division by zero
+        for (AllocationResult result : results) {
+            maxDemand = Math.max(maxDemand, result.district.getResourceDemand());
+        }
+
+        // Draw axes with more subtle coloring
+        g2d.setColor(AXIS_COLOR);
+        g2d.setStroke(AXIS_STROKE);
+        g2d.drawLine(chartStartX, baseline, width - 50, baseline); // X-axis
+        g2d.drawLine(chartStartX, baseline, chartStartX, 50); // Y-axis
+
+        // Draw y-axis labels (demand scale)
+        g2d.setFont(AXIS_FONT);
+        for (int i = 0; i <= 5; i++) {
+            int value = maxDemand * i / 5;
+            int y = baseline - (maxBarHeight * i / 5);
+            g2d.drawLine(chartStartX - 3, y, chartStartX, y); // Tick mark
+            g2d.drawString(String.valueOf(value), chartStartX - 30, y + 4);
+
+            // Draw light horizontal grid lines
+            g2d.setColor(GRID_COLOR);
+            g2d.drawLine(chartStartX + 1, y, width - 50, y);
+            g2d.setColor(AXIS_COLOR);
+        }
+
+        // Draw bars with rounded corners and gradients
+        int x = chartStartX + 30;
+        for (AllocationResult result : results) {
+            District district = result.district;
+
+            // Calculate bar heights
+            int demandHeight = (int) ((double) district.getResourceDemand() / maxDemand * maxBarHeight);
+            int allocatedHeight = (int) ((double) result.allocatedResources / maxDemand * maxBarHeight);
+
+            // Draw allocation percentage
+            double percentage = (double) result.allocatedResources / district.getResourceDemand() * 100;
+            String percentText = String.format("%.0f%%", percentage);
+
+            // Draw demand bar (outline with light fill)
+            g2d.setColor(DEMAND_FILL_COLOR);
+            g2d.fillRoundRect(x, baseline - demandHeight, barWidth, demandHeight, 8, 8);
+            g2d.setColor(DEMAND_OUTLINE_COLOR);
+            g2d.drawRoundRect(x, baseline - demandHeight, barWidth, demandHeight, 8, 8);
+
+            // Draw allocated bar (filled with gradient): orange for partial, green for full
+            GradientPaint gradient = new GradientPaint(
+                    x, baseline, result.isPartial ? PARTIAL_COLOR : FULL_COLOR,
+                    x + barWidth, baseline, result.isPartial ? PARTIAL_COLOR_BRIGHT : FULL_COLOR_BRIGHT);
+            g2d.setPaint(gradient);
+            g2d.fillRoundRect(x, baseline - allocatedHeight, barWidth, allocatedHeight, 8, 8);
+
+            // Add allocation percentage on top of bar
+            g2d.setColor(TEXT_COLOR);
+            g2d.setFont(PERCENT_FONT);
+            FontMetrics fm = g2d.getFontMetrics();
+            int textWidth = fm.stringWidth(percentText);
+            g2d.drawString(percentText, x + (barWidth - textWidth) / 2, baseline - allocatedHeight - 5);
+
+            // Draw district name
+            g2d.setColor(TEXT_COLOR);
+            g2d.setFont(NAME_FONT);
+            textWidth = fm.stringWidth(district.getName());
+
+            // Rotate district name if it's too long
+            if (textWidth > barWidth + barSpacing) {
+                AffineTransform originalTransform = g2d.getTransform();
+                g2d.rotate(-Math.PI / 4, x + barWidth / 2, baseline + 10);
+                g2d.drawString(district.getName(), x + barWidth / 2 - textWidth / 2, baseline + 20);
+                g2d.setTransform(originalTransform);
+            } else {
+                g2d.drawString(district.getName(), x + barWidth / 2 - textWidth / 2, baseline + 20);
+            }
+
+            x += barWidth + barSpacing;
+        }
+
+        // Draw modern legend
+        int legendX = width - 180;
+        int legendY = 30;
+        int legendSize = 15;
+        int textOffset = 25;
+        int rowHeight = 25;
+
+        // Draw legend box
+        g2d.setColor(LEGEND_FILL_COLOR);
+        g2d.fillRoundRect(legendX - 10, legendY - 20, 170, 90, 10, 10);
+        g2d.setColor(LEGEND_OUTLINE_COLOR);
+        g2d.drawRoundRect(legendX - 10, legendY - 20, 170, 90, 10, 10);
+
+        // Full allocation
+        g2d.setColor(FULL_COLOR);
+        g2d.fillRoundRect(legendX, legendY, legendSize, legendSize, 4, 4);
+        g2d.setColor(TEXT_COLOR);
+        g2d.setFont(LEGEND_FONT);
+        g2d.drawString("Full Allocation", legendX + textOffset, legendY + 12);
+
+        // Partial allocation
+        g2d.setColor(PARTIAL_COLOR);
+        g2d.fillRoundRect(legendX, legendY + rowHeight, legendSize, legendSize, 4, 4);
+        g2d.setColor(TEXT_COLOR);
+        g2d.drawString("Partial Allocation", legendX + textOffset, legendY + rowHeight + 12);
+
+        // Resource demand
+        g2d.setColor(DEMAND_FILL_COLOR);
+        g2d.fillRoundRect(legendX, legendY + rowHeight * 2, legendSize, legendSize, 4, 4);
+        g2d.setColor(DEMAND_OUTLINE_COLOR);
+        g2d.drawRoundRect(legendX, legendY + rowHeight * 2, legendSize, legendSize, 4, 4);
+        g2d.setColor(TEXT_COLOR);
+        g2d.drawString("Resource Demand", legendX + textOffset, legendY + rowHeight * 2 + 12);
+
+        // Draw resource stats at bottom
+        int statsY = height - 15;
+        g2d.setColor(PRIMARY_COLOR);
+        g2d.setFont(STATS_FONT);
+        g2d.drawString("Total Resources: " + totalResources, 70, statsY);
+
+        // Format text for remaining resources
+        String remainingText = remainingResources > 0
+                ? "Unallocated: " + remainingResources
+                : "All resources allocated";
+        g2d.setColor(remainingResources == 0 ? FULL_COLOR : TEXT_COLOR);
+        g2d.drawString(remainingText, width - 200, statsY);
+    }
+
+    /**
+     * Renders a plan's chart into a new image
+     */
+    public static BufferedImage render(AllocationPlan plan, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        draw(image, plan);
+        return image;
+    }
+
+    private static void draw(BufferedImage image, AllocationPlan plan) {
+        Graphics2D g2d = image.createGraphics();
+        try {
+            paint(g2d, image.getWidth(), image.getHeight(), plan.getAllocationResults(),
+                    plan.getTotalResources(), plan.getRemainingResources());
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    /**
+     * Renders a plan's chart and writes it as a PNG, reusing this thread's
+     * image buffer and encoder
+     */
+    public static void writePng(AllocationPlan plan, int width, int height, Path file) throws IOException {
+        BufferedImage image = IMAGE.get();
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            IMAGE.set(image);
+        }
+        draw(image, plan);
+
+        ImageWriter writer = PNG_WRITER.get();
+        Files.deleteIfExists(file);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            if (out == null) {
+                throw new IOException("Cannot write " + file);
+            }
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), null);
+        } finally {
+            writer.reset();
+        }
+    }
+
+    /**
+     * Allocates and renders every scenario, one group of scenarios with the
+     * same risk weights at a time, in parallel within the group
+     *
+     * @param districts Districts shared by all scenarios
+     * @param scenarios Scenarios to chart
+     * @param outDir Directory receiving one PNG per scenario
+     * @param threads Number of rendering threads
+     * @return Files written, in scenario order
+     */
+    public static List<Path> renderScenarios(DistrictTable districts, List<Scenario> scenarios, Path outDir,
+            int width, int height, int threads) throws IOException, InterruptedException {
+        Files.createDirectories(outDir);
+        // Scenarios with the same risk weights share one scored district list
+        Map<Long, List<Integer>> groups = new LinkedHashMap<>();
+        for (int s = 0; s < scenarios.size(); s++) {
+            groups.computeIfAbsent(scenarios.get(s).getWeightSignature(), signature -> new ArrayList<>()).add(s);
+        }
+        // Every group's copy of a row is a version of the same district
+        int firstId = District.reserveIds(districts.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "chart-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Path[] files = new Path[scenarios.size()];
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Integer> group : groups.values()) {
+                List<District> list = scoreDistricts(districts, scenarios.get(group.get(0)), firstId);
+                futures.clear();
+                for (int s : group) {
+                    Scenario scenario = scenarios.get(s);
+                    Path file = outDir.resolve(String.format("%03d-%s.png", s + 1,
+                            scenario.getName().replaceAll("[^A-Za-z0-9._-]+", "_")));
+                    futures.add(executor.submit(() -> {
+                        AllocationPlan plan = AllocationEngine.allocate(list, scenario.getTotalResources(),
+                                scenario.getPolicy());
+                        writePng(plan, width, height, file);
+                        return null;
+                    }));
+                    files[s] = file;
+                }
+                // The group's list is released once its charts are written
+                for (Future<?> future : futures) {
+                    await(future);
+                }
+            }
+            return Arrays.asList(files);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(Future<?> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Builds District objects scored with the scenario's risk weights
+     */
+    private static List<District> scoreDistricts(DistrictTable table, Scenario scenario, int firstId) {
+        int[] riskScore = table.computeRiskScores(scenario.getWeightPopulation(), scenario.getWeightLandType(),
+                scenario.getWeightUrbanization());
+        List<District> list = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            list.add(new District(firstId + i, table.getName(i), table.getPopulation(i), table.getLandType(i),
+                    table.getUrbanization(i), table.getResourceDemand(i), riskScore[i]));
+        }
+        return list;
+    }
+
+    /**
+     * Main method - renders a chart per scenario without a display
+     *
+     * @param args Command line arguments, see class documentation
+     */
+    public static void main(String[] args) {
+        Path districtsFile = null;
+        Path scenariosFile = null;
+        Path outDir = null;
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--districts":
+                        districtsFile = Paths.get(args[++i]);
+                        break;
+                    case "--scenarios":
+                        scenariosFile = Paths.get(args[++i]);
+                        break;
+                    case "--out-dir":
+                        outDir = Paths.get(args[++i]);
+                        break;
+                    case "--width":
+                        width = Integer.parseInt(args[++i]);
+                        break;
+                    case "--height":
+                        height = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (districtsFile == null || scenariosFile == null || outDir == null) {
+                throw new IllegalArgumentException("--districts, --scenarios and --out-dir are required");
+            }
+            if (width < 300 || height < 200 || threads <= 0) {
+                throw new IllegalArgumentException("Charts must be at least 300x200 and threads positive");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java AllocationChart --districts <file> --scenarios <file> --out-dir <dir>"
+                    + " [--width <px>] [--height <px>] [--threads <n>]");
+            System.exit(2);
+            return;
+        }
+
+        // Batch rendering never needs a display
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        long start = System.nanoTime();
+        try {
+            DistrictTable table = DistrictTable.read(districtsFile);
+            List<Scenario> scenarios = Scenario.readCsv(scenariosFile);
+            List<Path> files = renderScenarios(table, scenarios, outDir, width, height, threads);
+            System.err.printf("Rendered %d charts over %d districts to %s on %d threads in %.1f ms%n",
+                    files.size(), table.size(), outDir, threads, (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes per-district differences between two allocation plans.
+ *
+ * Each district in either plan is given a dense slot through a
+ * {@link DistrictIdMap}, and both plans are projected onto arrays indexed
+ * by slot, so the comparison is a linear pass over the plans with no
+ * sorting and memory in proportion to the plan sizes, however far apart
+ * their district IDs are. Only districts whose allocation or status
+ * changed, or whose risk score, demand or population changed between the
+ * two plans, are reported.
+ */
+public class AllocationDiff {
+    // Presence flags stored per district slot
+    private static final byte IN_BASELINE = 1;
+    private static final byte IN_CURRENT = 2;
+    private static final byte PARTIAL_BASELINE = 4;
+    private static final byte PARTIAL_CURRENT = 8;
+
+    /**
+     * Kind of change recorded for a district
+     */
+    public enum ChangeType {
+        ADDED("Added"),
+        REMOVED("Removed"),
+        INCREASED("Increased"),
+        DECREASED("Decreased"),
+        STATUS("Status changed"),
+        CHANGED("Details changed");
+
+        private final String label;
+
+        ChangeType(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Allocation change for a single district
+     */
+    public static class AllocationDelta {
+        final District district;
+        final ChangeType changeType;
+        final int baselineAllocated;
+        final int currentAllocated;
+        final String baselineStatus;
+        final String currentStatus;
+
+        AllocationDelta(District district, ChangeType changeType, int baselineAllocated, int currentAllocated,
+                String baselineStatus, String currentStatus) {
+            this.district = district;
+            this.changeType = changeType;
+            this.baselineAllocated = baselineAllocated;
+            this.currentAllocated = currentAllocated;
+            this.baselineStatus = baselineStatus;
+            this.currentStatus = currentStatus;
+        }
+
+        public District getDistrict() {
+            return district;
+        }
+
+        public ChangeType getChangeType() {
+            return changeType;
+        }
+
+        public int getBaselineAllocated() {
+            return baselineAllocated;
+        }
+
+        public int getCurrentAllocated() {
+            return currentAllocated;
+        }
+
+        public int getDelta() {
+            return currentAllocated - baselineAllocated;
+        }
+
+        public String getBaselineStatus() {
+            return baselineStatus;
+        }
+
+        public String getCurrentStatus() {
+            return currentStatus;
+        }
+    }
+
+    private final List<AllocationDelta> deltas;
+    private final int unchangedCount;
+    private final int baselineAllocated;
+    private final int currentAllocated;
+
+    private AllocationDiff(List<AllocationDelta> deltas, int unchangedCount, int baselineAllocated,
+            int currentAllocated) {
+        this.deltas = Collections.unmodifiableList(deltas);
+        this.unchangedCount = unchangedCount;
+        this.baselineAllocated = baselineAllocated;
+        this.currentAllocated = currentAllocated;
+    }
+
+    /**
+     * Compares two plans
+     *
+     * @param baseline The reference plan
+     * @param current The plan being compared against the baseline
+     * @return Changed districts, in the current plan's priority order followed
+     *         by districts only present in the baseline
+     */
+    public static AllocationDiff compare(AllocationPlan baseline, AllocationPlan current) {
+        List<District> baselineDistricts = baseline.getSortedDistricts();
+        List<District> currentDistricts = current.getSortedDistricts();
+
+        // Give every district in either plan a dense slot
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        for (District d : baselineDistricts) {
+            minId = Math.min(minId, d.getId());
+            maxId = Math.max(maxId, d.getId());
+        }
+        for (District d : currentDistricts) {
+            minId = Math.min(minId, d.getId());
+            maxId = Math.max(maxId, d.getId());
+        }
+        DistrictIdMap slots = new DistrictIdMap(baselineDistricts.size() + currentDistricts.size(), minId, maxId);
+        for (District d : baselineDistricts) {
+            assignSlot(slots, d);
+        }
+        for (District d : currentDistricts) {
+            assignSlot(slots, d);
+        }
+        if (slots.size() == 0) {
+            return new AllocationDiff(new ArrayList<>(), 0, 0, 0);
+        }
+
+        int range = slots.size();
+        int[] baselineAlloc = new int[range];
+        int[] currentAlloc = new int[range];
+        byte[] flags = new byte[range];
+        District[] baselineVersion = new District[range];
+
+        for (District d : baselineDistricts) {
+            int slot = slots.get(d.getId());
+            flags[slot] |= IN_BASELINE;
+            baselineVersion[slot] = d;
+        }
+        for (District d : currentDistricts) {
+            flags[slots.get(d.getId())] |= IN_CURRENT;
+        }
+        for (AllocationResult r : baseline.getAllocationResults()) {
+            int slot = slots.get(r.district.getId());
+            baselineAlloc[slot] = r.allocatedResources;
+            if (r.isPartial) {
+                flags[slot] |= PARTIAL_BASELINE;
+            }
+        }
+        for (AllocationResult r : current.getAllocationResults()) {
+            int slot = slots.get(r.district.getId());
+            currentAlloc[slot] = r.allocatedResources;
+            if (r.isPartial) {
+                flags[slot] |= PARTIAL_CURRENT;
+            }
+        }
+
+        List<AllocationDelta> deltas = new ArrayList<>();
+        int unchanged = 0;
+
+        // Districts in the current plan, in its priority order
+        for (District d : currentDistricts) {
+            int slot = slots.get(d.getId());
+            byte f = flags[slot];
+            String currentStatus = statusOf(currentAlloc[slot], (f & PARTIAL_CURRENT) != 0);
+            if ((f & IN_BASELINE) == 0) {
+                deltas.add(new AllocationDelta(d, ChangeType.ADDED, 0, currentAlloc[slot], "-", currentStatus));
+                continue;
+            }
+            String baselineStatus = statusOf(baselineAlloc[slot], (f & PARTIAL_BASELINE) != 0);
+            int delta = currentAlloc[slot] - baselineAlloc[slot];
+            ChangeType type;
+            if (delta > 0) {
+                type = ChangeType.INCREASED;
+            } else if (delta < 0) {
+                type = ChangeType.DECREASED;
+            } else if (!baselineStatus.equals(currentStatus)) {
+                type = ChangeType.STATUS;
+            } else if (scoredFieldsDiffer(baselineVersion[slot], d)) {
+                // A new version of the district with the same allocation
+                type = ChangeType.CHANGED;
+            } else {
+                unchanged++;
+                continue;
+            }
+            deltas.add(new AllocationDelta(d, type, baselineAlloc[slot], currentAlloc[slot],
+                    baselineStatus, currentStatus));
+        }
+
+        // Districts that only exist in the baseline
+        for (District d : baselineDistricts) {
+            int slot = slots.get(d.getId());
+            byte f = flags[slot];
+            if ((f & IN_CURRENT) == 0) {
+                deltas.add(new AllocationDelta(d, ChangeType.REMOVED, baselineAlloc[slot], 0,
+                        statusOf(baselineAlloc[slot], (f & PARTIAL_BASELINE) != 0), "-"));
+            }
+        }
+
+        return new AllocationDiff(deltas, unchanged, baseline.getAllocatedResources(),
+                current.getAllocatedResources());
+    }
+
+    private static void assignSlot(DistrictIdMap slots, District district) {
+        if (slots.get(district.getId()) < 0) {
+            slots.put(district.getId(), slots.size());
+        }
+    }
+
+    private static boolean scoredFieldsDiffer(District baseline, District current) {
+        return baseline.getRiskScore() != current.getRiskScore()
+                || baseline.getResourceDemand() != current.getResourceDemand()
+                || baseline.getPopulation() != current.getPopulation();
+    }
+
+    private static String statusOf(int allocated, boolean partial) {
+        if (partial) {
+            return "Partial";
+        }
+        return allocated > 0 ? "Full" : "Unfunded";
+    }
+
+    public List<AllocationDelta> getDeltas() {
+        return deltas;
+    }
+
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    public int getBaselineAllocated() {
+        return baselineAllocated;
+    }
+
+    public int getCurrentAllocated() {
+        return currentAllocated;
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resource allocation used by both the GUI and headless callers. Districts
+ * are put in descending order of risk-to-resource ratio, with equal ratios in
+ * ascending district ID order so the same districts always produce the same
+ * plan, and the budget is then divided between them by an
+ * {@link AllocationPolicy}.
+ */
+public class AllocationEngine {
+    /** Policy used when none is specified: the original greedy allocation */
+    public static final AllocationPolicy DEFAULT_POLICY = new GreedyPolicy();
+
+    /**
+     * Returns the built-in allocation policies, default first
+     */
+    public static AllocationPolicy[] getBuiltInPolicies() {
+        return new AllocationPolicy[] {
+            DEFAULT_POLICY,
+            new ProportionalRiskPolicy(),
+            new MaxMinFairPolicy(),
+            new MinimumGuaranteePolicy(0.25)
+        };
+    }
+
+    /**
+     * Looks up a built-in policy by display name or short alias
+     * (greedy, proportional, maxmin, guarantee)
+     *
+     * @param name Policy name, case-insensitive
+     * @return The matching policy
+     * @throws IllegalArgumentException if no policy matches
+     */
+    public static AllocationPolicy findPolicy(String name) {
+        AllocationPolicy[] policies = getBuiltInPolicies();
+        switch (name.trim().toLowerCase()) {
+            case "greedy":
+                return policies[0];
+            case "proportional":
+                return policies[1];
+            case "maxmin":
+                return policies[2];
+            case "guarantee":
+                return policies[3];
+            default:
+                for (AllocationPolicy policy : policies) {
+                    if (policy.getName().equalsIgnoreCase(name.trim())) {
+                        return policy;
+                    }
+                }
+                throw new IllegalArgumentException("Unknown allocation policy: " + name);
+        }
+    }
+
+    /**
+     * Runs the greedy allocation over a set of districts
+     *
+     * @param districts Districts to allocate to (not modified)
+     * @param totalResources Total resources available
+     * @return The resulting allocation plan
+     */
+    public static AllocationPlan allocate(List<District> districts, int totalResources) {
+        return allocate(districts, totalResources, DEFAULT_POLICY);
+    }
+
+    /**
+     * Runs an allocation over a set of districts using the given policy
+     *
+     * @param districts Districts to allocate to (not modified)
+     * @param totalResources Total resources available
+     * @param policy Policy deciding how the budget is divided
+     * @return The resulting allocation plan
+     */
+    public static AllocationPlan allocate(List<District> districts, int totalResources, AllocationPolicy policy) {
+        // Sort districts by risk-to-resource ratio (descending), ties by district ID
+        long sortStart = AllocationMetrics.start();
+        int n = districts.size();
+        District[] input = districts.toArray(new District[0]);
+        int[] inputRisk = new int[n];
+        int[] inputDemand = new int[n];
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            inputRisk[i] = input[i].getRiskScore();
+            inputDemand[i] = input[i].getResourceDemand();
+            ids[i] = input[i].getId();
+        }
+        int[] order = PriorityRanking.rank(inputRisk, inputDemand, ids);
+
+        List<District> sortedDistricts = new ArrayList<>(n);
+        int[] riskScore = new int[n];
+        int[] demand = new int[n];
+        for (int k = 0; k < n; k++) {
+            sortedDistricts.add(input[order[k]]);
+            riskScore[k] = inputRisk[order[k]];
+            demand[k] = inputDemand[order[k]];
+        }
+        AllocationMetrics.record(AllocationMetrics.Stage.SORTING, sortStart, n);
+
+        // Calculate resource allocation
+        long allocationStart = AllocationMetrics.start();
+
+        int[] allocation = new int[n];
+        int remainingResources = policy.allocate(riskScore, demand, totalResources, allocation);
+
+        // Record every district that received resources, in priority order
+        List<AllocationResult> allocationResults = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (allocation[i] > 0) {
+                boolean isPartial = allocation[i] < demand[i];
+                if (isPartial) {
+                    AllocationMetrics.recordPartialAllocation();
+                }
+                allocationResults.add(new AllocationResult(sortedDistricts.get(i), allocation[i], isPartial));
+            }
+        }
+        AllocationMetrics.record(AllocationMetrics.Stage.ALLOCATION, allocationStart, allocationResults.size());
+
+        return new AllocationPlan(sortedDistricts, allocationResults, totalResources, remainingResources,
+                policy.getName());
+    }
+}
@@ -0,0 +1,428 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Pushes allocation updates to dashboards as server-sent events.
+ *
+ * Clients connect to {@code /allocations/stream}. The first event is a
+ * {@code snapshot} of the latest plan, and every later event is a
+ * {@code delta} holding only the districts that changed since the last plan
+ * that client received: added, removed or reallocated districts, and
+ * districts whose risk score, demand or population was updated even if
+ * their allocation stayed the same.
+ *
+ * Each client holds at most one pending plan. If plans are published faster
+ * than a client can read them, the intermediate plans are coalesced: the
+ * client's next delta goes straight from the last plan it saw to the newest
+ * one. A slow client therefore never buffers more than one plan, and it
+ * never holds up the publisher or other clients.
+ *
+ * If a district handler is set, clients can also POST one district as a
+ * CSV line (name,population,landType,urbanization,resourceDemand) to
+ * {@code /allocations/districts}; the handler feeds it to whatever produces
+ * the plans. If a budget handler is set, clients can likewise POST a new
+ * total budget as a single positive integer to {@code /allocations/budget}.
+ * Bodies must be sent as {@code text/csv}, which browsers only send
+ * cross-origin after a preflight, so pages from other origins cannot post
+ * districts or budgets unless their origin is the allowed one.
+ *
+ * The server listens on the loopback interface and sends no CORS headers
+ * unless the caller asks for a wider bind address or an allowed origin.
+ * Each connected client holds one thread from a fixed pool; connections
+ * beyond the client limit are refused with 503.
+ */
+public class AllocationEventServer implements Consumer<AllocationPlan> {
+    public static final String STREAM_PATH = "/allocations/stream";
+    public static final String DISTRICTS_PATH = "/allocations/districts";
+    public static final String BUDGET_PATH = "/allocations/budget";
+
+    public static final int DEFAULT_MAX_CLIENTS = 64;
+
+    private static final long HEARTBEAT_INTERVAL_MS = 15_000;
+    private static final int MAX_POST_BYTES = 4096;
+    private static final AllocationPlan EMPTY_PLAN =
+            new AllocationPlan(new ArrayList<>(), new ArrayList<>(), 0, 0, "");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String allowedOrigin;
+    private final int maxClients;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private volatile AllocationPlan latestPlan;
+    private volatile Consumer<String> districtHandler;
+    private volatile IntConsumer budgetHandler;
+    private long sequence = 0;
+
+    /**
+     * Creates a server listening on the loopback interface; call {@link #start()} to begin serving
+     *
+     * @param port Port to listen on (0 picks a free port)
+     */
+    public AllocationEventServer(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), null, DEFAULT_MAX_CLIENTS);
+    }
+
+    /**
+     * Creates a server listening on the given address; call {@link #start()} to begin serving
+     *
+     * @param address Address and port to listen on
+     * @param allowedOrigin Origin sent in Access-Control-Allow-Origin, or null to send none
+     * @param maxClients Largest number of clients streaming at once
+     */
+    public AllocationEventServer(InetSocketAddress address, String allowedOrigin, int maxClients) throws IOException {
+        if (maxClients <= 0) {
+            throw new IllegalArgumentException("Client limit must be positive");
+        }
+        this.allowedOrigin = allowedOrigin;
+        this.maxClients = maxClients;
+        server = HttpServer.create(address, 0);
+        // One thread beyond the limit stays free to refuse further connections
+        executor = Executors.newFixedThreadPool(maxClients + 1, r -> {
+            Thread thread = new Thread(r, "allocation-sse");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(STREAM_PATH, this::handleStream);
+        server.createContext(DISTRICTS_PATH, this::handleDistrict);
+        server.createContext(BUDGET_PATH, this::handleBudget);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        for (Client client : clients) {
+            client.close();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Parses a bind address given on the command line or in a system property
+     *
+     * @param host Host name or address, or null for the loopback interface
+     * @param port Port to listen on
+     */
+    public static InetSocketAddress bindAddress(String host, int port) throws IOException {
+        InetAddress address = host == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(host);
+        return new InetSocketAddress(address, port);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Publishes a new plan to every connected client
+     */
+    public synchronized void publish(AllocationPlan plan) {
+        sequence++;
+        latestPlan = plan;
+        for (Client client : clients) {
+            client.offer(plan, sequence);
+        }
+    }
+
+    @Override
+    public void accept(AllocationPlan plan) {
+        publish(plan);
+    }
+
+    /**
+     * Accepts districts posted by clients. The handler receives one CSV line
+     * and throws IllegalArgumentException if the district is invalid, or
+     * IllegalStateException if it cannot take districts right now.
+     *
+     * @param handler Receiver of posted districts, or null to refuse them
+     */
+    public void setDistrictHandler(Consumer<String> handler) {
+        districtHandler = handler;
+    }
+
+    /**
+     * Accepts budgets posted by clients. The handler receives a positive
+     * total budget and throws IllegalStateException if it cannot apply it
+     * right now.
+     *
+     * @param handler Receiver of posted budgets, or null to refuse them
+     */
+    public void setBudgetHandler(IntConsumer handler) {
+        budgetHandler = handler;
+    }
+
+    /**
+     * Passes one posted district to the district handler
+     */
+    private void handleDistrict(HttpExchange exchange) throws IOException {
+        try {
+            Consumer<String> handler = districtHandler;
+            String line = readPostedLine(exchange, handler != null, "districts");
+            if (line == null) {
+                return;
+            }
+            try {
+                handler.accept(line);
+            } catch (IllegalArgumentException e) {
+                sendText(exchange, 400, "Invalid district: " + e.getMessage());
+                return;
+            } catch (IllegalStateException e) {
+                sendText(exchange, 503, e.getMessage());
+                return;
+            }
+            exchange.sendResponseHeaders(202, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Passes one posted budget to the budget handler
+     */
+    private void handleBudget(HttpExchange exchange) throws IOException {
+        try {
+            IntConsumer handler = budgetHandler;
+            String line = readPostedLine(exchange, handler != null, "budgets");
+            if (line == null) {
+                return;
+            }
+            int budget;
+            try {
+                budget = Integer.parseInt(line);
+            } catch (NumberFormatException e) {
+                sendText(exchange, 400, "Invalid budget: " + line);
+                return;
+            }
+            if (budget <= 0) {
+                sendText(exchange, 400, "Budget must be positive");
+                return;
+            }
+            try {
+                handler.accept(budget);
+            } catch (IllegalStateException e) {
+                sendText(exchange, 503, e.getMessage());
+                return;
+            }
+            exchange.sendResponseHeaders(202, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers a preflight and checks that a POST carries one text/csv line
+     *
+     * @param accepted Whether a handler is set for this path
+     * @param what What is posted here, for the refusal message
+     * @return The posted line, or null if a response has already been sent
+     */
+    private String readPostedLine(HttpExchange exchange, boolean accepted, String what) throws IOException {
+        if (allowedOrigin != null) {
+            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", allowedOrigin);
+        }
+        if (!accepted) {
+            sendText(exchange, 404, "This engine does not accept " + what);
+            return null;
+        }
+        if ("OPTIONS".equals(exchange.getRequestMethod()) && allowedOrigin != null) {
+            exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "POST");
+            exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+            exchange.sendResponseHeaders(204, -1);
+            return null;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendText(exchange, 405, "Only POST is accepted");
+            return null;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")) {
+            sendText(exchange, 415, "Body must be sent as text/csv");
+            return null;
+        }
+        byte[] body = exchange.getRequestBody().readNBytes(MAX_POST_BYTES + 1);
+        if (body.length > MAX_POST_BYTES) {
+            sendText(exchange, 413, "Line too long");
+            return null;
+        }
+        String line = new String(body, StandardCharsets.UTF_8).trim();
+        if (line.isEmpty() || line.indexOf('\n') >= 0) {
+            sendText(exchange, 400, "Expected one line");
+            return null;
+        }
+        return line;
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Serves one SSE connection until the client disconnects
+     */
+    private void handleStream(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+
+        Client client = new Client();
+        boolean accepted;
+        synchronized (this) {
+            accepted = clients.size() < maxClients;
+            if (accepted) {
+                if (latestPlan != null) {
+                    client.offer(latestPlan, sequence);
+                }
+                clients.add(client);
+            }
+        }
+        if (!accepted) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        if (allowedOrigin != null) {
+            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", allowedOrigin);
+        }
+
+        try (OutputStream body = sendStreamHeaders(exchange);
+             Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8)) {
+            AllocationPlan lastSent = EMPTY_PLAN;
+            while (!client.closed) {
+                Client.Pending pending = client.take(HEARTBEAT_INTERVAL_MS);
+                if (pending == null) {
+                    // Keeps proxies from timing out and detects dead connections
+                    writer.write(": heartbeat\n\n");
+                } else {
+                    String eventType = lastSent == EMPTY_PLAN ? "snapshot" : "delta";
+                    AllocationDiff diff = AllocationDiff.compare(lastSent, pending.plan);
+                    writeEvent(writer, eventType, pending.sequence, pending.plan, diff);
+                    lastSent = pending.plan;
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            // Client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.remove(client);
+            exchange.close();
+        }
+    }
+
+    private static OutputStream sendStreamHeaders(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, 0);
+        return exchange.getResponseBody();
+    }
+
+    /**
+     * Writes one event with the plan summary and changed districts as JSON
+     */
+    private static void writeEvent(Writer writer, String eventType, long sequence,
+            AllocationPlan plan, AllocationDiff diff) throws IOException {
+        StringBuilder sb = new StringBuilder(256 + diff.getDeltas().size() * 128);
+        sb.append("event: ").append(eventType).append('\n');
+        sb.append("id: ").append(sequence).append('\n');
+        sb.append("data: {\"sequence\":").append(sequence);
+        sb.append(",\"policy\":\"").append(Json.escape(plan.getPolicyName())).append('"');
+        sb.append(",\"totalResources\":").append(plan.getTotalResources());
+        sb.append(",\"remainingResources\":").append(plan.getRemainingResources());
+        sb.append(",\"districtCount\":").append(plan.getSortedDistricts().size());
+        sb.append(",\"changes\":[");
+        boolean first = true;
+        for (AllocationDiff.AllocationDelta delta : diff.getDeltas()) {
+            District d = delta.getDistrict();
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"id\":").append(d.getId());
+            sb.append(",\"name\":\"").append(Json.escape(d.getName())).append('"');
+            sb.append(",\"change\":\"").append(delta.getChangeType().name()).append('"');
+            sb.append(",\"riskScore\":").append(d.getRiskScore());
+            sb.append(",\"resourceDemand\":").append(d.getResourceDemand());
+            sb.append(",\"allocated\":").append(delta.getCurrentAllocated());
+            sb.append(",\"status\":\"").append(delta.getCurrentStatus()).append("\"}");
+        }
+        sb.append("]}\n\n");
+        writer.write(sb.toString());
+    }
+
+    /**
+     * Per-connection mailbox holding only the newest unsent plan
+     */
+    private static class Client {
+        private Pending pending;
+        private volatile boolean closed = false;
+
+        static class Pending {
+            final AllocationPlan plan;
+            final long sequence;
+
+            Pending(AllocationPlan plan, long sequence) {
+                this.plan = plan;
+                this.sequence = sequence;
+            }
+        }
+
+        /**
+         * Replaces any unsent plan with the newer one
+         */
+        synchronized void offer(AllocationPlan plan, long sequence) {
+            pending = new Pending(plan, sequence);
+            notifyAll();
+        }
+
+        /**
+         * Waits for a plan, returning null if none arrives within the timeout
+         */
+        synchronized Pending take(long timeoutMs) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (pending == null && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            Pending result = pending;
+            pending = null;
+            return result;
+        }
+
+        synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * End-to-end load test over synthetic districts from {@link DistrictGenerator}.
+ *
+ * For each dataset size it writes a district file in one of the ingest
+ * formats, then repeatedly runs the same path a real upload takes:
+ * <ul>
+ *   <li>ingest: {@link DistrictImporter#readDistricts}, which parses,
+ *       validates and scores every district</li>
+ *   <li>allocation: {@link AllocationEngine#allocate} with the chosen policy
+ *       and a budget covering a fraction of total demand</li>
+ *   <li>result build: encoding the plan as allocation records, as the event
+ *       server and batch tools do</li>
+ * </ul>
+ * Each stage reports throughput in districts per second and the latency of
+ * a whole run at p50, p99 and max. Scoring is reported per district from
+ * {@link AllocationMetrics}, which is switched on for the test. Warm-up runs
+ * are excluded so the hot paths are compiled before measuring.
+ *
+ * Usage:
+ * <pre>
+ * java AllocationLoadTest [--sizes 1000,10000,100000,1000000] [--seed n]
+ *     [--format csv|json|drm] [--policy name] [--budget-fraction f]
+ *     [--iterations n] [--warmup n] [--out report.csv]
+ * </pre>
+ */
+public class AllocationLoadTest {
+    private static final String REPORT_HEADER =
+            "size,format,policy,stage,runs,districts,throughputPerSec,p50Nanos,p99Nanos,maxNanos";
+
+    private final DistrictGenerator generator;
+    private final String format;
+    private final AllocationPolicy policy;
+    private final double budgetFraction;
+    private final int iterations;
+    private final int warmup;
+
+    /**
+     * Throughput and latency of one stage across the measured runs
+     */
+    public static class StageResult {
+        private final String stage;
+        private final long runs;
+        private final long districts;
+        private final double throughput;
+        private final long p50;
+        private final long p99;
+        private final long max;
+
+        StageResult(String stage, LatencyHistogram latency, long districts) {
+            this.stage = stage;
+            this.runs = latency.getCount();
+            this.districts = districts;
+            double totalNanos = latency.getMean() * latency.getCount();
+            this.throughput = totalNanos == 0 ? 0.0 : districts * 1e9 / totalNanos;
+            this.p50 = latency.getValueAtPercentile(50.0);
+            this.p99 = latency.getValueAtPercentile(99.0);
+            this.max = latency.getMax();
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        /**
+         * Number of timed runs, or of districts for per-district stages
+         */
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getDistricts() {
+            return districts;
+        }
+
+        /**
+         * Districts processed per second across all measured runs
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public long getP50Nanos() {
+            return p50;
+        }
+
+        public long getP99Nanos() {
+            return p99;
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+    }
+
+    /**
+     * Constructor for AllocationLoadTest
+     *
+     * @param generator Source of the synthetic districts
+     * @param format Ingest format written and read back ("csv", "json" or "drm")
+     * @param policy Allocation policy under test
+     * @param budgetFraction Budget as a fraction of total demand
+     * @param iterations Measured runs of each stage per size
+     * @param warmup Unmeasured runs before the measured ones
+     */
+    public AllocationLoadTest(DistrictGenerator generator, String format, AllocationPolicy policy,
+            double budgetFraction, int iterations, int warmup) {
+        this.generator = generator;
+        this.format = format;
+        this.policy = policy;
+        this.budgetFraction = budgetFraction;
+        this.iterations = iterations;
+        this.warmup = warmup;
+    }
+
+    /**
+     * Runs every stage for one dataset size
+     *
+     * @return Results for generation, ingest, scoring, allocation and result build, in that order
+     */
+    public List<StageResult> run(int size) throws IOException {
+        LatencyHistogram generate = new LatencyHistogram();
+        LatencyHistogram ingest = new LatencyHistogram();
+        LatencyHistogram allocation = new LatencyHistogram();
+        LatencyHistogram resultBuild = new LatencyHistogram();
+        List<StageResult> results = new ArrayList<>();
+
+        Path file = Files.createTempFile("districts-" + size + "-", "." + format);
+        boolean metricsWereEnabled = AllocationMetrics.enabled();
+        try {
+            long start = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                generator.write(0, size, format, out);
+            }
+            generate.record(System.nanoTime() - start);
+
+            AllocationMetrics.getInstance().setEnabled(true);
+            for (int i = 0; i < warmup + iterations; i++) {
+                if (i == warmup) {
+                    AllocationMetrics.getInstance().reset();
+                }
+
+                start = System.nanoTime();
+                List<District> districts = DistrictImporter.readDistricts(file);
+                long ingested = System.nanoTime();
+
+                long totalDemand = 0;
+                for (District district : districts) {
+                    totalDemand += district.getResourceDemand();
+                }
+                int budget = (int) Math.min(Integer.MAX_VALUE, Math.round(totalDemand * budgetFraction));
+                long allocationStart = System.nanoTime();
+                AllocationPlan plan = AllocationEngine.allocate(districts, budget, policy);
+                long allocated = System.nanoTime();
+
+                try (DistrictCodec.Encoder encoder = new DistrictCodec.Encoder(
+                        Channels.newChannel(OutputStream.nullOutputStream()), DistrictCodec.KIND_ALLOCATIONS)) {
+                    encoder.writePlan(plan);
+                }
+                long built = System.nanoTime();
+
+                if (i >= warmup) {
+                    ingest.record(ingested - start);
+                    allocation.record(allocated - allocationStart);
+                    resultBuild.record(built - allocated);
+                }
+            }
+
+            LatencyHistogram scoring = AllocationMetrics.getHistogram(AllocationMetrics.Stage.SCORING);
+            results.add(new StageResult("generate", generate, size));
+            results.add(new StageResult("ingest", ingest, (long) size * iterations));
+            results.add(new StageResult("scoring", scoring, scoring.getCount()));
+            results.add(new StageResult("allocation", allocation, (long) size * iterations));
+            results.add(new StageResult("result build", resultBuild, (long) size * iterations));
+        } finally {
+            AllocationMetrics.getInstance().setEnabled(metricsWereEnabled);
+            Files.deleteIfExists(file);
+        }
+        return results;
+    }
+
+    /**
+     * Main method - runs the load test and writes a CSV report
+     *
+     * @param args Command line arguments, see class documentation
+     */
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 10_000, 100_000, 1_000_000};
+        long seed = DistrictGenerator.DEFAULT_SEED;
+        String format = "csv";
+        AllocationPolicy policy = AllocationEngine.DEFAULT_POLICY;
+        double budgetFraction = 0.5;
+        int iterations = 5;
+        int warmup = 2;
+        Path outFile = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--sizes":
+                        String[] parts = args[++i].split(",");
+                        sizes = new int[parts.length];
+                        for (int k = 0; k < parts.length; k++) {
+                            sizes[k] = Integer.parseInt(parts[k].trim());
+                            if (sizes[k] <= 0) {
+                                throw new IllegalArgumentException("Sizes must be positive");
+                            }
+                        }
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--format":
+                        format = args[++i].toLowerCase();
+                        if (!format.equals("csv") && !format.equals("json") && !format.equals("drm")) {
+                            throw new IllegalArgumentException("Unknown format: " + format);
+                        }
+                        break;
+                    case "--policy":
+                        policy = AllocationEngine.findPolicy(args[++i]);
+                        break;
+                    case "--budget-fraction":
+                        budgetFraction = Double.parseDouble(args[++i]);
+                        break;
+                    case "--iterations":
+                        iterations = Integer.parseInt(args[++i]);
+                        break;
+                    case "--warmup":
+                        warmup = Integer.parseInt(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (iterations <= 0 || warmup < 0 || budgetFraction < 0) {
+                throw new IllegalArgumentException("--iterations must be positive and --warmup, --budget-fraction"
+                        + " must not be negative");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java AllocationLoadTest [--sizes <n,n,...>] [--seed <n>]"
+                    + " [--format csv|json|drm] [--policy <name>] [--budget-fraction <f>]"
+                    + " [--iterations <n>] [--warmup <n>] [--out <file>]");
+            System.exit(2);
+            return;
+        }
+
+        AllocationLoadTest test = new AllocationLoadTest(new DistrictGenerator(seed, 0), format, policy,
+                budgetFraction, iterations, warmup);
+        try (Writer out = outFile != null
+                    ? Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)
+                    : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            out.write(REPORT_HEADER + "\n");
+            for (int size : sizes) {
+                for (StageResult result : test.run(size)) {
+                    out.write(size + "," + format + "," + BatchAllocationCli.csv(policy.getName()) + ","
+                            + BatchAllocationCli.csv(result.getStage()) + "," + result.getRuns() + ","
+                            + result.getDistricts() + "," + Math.round(result.getThroughput()) + ","
+                            + result.getP50Nanos() + "," + result.getP99Nanos() + "," + result.getMaxNanos() + "\n");
+                    System.err.printf("%,12d  %-12s %,14.0f districts/s  p50 %-9s p99 %-9s max %s%n",
+                            size, result.getStage(), result.getThroughput(),
+                            AllocationMetrics.formatNanos(result.getP50Nanos()),
+                            AllocationMetrics.formatNanos(result.getP99Nanos()),
+                            AllocationMetrics.formatNanos(result.getMaxNanos()));
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Low-overhead timing and counters for the scoring and allocation hot paths.
+ *
+ * Collection is off unless the {@code allocation.metrics} system property is
+ * set or it is switched on through JMX or the GUI. While disabled,
+ * {@link #start()} returns {@link #NOT_TIMED} and every record call returns
+ * immediately, so instrumented code pays only a volatile read.
+ */
+public class AllocationMetrics implements AllocationMetricsMBean {
+    /**
+     * Instrumented stages of an allocation run
+     */
+    public enum Stage {
+        SCORING("Scoring", true),
+        SORTING("Sorting", false),
+        ALLOCATION("Allocation", false),
+        RESULT_BUILD("Result build", false);
+
+        private final String label;
+        private final boolean perItem;
+
+        Stage(String label, boolean perItem) {
+            this.label = label;
+            this.perItem = perItem;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public static final String OBJECT_NAME = "DisasterResponse:type=AllocationMetrics";
+
+    /**
+     * Returned by {@link #start()} while metrics are disabled. nanoTime has an
+     * arbitrary origin and may return 0 or negative values, so the marker is
+     * the one value it will not realistically reach.
+     */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final AllocationMetrics INSTANCE = new AllocationMetrics();
+
+    private static volatile boolean enabled = Boolean.getBoolean("allocation.metrics");
+
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Stage.values().length];
+    private static final LongAdder DISTRICTS_SCORED = new LongAdder();
+    private static final LongAdder DISTRICTS_ALLOCATED = new LongAdder();
+    private static final LongAdder PARTIAL_ALLOCATIONS = new LongAdder();
+    private static final LongAdder ALLOCATION_RUNS = new LongAdder();
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    private AllocationMetrics() {
+    }
+
+    public static AllocationMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts timing a stage
+     *
+     * @return The current time in nanoseconds, or {@link #NOT_TIMED} if metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the time elapsed since {@link #start()} for a stage
+     *
+     * @param stage The stage that completed
+     * @param start Value returned by {@link #start()}
+     * @param items Number of districts processed by the stage
+     */
+    public static void record(Stage stage, long start, int items) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        HISTOGRAMS[stage.ordinal()].record(elapsed);
+
+        switch (stage) {
+            case SCORING:
+                DISTRICTS_SCORED.add(items);
+                break;
+            case ALLOCATION:
+                DISTRICTS_ALLOCATED.add(items);
+                ALLOCATION_RUNS.increment();
+                break;
+            default:
+                break;
+        }
+
+        // Per-district stages are too fine-grained for Flight Recorder
+        if (!stage.perItem) {
+            AllocationStageEvent event = new AllocationStageEvent();
+            if (event.shouldCommit()) {
+                event.stage = stage.getLabel();
+                event.items = items;
+                event.elapsed = elapsed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Counts a district that received only part of its demand
+     */
+    public static void recordPartialAllocation() {
+        if (enabled) {
+            PARTIAL_ALLOCATIONS.increment();
+        }
+    }
+
+    public static LatencyHistogram getHistogram(Stage stage) {
+        return HISTOGRAMS[stage.ordinal()];
+    }
+
+    /**
+     * Registers the metrics MBean with the platform MBean server
+     */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    @Override
+    public long getDistrictsScored() {
+        return DISTRICTS_SCORED.sum();
+    }
+
+    @Override
+    public long getDistrictsAllocated() {
+        return DISTRICTS_ALLOCATED.sum();
+    }
+
+    @Override
+    public long getPartialAllocations() {
+        return PARTIAL_ALLOCATIONS.sum();
+    }
+
+    @Override
+    public long getAllocationRuns() {
+        return ALLOCATION_RUNS.sum();
+    }
+
+    @Override
+    public double getScoringMeanNanos() {
+        return getHistogram(Stage.SCORING).getMean();
+    }
+
+    @Override
+    public long getSortingP99Nanos() {
+        return getHistogram(Stage.SORTING).getValueAtPercentile(99.0);
+    }
+
+    @Override
+    public long getAllocationP99Nanos() {
+        return getHistogram(Stage.ALLOCATION).getValueAtPercentile(99.0);
+    }
+
+    @Override
+    public long getResultBuildP99Nanos() {
+        return getHistogram(Stage.RESULT_BUILD).getValueAtPercentile(99.0);
+    }
+
+    /**
+     * Builds a one-line summary of counters and stage latencies
+     */
+    @Override
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Scored: ").append(getDistrictsScored());
+        sb.append(" • Allocated: ").append(getDistrictsAllocated());
+        sb.append(" • Partial: ").append(getPartialAllocations());
+        sb.append(" • Runs: ").append(getAllocationRuns());
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = getHistogram(stage);
+            if (histogram.getCount() > 0) {
+                sb.append(String.format(" • %s p50/p99: %s/%s", stage.getLabel(),
+                        formatNanos(histogram.getValueAtPercentile(50.0)),
+                        formatNanos(histogram.getValueAtPercentile(99.0))));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        DISTRICTS_SCORED.reset();
+        DISTRICTS_ALLOCATED.reset();
+        PARTIAL_ALLOCATIONS.reset();
+        ALLOCATION_RUNS.reset();
+    }
+
+    /**
+     * Formats a duration in nanoseconds using the most readable unit
+     */
+    public static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        } else if (nanos < 1_000_000) {
+            return String.format("%.1fµs", nanos / 1_000.0);
+        } else {
+            return String.format("%.1fms", nanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * JMX management interface for {@link AllocationMetrics}.
+ */
+public interface AllocationMetricsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getDistrictsScored();
+
+    long getDistrictsAllocated();
+
+    long getPartialAllocations();
+
+    long getAllocationRuns();
+
+    double getScoringMeanNanos();
+
+    long getSortingP99Nanos();
+
+    long getAllocationP99Nanos();
+
+    long getResultBuildP99Nanos();
+
+    String getSummary();
+
+    void reset();
+}
@@ -0,0 +1,56 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable outcome of one allocation run: the districts in priority order,
+ * the allocation made to each funded district and the unallocated remainder.
+ */
+public class AllocationPlan {
+    private final List<District> sortedDistricts;
+    private final List<AllocationResult> allocationResults;
+    private final int totalResources;
+    private final int remainingResources;
+    private final String policyName;
+
+    /**
+     * Constructor for AllocationPlan
+     *
+     * @param sortedDistricts Districts ordered by risk-to-resource ratio (descending)
+     * @param allocationResults Allocations made, in the same order
+     * @param totalResources Resources available to the run
+     * @param remainingResources Resources left over after allocation
+     * @param policyName Name of the allocation policy that produced the plan
+     */
+    public AllocationPlan(List<District> sortedDistricts, List<AllocationResult> allocationResults,
+            int totalResources, int remainingResources, String policyName) {
+        this.sortedDistricts = Collections.unmodifiableList(sortedDistricts);
+        this.allocationResults = Collections.unmodifiableList(allocationResults);
+        this.totalResources = totalResources;
+        this.remainingResources = remainingResources;
+        this.policyName = policyName;
+    }
+
+    public List<District> getSortedDistricts() {
+        return sortedDistricts;
+    }
+
+    public List<AllocationResult> getAllocationResults() {
+        return allocationResults;
+    }
+
+    public int getTotalResources() {
+        return totalResources;
+    }
+
+    public int getRemainingResources() {
+        return remainingResources;
+    }
+
+    public String getPolicyName() {
+        return policyName;
+    }
+
+    public int getAllocatedResources() {
+        return totalResources - remainingResources;
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Strategy for dividing a resource budget between districts.
+ *
+ * Implementations work on primitive arrays in priority order, i.e. sorted
+ * by risk-to-resource ratio (descending) with ties broken by ascending
+ * district ID, so they can be switched interactively on large district sets.
+ */
+public interface AllocationPolicy {
+    /**
+     * Returns the display name of the policy, also used as part of cache keys
+     */
+    String getName();
+
+    /**
+     * Divides the budget between districts
+     *
+     * @param riskScore Risk score of each district, in priority order
+     * @param demand Resource demand of each district, in priority order
+     * @param totalResources Resources available
+     * @param allocation Output array receiving the resources given to each district
+     * @return Resources left unallocated
+     */
+    int allocate(int[] riskScore, int[] demand, int totalResources, int[] allocation);
+}
@@ -0,0 +1,26 @@
+/**
+ * Stores the allocation made to a single district during an allocation run.
+ */
+public class AllocationResult {
+    District district;
+    int allocatedResources;
+    boolean isPartial;
+
+    public AllocationResult(District district, int allocatedResources, boolean isPartial) {
+        this.district = district;
+        this.allocatedResources = allocatedResources;
+        this.isPartial = isPartial;
+    }
+
+    public District getDistrict() {
+        return district;
+    }
+
+    public int getAllocatedResources() {
+        return allocatedResources;
+    }
+
+    public boolean isPartial() {
+        return isPartial;
+    }
+}
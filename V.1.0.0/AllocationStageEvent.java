@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event emitted when a batch stage of an allocation run completes.
+ */
+@Name("drm.AllocationStage")
+@Label("Allocation Stage")
+@Category("Disaster Response")
+@Description("Completion of a scoring, sorting, allocation or result-build stage")
+public class AllocationStageEvent extends jdk.jfr.Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Items")
+    long items;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
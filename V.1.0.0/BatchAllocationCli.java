@@ -0,0 +1,307 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless batch mode: runs every scenario in a scenario file against one
+ * district file and writes a CSV summary line per scenario.
+ *
+ * The district file is parsed and scored once into a {@link DistrictTable}.
+ * Scenarios that share the same risk weights also share one priority order,
+ * so a scenario usually costs only a single allocation pass. Scenarios run
+ * on a fixed-size pool with a bounded window of outstanding results, and
+ * their output is written in input order.
+ *
+ * Usage:
+ * <pre>
+ * java BatchAllocationCli --districts districts.csv --scenarios scenarios.csv
+ *     [--out summary.csv] [--details allocations.csv] [--threads n]
+ * </pre>
+ */
+public class BatchAllocationCli {
+    private static final String SUMMARY_HEADER =
+            "scenario,policy,totalResources,allocated,remaining,funded,full,partial,coveredPopulation,riskCoverage";
+    private static final String DETAILS_HEADER =
+            "scenario,district,riskScore,resourceDemand,allocated,status";
+
+    private final DistrictTable table;
+    private final boolean includeDetails;
+    private final Map<Long, PriorityOrder> orders = new ConcurrentHashMap<>();
+
+    /**
+     * Districts in priority order for one set of risk weights
+     */
+    private static class PriorityOrder {
+        final int[] riskScore;
+        final int[] order;
+        final int[] riskInOrder;
+        final int[] demandInOrder;
+        final long totalRisk;
+
+        PriorityOrder(DistrictTable table, Scenario scenario) {
+            riskScore = table.computeRiskScores(scenario.getWeightPopulation(),
+                    scenario.getWeightLandType(), scenario.getWeightUrbanization());
+            int n = table.size();
+            int[] demand = new int[n];
+            long risk = 0;
+            for (int i = 0; i < n; i++) {
+                demand[i] = table.getResourceDemand(i);
+                risk += riskScore[i];
+            }
+            order = PriorityRanking.rank(riskScore, demand);
+            riskInOrder = new int[n];
+            demandInOrder = new int[n];
+            for (int k = 0; k < n; k++) {
+                riskInOrder[k] = riskScore[order[k]];
+                demandInOrder[k] = table.getResourceDemand(order[k]);
+            }
+            totalRisk = risk;
+        }
+    }
+
+    /**
+     * Formatted output of one scenario
+     */
+    private static class ScenarioOutput {
+        final String summary;
+        final String details;
+
+        ScenarioOutput(String summary, String details) {
+            this.summary = summary;
+            this.details = details;
+        }
+    }
+
+    public BatchAllocationCli(DistrictTable table, boolean includeDetails) {
+        this.table = table;
+        this.includeDetails = includeDetails;
+    }
+
+    /**
+     * Runs one scenario against the shared table
+     */
+    private ScenarioOutput runScenario(Scenario scenario) {
+        PriorityOrder priority = orders.computeIfAbsent(scenario.getWeightSignature(),
+                key -> new PriorityOrder(table, scenario));
+
+        int n = table.size();
+        int[] allocation = new int[n];
+        long allocationStart = AllocationMetrics.start();
+        int remaining = scenario.getPolicy().allocate(priority.riskInOrder, priority.demandInOrder,
+                scenario.getTotalResources(), allocation);
+
+        int funded = 0;
+        int full = 0;
+        int partial = 0;
+        long coveredPopulation = 0;
+        double coveredRisk = 0;
+        StringBuilder details = includeDetails ? new StringBuilder() : null;
+        for (int k = 0; k < n; k++) {
+            int allocated = allocation[k];
+            if (allocated == 0) {
+                continue;
+            }
+            int index = priority.order[k];
+            int demand = priority.demandInOrder[k];
+            funded++;
+            boolean isPartial = allocated < demand;
+            if (isPartial) {
+                partial++;
+            } else {
+                full++;
+                coveredPopulation += table.getPopulation(index);
+            }
+            coveredRisk += (double) priority.riskInOrder[k] * allocated / demand;
+            if (details != null) {
+                details.append(csv(scenario.getName())).append(',')
+                        .append(csv(table.getName(index))).append(',')
+                        .append(priority.riskInOrder[k]).append(',')
+                        .append(demand).append(',')
+                        .append(allocated).append(',')
+                        .append(isPartial ? "Partial" : "Full").append('\n');
+            }
+        }
+        AllocationMetrics.record(AllocationMetrics.Stage.ALLOCATION, allocationStart, funded);
+
+        String summary = String.format("%s,%s,%d,%d,%d,%d,%d,%d,%d,%.4f%n",
+                csv(scenario.getName()), csv(scenario.getPolicy().getName()), scenario.getTotalResources(),
+                scenario.getTotalResources() - remaining, remaining, funded, full, partial, coveredPopulation,
+                priority.totalRisk > 0 ? coveredRisk / priority.totalRisk : 0.0);
+        return new ScenarioOutput(summary, details != null ? details.toString() : null);
+    }
+
+    /**
+     * Runs all scenarios on a bounded pool, writing results in scenario order
+     */
+    public void runAll(List<Scenario> scenarios, int threads, Writer summaryOut, Writer detailsOut)
+            throws IOException, InterruptedException {
+        summaryOut.write(SUMMARY_HEADER);
+        summaryOut.write('\n');
+        if (detailsOut != null) {
+            detailsOut.write(DETAILS_HEADER);
+            detailsOut.write('\n');
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int window = threads * 4;
+        ArrayDeque<Future<ScenarioOutput>> pending = new ArrayDeque<>();
+        try {
+            for (Scenario scenario : scenarios) {
+                pending.add(pool.submit(() -> runScenario(scenario)));
+                if (pending.size() >= window) {
+                    write(pending.poll(), summaryOut, detailsOut);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), summaryOut, detailsOut);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void write(Future<ScenarioOutput> future, Writer summaryOut, Writer detailsOut)
+            throws IOException, InterruptedException {
+        ScenarioOutput output;
+        try {
+            output = future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Scenario failed", e.getCause());
+        }
+        summaryOut.write(output.summary);
+        if (detailsOut != null && output.details != null) {
+            detailsOut.write(output.details);
+        }
+    }
+
+    /**
+     * Quotes a CSV field if needed
+     */
+    static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Splits one CSV line into fields, undoing the quoting applied by {@link #csv}
+     *
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    static String[] splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Main method - entry point for batch runs
+     *
+     * @param args Command line arguments, see class documentation
+     */
+    public static void main(String[] args) {
+        Path districtsFile = null;
+        Path scenariosFile = null;
+        Path outFile = null;
+        Path detailsFile = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--districts":
+                        districtsFile = Paths.get(args[++i]);
+                        break;
+                    case "--scenarios":
+                        scenariosFile = Paths.get(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    case "--details":
+                        detailsFile = Paths.get(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (districtsFile == null || scenariosFile == null || threads <= 0) {
+                throw new IllegalArgumentException("--districts and --scenarios are required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java BatchAllocationCli --districts <file> --scenarios <file>"
+                    + " [--out <file>] [--details <file>] [--threads <n>]");
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            DistrictTable table = DistrictTable.read(districtsFile);
+            List<Scenario> scenarios = Scenario.readCsv(scenariosFile);
+            long loaded = System.nanoTime();
+
+            try (Writer summaryOut = outFile != null
+                        ? Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)
+                        : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+                 Writer detailsOut = detailsFile != null
+                        ? Files.newBufferedWriter(detailsFile, StandardCharsets.UTF_8) : null) {
+                new BatchAllocationCli(table, detailsOut != null).runAll(scenarios, threads, summaryOut, detailsOut);
+            }
+
+            System.err.printf("Ran %d scenarios over %d districts on %d threads: load %.1f ms, run %.1f ms%n",
+                    scenarios.size(), table.size(), threads,
+                    (loaded - start) / 1e6, (System.nanoTime() - loaded) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * A supply depot that ships resources to districts along routes.
+ */
+public class Depot {
+    private final String name;
+    private final int capacity;
+
+    /**
+     * Constructor for Depot
+     *
+     * @param name Depot name
+     * @param capacity Resources the depot can ship in total
+     */
+    public Depot(String name, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (capacity: " + capacity + ")";
+    }
+}
@@ -1,13 +1,18 @@
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.*;
 import javax.swing.plaf.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.AffineTransform;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Main GUI class for the Disaster Response Resource Allocation application.
@@ -15,15 +20,58 @@ import java.util.List;
  */
 public class DisasterResponseGUI extends JFrame {
     // Model
-    private List<District> districts = new ArrayList<>();
-    private int totalResources = 0;
+    private final DistrictListModel districtListModel = new DistrictListModel();
+    // Earlier versions of the district list, for undo and redo
+    private final EditHistory<PersistentVector<District>> districtHistory =
+            new EditHistory<>(EditHistory.DEFAULT_LIMIT);
+    
+    // Cached allocation plans and the plan currently shown in the results panel
+    private final AllocationCache allocationCache = new AllocationCache(32, 64L * 1024 * 1024);
+    private AllocationPlan displayedPlan;
+    private PersistentVector<District> displayedDistricts;
+    
+    // Query index over the district list, rebuilt in the background when a filter is applied after a change
+    private DistrictIndex districtIndex;
+    // District list versions the index was built from and is being built from
+    private PersistentVector<District> districtIndexSource;
+    private PersistentVector<District> districtIndexPending;
+    
+    // Statistics over the district list; its quantiles set the risk tier colors
+    private RiskSummary riskSummary = RiskSummary.of(Collections.emptyList());
+    
+    // Plan pinned by the user for what-if comparison
+    private AllocationPlan baselinePlan;
+    
+    // Notified whenever a new plan is displayed
+    private final List<Consumer<AllocationPlan>> planListeners = new ArrayList<>();
     
     // Components for the main panel
     private JTextField totalResourcesField;
     private JButton calculateButton;
+    private JComboBox<AllocationPolicy> policyCombo;
     private JButton addDistrictButton;
-    private JPanel districtListPanel;
+    private JButton importButton;
+    private JButton undoButton;
+    private JButton redoButton;
+    private JButton logisticsButton;
+    private JList<District> districtList;
+    private JLabel districtCountLabel;
+    
+    // Components for filtering the district list
+    private JTextField districtSearchField;
+    private JComboBox<String> landFilterCombo;
+    private JComboBox<String> urbanizationFilterCombo;
+    private JSpinner minRiskSpinner;
+    private JComboBox<DistrictQuery.SortKey> sortCombo;
+    private JCheckBox descendingCheckBox;
+    private RiskSummaryPanel riskSummaryPanel;
     private JPanel resultsPanel;
+    private JTabbedPane resultsTabbedPane;
+    // Created when its tab is first opened, then kept across plans so its tile cache survives each rebuild
+    private RiskMapPanel riskMapPanel;
+    // Created when its tab is first opened, then kept across plans so the frontier is only
+    // recomputed when districts or budget change
+    private ParetoFrontierPanel paretoPanel;
     
     // Components for district form
     private JTextField districtNameField;
@@ -38,9 +86,15 @@ public class DisasterResponseGUI extends JFrame {
     // Constants for layout
     private static final int PADDING = 15;
     private static final int FIELD_WIDTH = 180;
+    
+    // Width at the right edge of a district row that acts as its remove button
+    private static final int REMOVE_HIT_WIDTH = 45;
     private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
     private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
     
+    // Results tab that plans picked on the frontier return to
+    private static final String PARETO_TAB_TITLE = "Risk vs. Population";
+    
     // Modern UI Colors
     private static final Color PRIMARY_COLOR = new Color(25, 118, 210); // Material blue
     private static final Color SECONDARY_COLOR = new Color(66, 165, 245); // Lighter blue
@@ -115,10 +169,47 @@ public class DisasterResponseGUI extends JFrame {
         splitPane.setBorder(null);
         contentPanel.add(splitPane, BorderLayout.CENTER);
         
+        // Metrics status bar at the bottom
+        contentPanel.add(new MetricsStatusPanel(BACKGROUND_COLOR, TEXT_COLOR), BorderLayout.SOUTH);
+        
         // Add to frame
         add(contentPanel);
     }
     
+    /**
+     * Registers a listener notified with every newly displayed allocation plan
+     */
+    public void addPlanListener(Consumer<AllocationPlan> listener) {
+        planListeners.add(listener);
+    }
+    
+    /**
+     * Exercises district entry, every allocation policy and every results tab
+     * with sample data, so a class-data-sharing archive recorded during this
+     * run contains the classes those paths load
+     */
+    void runTrainingWorkload() {
+        List<District> training = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            training.add(new District("Training " + i, 5000 + i * 7000,
+                    LAND_TYPES[i % LAND_TYPES.length], URBANIZATION_TYPES[i % URBANIZATION_TYPES.length], 10 + i));
+        }
+        addDistricts(training);
+        
+        totalResourcesField.setText("150");
+        for (int i = 0; i < policyCombo.getItemCount(); i++) {
+            policyCombo.setSelectedIndex(i);
+            calculateAllocation();
+            if (baselinePlan == null) {
+                baselinePlan = displayedPlan;
+            }
+            JTabbedPane tabbedPane = (JTabbedPane) resultsPanel.getComponent(0);
+            for (int tab = 0; tab < tabbedPane.getTabCount(); tab++) {
+                tabbedPane.setSelectedIndex(tab);
+            }
+        }
+    }
+    
     /**
      * Initialize the form with default values
      */
@@ -159,11 +250,33 @@ public class DisasterResponseGUI extends JFrame {
         calculateButton.setFocusPainted(false);
         calculateButton.addActionListener(e -> calculateAllocation());
         
+        logisticsButton = new JButton("Logistics...");
+        logisticsButton.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        logisticsButton.setFocusPainted(false);
+        logisticsButton.setToolTipText("Allocate from depots along routes loaded from CSV files");
+        logisticsButton.addActionListener(e -> runLogisticsAllocation());
+        
+        JLabel policyLabel = new JLabel("Policy:");
+        policyLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        
+        // Switching policy recalculates straight away once results are shown
+        policyCombo = new JComboBox<>(AllocationEngine.getBuiltInPolicies());
+        policyCombo.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        policyCombo.setBackground(Color.WHITE);
+        policyCombo.addActionListener(e -> {
+            if (displayedPlan != null) {
+                calculateAllocation();
+            }
+        });
+        
         JPanel resourcesContentPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         resourcesContentPanel.setBackground(CARD_COLOR);
         resourcesContentPanel.add(totalResourcesLabel);
         resourcesContentPanel.add(totalResourcesField);
+        resourcesContentPanel.add(policyLabel);
+        resourcesContentPanel.add(policyCombo);
         resourcesContentPanel.add(calculateButton);
+        resourcesContentPanel.add(logisticsButton);
         
         resourcesPanel.setLayout(new BorderLayout());
         resourcesPanel.add(titleLabel, BorderLayout.NORTH);
@@ -268,28 +381,102 @@ public class DisasterResponseGUI extends JFrame {
         
         districtFormPanel.add(formContentPanel, BorderLayout.NORTH);
         
-        // District list panel (scrollable)
-        districtListPanel = new JPanel();
-        districtListPanel.setBackground(BACKGROUND_COLOR);
-        districtListPanel.setLayout(new BoxLayout(districtListPanel, BoxLayout.Y_AXIS));
+        // District list (scrollable). Only visible rows are rendered, and the
+        // prototype fixes the row size so large lists are never measured row by row.
+        districtList = new JList<>(districtListModel);
+        districtList.setBackground(BACKGROUND_COLOR);
+        districtList.setCellRenderer(new DistrictCellRenderer());
+        districtList.setPrototypeCellValue(
+                new District("Prototype District Name", 1000000, "Coastal", "Suburban", 1000));
+        districtList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = districtList.locationToIndex(e.getPoint());
+                Rectangle bounds = index >= 0 ? districtList.getCellBounds(index, index) : null;
+                if (bounds != null && bounds.contains(e.getPoint())
+                        && e.getX() >= bounds.x + bounds.width - REMOVE_HIT_WIDTH) {
+                    removeDistrict(index);
+                }
+            }
+        });
         
-        JScrollPane districtScrollPane = new JScrollPane(districtListPanel);
+        JScrollPane districtScrollPane = new JScrollPane(districtList);
         districtScrollPane.setBackground(CARD_COLOR);
         districtScrollPane.setBorder(BorderFactory.createCompoundBorder(
             BorderFactory.createLineBorder(SECONDARY_COLOR, 1, true),
             BorderFactory.createEmptyBorder(10, 10, 10, 10)
         ));
         
-        JLabel listTitleLabel = new JLabel("Added Districts");
-        listTitleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
-        listTitleLabel.setForeground(PRIMARY_COLOR);
+        districtCountLabel = new JLabel("Added Districts");
+        districtCountLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        districtCountLabel.setForeground(PRIMARY_COLOR);
+        
+        importButton = new JButton("Import...");
+        importButton.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        importButton.setFocusPainted(false);
+        importButton.setToolTipText("Import districts from a CSV, JSON or DRM file");
+        importButton.addActionListener(e -> importDistricts());
+        
+        undoButton = new JButton("Undo");
+        undoButton.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        undoButton.setFocusPainted(false);
+        undoButton.setToolTipText("Undo the last change to the district list (Ctrl+Z)");
+        undoButton.setEnabled(false);
+        undoButton.addActionListener(e -> undoDistrictEdit());
+        
+        redoButton = new JButton("Redo");
+        redoButton.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        redoButton.setFocusPainted(false);
+        redoButton.setToolTipText("Redo the last undone change (Ctrl+Y)");
+        redoButton.setEnabled(false);
+        redoButton.addActionListener(e -> redoDistrictEdit());
+        
+        JPanel listButtonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        listButtonPanel.setBackground(CARD_COLOR);
+        listButtonPanel.add(undoButton);
+        listButtonPanel.add(redoButton);
+        listButtonPanel.add(importButton);
+        
+        JPanel listTitlePanel = new JPanel(new BorderLayout());
+        listTitlePanel.setBackground(CARD_COLOR);
+        listTitlePanel.add(districtCountLabel, BorderLayout.WEST);
+        listTitlePanel.add(listButtonPanel, BorderLayout.EAST);
+        
+        JPanel listHeaderPanel = new JPanel(new BorderLayout(0, 5));
+        listHeaderPanel.setBackground(CARD_COLOR);
+        listHeaderPanel.add(listTitlePanel, BorderLayout.NORTH);
+        listHeaderPanel.add(createFilterPanel(), BorderLayout.CENTER);
         
         JPanel listPanel = new JPanel(new BorderLayout(0, 10));
         listPanel.setBackground(CARD_COLOR);
         listPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        listPanel.add(listTitleLabel, BorderLayout.NORTH);
+        listPanel.add(listHeaderPanel, BorderLayout.NORTH);
         listPanel.add(districtScrollPane, BorderLayout.CENTER);
         
+        // Undo and redo work wherever focus is in the window
+        int shortcutMask = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        InputMap inputMap = listPanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, shortcutMask), "undoDistrictEdit");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, shortcutMask), "redoDistrictEdit");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, shortcutMask | InputEvent.SHIFT_DOWN_MASK),
+                "redoDistrictEdit");
+        listPanel.getActionMap().put("undoDistrictEdit", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                undoDistrictEdit();
+            }
+        });
+        listPanel.getActionMap().put("redoDistrictEdit", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                redoDistrictEdit();
+            }
+        });
+        
+        riskSummaryPanel = new RiskSummaryPanel(CARD_COLOR, TEXT_COLOR);
+        riskSummaryPanel.setSummary(riskSummary);
+        listPanel.add(riskSummaryPanel, BorderLayout.SOUTH);
+        
         // Set preferred size for the scrollable list
         districtScrollPane.setPreferredSize(new Dimension(200, 200));
         
@@ -305,6 +492,179 @@ public class DisasterResponseGUI extends JFrame {
         return inputPanel;
     }
     
+    /**
+     * Creates the search, filter and sort controls for the district list
+     */
+    private JPanel createFilterPanel() {
+        Font font = new Font("Segoe UI", Font.PLAIN, 12);
+        
+        districtSearchField = new JTextField(10);
+        districtSearchField.setFont(font);
+        districtSearchField.setToolTipText("Show districts whose name contains this text");
+        districtSearchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                applyDistrictFilter();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                applyDistrictFilter();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                applyDistrictFilter();
+            }
+        });
+        
+        String[] landChoices = new String[LAND_TYPES.length + 1];
+        landChoices[0] = "Any land";
+        System.arraycopy(LAND_TYPES, 0, landChoices, 1, LAND_TYPES.length);
+        landFilterCombo = new JComboBox<>(landChoices);
+        
+        String[] urbanizationChoices = new String[URBANIZATION_TYPES.length + 1];
+        urbanizationChoices[0] = "Any zone";
+        System.arraycopy(URBANIZATION_TYPES, 0, urbanizationChoices, 1, URBANIZATION_TYPES.length);
+        urbanizationFilterCombo = new JComboBox<>(urbanizationChoices);
+        
+        minRiskSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 1000, 1));
+        minRiskSpinner.setToolTipText("Minimum risk score");
+        
+        sortCombo = new JComboBox<>(DistrictQuery.SortKey.values());
+        descendingCheckBox = new JCheckBox("High first", true);
+        descendingCheckBox.setBackground(CARD_COLOR);
+        
+        for (JComponent c : new JComponent[] {landFilterCombo, urbanizationFilterCombo, minRiskSpinner,
+                sortCombo, descendingCheckBox}) {
+            c.setFont(font);
+        }
+        landFilterCombo.addActionListener(e -> applyDistrictFilter());
+        urbanizationFilterCombo.addActionListener(e -> applyDistrictFilter());
+        minRiskSpinner.addChangeListener(e -> applyDistrictFilter());
+        sortCombo.addActionListener(e -> applyDistrictFilter());
+        descendingCheckBox.addActionListener(e -> applyDistrictFilter());
+        
+        JPanel searchRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        searchRow.setBackground(CARD_COLOR);
+        searchRow.add(new JLabel("Search:"));
+        searchRow.add(districtSearchField);
+        searchRow.add(landFilterCombo);
+        searchRow.add(urbanizationFilterCombo);
+        
+        JPanel sortRow = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        sortRow.setBackground(CARD_COLOR);
+        sortRow.add(new JLabel("Risk ≥"));
+        sortRow.add(minRiskSpinner);
+        sortRow.add(new JLabel("Sort:"));
+        sortRow.add(sortCombo);
+        sortRow.add(descendingCheckBox);
+        
+        JPanel filterPanel = new JPanel(new GridLayout(2, 1, 0, 5));
+        filterPanel.setBackground(CARD_COLOR);
+        filterPanel.add(searchRow);
+        filterPanel.add(sortRow);
+        return filterPanel;
+    }
+    
+    /**
+     * Builds a query from the filter controls
+     */
+    private DistrictQuery buildDistrictQuery() {
+        DistrictQuery query = new DistrictQuery();
+        query.setNameContains(districtSearchField.getText().trim());
+        if (landFilterCombo.getSelectedIndex() > 0) {
+            query.addLandType((String) landFilterCombo.getSelectedItem());
+        }
+        if (urbanizationFilterCombo.getSelectedIndex() > 0) {
+            query.addUrbanization((String) urbanizationFilterCombo.getSelectedItem());
+        }
+        int minRisk = (Integer) minRiskSpinner.getValue();
+        if (minRisk > 0) {
+            query.setRiskRange(minRisk, Integer.MAX_VALUE);
+        }
+        DistrictQuery.SortKey sortKey = (DistrictQuery.SortKey) sortCombo.getSelectedItem();
+        if (sortKey != DistrictQuery.SortKey.ADDED) {
+            query.setSort(sortKey, descendingCheckBox.isSelected());
+        }
+        return query;
+    }
+    
+    /**
+     * Shows only the districts matching the filter controls, in the selected
+     * order. Runs on the index, rebuilding it in the background if the list
+     * changed since; the list is scanned until the new index is ready.
+     */
+    private void applyDistrictFilter() {
+        showDistrictView(true);
+    }
+    
+    /**
+     * Refreshes the filtered view after the district list changed. Scans the
+     * list instead of rebuilding the index, which waits for the next filter change.
+     */
+    private void refreshDistrictFilter() {
+        showDistrictView(false);
+    }
+    
+    private void showDistrictView(boolean useIndex) {
+        PersistentVector<District> districts = districtListModel.getDistricts();
+        DistrictQuery query = buildDistrictQuery();
+        if (query.isUnfiltered()) {
+            districtListModel.setView(null);
+            districtCountLabel.setText("Added Districts (" + districts.size() + ")");
+            return;
+        }
+        
+        // Versions are immutable, so the index is current if it was built from this one
+        boolean indexCurrent = districtIndex != null && districtIndexSource == districts;
+        if (useIndex && !indexCurrent) {
+            rebuildDistrictIndex(districts);
+        }
+        int[] positions = indexCurrent ? districtIndex.query(query) : DistrictIndex.scan(districts, query);
+        districtListModel.setView(positions);
+        districtCountLabel.setText("Added Districts (" + positions.length + " of " + districts.size() + ")");
+    }
+    
+    /**
+     * Builds the query index off the event thread and installs it if the
+     * district list has not changed in the meantime
+     */
+    private void rebuildDistrictIndex(PersistentVector<District> snapshot) {
+        if (districtIndexPending == snapshot) {
+            return;
+        }
+        districtIndexPending = snapshot;
+        new SwingWorker<DistrictIndex, Void>() {
+            @Override
+            protected DistrictIndex doInBackground() {
+                return new DistrictIndex(snapshot);
+            }
+            
+            @Override
+            protected void done() {
+                if (districtIndexPending == snapshot) {
+                    districtIndexPending = null;
+                }
+                DistrictIndex index;
+                try {
+                    index = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Could not index districts", e.getCause());
+                }
+                // A newer list is still scanned until its own index is built
+                if (districtListModel.getDistricts() == snapshot) {
+                    districtIndex = index;
+                    districtIndexSource = snapshot;
+                    refreshDistrictFilter();
+                }
+            }
+        }.execute();
+    }
+    
     /**
      * Validates and adds a new district based on form input
      */
@@ -345,13 +705,9 @@ public class DisasterResponseGUI extends JFrame {
         
         // Create district and add to list
         District district = new District(name, population, landType, urbanization, resourceDemand);
-        districts.add(district);
-        
-        // Add district to display panel
-        JPanel districtPanel = createDistrictListItem(district, districts.size() - 1);
-        districtListPanel.add(districtPanel);
-        districtListPanel.revalidate();
-        districtListPanel.repaint();
+        districtHistory.record(districtListModel.getDistricts());
+        districtListModel.add(district);
+        onDistrictsChanged();
         
         // Clear form for next entry
         clearDistrictForm();
@@ -361,98 +717,270 @@ public class DisasterResponseGUI extends JFrame {
     }
     
     /**
-     * Creates a panel representing a district in the list
+     * Lets the user pick a district file and imports it in the background
      */
-    private JPanel createDistrictListItem(District district, int index) {
-        JPanel panel = new JPanel(new BorderLayout(10, 0));
-        panel.setBackground(Color.WHITE);
-        panel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createEmptyBorder(5, 5, 5, 5),
-                BorderFactory.createCompoundBorder(
-                    BorderFactory.createLineBorder(SECONDARY_COLOR, 1, true),
-                    BorderFactory.createEmptyBorder(8, 10, 8, 10)
-                )
-        ));
+    private void importDistricts() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("District files (CSV, JSON, DRM)", "csv", "json", "drm"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
         
-        // Create a more modern and colorful indicator for risk level
-        JPanel riskIndicator = new JPanel();
-        riskIndicator.setPreferredSize(new Dimension(8, 0));
-        
-        // Color based on risk level
-        int risk = district.getRiskScore();
-        if (risk > 80) {
-            riskIndicator.setBackground(new Color(220, 53, 69)); // Red for high risk
-        } else if (risk > 50) {
-            riskIndicator.setBackground(new Color(255, 193, 7)); // Yellow for medium risk
-        } else {
-            riskIndicator.setBackground(new Color(40, 167, 69)); // Green for low risk
-        }
-        
-        // Format the district details with better HTML styling
-        String details = String.format(
-                "<html>" +
-                "<div style='font-family: Segoe UI; margin-bottom: 3px;'>" +
-                "<span style='font-size: 14px; font-weight: bold;'>%s</span>" +
-                "</div>" +
-                "<div style='font-family: Segoe UI; font-size: 12px; color: #555;'>" +
-                "Population: <b>%d</b> • Type: <b>%s</b> • Zone: <b>%s</b>" +
-                "</div>" +
-                "<div style='font-family: Segoe UI; font-size: 12px; margin-top: 3px;'>" +
-                "Resource Demand: <b>%d</b> • Risk Score: <b><span style='color: %s;'>%d</span></b>" +
-                "</div>" +
-                "</html>", 
-                district.getName(), 
-                district.getPopulation(), 
-                district.getLandType(), 
-                district.getUrbanization(),
-                district.getResourceDemand(), 
-                risk > 80 ? "#dc3545" : risk > 50 ? "#ffc107" : "#28a745",
-                risk);
-        
-        JLabel label = new JLabel(details);
-        
-        // Create a styled remove button
-        JButton removeButton = new JButton("×");
-        removeButton.setFont(new Font("Segoe UI", Font.BOLD, 18));
-        removeButton.setForeground(new Color(220, 53, 69));
-        removeButton.setBackground(Color.WHITE);
-        removeButton.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
-        removeButton.setFocusPainted(false);
-        removeButton.setToolTipText("Remove this district");
-        removeButton.addActionListener(e -> removeDistrict(panel, index));
-        
-        // Add components to panel
-        panel.add(riskIndicator, BorderLayout.WEST);
-        panel.add(label, BorderLayout.CENTER);
-        panel.add(removeButton, BorderLayout.EAST);
+        importButton.setEnabled(false);
+        importButton.setText("Importing...");
         
-        return panel;
+        // Parse and score off the event thread, then apply everything at once
+        new SwingWorker<List<District>, Void>() {
+            @Override
+            protected List<District> doInBackground() throws Exception {
+                return DistrictImporter.readDistricts(file);
+            }
+            
+            @Override
+            protected void done() {
+                importButton.setEnabled(true);
+                importButton.setText("Import...");
+                try {
+                    addDistricts(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    showError("Could not import " + file.getFileName() + ": " + e.getCause().getMessage());
+                }
+            }
+        }.execute();
     }
     
     /**
-     * Removes a district from the list
+     * Loads depots and routes, solves the logistics allocation for the current
+     * districts in the background and shows the shipments
      */
-    private void removeDistrict(JPanel panel, int index) {
-        districts.remove(index);
-        districtListPanel.remove(panel);
-        districtListPanel.revalidate();
-        districtListPanel.repaint();
+    private void runLogisticsAllocation() {
+        // Immutable version: editing can continue while the solve runs
+        PersistentVector<District> snapshot = districtListModel.getDistricts();
+        if (snapshot.isEmpty()) {
+            showError("Please add at least one district");
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        chooser.setDialogTitle("Depots (name,capacity)");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path depotsFile = chooser.getSelectedFile().toPath();
+        chooser.setDialogTitle("Routes (depot,district,cost)");
+        chooser.setSelectedFile(null);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path routesFile = chooser.getSelectedFile().toPath();
         
-        // Rebuild the district list to update indexes
-        rebuildDistrictList();
+        logisticsButton.setEnabled(false);
+        logisticsButton.setText("Solving...");
+        new SwingWorker<LogisticsAllocation.Result, Void>() {
+            private LogisticsAllocation allocation;
+            
+            @Override
+            protected LogisticsAllocation.Result doInBackground() throws Exception {
+                allocation = new LogisticsAllocation(LogisticsAllocation.readDepots(depotsFile), snapshot,
+                        LogisticsAllocation.DEFAULT_RISK_WEIGHT);
+                allocation.readRoutes(routesFile);
+                return allocation.solve();
+            }
+            
+            @Override
+            protected void done() {
+                logisticsButton.setEnabled(true);
+                logisticsButton.setText("Logistics...");
+                try {
+                    showLogisticsResult(allocation, snapshot, get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    showError("Could not solve logistics allocation: " + e.getCause().getMessage());
+                }
+            }
+        }.execute();
     }
     
     /**
-     * Rebuilds the district list panel after removal of an item
+     * Shows the shipments of a logistics allocation in a dialog
      */
-    private void rebuildDistrictList() {
-        districtListPanel.removeAll();
-        for (int i = 0; i < districts.size(); i++) {
-            JPanel districtPanel = createDistrictListItem(districts.get(i), i);
-            districtListPanel.add(districtPanel);
+    private void showLogisticsResult(LogisticsAllocation allocation, List<District> solved,
+            LogisticsAllocation.Result result) {
+        long demand = 0;
+        int supplied = 0;
+        for (int d = 0; d < solved.size(); d++) {
+            demand += solved.get(d).getResourceDemand();
+            if (result.getAllocated(d) > 0) {
+                supplied++;
+            }
+        }
+        
+        List<Object[]> rows = new ArrayList<>();
+        for (int r = 0; r < allocation.getRouteCount(); r++) {
+            if (result.getShipped(r) > 0) {
+                rows.add(new Object[]{
+                    allocation.getRouteDepot(r).getName(),
+                    allocation.getRouteDistrict(r).getName(),
+                    result.getShipped(r),
+                    allocation.getRouteCost(r)
+                });
+            }
+        }
+        String[] columns = {"Depot", "District", "Shipped", "Unit Cost"};
+        JTable table = new JTable(new DefaultTableModel(rows.toArray(new Object[0][]), columns));
+        styleTable(table);
+        
+        JLabel summaryLabel = new JLabel(String.format(
+                "<html>Delivered <b>%,d</b> of %,d demanded to <b>%,d</b> of %,d districts • "
+                + "Shipping cost %,d • Risk covered %.1f</html>",
+                result.getDelivered(), demand, supplied, solved.size(), result.getShippingCost(),
+                result.getRiskCovered()));
+        summaryLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+        
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(CARD_COLOR);
+        panel.setBorder(BorderFactory.createEmptyBorder(PADDING, PADDING, PADDING, PADDING));
+        panel.add(summaryLabel, BorderLayout.NORTH);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        
+        JDialog dialog = new JDialog(this, "Logistics Allocation", false);
+        dialog.setContentPane(panel);
+        dialog.setSize(700, 500);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+    
+    /**
+     * Appends districts to the model in a single batched update; call on the event dispatch thread
+     */
+    public void addDistricts(List<District> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        districtHistory.record(districtListModel.getDistricts());
+        districtListModel.addAll(added);
+        onDistrictsChanged();
+    }
+    
+    /**
+     * Sets the total budget and recalculates the plan if there are districts;
+     * call on the event dispatch thread
+     */
+    public void setTotalResources(int totalResources) {
+        totalResourcesField.setText(Integer.toString(totalResources));
+        if (!districtListModel.getDistricts().isEmpty()) {
+            calculateAllocation();
         }
-        districtListPanel.revalidate();
-        districtListPanel.repaint();
+    }
+    
+    /**
+     * Renders one district row: risk indicator, details and a remove glyph.
+     * A single instance paints every visible row.
+     */
+    private class DistrictCellRenderer extends JPanel implements ListCellRenderer<District> {
+        private final JPanel riskIndicator = new JPanel();
+        private final JLabel label = new JLabel();
+        private final JLabel removeLabel = new JLabel("×");
+        
+        DistrictCellRenderer() {
+            super(new BorderLayout(10, 0));
+            setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createEmptyBorder(5, 5, 5, 5),
+                    BorderFactory.createCompoundBorder(
+                        BorderFactory.createLineBorder(SECONDARY_COLOR, 1, true),
+                        BorderFactory.createEmptyBorder(8, 10, 8, 10)
+                    )
+            ));
+            riskIndicator.setPreferredSize(new Dimension(8, 0));
+            removeLabel.setFont(new Font("Segoe UI", Font.BOLD, 18));
+            removeLabel.setForeground(new Color(220, 53, 69));
+            removeLabel.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
+            
+            add(riskIndicator, BorderLayout.WEST);
+            add(label, BorderLayout.CENTER);
+            add(removeLabel, BorderLayout.EAST);
+        }
+        
+        @Override
+        public Component getListCellRendererComponent(JList<? extends District> list, District district,
+                int index, boolean isSelected, boolean cellHasFocus) {
+            setBackground(isSelected ? new Color(227, 242, 253) : Color.WHITE);
+            
+            // Color based on the district's risk tier within the current set
+            int risk = district.getRiskScore();
+            Color tierColor = RiskSummaryPanel.getTierColor(riskSummary.getTier(risk));
+            riskIndicator.setBackground(tierColor);
+            
+            // Format the district details with better HTML styling
+            label.setText(String.format(
+                    "<html>" +
+                    "<div style='font-family: Segoe UI; margin-bottom: 3px;'>" +
+                    "<span style='font-size: 14px; font-weight: bold;'>%s</span>" +
+                    "</div>" +
+                    "<div style='font-family: Segoe UI; font-size: 12px; color: #555;'>" +
+                    "Population: <b>%d</b> • Type: <b>%s</b> • Zone: <b>%s</b>" +
+                    "</div>" +
+                    "<div style='font-family: Segoe UI; font-size: 12px; margin-top: 3px;'>" +
+                    "Resource Demand: <b>%d</b> • Risk Score: <b><span style='color: %s;'>%d</span></b>" +
+                    "</div>" +
+                    "</html>", 
+                    district.getName(), 
+                    district.getPopulation(), 
+                    district.getLandType(), 
+                    district.getUrbanization(),
+                    district.getResourceDemand(), 
+                    String.format("#%06x", tierColor.getRGB() & 0xFFFFFF),
+                    risk));
+            return this;
+        }
+    }
+    
+    /**
+     * Removes a district from the list
+     */
+    private void removeDistrict(int index) {
+        districtHistory.record(districtListModel.getDistricts());
+        districtListModel.remove(index);
+        onDistrictsChanged();
+    }
+    
+    /**
+     * Restores the district list as it was before the last change
+     */
+    private void undoDistrictEdit() {
+        if (!districtHistory.canUndo()) {
+            return;
+        }
+        districtListModel.setDistricts(districtHistory.undo(districtListModel.getDistricts()));
+        onDistrictsChanged();
+    }
+    
+    /**
+     * Reapplies the last undone change to the district list
+     */
+    private void redoDistrictEdit() {
+        if (!districtHistory.canRedo()) {
+            return;
+        }
+        districtListModel.setDistricts(districtHistory.redo(districtListModel.getDistricts()));
+        onDistrictsChanged();
+    }
+    
+    /**
+     * Refreshes the views of the district list after it changed
+     */
+    private void onDistrictsChanged() {
+        riskSummary = RiskSummary.of(districtListModel.getDistricts());
+        riskSummaryPanel.setSummary(riskSummary);
+        districtList.repaint();
+        refreshDistrictFilter();
+        undoButton.setEnabled(districtHistory.canUndo());
+        redoButton.setEnabled(districtHistory.canRedo());
     }
     
     /**
@@ -470,64 +998,78 @@ public class DisasterResponseGUI extends JFrame {
      * Performs the allocation calculation and updates the results panel
      */
     private void calculateAllocation() {
+        PersistentVector<District> districts = districtListModel.getDistricts();
         if (districts.isEmpty()) {
             showError("Please add at least one district");
             return;
         }
         
+        int totalResources;
         try {
             totalResources = Integer.parseInt(totalResourcesField.getText().trim());
-            if (totalResources <= 0) {
-                showError("Total resources must be a positive number");
-                return;
-            }
         } catch (NumberFormatException e) {
             showError("Total resources must be a valid number");
             return;
         }
+        if (totalResources <= 0) {
+            showError("Total resources must be a positive number");
+            return;
+        }
         
-        // Sort districts by risk-to-resource ratio (descending)
-        List<District> sortedDistricts = new ArrayList<>(districts);
-        Collections.sort(sortedDistricts, (d1, d2) -> {
-            double ratio1 = d1.getRiskResourceRatio();
-            double ratio2 = d2.getRiskResourceRatio();
-            return Double.compare(ratio2, ratio1);
-        });
-        
-        // Calculate resource allocation
-        int remainingResources = totalResources;
-        List<AllocationResult> allocationResults = new ArrayList<>();
+        // Reuse a previous plan for this snapshot of the districts and budget, e.g. after an undo
+        AllocationPolicy policy = (AllocationPolicy) policyCombo.getSelectedItem();
+        AllocationPlan plan = allocationCache.get(districts, totalResources, policy.getName());
+        if (plan == null) {
+            plan = AllocationEngine.allocate(districts, totalResources, policy);
+            allocationCache.put(districts, totalResources, plan);
+        }
         
-        for (District district : sortedDistricts) {
-            int allocated;
-            boolean isPartial = false;
-            
-            if (remainingResources >= district.getResourceDemand()) {
-                allocated = district.getResourceDemand();
-                remainingResources -= allocated;
-            } else {
-                allocated = remainingResources;
-                remainingResources = 0;
-                isPartial = true;
-            }
-            
-            allocationResults.add(new AllocationResult(district, allocated, isPartial));
-            
-            if (remainingResources == 0) {
-                break;
-            }
+        // Skip the UI rebuild if this plan is already on screen
+        if (plan == displayedPlan) {
+            return;
         }
         
+        displayPlan(districts, plan);
+    }
+    
+    /**
+     * Shows a plan in the results panel and the other views, and notifies plan listeners
+     */
+    private void displayPlan(PersistentVector<District> districts, AllocationPlan plan) {
         // Update results panel with allocation information
-        updateResultsPanel(sortedDistricts, allocationResults, remainingResources);
+        if (riskMapPanel != null) {
+            riskMapPanel.showPlan(districts, plan);
+        }
+        if (paretoPanel != null) {
+            paretoPanel.setPlan(districts, plan);
+        }
+        updateResultsPanel(plan);
+        displayedPlan = plan;
+        displayedDistricts = districts;
+        
+        for (Consumer<AllocationPlan> listener : planListeners) {
+            listener.accept(plan);
+        }
+    }
+    
+    /**
+     * Shows a plan picked on the risk/population frontier, staying on the frontier tab
+     */
+    private void showPickedPlan(AllocationPlan plan) {
+        displayPlan(displayedDistricts, plan);
+        resultsTabbedPane.setSelectedIndex(resultsTabbedPane.indexOfTab(PARETO_TAB_TITLE));
     }
     
     /**
      * Updates the results panel with allocation information
      */
-    private void updateResultsPanel(List<District> sortedDistricts, 
-            List<AllocationResult> allocationResults, int remainingResources) {
+    private void updateResultsPanel(AllocationPlan plan) {
+        List<District> sortedDistricts = plan.getSortedDistricts();
+        List<AllocationResult> allocationResults = plan.getAllocationResults();
+        int totalResources = plan.getTotalResources();
+        int remainingResources = plan.getRemainingResources();
         
+        long buildStart = AllocationMetrics.start();
         resultsPanel.removeAll();
         
         // Create modern tabbed pane for results
@@ -536,7 +1078,163 @@ public class DisasterResponseGUI extends JFrame {
         tabbedPane.setBackground(BACKGROUND_COLOR);
         tabbedPane.setForeground(TEXT_COLOR);
         
-        // Risk scores tab
+        // Modern summary panel with stats and progress bars
+        JPanel summaryPanel = new JPanel(new GridLayout(3, 1, 0, 10));
+        summaryPanel.setBackground(CARD_COLOR);
+        summaryPanel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createMatteBorder(1, 0, 0, 0, SECONDARY_COLOR),
+            BorderFactory.createEmptyBorder(PADDING, PADDING, PADDING, PADDING)
+        ));
+        
+        int totalAllocated = totalResources - remainingResources;
+        double allocatedPercentage = (double) totalAllocated / totalResources * 100;
+        
+        // Create styled summary labels
+        JLabel totalLabel = new JLabel("Total Resources: " + totalResources + " • " + plan.getPolicyName());
+        totalLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        totalLabel.setForeground(PRIMARY_COLOR);
+        
+        // Button to pin this plan as the baseline for what-if comparison
+        JButton baselineButton = new JButton(plan == baselinePlan ? "Baseline" : "Set as Baseline");
+        baselineButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        baselineButton.setBackground(PRIMARY_COLOR);
+        baselineButton.setForeground(Color.WHITE);
+        baselineButton.setBorder(BorderFactory.createEmptyBorder(4, 10, 4, 10));
+        baselineButton.setFocusPainted(false);
+        baselineButton.setEnabled(plan != baselinePlan);
+        baselineButton.addActionListener(e -> {
+            baselinePlan = plan;
+            baselineButton.setText("Baseline");
+            baselineButton.setEnabled(false);
+        });
+        
+        // Button to write the plan as a CSV, XLSX or PDF report
+        JButton exportButton = new JButton("Export...");
+        exportButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        exportButton.setBackground(PRIMARY_COLOR);
+        exportButton.setForeground(Color.WHITE);
+        exportButton.setBorder(BorderFactory.createEmptyBorder(4, 10, 4, 10));
+        exportButton.setFocusPainted(false);
+        exportButton.addActionListener(e -> exportReport(plan, exportButton));
+        
+        JPanel planButtonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        planButtonPanel.setBackground(CARD_COLOR);
+        planButtonPanel.add(exportButton);
+        planButtonPanel.add(baselineButton);
+        
+        JPanel totalPanel = new JPanel(new BorderLayout(10, 0));
+        totalPanel.setBackground(CARD_COLOR);
+        totalPanel.add(totalLabel, BorderLayout.WEST);
+        totalPanel.add(planButtonPanel, BorderLayout.EAST);
+        
+        // Allocated resources with progress bar
+        JPanel allocatedPanel = new JPanel(new BorderLayout(10, 0));
+        allocatedPanel.setBackground(CARD_COLOR);
+        
+        JLabel allocatedLabel = new JLabel("Allocated: " + totalAllocated + " (" + String.format("%.1f", allocatedPercentage) + "%)");
+        allocatedLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        
+        JProgressBar allocatedProgress = new JProgressBar(0, 100);
+        allocatedProgress.setValue((int) allocatedPercentage);
+        allocatedProgress.setStringPainted(false);
+        allocatedProgress.setForeground(PRIMARY_COLOR);
+        allocatedProgress.setBackground(new Color(230, 230, 230));
+        
+        allocatedPanel.add(allocatedLabel, BorderLayout.WEST);
+        allocatedPanel.add(allocatedProgress, BorderLayout.CENTER);
+        
+        // Remaining resources with colored indicator
+        JPanel remainingPanel = new JPanel(new BorderLayout(10, 0));
+        remainingPanel.setBackground(CARD_COLOR);
+        
+        JLabel remainingLabel = new JLabel("Remaining: " + remainingResources);
+        remainingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        
+        // If no resources remain, use red text to indicate
+        if (remainingResources == 0) {
+            remainingLabel.setForeground(new Color(220, 53, 69));
+            remainingLabel.setText("Remaining: 0 (All resources allocated)");
+        }
+        
+        remainingPanel.add(remainingLabel, BorderLayout.WEST);
+        
+        summaryPanel.add(totalPanel);
+        summaryPanel.add(allocatedPanel);
+        summaryPanel.add(remainingPanel);
+        
+        // Only the visible tab is built now; the others are built when first selected
+        tabbedPane.addTab("Risk Scores", createRiskScorePanel(sortedDistricts));
+        addLazyTab(tabbedPane, "Allocation Results", () -> createAllocationPanel(allocationResults));
+        addLazyTab(tabbedPane, "Visualization", () -> createVisualizationPanel(allocationResults, totalResources, remainingResources));
+        addLazyTab(tabbedPane, "Funding Thresholds", () -> createSensitivityPanel(plan));
+        addLazyTab(tabbedPane, "Risk Map", this::getRiskMapPanel);
+        addLazyTab(tabbedPane, PARETO_TAB_TITLE, this::getParetoPanel);
+        
+        // Compare against the pinned baseline, showing only changed districts
+        AllocationPlan comparisonBaseline = baselinePlan;
+        if (comparisonBaseline != null && comparisonBaseline != plan) {
+            addLazyTab(tabbedPane, "Comparison",
+                    () -> createComparisonPanel(AllocationDiff.compare(comparisonBaseline, plan)));
+        }
+        
+        // Add components to results panel
+        resultsPanel.add(tabbedPane, BorderLayout.CENTER);
+        resultsPanel.add(summaryPanel, BorderLayout.SOUTH);
+        resultsTabbedPane = tabbedPane;
+        
+        resultsPanel.revalidate();
+        resultsPanel.repaint();
+        AllocationMetrics.record(AllocationMetrics.Stage.RESULT_BUILD, buildStart, sortedDistricts.size());
+    }
+    
+    /**
+     * Asks for a file and writes the plan to it as a report in the background
+     */
+    private void exportReport(AllocationPlan plan, JButton exportButton) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Report");
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("Excel workbook (*.xlsx)", "xlsx"));
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("PDF document (*.pdf)", "pdf"));
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV file (*.csv)", "csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        String fileName = file.getFileName().toString().toLowerCase();
+        if (!fileName.endsWith(".csv") && !fileName.endsWith(".xlsx") && !fileName.endsWith(".pdf")
+                && chooser.getFileFilter() instanceof FileNameExtensionFilter) {
+            // Add the extension of the chosen filter
+            String extension = ((FileNameExtensionFilter) chooser.getFileFilter()).getExtensions()[0];
+            file = file.resolveSibling(file.getFileName() + "." + extension);
+        }
+        Path target = file;
+        
+        exportButton.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                new ReportExporter(plan).export(target);
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                exportButton.setEnabled(true);
+                try {
+                    get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    showError("Could not export report: " + e.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+    
+    /**
+     * Creates the risk scores tab listing every district in priority order
+     */
+    private JPanel createRiskScorePanel(List<District> sortedDistricts) {
         JPanel riskScorePanel = new JPanel(new BorderLayout());
         riskScorePanel.setBackground(CARD_COLOR);
         riskScorePanel.setBorder(BorderFactory.createEmptyBorder(PADDING, PADDING, PADDING, PADDING));
@@ -577,8 +1275,13 @@ public class DisasterResponseGUI extends JFrame {
         
         riskScorePanel.add(riskHeaderPanel, BorderLayout.NORTH);
         riskScorePanel.add(riskScrollPane, BorderLayout.CENTER);
-        
-        // Allocation tab with modern styling
+        return riskScorePanel;
+    }
+    
+    /**
+     * Creates the allocation results tab
+     */
+    private JPanel createAllocationPanel(List<AllocationResult> allocationResults) {
         JPanel allocationPanel = new JPanel(new BorderLayout());
         allocationPanel.setBackground(CARD_COLOR);
         allocationPanel.setBorder(BorderFactory.createEmptyBorder(PADDING, PADDING, PADDING, PADDING));
@@ -639,78 +1342,128 @@ public class DisasterResponseGUI extends JFrame {
         
         allocationPanel.add(allocationHeaderPanel, BorderLayout.NORTH);
         allocationPanel.add(allocationScrollPane, BorderLayout.CENTER);
+        return allocationPanel;
+    }
+    
+    /**
+     * Creates the tab showing the budget at which each district would be funded
+     */
+    private JPanel createSensitivityPanel(AllocationPlan plan) {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(CARD_COLOR);
+        panel.setBorder(BorderFactory.createEmptyBorder(PADDING, PADDING, PADDING, PADDING));
         
-        // Modern summary panel with stats and progress bars
-        JPanel summaryPanel = new JPanel(new GridLayout(3, 1, 0, 10));
-        summaryPanel.setBackground(CARD_COLOR);
-        summaryPanel.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createMatteBorder(1, 0, 0, 0, SECONDARY_COLOR),
-            BorderFactory.createEmptyBorder(PADDING, PADDING, PADDING, PADDING)
-        ));
-        
-        int totalAllocated = totalResources - remainingResources;
-        double allocatedPercentage = (double) totalAllocated / totalResources * 100;
-        
-        // Create styled summary labels
-        JLabel totalLabel = new JLabel("Total Resources: " + totalResources);
-        totalLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        totalLabel.setForeground(PRIMARY_COLOR);
-        
-        // Allocated resources with progress bar
-        JPanel allocatedPanel = new JPanel(new BorderLayout(10, 0));
-        allocatedPanel.setBackground(CARD_COLOR);
-        
-        JLabel allocatedLabel = new JLabel("Allocated: " + totalAllocated + " (" + String.format("%.1f", allocatedPercentage) + "%)");
-        allocatedLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        
-        JProgressBar allocatedProgress = new JProgressBar(0, 100);
-        allocatedProgress.setValue((int) allocatedPercentage);
-        allocatedProgress.setStringPainted(false);
-        allocatedProgress.setForeground(PRIMARY_COLOR);
-        allocatedProgress.setBackground(new Color(230, 230, 230));
-        
-        allocatedPanel.add(allocatedLabel, BorderLayout.WEST);
-        allocatedPanel.add(allocatedProgress, BorderLayout.CENTER);
+        // Thresholds follow the greedy cut along the plan's priority order
+        JLabel sensitivityTitleLabel = new JLabel("Greedy Funding Thresholds by District");
+        sensitivityTitleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        sensitivityTitleLabel.setForeground(PRIMARY_COLOR);
+        sensitivityTitleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
         
-        // Remaining resources with colored indicator
-        JPanel remainingPanel = new JPanel(new BorderLayout(10, 0));
-        remainingPanel.setBackground(CARD_COLOR);
+        FundingSensitivityPanel sensitivityPanel = new FundingSensitivityPanel(
+                FundingSensitivity.of(plan), plan.getTotalResources(), CARD_COLOR);
+        styleTable(sensitivityPanel.getTable());
         
-        JLabel remainingLabel = new JLabel("Remaining: " + remainingResources);
-        remainingLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        
-        // If no resources remain, use red text to indicate
-        if (remainingResources == 0) {
-            remainingLabel.setForeground(new Color(220, 53, 69));
-            remainingLabel.setText("Remaining: 0 (All resources allocated)");
+        panel.add(sensitivityTitleLabel, BorderLayout.NORTH);
+        panel.add(sensitivityPanel, BorderLayout.CENTER);
+        return panel;
+    }
+    
+    /**
+     * Returns the risk map, creating it with the displayed plan on first use
+     */
+    private RiskMapPanel getRiskMapPanel() {
+        if (riskMapPanel == null) {
+            riskMapPanel = new RiskMapPanel();
+            riskMapPanel.showPlan(displayedDistricts, displayedPlan);
         }
+        return riskMapPanel;
+    }
+    
+    /**
+     * Returns the risk/population frontier view, creating it with the displayed plan on first use
+     */
+    private ParetoFrontierPanel getParetoPanel() {
+        if (paretoPanel == null) {
+            paretoPanel = new ParetoFrontierPanel(CARD_COLOR, this::showPickedPlan);
+            paretoPanel.setPlan(displayedDistricts, displayedPlan);
+        }
+        return paretoPanel;
+    }
+    
+    /**
+     * Adds a tab whose content is only created the first time it is selected
+     */
+    private void addLazyTab(JTabbedPane tabbedPane, String title, Supplier<JComponent> factory) {
+        JPanel placeholder = new JPanel(new BorderLayout());
+        placeholder.setBackground(CARD_COLOR);
+        tabbedPane.addTab(title, placeholder);
         
-        remainingPanel.add(remainingLabel, BorderLayout.WEST);
+        tabbedPane.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                if (tabbedPane.getSelectedComponent() == placeholder) {
+                    tabbedPane.removeChangeListener(this);
+                    placeholder.add(factory.get(), BorderLayout.CENTER);
+                    placeholder.revalidate();
+                }
+            }
+        });
+    }
+    
+    /**
+     * Creates a panel listing the districts whose allocation differs from the baseline
+     */
+    private JPanel createComparisonPanel(AllocationDiff diff) {
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBackground(CARD_COLOR);
+        panel.setBorder(BorderFactory.createEmptyBorder(PADDING, PADDING, PADDING, PADDING));
         
-        summaryPanel.add(totalLabel);
-        summaryPanel.add(allocatedPanel);
-        summaryPanel.add(remainingPanel);
+        int allocatedDelta = diff.getCurrentAllocated() - diff.getBaselineAllocated();
+        JLabel comparisonTitleLabel = new JLabel(String.format(
+                "Changes vs. Baseline: %d changed, %d unchanged, allocated %+d",
+                diff.getDeltas().size(), diff.getUnchangedCount(), allocatedDelta));
+        comparisonTitleLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        comparisonTitleLabel.setForeground(PRIMARY_COLOR);
+        comparisonTitleLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+        
+        String[] comparisonColumns = {"District", "Change", "Baseline", "Current", "Delta", "Baseline Status", "Current Status"};
+        
+        List<AllocationDiff.AllocationDelta> deltas = diff.getDeltas();
+        Object[][] comparisonData = new Object[deltas.size()][comparisonColumns.length];
+        for (int i = 0; i < deltas.size(); i++) {
+            AllocationDiff.AllocationDelta delta = deltas.get(i);
+            comparisonData[i] = new Object[]{
+                delta.getDistrict().getName(),
+                delta.getChangeType().getLabel(),
+                delta.getBaselineAllocated(),
+                delta.getCurrentAllocated(),
+                String.format("%+d", delta.getDelta()),
+                delta.getBaselineStatus(),
+                delta.getCurrentStatus()
+            };
+        }
         
-        // Add visualization panel
-        JPanel visualizationPanel = createVisualizationPanel(allocationResults, remainingResources);
+        JTable comparisonTable = new JTable(new DefaultTableModel(comparisonData, comparisonColumns));
+        styleTable(comparisonTable);
         
-        // Add all panels to tabbed pane
-        tabbedPane.addTab("Risk Scores", riskScorePanel);
-        tabbedPane.addTab("Allocation Results", allocationPanel);
-        tabbedPane.addTab("Visualization", visualizationPanel);
+        JScrollPane comparisonScrollPane = new JScrollPane(comparisonTable);
+        comparisonScrollPane.setBorder(BorderFactory.createEmptyBorder());
+        comparisonScrollPane.getViewport().setBackground(CARD_COLOR);
         
-        // Add components to results panel
-        resultsPanel.add(tabbedPane, BorderLayout.CENTER);
-        resultsPanel.add(summaryPanel, BorderLayout.SOUTH);
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(CARD_COLOR);
+        headerPanel.add(comparisonTitleLabel, BorderLayout.WEST);
         
-        resultsPanel.revalidate();
-        resultsPanel.repaint();
+        panel.add(headerPanel, BorderLayout.NORTH);
+        panel.add(comparisonScrollPane, BorderLayout.CENTER);
+        return panel;
     }
     
     /**
      * Creates a visualization panel showing allocation as a bar chart
      */
-    private JPanel createVisualizationPanel(List<AllocationResult> results, int remainingResources) {
+    private JPanel createVisualizationPanel(List<AllocationResult> results, int totalResources,
+            int remainingResources) {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(CARD_COLOR);
         panel.setBorder(BorderFactory.createEmptyBorder(PADDING, PADDING, PADDING, PADDING));
@@ -725,154 +1478,8 @@ public class DisasterResponseGUI extends JFrame {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                Graphics2D g2d = (Graphics2D) g;
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                
-                int width = getWidth();
-                int height = getHeight();
-                int barWidth = Math.min(60, width / (results.size() + 2));
-                int maxBarHeight = height - 100;
-                int baseline = height - 50;
-                int barSpacing = 20;
-                int chartStartX = 70;
-                
-                // Set background
-                g2d.setColor(CARD_COLOR);
-                g2d.fillRect(0, 0, width, height);
-                
-                // Find maximum resource demand for scaling
-                int maxDemand = 1; // Avoid division by zero
-                for (AllocationResult result : results) {
-                    maxDemand = Math.max(maxDemand, result.district.getResourceDemand());
-                }
-                
-                // Draw axes with more subtle coloring
-                g2d.setColor(new Color(180, 180, 180));
-                g2d.setStroke(new BasicStroke(1));
-                g2d.drawLine(chartStartX, baseline, width - 50, baseline); // X-axis
-                g2d.drawLine(chartStartX, baseline, chartStartX, 50); // Y-axis
-                
-                // Draw y-axis labels (demand scale)
-                g2d.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-                for (int i = 0; i <= 5; i++) {
-                    int value = maxDemand * i / 5;
-                    int y = baseline - (maxBarHeight * i / 5);
-                    g2d.drawLine(chartStartX - 3, y, chartStartX, y); // Tick mark
-                    g2d.drawString(String.valueOf(value), chartStartX - 30, y + 4);
-                    
-                    // Draw light horizontal grid lines
-                    g2d.setColor(new Color(240, 240, 240));
-                    g2d.drawLine(chartStartX + 1, y, width - 50, y);
-                    g2d.setColor(new Color(180, 180, 180));
-                }
-                
-                // Draw bars with rounded corners and gradients
-                int x = chartStartX + 30;
-                for (AllocationResult result : results) {
-                    District district = result.district;
-                    
-                    // Calculate bar heights
-                    int demandHeight = (int)((double)district.getResourceDemand() / maxDemand * maxBarHeight);
-                    int allocatedHeight = (int)((double)result.allocatedResources / maxDemand * maxBarHeight);
-                    
-                    // Draw allocation percentage
-                    double percentage = (double)result.allocatedResources / district.getResourceDemand() * 100;
-                    String percentText = String.format("%.0f%%", percentage);
-                    
-                    // Draw demand bar (outline with light fill)
-                    g2d.setColor(new Color(240, 240, 240));
-                    g2d.fillRoundRect(x, baseline - demandHeight, barWidth, demandHeight, 8, 8);
-                    g2d.setColor(new Color(200, 200, 200));
-                    g2d.drawRoundRect(x, baseline - demandHeight, barWidth, demandHeight, 8, 8);
-                    
-                    // Draw allocated bar (filled with gradient)
-                    Color barColor;
-                    if (result.isPartial) {
-                        // Partial allocation - orange
-                        barColor = new Color(255, 193, 7);
-                    } else {
-                        // Full allocation - green
-                        barColor = new Color(40, 167, 69);
-                    }
-                    
-                    // Create gradient for allocated bar
-                    GradientPaint gradient = new GradientPaint(
-                            x, baseline, barColor,
-                            x + barWidth, baseline, barColor.brighter());
-                    g2d.setPaint(gradient);
-                    g2d.fillRoundRect(x, baseline - allocatedHeight, barWidth, allocatedHeight, 8, 8);
-                    
-                    // Add allocation percentage on top of bar
-                    g2d.setColor(TEXT_COLOR);
-                    g2d.setFont(new Font("Segoe UI", Font.BOLD, 10));
-                    FontMetrics fm = g2d.getFontMetrics();
-                    int textWidth = fm.stringWidth(percentText);
-                    g2d.drawString(percentText, x + (barWidth - textWidth) / 2, baseline - allocatedHeight - 5);
-                    
-                    // Draw district name
-                    g2d.setColor(TEXT_COLOR);
-                    g2d.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-                    textWidth = fm.stringWidth(district.getName());
-                    
-                    // Rotate district name if it's too long
-                    if (textWidth > barWidth + barSpacing) {
-                        AffineTransform originalTransform = g2d.getTransform();
-                        g2d.rotate(-Math.PI/4, x + barWidth/2, baseline + 10);
-                        g2d.drawString(district.getName(), x + barWidth/2 - textWidth/2, baseline + 20);
-                        g2d.setTransform(originalTransform);
-                    } else {
-                        g2d.drawString(district.getName(), x + barWidth/2 - textWidth/2, baseline + 20);
-                    }
-                    
-                    x += barWidth + barSpacing;
-                }
-                
-                // Draw modern legend
-                int legendX = width - 180;
-                int legendY = 30;
-                int legendSize = 15;
-                int textOffset = 25;
-                int rowHeight = 25;
-                
-                // Draw legend box
-                g2d.setColor(new Color(250, 250, 250));
-                g2d.fillRoundRect(legendX - 10, legendY - 20, 170, 90, 10, 10);
-                g2d.setColor(new Color(230, 230, 230));
-                g2d.drawRoundRect(legendX - 10, legendY - 20, 170, 90, 10, 10);
-                
-                // Full allocation
-                g2d.setColor(new Color(40, 167, 69));
-                g2d.fillRoundRect(legendX, legendY, legendSize, legendSize, 4, 4);
-                g2d.setColor(TEXT_COLOR);
-                g2d.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-                g2d.drawString("Full Allocation", legendX + textOffset, legendY + 12);
-                
-                // Partial allocation
-                g2d.setColor(new Color(255, 193, 7));
-                g2d.fillRoundRect(legendX, legendY + rowHeight, legendSize, legendSize, 4, 4);
-                g2d.setColor(TEXT_COLOR);
-                g2d.drawString("Partial Allocation", legendX + textOffset, legendY + rowHeight + 12);
-                
-                // Resource demand
-                g2d.setColor(new Color(240, 240, 240));
-                g2d.fillRoundRect(legendX, legendY + rowHeight*2, legendSize, legendSize, 4, 4);
-                g2d.setColor(new Color(200, 200, 200));
-                g2d.drawRoundRect(legendX, legendY + rowHeight*2, legendSize, legendSize, 4, 4);
-                g2d.setColor(TEXT_COLOR);
-                g2d.drawString("Resource Demand", legendX + textOffset, legendY + rowHeight*2 + 12);
-                
-                // Draw resource stats at bottom
-                int statsY = height - 15;
-                g2d.setColor(PRIMARY_COLOR);
-                g2d.setFont(new Font("Segoe UI", Font.BOLD, 12));
-                g2d.drawString("Total Resources: " + totalResources, 70, statsY);
-                
-                // Format text for remaining resources
-                String remainingText = remainingResources > 0 ? 
-                        "Unallocated: " + remainingResources : 
-                        "All resources allocated";
-                g2d.setColor(remainingResources == 0 ? new Color(40, 167, 69) : TEXT_COLOR);
-                g2d.drawString(remainingText, width - 200, statsY);
+                AllocationChart.paint((Graphics2D) g, getWidth(), getHeight(), results, totalResources,
+                        remainingResources);
             }
         };
         
@@ -932,19 +1539,4 @@ public class DisasterResponseGUI extends JFrame {
     private void showError(String message) {
         JOptionPane.showMessageDialog(this, message, "Input Error", JOptionPane.ERROR_MESSAGE);
     }
-    
-    /**
-     * Inner class to store allocation results
-     */
-    private static class AllocationResult {
-        District district;
-        int allocatedResources;
-        boolean isPartial;
-        
-        public AllocationResult(District district, int allocatedResources, boolean isPartial) {
-            this.district = district;
-            this.allocatedResources = allocatedResources;
-            this.isPartial = isPartial;
-        }
-    }
 }
\ No newline at end of file
@@ -1,8 +1,14 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Represents a district with properties relevant for disaster response
  * resource allocation.
  */
 public class District {
+    // Source of dense, increasing district IDs
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+    
+    private final int id;
     private String name;
     private int population;
     private String landType;
@@ -20,6 +26,50 @@ public class District {
      * @param resourceDemand Resources needed for this district
      */
     public District(String name, int population, String landType, String urbanization, int resourceDemand) {
+        this(NEXT_ID.getAndIncrement(), name, population, landType, urbanization, resourceDemand);
+    }
+
+    /**
+     * Constructor for a new version of an existing district. It keeps the
+     * previous version's ID and name, so plans from before and after the
+     * change can be compared district by district.
+     *
+     * @param previous District being updated
+     * @param population District population
+     * @param landType Type of land (Forest, Coastal, Desert, Urban)
+     * @param urbanization Level of urbanization (Rural, Suburban, Urban)
+     * @param resourceDemand Resources needed for this district
+     */
+    public District(District previous, int population, String landType, String urbanization, int resourceDemand) {
+        this(previous.id, previous.name, population, landType, urbanization, resourceDemand);
+    }
+
+    /**
+     * Constructor for a district scored outside the default risk model, e.g.
+     * with a scenario's weights. The risk score is taken as given.
+     *
+     * @param id ID from a block returned by {@link #reserveIds}
+     * @param name District name
+     * @param population District population
+     * @param landType Type of land (Forest, Coastal, Desert, Urban)
+     * @param urbanization Level of urbanization (Rural, Suburban, Urban)
+     * @param resourceDemand Resources needed for this district
+     * @param riskScore Precomputed risk score
+     */
+    District(int id, String name, int population, String landType, String urbanization, int resourceDemand,
+            int riskScore) {
+        this.id = id;
+        this.name = name;
+        this.population = population;
+        this.landType = landType;
+        this.urbanization = urbanization;
+        this.resourceDemand = resourceDemand;
+        this.riskScore = riskScore;
+    }
+
+    private District(int id, String name, int population, String landType, String urbanization,
+            int resourceDemand) {
+        this.id = id;
         this.name = name;
         this.population = population;
         this.landType = landType;
@@ -30,19 +80,40 @@ public class District {
         calculateAndSetRiskScore();
     }
 
+    /**
+     * Reserves a block of consecutive IDs. Districts built from the same
+     * block position are versions of the same district.
+     *
+     * @param count Number of IDs to reserve
+     * @return The first ID of the block
+     */
+    static int reserveIds(int count) {
+        return NEXT_ID.getAndAdd(count);
+    }
+
     /**
      * Calculate and set the risk score for this district
      */
     private void calculateAndSetRiskScore() {
+        long start = AllocationMetrics.start();
         int populationRisk = RiskStatistics.calculatePopulationRisk(population);
         int landTypeRisk = RiskStatistics.calculateLandTypeRisk(landType);
         int urbanizationRisk = RiskStatistics.calculateUrbanizationRisk(urbanization);
         
         this.riskScore = RiskStatistics.calculateTotalRisk(
                 populationRisk, landTypeRisk, urbanizationRisk);
+        AllocationMetrics.record(AllocationMetrics.Stage.SCORING, start, 1);
     }
     
     // Getters and setters
+    /**
+     * Returns the unique ID assigned to this district on creation. IDs are
+     * handed out sequentially, so they can index arrays directly.
+     */
+    public int getId() {
+        return id;
+    }
+    
     public String getName() {
         return name;
     }
@@ -0,0 +1,466 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary wire format for bulk district uploads and allocation results.
+ *
+ * A stream starts with the magic bytes "DRM", a format version and a
+ * record-kind byte, followed by records until an end marker:
+ * <ul>
+ *   <li>District record: name reference, varint population, one-byte land
+ *       type code, one-byte urbanization code, varint resource demand.</li>
+ *   <li>Allocation record: varint district index, varint allocated
+ *       resources, one-byte status. The index is the position of the
+ *       district's record in the companion district stream, since District
+ *       IDs are local to the process that created them.</li>
+ * </ul>
+ * Names go through an incremental string table. The first occurrence is
+ * written inline and later occurrences refer back to it by index, so the
+ * format can be streamed without a separate table up front. The table stops
+ * growing at {@link #MAX_STRING_TABLE} names on both sides; names first seen
+ * after that are written inline every time, so memory stays bounded however
+ * many distinct names a stream holds.
+ *
+ * Encoding and decoding work directly on {@link ByteBuffer}s backed by
+ * channels, and decoded records are passed to a sink as primitives with no
+ * intermediate {@link District} objects.
+ */
+public class DistrictCodec {
+    public static final int FORMAT_VERSION = 3;
+    /** Most names kept for back-references by an encoder or decoder */
+    public static final int MAX_STRING_TABLE = 1 << 18;
+    public static final byte KIND_DISTRICTS = 1;
+    public static final byte KIND_ALLOCATIONS = 2;
+
+    // Record tags
+    private static final byte TAG_RECORD = 1;
+    private static final byte TAG_END = 0;
+
+    // Status codes for allocation records
+    public static final byte STATUS_UNFUNDED = 0;
+    public static final byte STATUS_FULL = 1;
+    public static final byte STATUS_PARTIAL = 2;
+
+    /**
+     * Land type names by code. Codes match the risk values from
+     * {@link RiskStatistics#calculateLandTypeRisk}; 0 means unknown.
+     */
+    public static final String[] LAND_TYPES = {"", "Forest", "Coastal", "Desert", "Urban"};
+
+    /**
+     * Urbanization names by code. Codes match the risk values from
+     * {@link RiskStatistics#calculateUrbanizationRisk}; 0 means unknown.
+     */
+    public static final String[] URBANIZATION_TYPES = {"", "Rural", "Suburban", "Urban"};
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIXED_RECORD_BYTES = 1 + 5 + 5 + 1 + 1 + 5;
+
+    /**
+     * Receives decoded district records
+     */
+    public interface DistrictSink {
+        void district(String name, int population, int landTypeCode, int urbanizationCode, int resourceDemand);
+    }
+
+    /**
+     * Receives decoded allocation records
+     */
+    public interface AllocationSink {
+        void allocation(int districtIndex, int allocatedResources, int status);
+    }
+
+    public static int landTypeCode(String landType) {
+        return RiskStatistics.calculateLandTypeRisk(landType);
+    }
+
+    public static int urbanizationCode(String urbanization) {
+        return RiskStatistics.calculateUrbanizationRisk(urbanization);
+    }
+
+    /**
+     * Writes records to a channel through a reusable buffer
+     */
+    public static class Encoder implements AutoCloseable {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final Map<String, Integer> stringTable = new HashMap<>();
+        private final byte kind;
+        private boolean finished = false;
+
+        /**
+         * Creates an encoder and writes the stream header
+         *
+         * @param channel Destination channel
+         * @param kind {@link #KIND_DISTRICTS} or {@link #KIND_ALLOCATIONS}
+         */
+        public Encoder(WritableByteChannel channel, byte kind) throws IOException {
+            this(channel, kind, ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE));
+        }
+
+        public Encoder(WritableByteChannel channel, byte kind, ByteBuffer buffer) throws IOException {
+            this.channel = channel;
+            this.kind = kind;
+            this.buffer = buffer;
+            buffer.clear();
+            buffer.put((byte) 'D').put((byte) 'R').put((byte) 'M');
+            buffer.put((byte) FORMAT_VERSION);
+            buffer.put(kind);
+        }
+
+        /**
+         * Writes one district record. The record is checked before anything
+         * is written, so a rejected record leaves the stream intact.
+         *
+         * @throws IllegalArgumentException if the name is too long, a code is unknown or a count is negative
+         */
+        public void writeDistrict(String name, int population, int landTypeCode, int urbanizationCode,
+                int resourceDemand) throws IOException {
+            checkKind(KIND_DISTRICTS);
+            Integer index = stringTable.get(name);
+            byte[] bytes = null;
+            if (index == null) {
+                bytes = name.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length + MAX_FIXED_RECORD_BYTES + 5 > buffer.capacity()) {
+                    throw new IllegalArgumentException("District name too long to encode: " + bytes.length + " bytes");
+                }
+            }
+            checkNonNegative(population, "population");
+            checkNonNegative(resourceDemand, "resource demand");
+            checkCode(landTypeCode, LAND_TYPES.length, "land type");
+            checkCode(urbanizationCode, URBANIZATION_TYPES.length, "urbanization");
+
+            ensure(MAX_FIXED_RECORD_BYTES + 5);
+            buffer.put(TAG_RECORD);
+            if (index != null) {
+                // Back-reference: low bit clear
+                writeVarint(index << 1);
+            } else {
+                if (stringTable.size() < MAX_STRING_TABLE) {
+                    stringTable.put(name, stringTable.size());
+                }
+                // Inline definition: length with low bit set
+                writeVarint((bytes.length << 1) | 1);
+                ensure(bytes.length + MAX_FIXED_RECORD_BYTES);
+                buffer.put(bytes);
+            }
+            writeVarint(population);
+            buffer.put((byte) landTypeCode);
+            buffer.put((byte) urbanizationCode);
+            writeVarint(resourceDemand);
+        }
+
+        public void writeDistrict(District district) throws IOException {
+            writeDistrict(district.getName(), district.getPopulation(),
+                    landTypeCode(district.getLandType()), urbanizationCode(district.getUrbanization()),
+                    district.getResourceDemand());
+        }
+
+        /**
+         * Writes one allocation record
+         *
+         * @param districtIndex Position of the district's record in the district stream
+         * @param status One of {@link #STATUS_UNFUNDED}, {@link #STATUS_FULL} or {@link #STATUS_PARTIAL}
+         * @throws IllegalArgumentException if a count is negative or the status is unknown
+         */
+        public void writeAllocation(int districtIndex, int allocatedResources, int status) throws IOException {
+            checkKind(KIND_ALLOCATIONS);
+            checkNonNegative(districtIndex, "district index");
+            checkNonNegative(allocatedResources, "allocated resources");
+            checkCode(status, STATUS_PARTIAL + 1, "allocation status");
+            ensure(MAX_FIXED_RECORD_BYTES);
+            buffer.put(TAG_RECORD);
+            writeVarint(districtIndex);
+            writeVarint(allocatedResources);
+            buffer.put((byte) status);
+        }
+
+        /**
+         * Writes an allocation record for every district in the plan, with
+         * indexes into the plan's sorted district list. Pair it with a
+         * district stream written in that order.
+         */
+        public void writePlan(AllocationPlan plan) throws IOException {
+            writePlan(plan, plan.getSortedDistricts());
+        }
+
+        /**
+         * Writes an allocation record for every district in the plan, including unfunded ones
+         *
+         * @param plan Plan to write
+         * @param districts Districts in the order their records were written to the district stream
+         * @throws IllegalArgumentException if the plan has a district that is not in the list
+         */
+        public void writePlan(AllocationPlan plan, List<District> districts) throws IOException {
+            DistrictIdMap indexById = new DistrictIdMap(districts.size());
+            for (int i = 0; i < districts.size(); i++) {
+                indexById.put(districts.get(i).getId(), i);
+            }
+            boolean[] funded = new boolean[districts.size()];
+            for (AllocationResult result : plan.getAllocationResults()) {
+                int index = indexOf(indexById, result.district);
+                funded[index] = true;
+                writeAllocation(index, result.allocatedResources,
+                        result.isPartial ? STATUS_PARTIAL : STATUS_FULL);
+            }
+            // Unfunded districts follow the funded ones in priority order
+            if (plan.getAllocationResults().size() < plan.getSortedDistricts().size()) {
+                for (District d : plan.getSortedDistricts()) {
+                    int index = indexOf(indexById, d);
+                    if (!funded[index]) {
+                        writeAllocation(index, 0, STATUS_UNFUNDED);
+                    }
+                }
+            }
+        }
+
+        private static int indexOf(DistrictIdMap indexById, District district) {
+            int index = indexById.get(district.getId());
+            if (index < 0) {
+                throw new IllegalArgumentException("District not in the district stream: " + district.getName());
+            }
+            return index;
+        }
+
+        /**
+         * Writes the end marker and flushes everything to the channel
+         */
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            ensure(1);
+            buffer.put(TAG_END);
+            flush();
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        private void checkKind(byte expected) {
+            if (kind != expected) {
+                throw new IllegalStateException("Record does not match stream kind " + kind);
+            }
+        }
+
+        private static void checkNonNegative(int value, String field) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative " + field + " cannot be encoded: " + value);
+            }
+        }
+
+        private static void checkCode(int code, int limit, String field) {
+            if (code < 0 || code >= limit) {
+                throw new IllegalArgumentException("Unknown " + field + " code cannot be encoded: " + code);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void writeVarint(int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative values cannot be encoded: " + value);
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+    }
+
+    /**
+     * Reads records from a channel through a reusable buffer
+     */
+    public static class Decoder {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final List<String> stringTable = new ArrayList<>();
+        private final byte kind;
+        private boolean eof = false;
+
+        /**
+         * Creates a decoder and reads the stream header
+         */
+        public Decoder(ReadableByteChannel channel) throws IOException {
+            this(channel, ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE));
+        }
+
+        public Decoder(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+            this.channel = channel;
+            this.buffer = buffer;
+            buffer.clear().flip();
+
+            require(5);
+            if (buffer.get() != 'D' || buffer.get() != 'R' || buffer.get() != 'M') {
+                throw new IOException("Not a district stream");
+            }
+            int version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported format version " + version);
+            }
+            kind = buffer.get();
+        }
+
+        public byte getKind() {
+            return kind;
+        }
+
+        /**
+         * Decodes every district record into the sink. Land type and
+         * urbanization codes are range-checked, with code 0 (unknown) passed
+         * on, and negative populations or demands are rejected.
+         *
+         * @return Number of records decoded
+         */
+        public int readDistricts(DistrictSink sink) throws IOException {
+            if (kind != KIND_DISTRICTS) {
+                throw new IOException("Stream does not contain districts");
+            }
+            int count = 0;
+            while (true) {
+                require(1);
+                if (buffer.get() == TAG_END) {
+                    return count;
+                }
+                int ref = readVarint();
+                String name;
+                if ((ref & 1) == 0) {
+                    int index = ref >>> 1;
+                    if (index >= stringTable.size()) {
+                        throw new IOException("Name reference " + index + " before its definition");
+                    }
+                    name = stringTable.get(index);
+                } else {
+                    int length = ref >>> 1;
+                    require(length);
+                    byte[] bytes = new byte[length];
+                    buffer.get(bytes);
+                    name = new String(bytes, StandardCharsets.UTF_8);
+                    if (stringTable.size() < MAX_STRING_TABLE) {
+                        stringTable.add(name);
+                    }
+                }
+                int population = readVarint();
+                require(2);
+                int landTypeCode = buffer.get();
+                int urbanizationCode = buffer.get();
+                if (landTypeCode < 0 || landTypeCode >= LAND_TYPES.length) {
+                    throw new IOException("Unknown land type code " + landTypeCode + " in record " + (count + 1));
+                }
+                if (urbanizationCode < 0 || urbanizationCode >= URBANIZATION_TYPES.length) {
+                    throw new IOException("Unknown urbanization code " + urbanizationCode + " in record " + (count + 1));
+                }
+                int resourceDemand = readVarint();
+                if (population < 0 || resourceDemand < 0) {
+                    throw new IOException("Negative population or demand in record " + (count + 1));
+                }
+                sink.district(name, population, landTypeCode, urbanizationCode, resourceDemand);
+                count++;
+            }
+        }
+
+        /**
+         * Decodes every allocation record into the sink
+         *
+         * @return Number of records decoded
+         */
+        public int readAllocations(AllocationSink sink) throws IOException {
+            if (kind != KIND_ALLOCATIONS) {
+                throw new IOException("Stream does not contain allocations");
+            }
+            int count = 0;
+            while (true) {
+                require(1);
+                if (buffer.get() == TAG_END) {
+                    return count;
+                }
+                int districtIndex = readVarint();
+                int allocated = readVarint();
+                require(1);
+                int status = buffer.get();
+                if (districtIndex < 0 || allocated < 0) {
+                    throw new IOException("Malformed allocation record " + count);
+                }
+                if (status < STATUS_UNFUNDED || status > STATUS_PARTIAL) {
+                    throw new IOException("Unknown allocation status " + status + " in record " + count);
+                }
+                sink.allocation(districtIndex, allocated, status);
+                count++;
+            }
+        }
+
+        /**
+         * Convenience decoder that materializes District objects
+         */
+        public List<District> readDistrictList() throws IOException {
+            List<District> districts = new ArrayList<>();
+            readDistricts((name, population, land, urban, demand) ->
+                    districts.add(new District(name, population, codeName(LAND_TYPES, land),
+                            codeName(URBANIZATION_TYPES, urban), demand)));
+            return districts;
+        }
+
+        private int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        /**
+         * Makes sure at least the given number of bytes are buffered
+         */
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            if (bytes > buffer.capacity()) {
+                throw new IOException("Record of " + bytes + " bytes exceeds buffer capacity");
+            }
+            buffer.compact();
+            while (buffer.position() < bytes && !eof) {
+                if (channel.read(buffer) < 0) {
+                    eof = true;
+                }
+            }
+            buffer.flip();
+            if (buffer.remaining() < bytes) {
+                throw new EOFException("Unexpected end of district stream");
+            }
+        }
+    }
+
+    private static String codeName(String[] names, int code) {
+        return code >= 0 && code < names.length ? names[code] : "";
+    }
+}
@@ -0,0 +1,338 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of synthetic district populations for load testing.
+ *
+ * Every row is a pure function of the seed and its row number, so the same
+ * seed always produces the same dataset and any range of rows can be
+ * generated on its own. CSV output starting after row 0 has no header line,
+ * so pieces can be concatenated into one large file; JSON and DRM are
+ * framed formats, and each piece is a complete file of its own.
+ * The mix is meant to look like real input rather than uniform noise:
+ * <ul>
+ *   <li>Population is log-normal around a median of 20,000, so most
+ *       districts are small and a long tail reaches into the millions.</li>
+ *   <li>Urbanization rises with population, and land type depends on
+ *       urbanization (urban districts are mostly on urban land, rural ones
+ *       mostly forest, coastal or desert).</li>
+ *   <li>Resource demand grows with population and, more than linearly, with
+ *       the district's risk score, plus log-normal noise.</li>
+ * </ul>
+ * Names are unique by default. A name pool can be set instead so that names
+ * repeat as they do in real data, which lets DRM output refer back to
+ * earlier names instead of repeating them.
+ *
+ * Usage:
+ * <pre>
+ * java DistrictGenerator --count 1000000 [--seed n] [--from row]
+ *     [--name-pool n] [--format csv|json|drm] [--out file]
+ * </pre>
+ */
+public class DistrictGenerator {
+    public static final long DEFAULT_SEED = 42;
+
+    private static final double MEDIAN_POPULATION = 20_000;
+    private static final double POPULATION_SIGMA = 1.4;
+    private static final int MIN_POPULATION = 100;
+    private static final int MAX_POPULATION = 20_000_000;
+
+    // Resources needed per resident at the highest risk score
+    private static final double DEMAND_PER_CAPITA = 0.01;
+    private static final double DEMAND_SIGMA = 0.35;
+
+    /**
+     * Land type weights (Forest, Coastal, Desert, Urban) by urbanization code
+     */
+    private static final double[][] LAND_TYPE_WEIGHTS = {
+        {},
+        {0.50, 0.25, 0.20, 0.05},
+        {0.30, 0.30, 0.15, 0.25},
+        {0.10, 0.20, 0.05, 0.65}
+    };
+
+    private static final String[] NAME_PREFIXES = {
+        "", "", "", "North ", "South ", "East ", "West ", "Upper ", "Lower ", "New ", "Port ", "Lake "
+    };
+    private static final String[] NAME_ROOTS = {
+        "Ash", "Birch", "Cedar", "Elm", "Fair", "Glen", "Green", "Hazel", "Holly", "Iron", "Kings", "Linden",
+        "Maple", "Mill", "Oak", "Pine", "Red", "Rock", "Silver", "Stone", "Swan", "Thorn", "Willow", "Wolf"
+    };
+    private static final String[] NAME_SUFFIXES = {
+        "ford", "field", "ton", "ridge", "vale", "haven", "wood", "bury", "mouth", "dale", "brook", "port"
+    };
+
+    private final long seed;
+    private final long namePool;
+
+    /**
+     * Constructor for DistrictGenerator
+     *
+     * @param seed Seed selecting the dataset
+     * @param namePool Number of distinct names to draw from, or 0 for a unique name per row
+     */
+    public DistrictGenerator(long seed, long namePool) {
+        if (namePool < 0) {
+            throw new IllegalArgumentException("Name pool must not be negative");
+        }
+        this.seed = seed;
+        this.namePool = namePool;
+    }
+
+    /**
+     * Generates rows [from, from + count) into the sink
+     */
+    public void generate(long from, long count, DistrictCodec.DistrictSink sink) {
+        for (long row = from; row < from + count; row++) {
+            SplittableRandom random = new SplittableRandom(mix64(seed * 0x9E3779B97F4A7C15L + row));
+
+            double logPopulation = Math.log(MEDIAN_POPULATION) + POPULATION_SIGMA * gaussian(random);
+            int population = (int) Math.max(MIN_POPULATION, Math.min(MAX_POPULATION, Math.exp(logPopulation)));
+
+            // Position between a small town (5K) and a city (500K) on a log scale, with noise
+            double urbanity = (Math.log(population) - Math.log(5_000)) / Math.log(100) + 0.2 * gaussian(random);
+            int urbanizationCode = urbanity < 0.35 ? 1 : urbanity < 0.7 ? 2 : 3;
+            int landTypeCode = pick(LAND_TYPE_WEIGHTS[urbanizationCode], random.nextDouble()) + 1;
+
+            int riskScore = RiskStatistics.calculateTotalRisk(RiskStatistics.calculatePopulationRisk(population),
+                    landTypeCode, urbanizationCode);
+            double riskFactor = (double) riskScore / RiskStatistics.MAX_TOTAL_RISK;
+            double demand = population * DEMAND_PER_CAPITA * riskFactor * riskFactor
+                    * Math.exp(DEMAND_SIGMA * gaussian(random));
+            int resourceDemand = (int) Math.max(1, Math.round(demand));
+
+            long nameIndex = namePool == 0 ? row : random.nextLong(namePool);
+            sink.district(name(nameIndex), population, landTypeCode, urbanizationCode, resourceDemand);
+        }
+    }
+
+    /**
+     * Generates and scores rows [0, count)
+     */
+    public List<District> generateDistricts(int count) {
+        List<District> districts = new ArrayList<>(count);
+        generate(0, count, (name, population, land, urban, demand) ->
+                districts.add(new District(name, population, DistrictCodec.LAND_TYPES[land],
+                        DistrictCodec.URBANIZATION_TYPES[urban], demand)));
+        return districts;
+    }
+
+    /**
+     * Writes rows [from, from + count) in the given format ("csv", "json" or "drm").
+     * CSV has a header line only when from is 0.
+     */
+    public void write(long from, long count, String format, OutputStream out) throws IOException {
+        try {
+            switch (format) {
+                case "csv":
+                    writeCsv(from, count, out);
+                    break;
+                case "json":
+                    writeJson(from, count, out);
+                    break;
+                case "drm":
+                    writeDrm(from, count, out);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown format: " + format);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes rows [0, count) to a file, choosing the format from its extension
+     */
+    public void write(long count, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(0, count, formatOf(file), out);
+        }
+    }
+
+    /**
+     * Returns the ingest format matching a file name, as {@link DistrictImporter} would read it
+     */
+    public static String formatOf(Path file) {
+        String fileName = file.getFileName().toString().toLowerCase();
+        if (fileName.endsWith(".drm")) {
+            return "drm";
+        }
+        return fileName.endsWith(".json") ? "json" : "csv";
+    }
+
+    private void writeCsv(long from, long count, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        if (from == 0) {
+            writer.write("name,population,landType,urbanization,resourceDemand\n");
+        }
+        StringBuilder line = new StringBuilder(96);
+        generate(from, count, (name, population, land, urban, demand) -> {
+            line.setLength(0);
+            line.append(name).append(',').append(population).append(',')
+                    .append(DistrictCodec.LAND_TYPES[land]).append(',')
+                    .append(DistrictCodec.URBANIZATION_TYPES[urban]).append(',')
+                    .append(demand).append('\n');
+            write(writer, line);
+        });
+        writer.flush();
+    }
+
+    private void writeJson(long from, long count, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        writer.write('[');
+        StringBuilder line = new StringBuilder(160);
+        boolean[] first = {true};
+        generate(from, count, (name, population, land, urban, demand) -> {
+            line.setLength(0);
+            line.append(first[0] ? "\n" : ",\n");
+            first[0] = false;
+            line.append("{\"name\":\"").append(Json.escape(name))
+                    .append("\",\"population\":").append(population)
+                    .append(",\"landType\":\"").append(DistrictCodec.LAND_TYPES[land])
+                    .append("\",\"urbanization\":\"").append(DistrictCodec.URBANIZATION_TYPES[urban])
+                    .append("\",\"resourceDemand\":").append(demand).append('}');
+            write(writer, line);
+        });
+        writer.write("\n]\n");
+        writer.flush();
+    }
+
+    private void writeDrm(long from, long count, OutputStream out) throws IOException {
+        DistrictCodec.Encoder encoder = new DistrictCodec.Encoder(Channels.newChannel(out),
+                DistrictCodec.KIND_DISTRICTS);
+        generate(from, count, (name, population, land, urban, demand) -> {
+            try {
+                encoder.writeDistrict(name, population, land, urban, demand);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        encoder.finish();
+    }
+
+    private static void write(Writer writer, CharSequence text) {
+        try {
+            writer.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds the name for a name index, e.g. "North Cedarford 1234"
+     */
+    private String name(long index) {
+        long bits = mix64(seed ^ mix64(index));
+        return NAME_PREFIXES[(int) Long.remainderUnsigned(bits, NAME_PREFIXES.length)]
+                + NAME_ROOTS[(int) Long.remainderUnsigned(bits >>> 16, NAME_ROOTS.length)]
+                + NAME_SUFFIXES[(int) Long.remainderUnsigned(bits >>> 32, NAME_SUFFIXES.length)]
+                + ' ' + (index + 1);
+    }
+
+    private static int pick(double[] weights, double u) {
+        for (int i = 0; i < weights.length - 1; i++) {
+            u -= weights[i];
+            if (u < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Standard normal sample (Box-Muller, one value per call)
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * SplitMix64 finalizer, used to derive independent per-row seeds
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Main method - writes a synthetic district file
+     *
+     * @param args Command line arguments, see class documentation
+     */
+    public static void main(String[] args) {
+        long count = -1;
+        long seed = DEFAULT_SEED;
+        long from = 0;
+        long namePool = 0;
+        String format = null;
+        Path outFile = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--count":
+                        count = Long.parseLong(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--from":
+                        from = Long.parseLong(args[++i]);
+                        break;
+                    case "--name-pool":
+                        namePool = Long.parseLong(args[++i]);
+                        break;
+                    case "--format":
+                        format = args[++i].toLowerCase();
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (count < 0 || from < 0 || namePool < 0) {
+                throw new IllegalArgumentException("--count is required");
+            }
+            if (format == null) {
+                format = outFile != null ? formatOf(outFile) : "csv";
+            }
+            if (!format.equals("csv") && !format.equals("json") && !format.equals("drm")) {
+                throw new IllegalArgumentException("Unknown format: " + format);
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java DistrictGenerator --count <n> [--seed <n>] [--from <row>]"
+                    + " [--name-pool <n>] [--format csv|json|drm] [--out <file>]");
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (OutputStream out = outFile != null ? Files.newOutputStream(outFile) : System.out) {
+            new DistrictGenerator(seed, namePool).write(from, count, format, out);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Generated %,d districts (seed %d) in %.1f s, %,.0f rows/s%n",
+                count, seed, seconds, count / Math.max(seconds, 1e-9));
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+/**
+ * Map from district ID to a non-negative int, without boxing.
+ *
+ * District IDs come from a process-wide counter, so the IDs in one plan or
+ * list can be spread over a range far larger than the list itself. Memory
+ * and time here are proportional to the number of entries instead: when
+ * the caller knows the ID range and it is at most a few times the number of
+ * entries, values are kept in an array indexed by ID, and otherwise in an
+ * open-addressing hash table holding each ID and value in one long.
+ */
+public class DistrictIdMap {
+    private static final int ABSENT = -1;
+    // Marks an unused hash slot; never an entry, since values are non-negative
+    private static final long EMPTY = -1L;
+    // Largest ID range, as a multiple of the expected size, kept in a direct array
+    private static final int MAX_DIRECT_SPREAD = 4;
+
+    // Direct mode: value of ID base + i at index i, or ABSENT
+    private final int[] direct;
+    private final int base;
+    // Hashed mode: ID in the high and value in the low 32 bits, or EMPTY
+    private long[] entries;
+    private int size = 0;
+
+    /**
+     * Constructor for a hashed DistrictIdMap
+     *
+     * @param expectedSize Number of entries expected, to size the table up front
+     */
+    public DistrictIdMap(int expectedSize) {
+        this(expectedSize, 0, -1);
+    }
+
+    /**
+     * Constructor for DistrictIdMap over a known ID range
+     *
+     * @param expectedSize Number of entries expected
+     * @param minId Smallest ID that will be stored
+     * @param maxId Largest ID that will be stored; below minId if unknown
+     */
+    public DistrictIdMap(int expectedSize, int minId, int maxId) {
+        long range = (long) maxId - minId + 1;
+        if (range > 0 && range <= (long) Math.max(16, expectedSize) * MAX_DIRECT_SPREAD) {
+            direct = new int[(int) range];
+            Arrays.fill(direct, ABSENT);
+            base = minId;
+        } else {
+            direct = null;
+            base = 0;
+            int capacity = 16;
+            while (capacity < expectedSize * 2) {
+                capacity <<= 1;
+            }
+            entries = new long[capacity];
+            Arrays.fill(entries, EMPTY);
+        }
+    }
+
+    /**
+     * Returns the value for an ID, or -1 if the ID is absent
+     */
+    public int get(int id) {
+        if (direct != null) {
+            long index = (long) id - base;
+            return index >= 0 && index < direct.length ? direct[(int) index] : ABSENT;
+        }
+        long entry = entries[slot(entries, id)];
+        return entry == EMPTY ? ABSENT : (int) entry;
+    }
+
+    /**
+     * Sets the value for an ID, replacing any previous one
+     *
+     * @throws IllegalArgumentException if the value is negative, or the ID is
+     *         outside the range given to the constructor
+     */
+    public void put(int id, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        if (direct != null) {
+            long index = (long) id - base;
+            if (index < 0 || index >= direct.length) {
+                throw new IllegalArgumentException("District ID outside the declared range: " + id);
+            }
+            if (direct[(int) index] == ABSENT) {
+                size++;
+            }
+            direct[(int) index] = value;
+            return;
+        }
+        int index = slot(entries, id);
+        if (entries[index] == EMPTY) {
+            size++;
+        }
+        entries[index] = ((long) id << 32) | value;
+        if (size * 2 > entries.length) {
+            grow();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] old = entries;
+        entries = new long[old.length * 2];
+        Arrays.fill(entries, EMPTY);
+        for (long entry : old) {
+            if (entry != EMPTY) {
+                entries[slot(entries, (int) (entry >>> 32))] = entry;
+            }
+        }
+    }
+
+    /**
+     * Returns the hash slot holding the ID, or the empty slot where it belongs
+     */
+    private static int slot(long[] entries, int id) {
+        int mask = entries.length - 1;
+        int index = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (entries[index] != EMPTY && (int) (entries[index] >>> 32) != id) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,327 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads district files for bulk import.
+ *
+ * Three formats are recognised by file extension:
+ * <ul>
+ *   <li>.csv (and anything unrecognised): name,population,landType,urbanization,resourceDemand
+ *       with an optional header row</li>
+ *   <li>.json: an array of objects with the same field names</li>
+ *   <li>.drm: the binary format written by {@link DistrictCodec}</li>
+ * </ul>
+ * Records are validated and passed to a {@link DistrictCodec.DistrictSink}
+ * as primitives, so callers decide whether to build District objects or
+ * fill columns directly.
+ */
+public class DistrictImporter {
+
+    /**
+     * Reads every district in the file into the sink
+     *
+     * @return Number of districts read
+     */
+    public static int read(Path file, DistrictCodec.DistrictSink sink) throws IOException {
+        String fileName = file.getFileName().toString().toLowerCase();
+        if (fileName.endsWith(".drm")) {
+            try (FileChannel channel = FileChannel.open(file)) {
+                return readDrm(new DistrictCodec.Decoder(channel), sink);
+            }
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (fileName.endsWith(".json")) {
+                return new JsonReader(reader).readDistricts(sink);
+            }
+            return readCsv(reader, sink);
+        }
+    }
+
+    /**
+     * Reads and scores every district in the file
+     */
+    public static List<District> readDistricts(Path file) throws IOException {
+        List<District> districts = new ArrayList<>();
+        read(file, (name, population, land, urban, demand) ->
+                districts.add(new District(name, population, DistrictCodec.LAND_TYPES[land],
+                        DistrictCodec.URBANIZATION_TYPES[urban], demand)));
+        return districts;
+    }
+
+    /**
+     * Decodes binary records, validating each one like the text formats
+     */
+    private static int readDrm(DistrictCodec.Decoder decoder, DistrictCodec.DistrictSink sink) throws IOException {
+        int[] record = {0};
+        try {
+            return decoder.readDistricts((name, population, land, urban, demand) -> {
+                record[0]++;
+                accept(sink, name, population, DistrictCodec.LAND_TYPES[land],
+                        DistrictCodec.URBANIZATION_TYPES[urban], demand);
+            });
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid district at record " + record[0] + ": " + e.getMessage());
+        }
+    }
+
+    private static int readCsv(BufferedReader reader, DistrictCodec.DistrictSink sink) throws IOException {
+        String line;
+        int lineNumber = 0;
+        int count = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (lineNumber == 1 && line.toLowerCase().startsWith("name,")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 5) {
+                throw new IOException("Invalid district at line " + lineNumber + ": expected 5 fields");
+            }
+            try {
+                accept(sink, fields[0].trim(), Integer.parseInt(fields[1].trim()), fields[2].trim(),
+                        fields[3].trim(), Integer.parseInt(fields[4].trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid district at line " + lineNumber + ": " + e.getMessage());
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Validates one district the same way the input form does and passes it on
+     */
+    private static void accept(DistrictCodec.DistrictSink sink, String name, int population,
+            String landType, String urbanization, int resourceDemand) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("district name cannot be empty");
+        }
+        if (population <= 0 || resourceDemand <= 0) {
+            throw new IllegalArgumentException("population and resource demand must be positive");
+        }
+        int landCode = DistrictCodec.landTypeCode(landType);
+        if (landCode == 0) {
+            throw new IllegalArgumentException("unknown land type '" + landType + "'");
+        }
+        int urbanCode = DistrictCodec.urbanizationCode(urbanization);
+        if (urbanCode == 0) {
+            throw new IllegalArgumentException("unknown urbanization '" + urbanization + "'");
+        }
+        sink.district(name, population, landCode, urbanCode, resourceDemand);
+    }
+
+    /**
+     * Minimal streaming reader for a JSON array of flat district objects
+     */
+    private static class JsonReader {
+        private final Reader reader;
+        private int next;
+        private int line = 1;
+
+        JsonReader(Reader reader) throws IOException {
+            this.reader = reader;
+            this.next = reader.read();
+        }
+
+        int readDistricts(DistrictCodec.DistrictSink sink) throws IOException {
+            int count = 0;
+            expect('[');
+            if (peek() == ']') {
+                advance();
+                return count;
+            }
+            do {
+                readDistrict(sink);
+                count++;
+            } while (consumeIf(','));
+            expect(']');
+            return count;
+        }
+
+        private void readDistrict(DistrictCodec.DistrictSink sink) throws IOException {
+            String name = null;
+            String landType = null;
+            String urbanization = null;
+            long population = 0;
+            long resourceDemand = 0;
+
+            // Skip to the brace first, so errors name the line the object starts on
+            peek();
+            int objectLine = line;
+            expect('{');
+            if (peek() != '}') {
+                do {
+                    String key = readString();
+                    expect(':');
+                    switch (key) {
+                        case "name":
+                            name = readString();
+                            break;
+                        case "landType":
+                            landType = readString();
+                            break;
+                        case "urbanization":
+                            urbanization = readString();
+                            break;
+                        case "population":
+                            population = readInteger();
+                            break;
+                        case "resourceDemand":
+                            resourceDemand = readInteger();
+                            break;
+                        default:
+                            skipValue();
+                    }
+                } while (consumeIf(','));
+            }
+            expect('}');
+
+            if (name == null || landType == null || urbanization == null) {
+                throw error("district at line " + objectLine + " is missing name, landType or urbanization");
+            }
+            try {
+                accept(sink, name.trim(), (int) population, landType.trim(), urbanization.trim(),
+                        (int) resourceDemand);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid district at line " + objectLine + ": " + e.getMessage());
+            }
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (next != '"') {
+                if (next < 0) {
+                    throw error("unterminated string");
+                }
+                if (next == '\\') {
+                    advance();
+                    switch (next) {
+                        case 'n': sb.append('\n'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            int code = 0;
+                            for (int i = 0; i < 4; i++) {
+                                advance();
+                                int digit = Character.digit(next, 16);
+                                if (digit < 0) {
+                                    throw error("invalid unicode escape");
+                                }
+                                code = code * 16 + digit;
+                            }
+                            sb.append((char) code);
+                            break;
+                        default:
+                            sb.append((char) next);
+                    }
+                } else {
+                    sb.append((char) next);
+                }
+                advance();
+            }
+            advance();
+            return sb.toString();
+        }
+
+        private long readInteger() throws IOException {
+            skipWhitespace();
+            boolean negative = consumeIf('-');
+            if (next < '0' || next > '9') {
+                throw error("expected an integer");
+            }
+            long value = 0;
+            while (next >= '0' && next <= '9') {
+                value = value * 10 + (next - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw error("integer out of range");
+                }
+                advance();
+            }
+            if (next == '.' || next == 'e' || next == 'E') {
+                throw error("expected an integer");
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Skips a value of a field that is not part of the district
+         */
+        private void skipValue() throws IOException {
+            int c = peek();
+            if (c == '"') {
+                readString();
+            } else if (c == '{' || c == '[') {
+                int depth = 0;
+                do {
+                    if (next == '"') {
+                        readString();
+                        continue;
+                    }
+                    if (next == '{' || next == '[') {
+                        depth++;
+                    } else if (next == '}' || next == ']') {
+                        depth--;
+                    } else if (next < 0) {
+                        throw error("unexpected end of input");
+                    }
+                    advance();
+                } while (depth > 0);
+            } else {
+                while (next >= 0 && next != ',' && next != '}' && next != ']' && !Character.isWhitespace(next)) {
+                    advance();
+                }
+            }
+        }
+
+        private int peek() throws IOException {
+            skipWhitespace();
+            return next;
+        }
+
+        private boolean consumeIf(char c) throws IOException {
+            if (peek() == c) {
+                advance();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) throws IOException {
+            if (peek() != c) {
+                throw error("expected '" + c + "'");
+            }
+            advance();
+        }
+
+        private void skipWhitespace() throws IOException {
+            while (next >= 0 && Character.isWhitespace(next)) {
+                advance();
+            }
+        }
+
+        private void advance() throws IOException {
+            if (next == '\n') {
+                line++;
+            }
+            next = reader.read();
+        }
+
+        private IOException error(String message) {
+            return new IOException("Invalid JSON at line " + line + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only query index over a snapshot of the district list.
+ *
+ * Land type and urbanization are indexed as one bitmap per value, and
+ * population, risk score and risk/resource ratio as sorted columns. Columns
+ * with only a few distinct values, such as risk score, additionally keep one
+ * bitmap per value. A query ANDs the bitmaps of its criteria together (a
+ * range on a sorted column becomes a bitmap via binary search) and then
+ * reads the matching positions either in list order or in the order of a
+ * sorted column. Name matching is not indexed; it scans the districts that
+ * passed every other criterion.
+ *
+ * Results are positions in the list the index was built from, so the index
+ * must be rebuilt whenever that list changes. {@link #scan} answers a single
+ * query over a changed list without building an index, in the same order.
+ */
+public class DistrictIndex {
+    private final District[] districts;
+    private final int words;
+    private final long[][] landTypeBitmaps;
+    private final long[][] urbanizationBitmaps;
+    private final SortedColumn population;
+    private final SortedColumn riskScore;
+    private final SortedColumn ratio;
+    
+    // Built on the first name search
+    private String[] lowerCaseNames;
+
+    // Columns with at most this many distinct values get one bitmap per value
+    private static final int MAX_VALUE_BITMAPS = 64;
+
+    /**
+     * Positions ordered by descending value, with ties in list order
+     */
+    private class SortedColumn {
+        final int[] order;
+        final int[] rank;
+        final double[] sortedValues;
+        
+        // Per-value bitmaps for low-cardinality columns, or null
+        double[] distinctValues;
+        long[][] valueBitmaps;
+
+        SortedColumn(double[] values) {
+            int n = values.length;
+            this.order = IndexSort.sortDescending(values);
+            this.rank = new int[n];
+            this.sortedValues = new double[n];
+            int distinct = 0;
+            for (int k = 0; k < n; k++) {
+                rank[order[k]] = k;
+                sortedValues[k] = values[order[k]];
+                if (k == 0 || sortedValues[k] != sortedValues[k - 1]) {
+                    distinct++;
+                }
+            }
+            if (distinct <= MAX_VALUE_BITMAPS) {
+                distinctValues = new double[distinct];
+                valueBitmaps = new long[distinct][words];
+                int v = -1;
+                for (int k = 0; k < n; k++) {
+                    if (k == 0 || sortedValues[k] != sortedValues[k - 1]) {
+                        distinctValues[++v] = sortedValues[k];
+                    }
+                    valueBitmaps[v][order[k] >>> 6] |= 1L << order[k];
+                }
+            }
+        }
+
+        /**
+         * Builds a bitmap of positions whose value lies in [min, max]
+         */
+        long[] rangeBitmap(double min, double max) {
+            long[] bitmap = new long[words];
+            if (valueBitmaps != null) {
+                for (int v = 0; v < distinctValues.length; v++) {
+                    if (distinctValues[v] >= min && distinctValues[v] <= max) {
+                        long[] values = valueBitmaps[v];
+                        for (int w = 0; w < words; w++) {
+                            bitmap[w] |= values[w];
+                        }
+                    }
+                }
+                return bitmap;
+            }
+            
+            int from = firstAtMost(max);
+            int to = firstBelow(min);
+            int n = order.length;
+            if (to - from > n / 2) {
+                // Mostly selected: start full and clear the positions outside the range
+                fill(bitmap, n);
+                for (int k = 0; k < from; k++) {
+                    bitmap[order[k] >>> 6] &= ~(1L << order[k]);
+                }
+                for (int k = to; k < n; k++) {
+                    bitmap[order[k] >>> 6] &= ~(1L << order[k]);
+                }
+            } else {
+                for (int k = from; k < to; k++) {
+                    bitmap[order[k] >>> 6] |= 1L << order[k];
+                }
+            }
+            return bitmap;
+        }
+
+        private int firstAtMost(double max) {
+            int lo = 0;
+            int hi = sortedValues.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sortedValues[mid] > max) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private int firstBelow(double min) {
+            int lo = 0;
+            int hi = sortedValues.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sortedValues[mid] >= min) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Constructor for DistrictIndex
+     *
+     * @param districts Districts to index; positions in query results refer to this list
+     */
+    public DistrictIndex(List<District> districts) {
+        this.districts = districts.toArray(new District[0]);
+        int n = this.districts.length;
+        this.words = (n + 63) >>> 6;
+        this.landTypeBitmaps = new long[DistrictCodec.LAND_TYPES.length][words];
+        this.urbanizationBitmaps = new long[DistrictCodec.URBANIZATION_TYPES.length][words];
+
+        double[] populationValues = new double[n];
+        double[] riskValues = new double[n];
+        double[] ratioValues = new double[n];
+        for (int i = 0; i < n; i++) {
+            District d = this.districts[i];
+            landTypeBitmaps[DistrictCodec.landTypeCode(d.getLandType())][i >>> 6] |= 1L << i;
+            urbanizationBitmaps[DistrictCodec.urbanizationCode(d.getUrbanization())][i >>> 6] |= 1L << i;
+            populationValues[i] = d.getPopulation();
+            riskValues[i] = d.getRiskScore();
+            ratioValues[i] = d.getRiskResourceRatio();
+        }
+        this.population = new SortedColumn(populationValues);
+        this.riskScore = new SortedColumn(riskValues);
+        this.ratio = new SortedColumn(ratioValues);
+    }
+
+    public int size() {
+        return districts.length;
+    }
+
+    public District get(int position) {
+        return districts[position];
+    }
+
+    /**
+     * Runs a query
+     *
+     * @return Positions of the matching districts, in the requested order
+     */
+    public int[] query(DistrictQuery query) {
+        int n = districts.length;
+        long[] mask = new long[words];
+        fill(mask, n);
+
+        if (!query.getLandTypes().isEmpty()) {
+            and(mask, union(landTypeBitmaps, query.getLandTypes(), true));
+        }
+        if (!query.getUrbanizations().isEmpty()) {
+            and(mask, union(urbanizationBitmaps, query.getUrbanizations(), false));
+        }
+        if (query.getMinPopulation() != Integer.MIN_VALUE || query.getMaxPopulation() != Integer.MAX_VALUE) {
+            and(mask, population.rangeBitmap(query.getMinPopulation(), query.getMaxPopulation()));
+        }
+        if (query.getMinRisk() != Integer.MIN_VALUE || query.getMaxRisk() != Integer.MAX_VALUE) {
+            and(mask, riskScore.rangeBitmap(query.getMinRisk(), query.getMaxRisk()));
+        }
+        if (query.getMinRatio() != Double.NEGATIVE_INFINITY || query.getMaxRatio() != Double.POSITIVE_INFINITY) {
+            and(mask, ratio.rangeBitmap(query.getMinRatio(), query.getMaxRatio()));
+        }
+        if (!query.getNameContains().isEmpty()) {
+            retainNamesContaining(mask, query.getNameContains());
+        }
+
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+
+        int[] result;
+        SortedColumn column = columnFor(query.getSortKey());
+        if (column == null) {
+            result = positions(mask, count);
+        } else if (count == n) {
+            result = column.order.clone();
+        } else if ((long) count * 64 < n) {
+            // Few matches: sorting their ranks is cheaper than a pass over every rank
+            result = positions(mask, count);
+            for (int k = 0; k < count; k++) {
+                result[k] = column.rank[result[k]];
+            }
+            Arrays.sort(result);
+            for (int k = 0; k < count; k++) {
+                result[k] = column.order[result[k]];
+            }
+        } else {
+            // Translate the matches into a bitmap over ranks and read it back in rank order
+            long[] ranks = new long[words];
+            for (int w = 0; w < words; w++) {
+                long word = mask[w];
+                while (word != 0) {
+                    int r = column.rank[(w << 6) + Long.numberOfTrailingZeros(word)];
+                    ranks[r >>> 6] |= 1L << r;
+                    word &= word - 1;
+                }
+            }
+            result = positions(ranks, count);
+            for (int k = 0; k < count; k++) {
+                result[k] = column.order[result[k]];
+            }
+        }
+
+        // Columns are ordered high to low, list order is ascending
+        boolean reverse = column == null ? query.isDescending() : !query.isDescending();
+        if (reverse) {
+            for (int i = 0, j = count - 1; i < j; i++, j--) {
+                int tmp = result[i];
+                result[i] = result[j];
+                result[j] = tmp;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs a query by checking every district, without building an index.
+     * Cheaper than building an index for one query; results are the same as
+     * {@link #query} on an index over the same list.
+     *
+     * @return Positions of the matching districts, in the requested order
+     */
+    public static int[] scan(List<District> districts, DistrictQuery query) {
+        int n = districts.size();
+        String needle = query.getNameContains().toLowerCase();
+        int[] matches = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            District d = districts.get(i);
+            if (!query.getLandTypes().isEmpty()
+                    && !containsCode(query.getLandTypes(), DistrictCodec.landTypeCode(d.getLandType()), true)) {
+                continue;
+            }
+            if (!query.getUrbanizations().isEmpty() && !containsCode(query.getUrbanizations(),
+                    DistrictCodec.urbanizationCode(d.getUrbanization()), false)) {
+                continue;
+            }
+            double ratioValue = d.getRiskResourceRatio();
+            if (d.getPopulation() < query.getMinPopulation() || d.getPopulation() > query.getMaxPopulation()
+                    || d.getRiskScore() < query.getMinRisk() || d.getRiskScore() > query.getMaxRisk()
+                    || ratioValue < query.getMinRatio() || ratioValue > query.getMaxRatio()) {
+                continue;
+            }
+            if (!needle.isEmpty() && !d.getName().toLowerCase().contains(needle)) {
+                continue;
+            }
+            matches[count++] = i;
+        }
+
+        int[] result;
+        DistrictQuery.SortKey key = query.getSortKey();
+        if (key == DistrictQuery.SortKey.ADDED) {
+            result = Arrays.copyOf(matches, count);
+        } else {
+            // Stable, so ties stay in list order like the index columns
+            double[] values = new double[count];
+            for (int k = 0; k < count; k++) {
+                District d = districts.get(matches[k]);
+                values[k] = key == DistrictQuery.SortKey.POPULATION ? d.getPopulation()
+                        : key == DistrictQuery.SortKey.RISK_SCORE ? d.getRiskScore() : d.getRiskResourceRatio();
+            }
+            int[] order = IndexSort.sortDescending(values);
+            result = new int[count];
+            for (int k = 0; k < count; k++) {
+                result[k] = matches[order[k]];
+            }
+        }
+
+        boolean reverse = key == DistrictQuery.SortKey.ADDED ? query.isDescending() : !query.isDescending();
+        if (reverse) {
+            for (int i = 0, j = count - 1; i < j; i++, j--) {
+                int tmp = result[i];
+                result[i] = result[j];
+                result[j] = tmp;
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsCode(Iterable<String> values, int code, boolean landType) {
+        for (String value : values) {
+            int valueCode = landType ? DistrictCodec.landTypeCode(value) : DistrictCodec.urbanizationCode(value);
+            if (valueCode == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SortedColumn columnFor(DistrictQuery.SortKey key) {
+        switch (key) {
+            case POPULATION:
+                return population;
+            case RISK_SCORE:
+                return riskScore;
+            case RATIO:
+                return ratio;
+            default:
+                return null;
+        }
+    }
+
+    private long[] union(long[][] bitmaps, Iterable<String> values, boolean landType) {
+        long[] result = new long[words];
+        for (String value : values) {
+            int code = landType ? DistrictCodec.landTypeCode(value) : DistrictCodec.urbanizationCode(value);
+            long[] bitmap = bitmaps[code];
+            for (int w = 0; w < words; w++) {
+                result[w] |= bitmap[w];
+            }
+        }
+        return result;
+    }
+
+    private void retainNamesContaining(long[] mask, String text) {
+        if (lowerCaseNames == null) {
+            lowerCaseNames = new String[districts.length];
+            for (int i = 0; i < districts.length; i++) {
+                lowerCaseNames[i] = districts[i].getName().toLowerCase();
+            }
+        }
+        String needle = text.toLowerCase();
+        for (int w = 0; w < words; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int position = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (!lowerCaseNames[position].contains(needle)) {
+                    mask[w] &= ~(1L << position);
+                }
+            }
+        }
+    }
+
+    private static int[] positions(long[] mask, int count) {
+        int[] result = new int[count];
+        int k = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                result[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    private static void and(long[] mask, long[] bitmap) {
+        for (int w = 0; w < mask.length; w++) {
+            mask[w] &= bitmap[w];
+        }
+    }
+
+    /**
+     * Sets the first n bits
+     */
+    private static void fill(long[] bitmap, int n) {
+        Arrays.fill(bitmap, -1L);
+        if ((n & 63) != 0) {
+            bitmap[bitmap.length - 1] = (1L << n) - 1;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import javax.swing.AbstractListModel;
+import java.util.Collection;
+
+/**
+ * List model over the application's district list.
+ *
+ * The districts are held as a {@link PersistentVector}, so every edit
+ * produces a new version and {@link #getDistricts()} hands out an immutable
+ * snapshot without copying. Snapshots can be kept for undo or read by
+ * background work while editing continues.
+ *
+ * Changes are reported to the view as index ranges, so adding thousands of
+ * districts at once produces a single notification and a single layout pass
+ * instead of one per district.
+ *
+ * The model can show a filtered view: a list of positions into the backing
+ * list, usually from a {@link DistrictIndex} query. Row indexes then refer to
+ * the view, and mutations leave refreshing the view to the caller.
+ */
+public class DistrictListModel extends AbstractListModel<District> {
+    private PersistentVector<District> districts = PersistentVector.empty();
+    
+    // Positions shown, or null to show every district in list order
+    private int[] view;
+
+    /**
+     * Returns the current version of the district list
+     */
+    public PersistentVector<District> getDistricts() {
+        return districts;
+    }
+
+    /**
+     * Replaces the district list with another version, for example one
+     * restored by undo. Any filtered view must be refreshed by the caller.
+     */
+    public void setDistricts(PersistentVector<District> version) {
+        if (version == districts) {
+            return;
+        }
+        int oldSize = getSize();
+        districts = version;
+        if (view != null) {
+            return;
+        }
+        int newSize = getSize();
+        if (newSize < oldSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        } else if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        if (Math.min(oldSize, newSize) > 0) {
+            fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return view == null ? districts.size() : view.length;
+    }
+
+    @Override
+    public District getElementAt(int index) {
+        return districts.get(toPosition(index));
+    }
+
+    /**
+     * Maps a row index to a position in the backing list
+     */
+    public int toPosition(int index) {
+        return view == null ? index : view[index];
+    }
+
+    public boolean isFiltered() {
+        return view != null;
+    }
+
+    /**
+     * Shows only the given positions, in the given order
+     *
+     * @param positions Positions into the backing list, or null to show every district
+     */
+    public void setView(int[] positions) {
+        if (view == null && positions == null) {
+            return;
+        }
+        int oldSize = getSize();
+        view = positions;
+        int newSize = getSize();
+        if (newSize < oldSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        } else if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        if (Math.min(oldSize, newSize) > 0) {
+            fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+        }
+    }
+
+    public void add(District district) {
+        districts = districts.plus(district);
+        if (view == null) {
+            fireIntervalAdded(this, districts.size() - 1, districts.size() - 1);
+        }
+    }
+
+    /**
+     * Appends all districts with one change notification
+     */
+    public void addAll(Collection<District> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        int first = districts.size();
+        districts = districts.plusAll(added);
+        if (view == null) {
+            fireIntervalAdded(this, first, districts.size() - 1);
+        }
+    }
+
+    /**
+     * Removes the district shown at the given row
+     */
+    public void remove(int index) {
+        districts = districts.minus(toPosition(index));
+        if (view == null) {
+            fireIntervalRemoved(this, index, index);
+        }
+    }
+}
@@ -0,0 +1,629 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Streaming path from raw district updates to allocation plans, for
+ * continuous feeds such as sensor-driven population estimates.
+ *
+ * Updates are CSV lines (name,population,landType,urbanization,resourceDemand)
+ * and flow through {@link Flow} stages:
+ * <ol>
+ *   <li>parse: split the line and read the numbers</li>
+ *   <li>normalize: trim, fix the case of land type and urbanization and map
+ *       common aliases ("coast", "semi-urban", ...) to the known values</li>
+ *   <li>score: build the {@link District}, which scores it through
+ *       {@link RiskStatistics}. An update to a district seen before builds
+ *       a new version with the same ID, so consecutive plans (and clients
+ *       of {@link AllocationEventServer}) see it as changed rather than
+ *       removed and added again.</li>
+ *   <li>window: collect districts into micro-batches, closed by size or
+ *       time. A later update to the same district within a window replaces
+ *       the earlier one.</li>
+ *   <li>allocate: apply the batch to the current set of districts (keyed by
+ *       name) and run the allocation, passing each plan to the listeners</li>
+ * </ol>
+ * Every stage has a bounded buffer and requests one item at a time, so a
+ * slow stage blocks the one before it and the pressure reaches the source.
+ * {@link #submit} then blocks the producer, while {@link #offer} drops the
+ * update and counts it. Memory is bounded by the buffers, one window and
+ * the number of distinct districts, however fast updates arrive.
+ *
+ * Usage:
+ * <pre>
+ * java DistrictPipeline --budget n [--input file|-] [--policy name]
+ *     [--window n] [--window-ms ms] [--buffer n] [--drop] [--port n]
+ *     [--bind host] [--allow-origin origin]
+ * </pre>
+ * With --port, plans are streamed by an {@link AllocationEventServer}, on
+ * loopback unless --bind gives another address, and districts posted to it
+ * are fed into the pipeline alongside the input.
+ */
+public class DistrictPipeline implements AutoCloseable {
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+    public static final int DEFAULT_WINDOW_SIZE = 10_000;
+    public static final long DEFAULT_WINDOW_MILLIS = 500;
+
+    private static final Map<String, String> LAND_TYPE_NAMES = new HashMap<>();
+    private static final Map<String, String> URBANIZATION_NAMES = new HashMap<>();
+
+    static {
+        for (int code = 1; code < DistrictCodec.LAND_TYPES.length; code++) {
+            LAND_TYPE_NAMES.put(DistrictCodec.LAND_TYPES[code].toLowerCase(Locale.ROOT), DistrictCodec.LAND_TYPES[code]);
+        }
+        LAND_TYPE_NAMES.put("woodland", "Forest");
+        LAND_TYPE_NAMES.put("coast", "Coastal");
+        LAND_TYPE_NAMES.put("coastline", "Coastal");
+        LAND_TYPE_NAMES.put("arid", "Desert");
+        LAND_TYPE_NAMES.put("city", "Urban");
+        for (int code = 1; code < DistrictCodec.URBANIZATION_TYPES.length; code++) {
+            URBANIZATION_NAMES.put(DistrictCodec.URBANIZATION_TYPES[code].toLowerCase(Locale.ROOT),
+                    DistrictCodec.URBANIZATION_TYPES[code]);
+        }
+        URBANIZATION_NAMES.put("semi-urban", "Suburban");
+        URBANIZATION_NAMES.put("semiurban", "Suburban");
+        URBANIZATION_NAMES.put("peri-urban", "Suburban");
+        URBANIZATION_NAMES.put("city", "Urban");
+        URBANIZATION_NAMES.put("countryside", "Rural");
+    }
+
+    /**
+     * One district update between the parse and score stages
+     */
+    private static class Update {
+        final String name;
+        final int population;
+        final String landType;
+        final String urbanization;
+        final int resourceDemand;
+
+        Update(String name, int population, String landType, String urbanization, int resourceDemand) {
+            this.name = name;
+            this.population = population;
+            this.landType = landType;
+            this.urbanization = urbanization;
+            this.resourceDemand = resourceDemand;
+        }
+    }
+
+    /**
+     * Counters for one stage
+     */
+    public static class StageMetrics {
+        private final String name;
+        private final LongAdder received = new LongAdder();
+        private final LongAdder emitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private volatile LongSupplier backlog = () -> 0;
+
+        StageMetrics(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getReceived() {
+            return received.sum();
+        }
+
+        public long getEmitted() {
+            return emitted.sum();
+        }
+
+        /**
+         * Items this stage could not process (bad rows, failed allocations)
+         */
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * Items received per second of time spent processing them, not
+         * counting time blocked on the next stage
+         */
+        public double getThroughput() {
+            long busy = busyNanos.get();
+            return busy == 0 ? 0.0 : getReceived() * 1e9 / busy;
+        }
+
+        /**
+         * Items waiting in this stage's input buffer
+         */
+        public long getBacklog() {
+            return backlog.getAsLong();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: in %,d, out %,d, rejected %,d, %,.0f/s, backlog %,d",
+                    name, getReceived(), getEmitted(), getRejected(), getThroughput(), getBacklog());
+        }
+    }
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService windowTimer;
+    private final SubmissionPublisher<String> source;
+    private final List<StageMetrics> metrics = new ArrayList<>();
+    private final List<Consumer<AllocationPlan>> planListeners = new CopyOnWriteArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    // Latest version of every district by name; only the score stage touches it
+    private final Map<String, District> scored = new HashMap<>();
+
+    /**
+     * Creates and starts a pipeline
+     *
+     * @param totalResources Budget for each allocation
+     * @param policy Allocation policy
+     * @param bufferSize Capacity of each stage's input buffer
+     * @param windowSize Distinct districts that close a window early
+     * @param windowMillis Longest time a window stays open
+     */
+    public DistrictPipeline(int totalResources, AllocationPolicy policy, int bufferSize, int windowSize,
+            long windowMillis) {
+        if (bufferSize <= 0 || windowSize <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Buffer size, window size and window time must be positive");
+        }
+        // One thread per consuming stage, so a stage blocked on the next one never starves it
+        executor = Executors.newFixedThreadPool(5, r -> {
+            Thread thread = new Thread(r, "district-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        windowTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "district-pipeline-window");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        source = new SubmissionPublisher<>(executor, bufferSize);
+        Stage<String, Update> parse = new Stage<>("parse", bufferSize, DistrictPipeline::parse);
+        Stage<Update, Update> normalize = new Stage<>("normalize", bufferSize, DistrictPipeline::normalize);
+        Stage<Update, District> score = new Stage<>("score", bufferSize, this::score);
+        WindowStage window = new WindowStage(bufferSize, windowSize, windowMillis);
+        AllocationStage allocate = new AllocationStage(totalResources, policy);
+
+        parse.metrics.backlog = source::estimateMaximumLag;
+        normalize.metrics.backlog = parse::estimateMaximumLag;
+        score.metrics.backlog = normalize::estimateMaximumLag;
+        window.metrics.backlog = score::estimateMaximumLag;
+        allocate.metrics.backlog = window::estimateMaximumLag;
+
+        source.subscribe(parse);
+        parse.subscribe(normalize);
+        normalize.subscribe(score);
+        score.subscribe(window);
+        window.subscribe(allocate);
+    }
+
+    /**
+     * Registers a listener called with every plan, on the allocation thread
+     */
+    public void addPlanListener(Consumer<AllocationPlan> listener) {
+        planListeners.add(listener);
+    }
+
+    /**
+     * Feeds one update, blocking while the pipeline is full
+     */
+    public void submit(String line) {
+        source.submit(line);
+    }
+
+    /**
+     * Feeds one update, waiting at most the given time for room
+     *
+     * @return false if the pipeline stayed full and the update was dropped
+     */
+    public boolean offer(String line, long timeout, TimeUnit unit) {
+        boolean accepted = source.offer(line, timeout, unit, (subscriber, item) -> false) >= 0;
+        if (!accepted) {
+            dropped.increment();
+        }
+        return accepted;
+    }
+
+    /**
+     * Updates dropped by {@link #offer} because the pipeline was full
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Metrics for each stage, in pipeline order
+     */
+    public List<StageMetrics> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Ends the input, waits for the last window to be allocated and stops the threads
+     */
+    @Override
+    public void close() {
+        source.close();
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            windowTimer.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses and normalizes one update line the way the pipeline does, for
+     * callers that keep their own district list
+     *
+     * @return A new district built from the line
+     * @throws IllegalArgumentException if the pipeline would reject the line
+     */
+    public static District parseDistrict(String line) {
+        Update update = normalize(parse(line));
+        return new District(update.name, update.population, update.landType, update.urbanization,
+                update.resourceDemand);
+    }
+
+    private static Update parse(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("expected 5 fields");
+        }
+        return new Update(fields[0], Integer.parseInt(fields[1].trim()), fields[2], fields[3],
+                Integer.parseInt(fields[4].trim()));
+    }
+
+    private static Update normalize(Update update) {
+        String name = update.name.trim();
+        String landType = LAND_TYPE_NAMES.get(update.landType.trim().toLowerCase(Locale.ROOT));
+        String urbanization = URBANIZATION_NAMES.get(update.urbanization.trim().toLowerCase(Locale.ROOT));
+        if (name.isEmpty() || landType == null || urbanization == null
+                || update.population <= 0 || update.resourceDemand <= 0) {
+            throw new IllegalArgumentException("invalid district");
+        }
+        return new Update(name, update.population, landType, urbanization, update.resourceDemand);
+    }
+
+    private District score(Update update) {
+        District previous = scored.get(update.name);
+        District district = previous == null
+                ? new District(update.name, update.population, update.landType, update.urbanization,
+                        update.resourceDemand)
+                : new District(previous, update.population, update.landType, update.urbanization,
+                        update.resourceDemand);
+        scored.put(update.name, district);
+        return district;
+    }
+
+    /**
+     * Applies a function to each item and publishes the result. Items the
+     * function rejects with an exception are counted and skipped.
+     */
+    private class Stage<I, O> extends SubmissionPublisher<O> implements Flow.Processor<I, O> {
+        final StageMetrics metrics;
+        private final Function<I, O> function;
+        private Flow.Subscription subscription;
+
+        Stage(String name, int bufferSize, Function<I, O> function) {
+            super(executor, bufferSize);
+            this.metrics = new StageMetrics(name);
+            this.function = function;
+            DistrictPipeline.this.metrics.add(metrics);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(I item) {
+            metrics.received.increment();
+            long start = System.nanoTime();
+            O result = null;
+            try {
+                result = function.apply(item);
+            } catch (RuntimeException e) {
+                metrics.rejected.increment();
+            }
+            metrics.busyNanos.addAndGet(System.nanoTime() - start);
+            if (result != null) {
+                // Blocks while the next stage's buffer is full
+                submit(result);
+                metrics.emitted.increment();
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            closeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            close();
+        }
+    }
+
+    /**
+     * Collects districts into windows, closed when a window holds enough
+     * distinct districts or has been open long enough
+     */
+    private class WindowStage extends SubmissionPublisher<List<District>> implements Flow.Processor<District, List<District>> {
+        final StageMetrics metrics = new StageMetrics("window");
+        private final int windowSize;
+        private final Map<String, District> pending = new LinkedHashMap<>();
+        private Flow.Subscription subscription;
+
+        WindowStage(int bufferSize, int windowSize, long windowMillis) {
+            super(executor, bufferSize);
+            this.windowSize = windowSize;
+            DistrictPipeline.this.metrics.add(metrics);
+            windowTimer.scheduleAtFixedRate(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(District district) {
+            metrics.received.increment();
+            long start = System.nanoTime();
+            boolean full;
+            synchronized (pending) {
+                pending.put(district.getName(), district);
+                full = pending.size() >= windowSize;
+            }
+            metrics.busyNanos.addAndGet(System.nanoTime() - start);
+            if (full) {
+                flush();
+            }
+            subscription.request(1);
+        }
+
+        /**
+         * Publishes the open window, if it has anything in it
+         */
+        private void flush() {
+            synchronized (pending) {
+                if (pending.isEmpty() || isClosed()) {
+                    return;
+                }
+                // Holding the lock while blocked keeps onNext from growing the window
+                submit(new ArrayList<>(pending.values()));
+                metrics.emitted.increment();
+                pending.clear();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            closeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            flush();
+            close();
+        }
+    }
+
+    /**
+     * Keeps the latest version of every district and reallocates after each window
+     */
+    private class AllocationStage implements Flow.Subscriber<List<District>> {
+        final StageMetrics metrics = new StageMetrics("allocate");
+        private final int totalResources;
+        private final AllocationPolicy policy;
+        private final Map<String, District> current = new LinkedHashMap<>();
+        private Flow.Subscription subscription;
+
+        AllocationStage(int totalResources, AllocationPolicy policy) {
+            this.totalResources = totalResources;
+            this.policy = policy;
+            DistrictPipeline.this.metrics.add(metrics);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<District> window) {
+            metrics.received.add(window.size());
+            long start = System.nanoTime();
+            for (District district : window) {
+                current.put(district.getName(), district);
+            }
+            AllocationPlan plan;
+            try {
+                plan = AllocationEngine.allocate(new ArrayList<>(current.values()), totalResources, policy);
+            } catch (RuntimeException e) {
+                // Keep the districts and try again with the next window
+                metrics.busyNanos.addAndGet(System.nanoTime() - start);
+                metrics.rejected.increment();
+                subscription.request(1);
+                return;
+            }
+            metrics.busyNanos.addAndGet(System.nanoTime() - start);
+            metrics.emitted.increment();
+            for (Consumer<AllocationPlan> listener : planListeners) {
+                try {
+                    listener.accept(plan);
+                } catch (RuntimeException e) {
+                    metrics.rejected.increment();
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("Error: district pipeline stopped: " + throwable);
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Main method - streams district updates from a file or standard input
+     * and prints a line per allocation window
+     *
+     * @param args Command line arguments, see class documentation
+     */
+    public static void main(String[] args) {
+        Path inputFile = null;
+        int budget = -1;
+        AllocationPolicy policy = AllocationEngine.DEFAULT_POLICY;
+        int bufferSize = DEFAULT_BUFFER_SIZE;
+        int windowSize = DEFAULT_WINDOW_SIZE;
+        long windowMillis = DEFAULT_WINDOW_MILLIS;
+        boolean drop = false;
+        int port = -1;
+        String bindHost = null;
+        String allowedOrigin = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--input":
+                        inputFile = args[++i].equals("-") ? null : Paths.get(args[i]);
+                        break;
+                    case "--budget":
+                        budget = Integer.parseInt(args[++i]);
+                        break;
+                    case "--policy":
+                        policy = AllocationEngine.findPolicy(args[++i]);
+                        break;
+                    case "--buffer":
+                        bufferSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--window":
+                        windowSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "--window-ms":
+                        windowMillis = Long.parseLong(args[++i]);
+                        break;
+                    case "--drop":
+                        drop = true;
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--bind":
+                        bindHost = args[++i];
+                        break;
+                    case "--allow-origin":
+                        allowedOrigin = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (budget < 0) {
+                throw new IllegalArgumentException("--budget is required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java DistrictPipeline --budget <n> [--input <file>|-] [--policy <name>]"
+                    + " [--window <n>] [--window-ms <ms>] [--buffer <n>] [--drop] [--port <n>]"
+                    + " [--bind <host>] [--allow-origin <origin>]");
+            System.exit(2);
+            return;
+        }
+
+        AllocationEventServer server = null;
+        try (BufferedReader reader = inputFile != null
+                    ? Files.newBufferedReader(inputFile, StandardCharsets.UTF_8)
+                    : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            DistrictPipeline pipeline = new DistrictPipeline(budget, policy, bufferSize, windowSize, windowMillis);
+            if (port >= 0) {
+                server = new AllocationEventServer(AllocationEventServer.bindAddress(bindHost, port),
+                        allowedOrigin, AllocationEventServer.DEFAULT_MAX_CLIENTS);
+                server.start();
+                pipeline.addPlanListener(server);
+                // Districts posted by dashboards join the feed once they pass the parse and normalize checks
+                server.setDistrictHandler(line -> {
+                    normalize(parse(line));
+                    if (!pipeline.offer(line, 1, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("Pipeline is full");
+                    }
+                });
+                System.err.println("Streaming plans on port " + server.getPort() + AllocationEventServer.STREAM_PATH);
+            }
+            AtomicLong windows = new AtomicLong();
+            pipeline.addPlanListener(plan -> System.err.printf("Window %d: %,d districts, allocated %,d of %,d, "
+                    + "%,d funded%n", windows.incrementAndGet(), plan.getSortedDistricts().size(),
+                    plan.getAllocatedResources(), plan.getTotalResources(), plan.getAllocationResults().size()));
+
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")
+                        || (lineNumber == 1 && line.trim().toLowerCase().startsWith("name,"))) {
+                    continue;
+                }
+                if (drop) {
+                    pipeline.offer(line, 0, TimeUnit.MILLISECONDS);
+                } else {
+                    pipeline.submit(line);
+                }
+            }
+            pipeline.close();
+
+            for (StageMetrics stage : pipeline.getMetrics()) {
+                System.err.println(stage);
+            }
+            if (drop) {
+                System.err.printf("Dropped %,d updates while the pipeline was full%n", pipeline.getDroppedCount());
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Filter and sort criteria for {@link DistrictIndex#query}.
+ *
+ * Criteria left at their defaults do not restrict the result. Land type and
+ * urbanization accept any of the selected values; all other criteria must
+ * hold together.
+ */
+public class DistrictQuery {
+    /**
+     * Column a query result is ordered by
+     */
+    public enum SortKey {
+        ADDED("Added order"),
+        POPULATION("Population"),
+        RISK_SCORE("Risk score"),
+        RATIO("Risk/resource ratio");
+
+        private final String label;
+
+        SortKey(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final Set<String> landTypes = new HashSet<>();
+    private final Set<String> urbanizations = new HashSet<>();
+    private int minPopulation = Integer.MIN_VALUE;
+    private int maxPopulation = Integer.MAX_VALUE;
+    private int minRisk = Integer.MIN_VALUE;
+    private int maxRisk = Integer.MAX_VALUE;
+    private double minRatio = Double.NEGATIVE_INFINITY;
+    private double maxRatio = Double.POSITIVE_INFINITY;
+    private String nameContains = "";
+    private SortKey sortKey = SortKey.ADDED;
+    private boolean descending = false;
+
+    public Set<String> getLandTypes() {
+        return landTypes;
+    }
+
+    public void addLandType(String landType) {
+        landTypes.add(landType);
+    }
+
+    public Set<String> getUrbanizations() {
+        return urbanizations;
+    }
+
+    public void addUrbanization(String urbanization) {
+        urbanizations.add(urbanization);
+    }
+
+    public int getMinPopulation() {
+        return minPopulation;
+    }
+
+    public int getMaxPopulation() {
+        return maxPopulation;
+    }
+
+    public void setPopulationRange(int min, int max) {
+        this.minPopulation = min;
+        this.maxPopulation = max;
+    }
+
+    public int getMinRisk() {
+        return minRisk;
+    }
+
+    public int getMaxRisk() {
+        return maxRisk;
+    }
+
+    public void setRiskRange(int min, int max) {
+        this.minRisk = min;
+        this.maxRisk = max;
+    }
+
+    public double getMinRatio() {
+        return minRatio;
+    }
+
+    public double getMaxRatio() {
+        return maxRatio;
+    }
+
+    public void setRatioRange(double min, double max) {
+        this.minRatio = min;
+        this.maxRatio = max;
+    }
+
+    public String getNameContains() {
+        return nameContains;
+    }
+
+    /**
+     * Restricts the result to names containing the text, ignoring case
+     */
+    public void setNameContains(String text) {
+        this.nameContains = text == null ? "" : text;
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setSort(SortKey sortKey, boolean descending) {
+        this.sortKey = sortKey;
+        this.descending = descending;
+    }
+
+    /**
+     * Returns true if the query selects every district in added order
+     */
+    public boolean isUnfiltered() {
+        return landTypes.isEmpty() && urbanizations.isEmpty()
+                && minPopulation == Integer.MIN_VALUE && maxPopulation == Integer.MAX_VALUE
+                && minRisk == Integer.MIN_VALUE && maxRisk == Integer.MAX_VALUE
+                && minRatio == Double.NEGATIVE_INFINITY && maxRatio == Double.POSITIVE_INFINITY
+                && nameContains.isEmpty() && sortKey == SortKey.ADDED && !descending;
+    }
+}
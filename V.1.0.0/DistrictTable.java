@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column-oriented, pre-scored district table for headless processing.
+ *
+ * Each district's population, land type and urbanization risk components are
+ * computed once when the table is loaded. Total risk scores for any set of
+ * weights can then be derived with a single pass over the columns, so many
+ * scenarios can share one table without re-parsing or re-scoring.
+ */
+public class DistrictTable {
+    private String[] names;
+    private int[] population;
+    private int[] resourceDemand;
+    private byte[] landTypeCode;
+    private byte[] urbanizationCode;
+    private byte[] populationRisk;
+    private int size = 0;
+
+    private DistrictTable(int capacity) {
+        capacity = Math.max(capacity, 16);
+        names = new String[capacity];
+        population = new int[capacity];
+        resourceDemand = new int[capacity];
+        landTypeCode = new byte[capacity];
+        urbanizationCode = new byte[capacity];
+        populationRisk = new byte[capacity];
+    }
+
+    /**
+     * Appends a district, computing its risk components
+     */
+    private void add(String name, int pop, int landCode, int urbanCode, int demand) {
+        if (size == names.length) {
+            int capacity = size * 2;
+            names = Arrays.copyOf(names, capacity);
+            population = Arrays.copyOf(population, capacity);
+            resourceDemand = Arrays.copyOf(resourceDemand, capacity);
+            landTypeCode = Arrays.copyOf(landTypeCode, capacity);
+            urbanizationCode = Arrays.copyOf(urbanizationCode, capacity);
+            populationRisk = Arrays.copyOf(populationRisk, capacity);
+        }
+        names[size] = name;
+        population[size] = pop;
+        resourceDemand[size] = demand;
+        landTypeCode[size] = (byte) landCode;
+        urbanizationCode[size] = (byte) urbanCode;
+        populationRisk[size] = (byte) RiskStatistics.calculatePopulationRisk(pop);
+        size++;
+    }
+
+    /**
+     * Builds a table from District objects
+     */
+    public static DistrictTable fromDistricts(List<District> districts) {
+        DistrictTable table = new DistrictTable(districts.size());
+        for (District d : districts) {
+            table.add(d.getName(), d.getPopulation(), DistrictCodec.landTypeCode(d.getLandType()),
+                    DistrictCodec.urbanizationCode(d.getUrbanization()), d.getResourceDemand());
+        }
+        return table;
+    }
+
+    /**
+     * Loads a table from any file format supported by {@link DistrictImporter}
+     */
+    public static DistrictTable read(Path file) throws IOException {
+        DistrictTable table = new DistrictTable(1024);
+        DistrictImporter.read(file, table::add);
+        return table;
+    }
+
+    /**
+     * Computes total risk scores for every district with the given weights
+     */
+    public int[] computeRiskScores(int weightPopulation, int weightLandType, int weightUrbanization) {
+        int[] risk = new int[size];
+        for (int i = 0; i < size; i++) {
+            risk[i] = RiskStatistics.calculateTotalRisk(populationRisk[i], landTypeCode[i], urbanizationCode[i],
+                    weightPopulation, weightLandType, weightUrbanization);
+        }
+        return risk;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public int getPopulation(int index) {
+        return population[index];
+    }
+
+    public int getResourceDemand(int index) {
+        return resourceDemand[index];
+    }
+
+    public String getLandType(int index) {
+        return DistrictCodec.LAND_TYPES[landTypeCode[index]];
+    }
+
+    public String getUrbanization(int index) {
+        return DistrictCodec.URBANIZATION_TYPES[urbanizationCode[index]];
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Undo and redo over immutable versions of some state.
+ *
+ * The history only stores references to versions, so with a persistent
+ * structure such as {@link PersistentVector} each step costs O(1) no matter
+ * how large the state is.
+ *
+ * @param <T> Version type; versions must not be modified once recorded
+ */
+public class EditHistory<T> {
+    public static final int DEFAULT_LIMIT = 200;
+
+    private final int limit;
+    private final Deque<T> undoStack = new ArrayDeque<>();
+    private final Deque<T> redoStack = new ArrayDeque<>();
+
+    /**
+     * Constructor for EditHistory
+     *
+     * @param limit Maximum number of undo steps kept
+     */
+    public EditHistory(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Records the version an edit is about to replace. Clears the redo steps.
+     */
+    public void record(T previous) {
+        undoStack.push(previous);
+        if (undoStack.size() > limit) {
+            undoStack.removeLast();
+        }
+        redoStack.clear();
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    /**
+     * Steps back one edit
+     *
+     * @param current The version being undone
+     * @return The version to restore
+     */
+    public T undo(T current) {
+        T previous = undoStack.pop();
+        redoStack.push(current);
+        return previous;
+    }
+
+    /**
+     * Steps forward one undone edit
+     *
+     * @param current The version being replaced
+     * @return The version to restore
+     */
+    public T redo(T current) {
+        T next = redoStack.pop();
+        undoStack.push(current);
+        return next;
+    }
+}
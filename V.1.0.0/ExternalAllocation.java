@@ -0,0 +1,546 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Greedy allocation for district sets larger than the heap.
+ *
+ * Districts are streamed from a file and scored into a bounded in-memory
+ * buffer. Whenever the buffer reaches the heap limit it is sorted by
+ * risk/resource ratio and spilled to a temporary run file. The runs are then
+ * read back through memory-mapped windows and combined with a k-way merge,
+ * in several passes if there are more runs than can be merged at once. The
+ * final merge feeds the greedy pass directly, so results stream out in
+ * priority order without the full sorted list ever being held on heap.
+ *
+ * Ties are broken by position in the file. {@link AllocationEngine} breaks
+ * ties by district ID, and {@link DistrictImporter} hands out increasing IDs
+ * in file order, so the two agree on districts loaded from the same file.
+ */
+public class ExternalAllocation {
+    public static final long DEFAULT_HEAP_LIMIT = 64L * 1024 * 1024;
+
+    // Maximum number of runs merged at once
+    private static final int MERGE_FAN_IN = 64;
+
+    // Size of the mapped window each run is read through
+    private static final int MAP_WINDOW_BYTES = 16 * 1024 * 1024;
+
+    // Run records: ratio, sequence, risk, demand, population, name length, name
+    private static final int RECORD_HEADER_BYTES = 8 + 4 + 4 + 4 + 4 + 2;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    // Heap per buffer slot: ratio, four ints, a name reference and the sort's two index arrays
+    private static final int SLOT_BYTES = 8 + 4 * 4 + 8 + 2 * 4;
+
+    // Array header and padding of each buffered name
+    private static final int NAME_OVERHEAD_BYTES = 24;
+
+    // Upper bound on a single spilled run, so runs stay mappable in one piece
+    private static final long MAX_RUN_BYTES = 1L << 30;
+
+    private final long heapLimit;
+    private final Path tempDirectory;
+
+    /**
+     * Receives allocation results in priority order
+     */
+    public interface ResultSink {
+        void result(String name, int riskScore, int resourceDemand, int allocatedResources) throws IOException;
+    }
+
+    /**
+     * Totals of an external allocation run
+     */
+    public static class Result {
+        private long districts;
+        private long funded;
+        private long partial;
+        private int allocatedResources;
+        private int remainingResources;
+        private int runs;
+        private int mergePasses;
+
+        public long getDistricts() {
+            return districts;
+        }
+
+        public long getFunded() {
+            return funded;
+        }
+
+        public long getPartial() {
+            return partial;
+        }
+
+        public int getAllocatedResources() {
+            return allocatedResources;
+        }
+
+        public int getRemainingResources() {
+            return remainingResources;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        public int getMergePasses() {
+            return mergePasses;
+        }
+    }
+
+    /**
+     * Constructor for ExternalAllocation
+     *
+     * @param heapLimit Approximate heap, in bytes, used for buffering districts
+     * @param tempDirectory Directory for run files, or null for the system default
+     */
+    public ExternalAllocation(long heapLimit, Path tempDirectory) {
+        if (heapLimit < 1024L * 1024) {
+            throw new IllegalArgumentException("Heap limit too small: " + heapLimit + " bytes");
+        }
+        this.heapLimit = heapLimit;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Allocates resources greedily to every district in the file
+     *
+     * @param districtFile District file in any format {@link DistrictImporter} reads
+     * @param totalResources Resources to distribute
+     * @param sink Receives one result per district, in priority order
+     */
+    public Result allocate(Path districtFile, int totalResources, ResultSink sink) throws IOException {
+        Result result = new Result();
+        List<Path> runs = new ArrayList<>();
+        try {
+            writeRuns(districtFile, runs, result);
+            result.runs = runs.size();
+            while (runs.size() > MERGE_FAN_IN) {
+                runs = mergePass(runs);
+                result.mergePasses++;
+            }
+            streamGreedy(runs, totalResources, sink, result);
+            return result;
+        } finally {
+            for (Path run : runs) {
+                deleteRun(run);
+            }
+        }
+    }
+
+    /**
+     * Buffers scored districts up to the heap limit, spilling sorted runs
+     */
+    private void writeRuns(Path districtFile, List<Path> runs, Result result) throws IOException {
+        // Half of the limit goes to preallocated slots, the rest to names
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, heapLimit / 2 / SLOT_BYTES);
+        long slotBytes = (long) capacity * SLOT_BYTES;
+        double[] ratio = new double[capacity];
+        int[] sequence = new int[capacity];
+        int[] risk = new int[capacity];
+        int[] demand = new int[capacity];
+        int[] population = new int[capacity];
+        byte[][] names = new byte[capacity][];
+        int[] count = {0};
+        long[] nameBytesBuffered = {0};
+        long[] runBytes = {0};
+
+        try {
+            DistrictImporter.read(districtFile, (name, pop, land, urban, dem) -> {
+                byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+                if (nameBytes.length > MAX_NAME_BYTES) {
+                    throw new IllegalArgumentException("District name too long: " + name.substring(0, 40) + "...");
+                }
+                long recordBytes = RECORD_HEADER_BYTES + nameBytes.length;
+                long nameCost = NAME_OVERHEAD_BYTES + nameBytes.length;
+                if (count[0] == capacity || slotBytes + nameBytesBuffered[0] + nameCost > heapLimit
+                        || runBytes[0] + recordBytes > MAX_RUN_BYTES) {
+                    spill(runs, count[0], runBytes[0], ratio, sequence, risk, demand, population, names);
+                    count[0] = 0;
+                    nameBytesBuffered[0] = 0;
+                    runBytes[0] = 0;
+                }
+
+                int i = count[0]++;
+                int riskScore = RiskStatistics.calculateTotalRisk(
+                        RiskStatistics.calculatePopulationRisk(pop), land, urban);
+                ratio[i] = (double) riskScore / dem;
+                sequence[i] = (int) result.districts++;
+                risk[i] = riskScore;
+                demand[i] = dem;
+                population[i] = pop;
+                names[i] = nameBytes;
+                nameBytesBuffered[0] += nameCost;
+                runBytes[0] += recordBytes;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (count[0] > 0) {
+            spill(runs, count[0], runBytes[0], ratio, sequence, risk, demand, population, names);
+        }
+    }
+
+    private void spill(List<Path> runs, int count, long runBytes, double[] ratio, int[] sequence,
+            int[] risk, int[] demand, int[] population, byte[][] names) {
+        long start = AllocationMetrics.start();
+        int[] order = IndexSort.sortDescending(ratio, count);
+        AllocationMetrics.record(AllocationMetrics.Stage.SORTING, start, count);
+
+        try {
+            Path run = createRun();
+            runs.add(run);
+            try (FileChannel channel = FileChannel.open(run, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, runBytes);
+                for (int k = 0; k < count; k++) {
+                    int i = order[k];
+                    out.putDouble(ratio[i]).putInt(sequence[i]).putInt(risk[i]).putInt(demand[i])
+                            .putInt(population[i]).putShort((short) names[i].length).put(names[i]);
+                    names[i] = null;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Merges groups of runs into fewer, longer runs
+     */
+    private List<Path> mergePass(List<Path> runs) throws IOException {
+        List<Path> merged = new ArrayList<>();
+        boolean complete = false;
+        try {
+            for (int from = 0; from < runs.size(); from += MERGE_FAN_IN) {
+                List<Path> group = runs.subList(from, Math.min(runs.size(), from + MERGE_FAN_IN));
+                Path run = createRun();
+                merged.add(run);
+                try (RunMerger merger = new RunMerger(group);
+                     FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+                    ByteBuffer out = ByteBuffer.allocateDirect(1 << 20);
+                    while (merger.hasNext()) {
+                        RunReader next = merger.next();
+                        if (out.remaining() < next.recordLength()) {
+                            drain(out, channel);
+                        }
+                        next.copyRecord(out);
+                        merger.advance();
+                    }
+                    drain(out, channel);
+                }
+            }
+            complete = true;
+        } finally {
+            for (Path run : runs) {
+                deleteRun(run);
+            }
+            if (!complete) {
+                for (Path run : merged) {
+                    deleteRun(run);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Runs the greedy pass over the merged stream
+     */
+    private void streamGreedy(List<Path> runs, int totalResources, ResultSink sink, Result result)
+            throws IOException {
+        long start = AllocationMetrics.start();
+        int remaining = totalResources;
+        try (RunMerger merger = new RunMerger(runs)) {
+            while (merger.hasNext()) {
+                RunReader next = merger.next();
+                int demand = next.demand();
+                int allocated = Math.min(demand, remaining);
+                remaining -= allocated;
+                if (allocated > 0) {
+                    result.funded++;
+                    if (allocated < demand) {
+                        result.partial++;
+                        AllocationMetrics.recordPartialAllocation();
+                    }
+                }
+                sink.result(next.name(), next.risk(), demand, allocated);
+                merger.advance();
+            }
+        }
+        AllocationMetrics.record(AllocationMetrics.Stage.ALLOCATION, start, (int) Math.min(Integer.MAX_VALUE, result.funded));
+        result.allocatedResources = totalResources - remaining;
+        result.remainingResources = remaining;
+    }
+
+    private Path createRun() throws IOException {
+        return tempDirectory != null
+                ? Files.createTempFile(tempDirectory, "districts-", ".run")
+                : Files.createTempFile("districts-", ".run");
+    }
+
+    private static void deleteRun(Path run) {
+        try {
+            Files.deleteIfExists(run);
+        } catch (IOException e) {
+            // Still mapped on platforms that lock mapped files
+            run.toFile().deleteOnExit();
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Sequential reader over one run file through a sliding mapped window
+     */
+    private static class RunReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart = 0;
+        private MappedByteBuffer window;
+        private int recordStart;
+
+        // Header fields of the current record
+        private double ratio;
+        private int sequence;
+
+        RunReader(Path run) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.size = channel.size();
+        }
+
+        /**
+         * Moves to the next record
+         *
+         * @return False at the end of the run
+         */
+        boolean advance() throws IOException {
+            long position = window == null ? 0 : windowStart + window.position();
+            if (position >= size) {
+                return false;
+            }
+            if (window == null || window.remaining() < RECORD_HEADER_BYTES
+                    || window.remaining() < RECORD_HEADER_BYTES + (window.getShort(window.position() + 24) & 0xFFFF)) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_BYTES, size - position));
+            }
+            recordStart = window.position();
+            ratio = window.getDouble(recordStart);
+            sequence = window.getInt(recordStart + 8);
+            window.position(recordStart + recordLength());
+            return true;
+        }
+
+        int recordLength() {
+            return RECORD_HEADER_BYTES + (window.getShort(recordStart + 24) & 0xFFFF);
+        }
+
+        int risk() {
+            return window.getInt(recordStart + 12);
+        }
+
+        int demand() {
+            return window.getInt(recordStart + 16);
+        }
+
+        String name() {
+            return new String(bytes(recordStart + RECORD_HEADER_BYTES, recordLength() - RECORD_HEADER_BYTES),
+                    StandardCharsets.UTF_8);
+        }
+
+        void copyRecord(ByteBuffer out) {
+            out.put(bytes(recordStart, recordLength()));
+        }
+
+        private byte[] bytes(int offset, int length) {
+            byte[] bytes = new byte[length];
+            window.get(offset, bytes);
+            return bytes;
+        }
+
+        /**
+         * Returns true if this reader's record comes before the other's
+         */
+        boolean precedes(RunReader other) {
+            if (ratio != other.ratio) {
+                return ratio > other.ratio;
+            }
+            return sequence < other.sequence;
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * K-way merge over run readers using a binary heap
+     */
+    private static class RunMerger implements AutoCloseable {
+        private final RunReader[] heap;
+        private int size = 0;
+
+        RunMerger(List<Path> runs) throws IOException {
+            heap = new RunReader[runs.size()];
+            try {
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run);
+                    if (reader.advance()) {
+                        heap[size++] = reader;
+                    } else {
+                        reader.close();
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        boolean hasNext() {
+            return size > 0;
+        }
+
+        /**
+         * Returns the reader positioned on the next record in merged order
+         */
+        RunReader next() {
+            return heap[0];
+        }
+
+        /**
+         * Consumes the record returned by {@link #next()}
+         */
+        void advance() throws IOException {
+            if (!heap[0].advance()) {
+                heap[0].close();
+                heap[0] = heap[--size];
+                heap[size] = null;
+            }
+            if (size > 0) {
+                siftDown(0);
+            }
+        }
+
+        private void siftDown(int i) {
+            RunReader reader = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1].precedes(heap[child])) {
+                    child++;
+                }
+                if (!heap[child].precedes(reader)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = reader;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (int i = 0; i < size; i++) {
+                heap[i].close();
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * Main method - entry point for external allocation runs
+     *
+     * @param args --districts file --resources n [--heap-limit-mb n] [--temp-dir dir] [--out file]
+     */
+    public static void main(String[] args) {
+        Path districtsFile = null;
+        Path outFile = null;
+        Path tempDir = null;
+        int totalResources = -1;
+        long heapLimit = Long.getLong("allocation.heapLimitMB", DEFAULT_HEAP_LIMIT >> 20) << 20;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--districts":
+                        districtsFile = Paths.get(args[++i]);
+                        break;
+                    case "--resources":
+                        totalResources = Integer.parseInt(args[++i]);
+                        break;
+                    case "--heap-limit-mb":
+                        heapLimit = Long.parseLong(args[++i]) << 20;
+                        break;
+                    case "--temp-dir":
+                        tempDir = Paths.get(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (districtsFile == null || totalResources < 0) {
+                throw new IllegalArgumentException("--districts and --resources are required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java ExternalAllocation --districts <file> --resources <n>"
+                    + " [--heap-limit-mb <n>] [--temp-dir <dir>] [--out <file>]");
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (Writer out = outFile != null
+                    ? Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)
+                    : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("district,riskScore,resourceDemand,allocated,status\n");
+            Result result = new ExternalAllocation(heapLimit, tempDir).allocate(districtsFile, totalResources,
+                    (name, risk, demand, allocated) -> {
+                        out.write(BatchAllocationCli.csv(name));
+                        out.write(',' + Integer.toString(risk) + ',' + demand + ',' + allocated + ',');
+                        out.write(allocated == 0 ? "Unfunded" : allocated < demand ? "Partial" : "Full");
+                        out.write('\n');
+                    });
+            out.flush();
+            System.err.printf("Allocated %d of %d resources to %d of %d districts (%d partial) "
+                    + "from %d runs, %d merge passes, in %.1f ms%n",
+                    result.getAllocatedResources(), totalResources, result.getFunded(), result.getDistricts(),
+                    result.getPartial(), result.getRuns(), result.getMergePasses(),
+                    (System.nanoTime() - start) / 1e6);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
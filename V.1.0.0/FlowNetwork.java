@@ -0,0 +1,457 @@
+import java.util.Arrays;
+
+/**
+ * Min-cost maximum flow on a directed network stored in compressed sparse
+ * row form.
+ *
+ * Arcs are collected first and then laid out so that the residual arcs
+ * leaving each node are contiguous, with every arc next to nothing but plain
+ * int and long arrays. Solving runs in two phases: Dinic's algorithm finds
+ * the maximum flow value, and cost scaling (Goldberg's push-relabel method)
+ * then reroutes that flow until no cheaper arrangement exists. Cost scaling
+ * needs a number of refine passes logarithmic in the largest cost, rather
+ * than one shortest path search per augmenting path, which is what keeps
+ * networks with hundreds of thousands of arcs fast.
+ */
+public class FlowNetwork {
+    // Factor by which epsilon shrinks between refine passes
+    private static final int SCALING_FACTOR = 16;
+
+    // Relabels, as a multiple of the node count, between global price updates
+    private static final double GLOBAL_UPDATE_FREQUENCY = 0.5;
+
+    private final int nodeCount;
+
+    // Arcs as added, before the residual graph is built
+    private int arcCount = 0;
+    private int[] arcFrom = new int[16];
+    private int[] arcTo = new int[16];
+    private long[] arcCapacity = new long[16];
+    private long[] arcCost = new long[16];
+
+    // Residual graph: node v's arcs are first[v] .. first[v + 1] - 1
+    private int[] first;
+    private int[] head;
+    private int[] mate;
+    private long[] residual;
+    private long[] cost;
+    // Residual position of each added arc
+    private int[] forward;
+
+    private long flowValue;
+    private long totalCost;
+
+    // Cost scaling state
+    private long[] potential;
+    private long[] excess;
+    private int[] current;
+    private int[] queue;
+    private boolean[] queued;
+    private long[] distance;
+    private boolean[] scanned;
+    private long[] heapKey;
+    private int[] heapNode;
+
+    /**
+     * Constructor for FlowNetwork
+     *
+     * @param nodeCount Number of nodes, numbered from 0
+     */
+    public FlowNetwork(int nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Adds an arc
+     *
+     * @param capacity Maximum flow, at least 0
+     * @param unitCost Cost per unit of flow, at least 0
+     * @return Arc index, for reading its flow after solving
+     */
+    public int addArc(int from, int to, long capacity, long unitCost) {
+        if (capacity < 0 || unitCost < 0) {
+            throw new IllegalArgumentException("Arc capacity and cost must not be negative");
+        }
+        if (arcCount == arcFrom.length) {
+            int grown = arcCount * 2;
+            arcFrom = Arrays.copyOf(arcFrom, grown);
+            arcTo = Arrays.copyOf(arcTo, grown);
+            arcCapacity = Arrays.copyOf(arcCapacity, grown);
+            arcCost = Arrays.copyOf(arcCost, grown);
+        }
+        arcFrom[arcCount] = from;
+        arcTo[arcCount] = to;
+        arcCapacity[arcCount] = capacity;
+        arcCost[arcCount] = unitCost;
+        return arcCount++;
+    }
+
+    public int getArcCount() {
+        return arcCount;
+    }
+
+    /**
+     * Sends as much flow as possible from source to sink at the lowest total cost
+     *
+     * @return The flow value
+     */
+    public long solve(int source, int sink) {
+        build();
+        flowValue = maxFlow(source, sink);
+        if (flowValue > 0) {
+            minimizeCost();
+        }
+        totalCost = 0;
+        for (int a = 0; a < arcCount; a++) {
+            totalCost += getFlow(a) * arcCost[a];
+        }
+        return flowValue;
+    }
+
+    /**
+     * Flow on an added arc after solving
+     */
+    public long getFlow(int arc) {
+        return arcCapacity[arc] - residual[forward[arc]];
+    }
+
+    public long getFlowValue() {
+        return flowValue;
+    }
+
+    public long getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * Lays out the residual graph, each arc paired with its reverse
+     */
+    private void build() {
+        int residualCount = 2 * arcCount;
+        first = new int[nodeCount + 1];
+        for (int a = 0; a < arcCount; a++) {
+            first[arcFrom[a] + 1]++;
+            first[arcTo[a] + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            first[v + 1] += first[v];
+        }
+        int[] next = Arrays.copyOf(first, nodeCount);
+        head = new int[residualCount];
+        mate = new int[residualCount];
+        residual = new long[residualCount];
+        cost = new long[residualCount];
+        forward = new int[arcCount];
+        for (int a = 0; a < arcCount; a++) {
+            int f = next[arcFrom[a]]++;
+            int r = next[arcTo[a]]++;
+            head[f] = arcTo[a];
+            head[r] = arcFrom[a];
+            mate[f] = r;
+            mate[r] = f;
+            residual[f] = arcCapacity[a];
+            cost[f] = arcCost[a];
+            cost[r] = -arcCost[a];
+            forward[a] = f;
+        }
+    }
+
+    /**
+     * Dinic's algorithm: blocking flows along BFS levels
+     */
+    private long maxFlow(int source, int sink) {
+        int[] level = new int[nodeCount];
+        int[] queue = new int[nodeCount];
+        int[] current = new int[nodeCount];
+        int[] path = new int[nodeCount];
+        long total = 0;
+        while (true) {
+            Arrays.fill(level, -1);
+            level[source] = 0;
+            int queueHead = 0;
+            int queueTail = 0;
+            queue[queueTail++] = source;
+            while (queueHead < queueTail) {
+                int v = queue[queueHead++];
+                for (int e = first[v]; e < first[v + 1]; e++) {
+                    if (residual[e] > 0 && level[head[e]] < 0) {
+                        level[head[e]] = level[v] + 1;
+                        queue[queueTail++] = head[e];
+                    }
+                }
+            }
+            if (level[sink] < 0) {
+                return total;
+            }
+            System.arraycopy(first, 0, current, 0, nodeCount);
+
+            // Depth-first search with an explicit path, so deep networks cannot overflow the stack
+            int depth = 0;
+            int v = source;
+            while (true) {
+                if (v == sink) {
+                    long bottleneck = Long.MAX_VALUE;
+                    for (int i = 0; i < depth; i++) {
+                        bottleneck = Math.min(bottleneck, residual[path[i]]);
+                    }
+                    for (int i = 0; i < depth; i++) {
+                        residual[path[i]] -= bottleneck;
+                        residual[mate[path[i]]] += bottleneck;
+                    }
+                    total += bottleneck;
+                    depth = 0;
+                    v = source;
+                    continue;
+                }
+                int e = current[v];
+                int end = first[v + 1];
+                while (e < end && (residual[e] == 0 || level[head[e]] != level[v] + 1)) {
+                    e++;
+                }
+                current[v] = e;
+                if (e < end) {
+                    path[depth++] = e;
+                    v = head[e];
+                } else if (v == source) {
+                    break;
+                } else {
+                    // Dead end: never enter this node again in this phase
+                    level[v] = -1;
+                    int back = path[--depth];
+                    v = head[mate[back]];
+                    current[v]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cost scaling: repeatedly makes the flow epsilon-optimal for shrinking epsilon.
+     * Costs are multiplied by the node count, so epsilon-optimality with epsilon
+     * 1 means the flow is optimal for the original costs.
+     */
+    private void minimizeCost() {
+        long scale = nodeCount + 1L;
+        long maxCost = 0;
+        for (int e = 0; e < cost.length; e++) {
+            cost[e] *= scale;
+            maxCost = Math.max(maxCost, cost[e]);
+        }
+        potential = new long[nodeCount];
+        excess = new long[nodeCount];
+        current = new int[nodeCount];
+        queue = new int[nodeCount];
+        queued = new boolean[nodeCount];
+        distance = new long[nodeCount];
+        scanned = new boolean[nodeCount];
+        heapKey = new long[16];
+        heapNode = new int[16];
+
+        long epsilon = maxCost;
+        while (epsilon > 1) {
+            epsilon = Math.max(1, epsilon / SCALING_FACTOR);
+            refine(epsilon);
+        }
+        for (int e = 0; e < cost.length; e++) {
+            cost[e] /= scale;
+        }
+        potential = null;
+        excess = null;
+        current = null;
+        queue = null;
+        queued = null;
+        distance = null;
+        scanned = null;
+        heapKey = null;
+        heapNode = null;
+    }
+
+    /**
+     * Turns the current flow into an epsilon-optimal one with the same value
+     */
+    private void refine(long epsilon) {
+        // Saturate every arc with negative reduced cost, leaving excesses and deficits
+        for (int v = 0; v < nodeCount; v++) {
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                long r = residual[e];
+                if (r > 0 && cost[e] + potential[v] - potential[head[e]] < 0) {
+                    residual[e] = 0;
+                    residual[mate[e]] += r;
+                    excess[v] -= r;
+                    excess[head[e]] += r;
+                }
+            }
+        }
+
+        // FIFO queue of nodes with excess; each node is in it at most once
+        int queueHead = 0;
+        int queueSize = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            if (excess[v] > 0) {
+                queue[(queueHead + queueSize++) % nodeCount] = v;
+                queued[v] = true;
+            }
+        }
+        if (queueSize == 0) {
+            return;
+        }
+        globalUpdate(epsilon);
+
+        long relabelLimit = Math.max(1, (long) (GLOBAL_UPDATE_FREQUENCY * nodeCount));
+        long relabels = 0;
+        while (queueSize > 0) {
+            if (relabels >= relabelLimit) {
+                globalUpdate(epsilon);
+                relabels = 0;
+            }
+            int v = queue[queueHead];
+            queueHead = (queueHead + 1) % nodeCount;
+            queueSize--;
+            queued[v] = false;
+
+            // Discharge: push along admissible arcs, relabelling when none remain
+            long pv = potential[v];
+            int end = first[v + 1];
+            while (excess[v] > 0) {
+                int e = current[v];
+                for (; e < end; e++) {
+                    if (residual[e] > 0 && cost[e] + pv - potential[head[e]] < 0) {
+                        int w = head[e];
+                        long delta = Math.min(excess[v], residual[e]);
+                        residual[e] -= delta;
+                        residual[mate[e]] += delta;
+                        excess[v] -= delta;
+                        excess[w] += delta;
+                        if (excess[w] > 0 && !queued[w]) {
+                            queue[(queueHead + queueSize++) % nodeCount] = w;
+                            queued[w] = true;
+                        }
+                        if (excess[v] == 0) {
+                            break;
+                        }
+                    }
+                }
+                current[v] = e;
+                if (excess[v] > 0) {
+                    // Lower the potential just enough that some residual arc becomes admissible
+                    long best = Long.MIN_VALUE;
+                    for (int a = first[v]; a < end; a++) {
+                        if (residual[a] > 0) {
+                            best = Math.max(best, potential[head[a]] - cost[a]);
+                        }
+                    }
+                    pv = best - epsilon;
+                    potential[v] = pv;
+                    current[v] = first[v];
+                    relabels++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lowers every potential at once by epsilon times the node's distance to
+     * the nearest deficit, counting a residual arc as floor(reduced cost /
+     * epsilon) + 1 steps. This keeps the flow epsilon-optimal while giving
+     * excess nodes admissible paths towards deficits, saving the many small
+     * relabels that would otherwise discover the same prices one at a time.
+     */
+    private void globalUpdate(long epsilon) {
+        int remaining = 0;
+        int heapSize = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            scanned[v] = false;
+            current[v] = first[v];
+            if (excess[v] > 0) {
+                remaining++;
+            }
+            if (excess[v] < 0) {
+                distance[v] = 0;
+                heapSize = heapPush(heapSize, 0, v);
+            } else {
+                distance[v] = Long.MAX_VALUE;
+            }
+        }
+
+        // Dijkstra backwards along residual arcs, stopping once every excess node is reached
+        long last = 0;
+        while (heapSize > 0 && remaining > 0) {
+            long d = heapKey[0];
+            int w = heapNode[0];
+            heapSize = heapPop(heapSize);
+            if (scanned[w] || d != distance[w]) {
+                continue;
+            }
+            scanned[w] = true;
+            last = d;
+            if (excess[w] > 0) {
+                remaining--;
+            }
+            for (int e = first[w]; e < first[w + 1]; e++) {
+                // The reverse of this arc runs from head[e] into w
+                int u = head[e];
+                int into = mate[e];
+                if (scanned[u] || residual[into] == 0) {
+                    continue;
+                }
+                long reducedCost = cost[into] + potential[u] - potential[w];
+                long length = Math.max(0, Math.floorDiv(reducedCost, epsilon) + 1);
+                long candidate = d + length;
+                if (candidate < distance[u]) {
+                    distance[u] = candidate;
+                    heapSize = heapPush(heapSize, candidate, u);
+                }
+            }
+        }
+
+        // Nodes not scanned are all at least as far as the last one scanned
+        for (int v = 0; v < nodeCount; v++) {
+            potential[v] -= epsilon * (scanned[v] ? distance[v] : last);
+        }
+    }
+
+    private int heapPush(int size, long key, int node) {
+        if (size == heapKey.length) {
+            heapKey = Arrays.copyOf(heapKey, size * 2);
+            heapNode = Arrays.copyOf(heapNode, size * 2);
+        }
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapKey[parent] <= key) {
+                break;
+            }
+            heapKey[i] = heapKey[parent];
+            heapNode[i] = heapNode[parent];
+            i = parent;
+        }
+        heapKey[i] = key;
+        heapNode[i] = node;
+        return size + 1;
+    }
+
+    private int heapPop(int size) {
+        size--;
+        long key = heapKey[size];
+        int node = heapNode[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heapKey[child + 1] < heapKey[child]) {
+                child++;
+            }
+            if (heapKey[child] >= key) {
+                break;
+            }
+            heapKey[i] = heapKey[child];
+            heapNode[i] = heapNode[child];
+            i = child;
+        }
+        heapKey[i] = key;
+        heapNode[i] = node;
+        return size;
+    }
+}
@@ -0,0 +1,240 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Budget sensitivity of the greedy allocation, from one pass over the
+ * priority order.
+ *
+ * Greedy funds districts in priority order, so with prefix sums P of demand
+ * along that order, the district at rank k starts receiving resources once
+ * the budget exceeds P[k-1] and is fully funded at P[k]. Between those two
+ * budgets every extra unit goes to that district and covers its
+ * risk/resource ratio in risk, so the risk covered as a function of budget is
+ * piecewise linear with breakpoints at the prefix sums. Any budget can then
+ * be evaluated with a binary search instead of a fresh allocation run.
+ *
+ * Partially funded districts count towards covered risk in proportion to the
+ * share of their demand that is met.
+ */
+public class FundingSensitivity {
+    private final List<District> sortedDistricts;
+    // Total demand and total risk of ranks 0..k
+    private final long[] prefixDemand;
+    private final long[] prefixRisk;
+
+    private FundingSensitivity(List<District> sortedDistricts) {
+        int n = sortedDistricts.size();
+        this.sortedDistricts = sortedDistricts;
+        this.prefixDemand = new long[n];
+        this.prefixRisk = new long[n];
+        long demand = 0;
+        long risk = 0;
+        for (int k = 0; k < n; k++) {
+            District district = sortedDistricts.get(k);
+            demand += district.getResourceDemand();
+            risk += district.getRiskScore();
+            prefixDemand[k] = demand;
+            prefixRisk[k] = risk;
+        }
+    }
+
+    /**
+     * Analyzes a set of districts, ranking them the same way as {@link AllocationEngine}
+     */
+    public static FundingSensitivity of(List<District> districts) {
+        int n = districts.size();
+        int[] risk = new int[n];
+        int[] demand = new int[n];
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            District district = districts.get(i);
+            risk[i] = district.getRiskScore();
+            demand[i] = district.getResourceDemand();
+            ids[i] = district.getId();
+        }
+        int[] order = PriorityRanking.rank(risk, demand, ids);
+        List<District> sorted = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            sorted.add(districts.get(order[k]));
+        }
+        return new FundingSensitivity(sorted);
+    }
+
+    /**
+     * Analyzes the priority order of an existing plan without ranking again
+     */
+    public static FundingSensitivity of(AllocationPlan plan) {
+        return new FundingSensitivity(plan.getSortedDistricts());
+    }
+
+    public int getDistrictCount() {
+        return sortedDistricts.size();
+    }
+
+    /**
+     * Returns the district at a rank in the priority order
+     */
+    public District getDistrict(int rank) {
+        return sortedDistricts.get(rank);
+    }
+
+    /**
+     * Smallest budget at which the district at this rank receives any resources
+     */
+    public long getPartialThreshold(int rank) {
+        return demandBefore(rank) + 1;
+    }
+
+    /**
+     * Smallest budget at which the district at this rank is fully funded
+     */
+    public long getFullThreshold(int rank) {
+        return prefixDemand[rank];
+    }
+
+    /**
+     * Risk covered by each extra unit of budget while this district is being funded
+     */
+    public double getMarginalRisk(int rank) {
+        return sortedDistricts.get(rank).getRiskResourceRatio();
+    }
+
+    /**
+     * Risk covered once every district up to and including this rank is fully funded
+     */
+    public long getCumulativeRisk(int rank) {
+        return prefixRisk[rank];
+    }
+
+    public long getTotalDemand() {
+        return prefixDemand.length == 0 ? 0 : prefixDemand[prefixDemand.length - 1];
+    }
+
+    public long getTotalRisk() {
+        return prefixRisk.length == 0 ? 0 : prefixRisk[prefixRisk.length - 1];
+    }
+
+    /**
+     * Returns the rank of the district that the next unit of budget would go
+     * to, or the district count if the budget already funds everything
+     */
+    public int getMarginalRank(long budget) {
+        // First rank whose full threshold exceeds the budget
+        int low = 0;
+        int high = prefixDemand.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prefixDemand[mid] <= budget) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Risk covered by a budget, counting partial funding proportionally
+     */
+    public double getRiskCovered(long budget) {
+        if (budget <= 0) {
+            return 0;
+        }
+        int rank = getMarginalRank(budget);
+        if (rank == prefixDemand.length) {
+            return getTotalRisk();
+        }
+        double covered = rank == 0 ? 0 : prefixRisk[rank - 1];
+        return covered + (budget - demandBefore(rank)) * getMarginalRisk(rank);
+    }
+
+    private long demandBefore(int rank) {
+        return rank == 0 ? 0 : prefixDemand[rank - 1];
+    }
+
+    /**
+     * Writes one CSV row per district in priority order
+     */
+    public void writeCsv(Writer out) throws IOException {
+        long totalRisk = Math.max(1, getTotalRisk());
+        out.write("rank,district,riskScore,resourceDemand,partialThreshold,fullThreshold,"
+                + "marginalRiskPerUnit,cumulativeRisk,cumulativeRiskPercent\n");
+        for (int k = 0; k < sortedDistricts.size(); k++) {
+            District district = sortedDistricts.get(k);
+            out.write(k + "," + BatchAllocationCli.csv(district.getName()) + ',' + district.getRiskScore()
+                    + ',' + district.getResourceDemand() + ',' + getPartialThreshold(k) + ',' + getFullThreshold(k)
+                    + ',' + String.format("%.6f", getMarginalRisk(k)) + ',' + prefixRisk[k]
+                    + ',' + String.format("%.3f", 100.0 * prefixRisk[k] / totalRisk) + '\n');
+        }
+    }
+
+    /**
+     * Writes the threshold report for a district file, and the coverage at any given budgets
+     *
+     * @param args --districts file [--out file] [--budget n]...
+     */
+    public static void main(String[] args) {
+        Path districtsFile = null;
+        Path outFile = null;
+        List<Long> budgets = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--districts":
+                        districtsFile = Paths.get(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    case "--budget":
+                        budgets.add(Long.parseLong(args[++i]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (districtsFile == null) {
+                throw new IllegalArgumentException("--districts is required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java FundingSensitivity --districts <file> [--out <file>] [--budget <n>]...");
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            FundingSensitivity analysis = of(DistrictImporter.readDistricts(districtsFile));
+            try (Writer out = outFile != null
+                        ? Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)
+                        : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+                analysis.writeCsv(out);
+            }
+            System.err.printf("Analyzed %d districts (total demand %d, total risk %d) in %.1f ms%n",
+                    analysis.getDistrictCount(), analysis.getTotalDemand(), analysis.getTotalRisk(),
+                    (System.nanoTime() - start) / 1e6);
+            for (long budget : budgets) {
+                int rank = analysis.getMarginalRank(budget);
+                System.err.printf("Budget %d: %.1f risk covered (%.1f%%), %d districts fully funded, "
+                        + "next unit buys %.4f risk%n",
+                        budget, analysis.getRiskCovered(budget),
+                        100.0 * analysis.getRiskCovered(budget) / Math.max(1, analysis.getTotalRisk()),
+                        rank, rank < analysis.getDistrictCount() ? analysis.getMarginalRisk(rank) : 0.0);
+            }
+        } catch (IOException | IllegalArgumentException | UncheckedIOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Path2D;
+import java.text.DecimalFormat;
+
+/**
+ * Shows the greedy funding threshold of every district and the risk covered
+ * as a function of budget, with the current budget marked on the curve.
+ */
+public class FundingSensitivityPanel extends JPanel {
+    private static final Color CURVE_COLOR = new Color(25, 118, 210);
+    private static final Color BUDGET_COLOR = new Color(220, 53, 69);
+    private static final DecimalFormat RATIO_FORMAT = new DecimalFormat("0.####");
+
+    private final FundingSensitivity analysis;
+    private final long currentBudget;
+    private final JTable table;
+    private final JLabel hoverLabel = new JLabel(" ");
+
+    /**
+     * Constructor for FundingSensitivityPanel
+     *
+     * @param analysis Thresholds for the districts being shown
+     * @param currentBudget Budget of the current allocation, marked on the curve
+     * @param background Background color matching the surrounding panel
+     */
+    public FundingSensitivityPanel(FundingSensitivity analysis, long currentBudget, Color background) {
+        super(new BorderLayout(0, 10));
+        this.analysis = analysis;
+        this.currentBudget = currentBudget;
+        setBackground(background);
+
+        int marginalRank = analysis.getMarginalRank(currentBudget);
+        JLabel summaryLabel = new JLabel(String.format(
+                "<html>Budget %,d covers <b>%.1f%%</b> of total risk • %s<br>"
+                + "Funding every district needs %,d resources</html>",
+                currentBudget, percentCovered(currentBudget),
+                marginalRank < analysis.getDistrictCount()
+                        ? "the next unit goes to " + analysis.getDistrict(marginalRank).getName()
+                        + " and covers " + RATIO_FORMAT.format(analysis.getMarginalRisk(marginalRank)) + " risk"
+                        : "all districts are fully funded",
+                analysis.getTotalDemand()));
+        summaryLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+
+        CurveView curve = new CurveView();
+        curve.setBackground(background);
+        curve.setPreferredSize(new Dimension(400, 160));
+        hoverLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        hoverLabel.setForeground(Color.GRAY);
+
+        JPanel chartPanel = new JPanel(new BorderLayout());
+        chartPanel.setBackground(background);
+        chartPanel.add(summaryLabel, BorderLayout.NORTH);
+        chartPanel.add(curve, BorderLayout.CENTER);
+        chartPanel.add(hoverLabel, BorderLayout.SOUTH);
+
+        table = new JTable(new ThresholdTableModel());
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        scrollPane.getViewport().setBackground(background);
+
+        add(chartPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Returns the threshold table so the caller can style it
+     */
+    public JTable getTable() {
+        return table;
+    }
+
+    private double percentCovered(long budget) {
+        return 100.0 * analysis.getRiskCovered(budget) / Math.max(1, analysis.getTotalRisk());
+    }
+
+    /**
+     * Risk covered against budget, sampled once per pixel column
+     */
+    private class CurveView extends JComponent {
+        CurveView() {
+            MouseAdapter hover = new MouseAdapter() {
+                @Override
+                public void mouseMoved(MouseEvent e) {
+                    long budget = budgetAt(e.getX());
+                    hoverLabel.setText(String.format("Budget %,d: %.1f%% of risk covered, %,d districts fully funded",
+                            budget, percentCovered(budget), analysis.getMarginalRank(budget)));
+                }
+
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    hoverLabel.setText(" ");
+                }
+            };
+            addMouseMotionListener(hover);
+            addMouseListener(hover);
+        }
+
+        private long maxBudget() {
+            return Math.max(1, Math.max(analysis.getTotalDemand(), currentBudget));
+        }
+
+        private long budgetAt(int x) {
+            return Math.round((double) Math.max(0, x) / Math.max(1, getWidth() - 1) * maxBudget());
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g.create();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(getBackground());
+            g2d.fillRect(0, 0, getWidth(), getHeight());
+            if (analysis.getDistrictCount() == 0) {
+                g2d.dispose();
+                return;
+            }
+
+            int height = getHeight() - 4;
+            double totalRisk = Math.max(1, analysis.getTotalRisk());
+            Path2D.Double path = new Path2D.Double();
+            path.moveTo(0, height);
+            for (int x = 0; x < getWidth(); x++) {
+                path.lineTo(x, height - analysis.getRiskCovered(budgetAt(x)) / totalRisk * (height - 2));
+            }
+            g2d.setColor(CURVE_COLOR);
+            g2d.setStroke(new BasicStroke(2f));
+            g2d.draw(path);
+
+            int budgetX = (int) Math.round((double) currentBudget / maxBudget() * (getWidth() - 1));
+            g2d.setColor(BUDGET_COLOR);
+            g2d.setStroke(new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f,
+                    new float[] {4f, 4f}, 0f));
+            g2d.drawLine(budgetX, 0, budgetX, height);
+
+            g2d.setColor(Color.GRAY);
+            g2d.setFont(new Font("Segoe UI", Font.PLAIN, 10));
+            g2d.drawString("Risk covered", 4, 12);
+            String maxLabel = String.format("%,d", maxBudget());
+            g2d.drawString(maxLabel, getWidth() - g2d.getFontMetrics().stringWidth(maxLabel) - 2, height - 4);
+            g2d.dispose();
+        }
+    }
+
+    /**
+     * One row per district in priority order, read straight from the analysis
+     */
+    private class ThresholdTableModel extends AbstractTableModel {
+        private final String[] columns = {
+                "Rank", "District", "Risk Score", "Demand", "Funded From", "Fully Funded At",
+                "Risk per Unit", "Cumulative Risk %"};
+
+        @Override
+        public int getRowCount() {
+            return analysis.getDistrictCount();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            District district = analysis.getDistrict(row);
+            switch (column) {
+                case 0:
+                    return row + 1;
+                case 1:
+                    return district.getName();
+                case 2:
+                    return district.getRiskScore();
+                case 3:
+                    return district.getResourceDemand();
+                case 4:
+                    return analysis.getPartialThreshold(row);
+                case 5:
+                    return analysis.getFullThreshold(row);
+                case 6:
+                    return RATIO_FORMAT.format(analysis.getMarginalRisk(row));
+                default:
+                    return String.format("%.1f", 100.0 * analysis.getCumulativeRisk(row)
+                            / Math.max(1, analysis.getTotalRisk()));
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Funds districts fully in priority order; the first district that cannot be
+ * fully funded receives whatever is left and every district after it
+ * receives nothing.
+ */
+public class GreedyPolicy implements AllocationPolicy {
+    @Override
+    public String getName() {
+        return "Greedy";
+    }
+
+    @Override
+    public int allocate(int[] riskScore, int[] demand, int totalResources, int[] allocation) {
+        return allocateGreedy(demand, totalResources, allocation);
+    }
+
+    /**
+     * Greedy pass over the given demands, adding to any existing allocation
+     *
+     * @return Resources left unallocated
+     */
+    static int allocateGreedy(int[] demand, int remainingResources, int[] allocation) {
+        for (int i = 0; i < demand.length && remainingResources > 0; i++) {
+            if (remainingResources >= demand[i]) {
+                allocation[i] += demand[i];
+                remainingResources -= demand[i];
+            } else {
+                allocation[i] += remainingResources;
+                remainingResources = 0;
+            }
+        }
+        return remainingResources;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,365 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Discrete-time simulation of an evolving incident.
+ *
+ * Each tick applies population and demand deltas, adds replenished resources
+ * to the pool and continues the greedy allocation from where the previous
+ * tick stopped. Resources already committed to a district are never taken
+ * back; priority is the ratio of risk score to outstanding (uncommitted)
+ * demand, with ties broken by district ID, which at tick 0 equals the ordering
+ * used by {@link AllocationEngine}.
+ *
+ * District state lives in primitive arrays. Only districts touched by a tick
+ * are re-scored and re-positioned in the priority order, so a tick costs a
+ * linear merge plus a sort of the changed districts.
+ */
+public class IncidentSimulation {
+    private final District[] districts;
+    private final int[] ids;
+    private final int[] population;
+    private final int[] demand;
+    private final int[] committed;
+    private final int[] riskScore;
+    private final int[] landTypeRisk;
+    private final int[] urbanizationRisk;
+
+    // Districts with outstanding demand, in priority order
+    private int[] order;
+    private int orderSize;
+
+    // Scratch state reused between ticks
+    private final boolean[] changed;
+    private int[] changedList;
+    private int[] mergeBuffer;
+    private int[] reinserted;
+    private final IndexSort.IndexComparator priority = this::comparePriority;
+
+    private long pool;
+    private int tick = 0;
+
+    /**
+     * Result of a single simulation tick
+     */
+    public static class TickResult {
+        final int tick;
+        final long allocated;
+        final long poolRemaining;
+        final int districtsFunded;
+        final int districtsRescored;
+        final int districtsOutstanding;
+        final long outstandingDemand;
+
+        TickResult(int tick, long allocated, long poolRemaining, int districtsFunded,
+                int districtsRescored, int districtsOutstanding, long outstandingDemand) {
+            this.tick = tick;
+            this.allocated = allocated;
+            this.poolRemaining = poolRemaining;
+            this.districtsFunded = districtsFunded;
+            this.districtsRescored = districtsRescored;
+            this.districtsOutstanding = districtsOutstanding;
+            this.outstandingDemand = outstandingDemand;
+        }
+
+        public int getTick() {
+            return tick;
+        }
+
+        public long getAllocated() {
+            return allocated;
+        }
+
+        public long getPoolRemaining() {
+            return poolRemaining;
+        }
+
+        public int getDistrictsFunded() {
+            return districtsFunded;
+        }
+
+        public int getDistrictsRescored() {
+            return districtsRescored;
+        }
+
+        public int getDistrictsOutstanding() {
+            return districtsOutstanding;
+        }
+
+        public long getOutstandingDemand() {
+            return outstandingDemand;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Tick %d: allocated %d, pool %d, funded %d, rescored %d, outstanding %d (%d demand)",
+                    tick, allocated, poolRemaining, districtsFunded, districtsRescored,
+                    districtsOutstanding, outstandingDemand);
+        }
+    }
+
+    /**
+     * Creates a simulation over a snapshot of the given districts and runs
+     * the initial allocation as tick 0
+     *
+     * @param districtList Districts to simulate (not modified)
+     * @param initialResources Resources available at the start of the incident
+     */
+    public IncidentSimulation(List<District> districtList, int initialResources) {
+        int n = districtList.size();
+        districts = districtList.toArray(new District[0]);
+        ids = new int[n];
+        population = new int[n];
+        demand = new int[n];
+        committed = new int[n];
+        riskScore = new int[n];
+        landTypeRisk = new int[n];
+        urbanizationRisk = new int[n];
+        changed = new boolean[n];
+        changedList = new int[16];
+        order = new int[n];
+        mergeBuffer = new int[n];
+        reinserted = new int[16];
+
+        for (int i = 0; i < n; i++) {
+            District d = districts[i];
+            ids[i] = d.getId();
+            population[i] = d.getPopulation();
+            demand[i] = d.getResourceDemand();
+            riskScore[i] = d.getRiskScore();
+            landTypeRisk[i] = RiskStatistics.calculateLandTypeRisk(d.getLandType());
+            urbanizationRisk[i] = RiskStatistics.calculateUrbanizationRisk(d.getUrbanization());
+        }
+
+        // Initial priority order over every district with demand
+        int open = 0;
+        for (int i = 0; i < n; i++) {
+            if (demand[i] > 0) {
+                order[open++] = i;
+            }
+        }
+        IndexSort.sort(order, 0, open, mergeBuffer, priority);
+        orderSize = open;
+
+        pool = initialResources;
+        allocateFromPool(0);
+    }
+
+    /**
+     * Runs a sequence of ticks
+     *
+     * @param steps Changes to apply, one per tick
+     * @return The result of every tick, in order
+     */
+    public List<TickResult> run(List<SimulationStep> steps) {
+        List<TickResult> results = new ArrayList<>(steps.size());
+        for (SimulationStep step : steps) {
+            results.add(step(step));
+        }
+        return results;
+    }
+
+    /**
+     * Advances the simulation by one tick
+     *
+     * @param step Changes arriving during this tick
+     * @return Summary of the tick
+     * @throws IllegalArgumentException if the step refers to a district index
+     *         outside the simulated list; the simulation is left unchanged
+     */
+    public TickResult step(SimulationStep step) {
+        for (int k = 0; k < step.size(); k++) {
+            int i = step.getDistrictIndex(k);
+            if (i < 0 || i >= districts.length) {
+                throw new IllegalArgumentException("District index " + i + " out of range for "
+                        + districts.length + " districts");
+            }
+        }
+        tick++;
+
+        // Apply deltas, re-scoring districts whose population changed
+        long scoreStart = AllocationMetrics.start();
+        int changedCount = 0;
+        int rescored = 0;
+        for (int k = 0; k < step.size(); k++) {
+            int i = step.getDistrictIndex(k);
+            int populationDelta = step.getPopulationDelta(k);
+            int demandDelta = step.getDemandDelta(k);
+            if (populationDelta == 0 && demandDelta == 0) {
+                continue;
+            }
+            if (populationDelta != 0) {
+                population[i] = addClamped(population[i], populationDelta);
+                riskScore[i] = RiskStatistics.calculateTotalRisk(
+                        RiskStatistics.calculatePopulationRisk(population[i]),
+                        landTypeRisk[i], urbanizationRisk[i]);
+                rescored++;
+            }
+            demand[i] = addClamped(demand[i], demandDelta);
+            if (!changed[i]) {
+                changed[i] = true;
+                if (changedCount == changedList.length) {
+                    changedList = Arrays.copyOf(changedList, changedCount * 2);
+                }
+                changedList[changedCount++] = i;
+            }
+        }
+        AllocationMetrics.record(AllocationMetrics.Stage.SCORING, scoreStart, rescored);
+
+        if (changedCount > 0) {
+            reorder(changedCount);
+        }
+
+        pool += step.getReplenishment();
+        return allocateFromPool(rescored);
+    }
+
+    /**
+     * Moves changed districts to their new position in the priority order
+     */
+    private void reorder(int changedCount) {
+        long sortStart = AllocationMetrics.start();
+
+        // Drop changed districts from the current order, keeping the rest in place
+        int kept = 0;
+        for (int k = 0; k < orderSize; k++) {
+            int i = order[k];
+            if (!changed[i]) {
+                order[kept++] = i;
+            }
+        }
+
+        // Sort the changed districts that still have outstanding demand
+        if (reinserted.length < changedCount) {
+            reinserted = new int[Math.max(changedCount, reinserted.length * 2)];
+        }
+        int reinsertCount = 0;
+        for (int k = 0; k < changedCount; k++) {
+            int i = changedList[k];
+            changed[i] = false;
+            if (demand[i] > committed[i]) {
+                reinserted[reinsertCount++] = i;
+            }
+        }
+        IndexSort.sort(reinserted, 0, reinsertCount, mergeBuffer, priority);
+
+        // Merge the two sorted runs
+        int a = 0;
+        int b = 0;
+        int out = 0;
+        while (a < kept && b < reinsertCount) {
+            if (comparePriority(order[a], reinserted[b]) <= 0) {
+                mergeBuffer[out++] = order[a++];
+            } else {
+                mergeBuffer[out++] = reinserted[b++];
+            }
+        }
+        while (a < kept) {
+            mergeBuffer[out++] = order[a++];
+        }
+        while (b < reinsertCount) {
+            mergeBuffer[out++] = reinserted[b++];
+        }
+
+        int[] swap = order;
+        order = mergeBuffer;
+        mergeBuffer = swap;
+        orderSize = out;
+
+        AllocationMetrics.record(AllocationMetrics.Stage.SORTING, sortStart, reinsertCount);
+    }
+
+    /**
+     * Funds districts from the head of the priority order until the pool runs out
+     */
+    private TickResult allocateFromPool(int rescored) {
+        long allocationStart = AllocationMetrics.start();
+        long allocated = 0;
+        int funded = 0;
+        int head = 0;
+
+        while (head < orderSize && pool > 0) {
+            int i = order[head];
+            int outstanding = demand[i] - committed[i];
+            if (outstanding <= pool) {
+                committed[i] += outstanding;
+                pool -= outstanding;
+                allocated += outstanding;
+                funded++;
+                head++;
+            } else {
+                // Partial allocation; the district keeps its place at the head
+                committed[i] += (int) pool;
+                allocated += pool;
+                pool = 0;
+                AllocationMetrics.recordPartialAllocation();
+            }
+        }
+
+        // Fully funded districts leave the open set
+        if (head > 0) {
+            System.arraycopy(order, head, order, 0, orderSize - head);
+            orderSize -= head;
+        }
+
+        long outstandingDemand = 0;
+        for (int k = 0; k < orderSize; k++) {
+            int i = order[k];
+            outstandingDemand += demand[i] - committed[i];
+        }
+        AllocationMetrics.record(AllocationMetrics.Stage.ALLOCATION, allocationStart, funded);
+
+        return new TickResult(tick, allocated, pool, funded, rescored, orderSize, outstandingDemand);
+    }
+
+    /**
+     * Orders districts by risk score over outstanding demand (descending),
+     * using exact cross-multiplication and the district ID as a tiebreak
+     */
+    private int comparePriority(int a, int b) {
+        long outstandingA = demand[a] - committed[a];
+        long outstandingB = demand[b] - committed[b];
+        int cmp = Long.compare(riskScore[b] * outstandingA, riskScore[a] * outstandingB);
+        return cmp != 0 ? cmp : Integer.compare(ids[a], ids[b]);
+    }
+
+    /**
+     * Adds a delta to a count, keeping the result between 0 and Integer.MAX_VALUE
+     */
+    private static int addClamped(int value, int delta) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, (long) value + delta));
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public long getPool() {
+        return pool;
+    }
+
+    public int size() {
+        return districts.length;
+    }
+
+    public District getDistrict(int index) {
+        return districts[index];
+    }
+
+    public int getCommitted(int index) {
+        return committed[index];
+    }
+
+    public int getDemand(int index) {
+        return demand[index];
+    }
+
+    public int getPopulation(int index) {
+        return population[index];
+    }
+
+    public int getRiskScore(int index) {
+        return riskScore[index];
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Sorting of district indexes by a primitive key, without boxing.
+ */
+public class IndexSort {
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * Ordering of two indexes, for keys that a double cannot represent exactly
+     */
+    public interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Returns the indexes 0..n-1 ordered by key, descending. The sort is
+     * stable, so equal keys keep ascending index order.
+     *
+     * @param keys Key of each index
+     * @return The sorted indexes
+     */
+    public static int[] sortDescending(double[] keys) {
+        return sortDescending(keys, keys.length);
+    }
+
+    /**
+     * Returns the indexes 0..n-1 ordered by key, descending, looking only at
+     * the first n keys
+     *
+     * @param keys Key of each index
+     * @param n Number of keys to sort
+     * @return The sorted indexes
+     */
+    public static int[] sortDescending(double[] keys, int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[n];
+        mergeSort(order, buffer, 0, n, keys);
+        return order;
+    }
+
+    /**
+     * Sorts a range of indexes in place. The sort is stable.
+     *
+     * @param indexes Indexes to sort
+     * @param from First position to sort, inclusive
+     * @param to Last position to sort, exclusive
+     * @param buffer Scratch space at least as long as the sorted range's end
+     * @param comparator Order of the indexes
+     */
+    public static void sort(int[] indexes, int from, int to, int[] buffer, IndexComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = indexes[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(indexes[j], value) > 0) {
+                    indexes[j + 1] = indexes[j];
+                    j--;
+                }
+                indexes[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(indexes, from, mid, buffer, comparator);
+        sort(indexes, mid, to, buffer, comparator);
+
+        // Already in order
+        if (comparator.compare(indexes[mid - 1], indexes[mid]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(indexes, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        int out = from;
+        while (left < mid && right < to) {
+            // Take from the left run on ties to keep the sort stable
+            if (comparator.compare(buffer[right], buffer[left]) < 0) {
+                indexes[out++] = buffer[right++];
+            } else {
+                indexes[out++] = buffer[left++];
+            }
+        }
+        while (left < mid) {
+            indexes[out++] = buffer[left++];
+        }
+        while (right < to) {
+            indexes[out++] = buffer[right++];
+        }
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, double[] keys) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = a[i];
+                double key = keys[value];
+                int j = i - 1;
+                while (j >= from && keys[a[j]] < key) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, keys);
+        mergeSort(a, buffer, mid, to, keys);
+
+        // Already in order
+        if (keys[a[mid - 1]] >= keys[a[mid]]) {
+            return;
+        }
+
+        System.arraycopy(a, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        int out = from;
+        while (left < mid && right < to) {
+            // Take from the left run on ties to keep the sort stable
+            if (keys[buffer[right]] > keys[buffer[left]]) {
+                a[out++] = buffer[right++];
+            } else {
+                a[out++] = buffer[left++];
+            }
+        }
+        while (left < mid) {
+            a[out++] = buffer[left++];
+        }
+        while (right < to) {
+            a[out++] = buffer[right++];
+        }
+    }
+}
@@ -0,0 +1,384 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Allocation when resources ship from depots along routes with per-unit
+ * costs, instead of coming from a single pool.
+ *
+ * The problem is solved as a min-cost maximum flow: source to each depot
+ * (capacity = depot capacity), depot to district for each route (cost =
+ * route cost), and district to sink (capacity = demand). As much as the
+ * depots and routes allow is delivered. Which districts receive it is
+ * decided by cost: each unit delivered to a district also carries a priority
+ * cost that is lower the higher the district's risk/resource ratio, so
+ * high-priority districts are served first and cheap routes are preferred
+ * among equal priorities.
+ *
+ * Districts are put on priority levels by {@link PriorityRanking#ratioLevels}:
+ * level 0 holds the highest ratio, and each distinct lower ratio is one more
+ * level. The priority cost per unit is the risk weight times the level, so
+ * the risk weight is the extra route cost per unit a planner will accept to
+ * serve a district one level higher. Using levels rather than the ratios
+ * themselves keeps close ratios apart: realistic ratios are well below 1,
+ * and scaling their differences would round most of them to the same cost.
+ */
+public class LogisticsAllocation {
+    public static final int DEFAULT_RISK_WEIGHT = 100;
+
+    // Name index entry for a name shared by several depots or districts
+    private static final int AMBIGUOUS = -1;
+
+    private final List<Depot> depots;
+    private final List<District> districts;
+    private final int riskWeight;
+
+    private int routeCount = 0;
+    private int[] routeDepot = new int[16];
+    private int[] routeDistrict = new int[16];
+    private int[] routeCost = new int[16];
+
+    /**
+     * Result of one logistics allocation
+     */
+    public class Result {
+        private final long[] shipped;
+        private final int[] allocated;
+        private final long[] depotShipped;
+        private final long delivered;
+        private final long shippingCost;
+        private final double riskCovered;
+
+        Result(long[] shipped) {
+            this.shipped = shipped;
+            this.allocated = new int[districts.size()];
+            this.depotShipped = new long[depots.size()];
+            long deliveredTotal = 0;
+            long cost = 0;
+            for (int r = 0; r < routeCount; r++) {
+                allocated[routeDistrict[r]] += shipped[r];
+                depotShipped[routeDepot[r]] += shipped[r];
+                deliveredTotal += shipped[r];
+                cost += shipped[r] * routeCost[r];
+            }
+            double risk = 0;
+            for (int d = 0; d < allocated.length; d++) {
+                risk += allocated[d] * districts.get(d).getRiskResourceRatio();
+            }
+            this.delivered = deliveredTotal;
+            this.shippingCost = cost;
+            this.riskCovered = risk;
+        }
+
+        /**
+         * Resources delivered to the district at this index
+         */
+        public int getAllocated(int district) {
+            return allocated[district];
+        }
+
+        /**
+         * Resources shipped along the route at this index
+         */
+        public long getShipped(int route) {
+            return shipped[route];
+        }
+
+        public long getDepotShipped(int depot) {
+            return depotShipped[depot];
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        public long getShippingCost() {
+            return shippingCost;
+        }
+
+        /**
+         * Risk covered, counting partially supplied districts in proportion
+         */
+        public double getRiskCovered() {
+            return riskCovered;
+        }
+    }
+
+    /**
+     * Constructor for LogisticsAllocation
+     *
+     * @param depots Depots supplying resources
+     * @param districts Districts to supply
+     * @param riskWeight Route cost per unit traded for one priority level
+     */
+    public LogisticsAllocation(List<Depot> depots, List<District> districts, int riskWeight) {
+        this.depots = depots;
+        this.districts = districts;
+        this.riskWeight = riskWeight;
+    }
+
+    /**
+     * Adds a route from a depot to a district
+     *
+     * @return Route index
+     */
+    public int addRoute(int depot, int district, int unitCost) {
+        if (depot < 0 || depot >= depots.size() || district < 0 || district >= districts.size()) {
+            throw new IndexOutOfBoundsException("Route references an unknown depot or district");
+        }
+        if (unitCost < 0) {
+            throw new IllegalArgumentException("Route cost must not be negative");
+        }
+        if (routeCount == routeDepot.length) {
+            routeDepot = Arrays.copyOf(routeDepot, routeCount * 2);
+            routeDistrict = Arrays.copyOf(routeDistrict, routeCount * 2);
+            routeCost = Arrays.copyOf(routeCost, routeCount * 2);
+        }
+        routeDepot[routeCount] = depot;
+        routeDistrict[routeCount] = district;
+        routeCost[routeCount] = unitCost;
+        return routeCount++;
+    }
+
+    public int getRouteCount() {
+        return routeCount;
+    }
+
+    public Depot getRouteDepot(int route) {
+        return depots.get(routeDepot[route]);
+    }
+
+    public District getRouteDistrict(int route) {
+        return districts.get(routeDistrict[route]);
+    }
+
+    public int getRouteCost(int route) {
+        return routeCost[route];
+    }
+
+    /**
+     * Solves the allocation over the current routes
+     */
+    public Result solve() {
+        long start = AllocationMetrics.start();
+        int depotCount = depots.size();
+        int districtCount = districts.size();
+        int source = 0;
+        int sink = depotCount + districtCount + 1;
+        FlowNetwork network = new FlowNetwork(sink + 1);
+
+        for (int p = 0; p < depotCount; p++) {
+            network.addArc(source, 1 + p, depots.get(p).getCapacity(), 0);
+        }
+        int[] routeArc = new int[routeCount];
+        for (int r = 0; r < routeCount; r++) {
+            routeArc[r] = network.addArc(1 + routeDepot[r], 1 + depotCount + routeDistrict[r],
+                    districts.get(routeDistrict[r]).getResourceDemand(), routeCost[r]);
+        }
+
+        // Priority cost per unit: zero for the highest ratio, one risk weight per level below it
+        int[] riskScore = new int[districtCount];
+        int[] demand = new int[districtCount];
+        for (int d = 0; d < districtCount; d++) {
+            riskScore[d] = districts.get(d).getRiskScore();
+            demand[d] = districts.get(d).getResourceDemand();
+        }
+        int[] level = PriorityRanking.ratioLevels(riskScore, demand);
+        for (int d = 0; d < districtCount; d++) {
+            network.addArc(1 + depotCount + d, sink, demand[d], (long) riskWeight * level[d]);
+        }
+
+        network.solve(source, sink);
+        long[] shipped = new long[routeCount];
+        for (int r = 0; r < routeCount; r++) {
+            shipped[r] = network.getFlow(routeArc[r]);
+        }
+        Result result = new Result(shipped);
+        AllocationMetrics.record(AllocationMetrics.Stage.ALLOCATION, start, districtCount);
+        return result;
+    }
+
+    /**
+     * Reads depots from a CSV file of name,capacity with an optional header row
+     */
+    public static List<Depot> readDepots(Path file) throws IOException {
+        List<Depot> depots = new ArrayList<>();
+        readCsv(file, "name,", 2, (fields, lineNumber) -> {
+            int capacity = Integer.parseInt(fields[1].trim());
+            if (capacity < 0) {
+                throw new IllegalArgumentException("capacity must not be negative");
+            }
+            depots.add(new Depot(fields[0].trim(), capacity));
+        });
+        return depots;
+    }
+
+    /**
+     * Reads routes from a CSV file of depot,district,cost naming depots and
+     * districts, with an optional header row. A route naming a depot or
+     * district whose name is shared by several entries is rejected, since it
+     * cannot tell which one is meant.
+     */
+    public void readRoutes(Path file) throws IOException {
+        Map<String, Integer> depotIndex = new HashMap<>();
+        for (int p = 0; p < depots.size(); p++) {
+            addName(depotIndex, depots.get(p).getName(), p);
+        }
+        Map<String, Integer> districtIndex = new HashMap<>();
+        for (int d = 0; d < districts.size(); d++) {
+            addName(districtIndex, districts.get(d).getName(), d);
+        }
+        readCsv(file, "depot,", 3, (fields, lineNumber) -> {
+            int depot = lookUp(depotIndex, "depot", fields[0].trim());
+            int district = lookUp(districtIndex, "district", fields[1].trim());
+            addRoute(depot, district, Integer.parseInt(fields[2].trim()));
+        });
+    }
+
+    /**
+     * Maps a name to its index, or to AMBIGUOUS if it is already taken
+     */
+    private static void addName(Map<String, Integer> index, String name, int position) {
+        index.merge(name, position, (first, second) -> AMBIGUOUS);
+    }
+
+    private static int lookUp(Map<String, Integer> index, String kind, String name) {
+        Integer position = index.get(name);
+        if (position == null) {
+            throw new IllegalArgumentException("unknown " + kind + " '" + name + "'");
+        }
+        if (position == AMBIGUOUS) {
+            throw new IllegalArgumentException("more than one " + kind + " is named '" + name + "'");
+        }
+        return position;
+    }
+
+    private interface RowHandler {
+        void row(String[] fields, int lineNumber);
+    }
+
+    private static void readCsv(Path file, String headerPrefix, int fieldCount, RowHandler handler)
+            throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (lineNumber == 1 && line.toLowerCase().startsWith(headerPrefix)) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != fieldCount) {
+                    throw new IOException("Invalid row at " + file.getFileName() + " line " + lineNumber
+                            + ": expected " + fieldCount + " fields");
+                }
+                try {
+                    handler.row(fields, lineNumber);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid row at " + file.getFileName() + " line " + lineNumber
+                            + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves a logistics allocation from district, depot and route files and
+     * writes the shipments
+     */
+    public static void main(String[] args) {
+        Path districtsFile = null;
+        Path depotsFile = null;
+        Path routesFile = null;
+        Path outFile = null;
+        int riskWeight = DEFAULT_RISK_WEIGHT;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--districts":
+                        districtsFile = Paths.get(args[++i]);
+                        break;
+                    case "--depots":
+                        depotsFile = Paths.get(args[++i]);
+                        break;
+                    case "--routes":
+                        routesFile = Paths.get(args[++i]);
+                        break;
+                    case "--risk-weight":
+                        riskWeight = Integer.parseInt(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (districtsFile == null || depotsFile == null || routesFile == null || riskWeight < 0) {
+                throw new IllegalArgumentException("--districts, --depots and --routes are required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java LogisticsAllocation --districts <file> --depots <file> --routes <file>"
+                    + " [--risk-weight <n>] [--out <file>]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            List<District> districts = DistrictImporter.readDistricts(districtsFile);
+            LogisticsAllocation allocation = new LogisticsAllocation(readDepots(depotsFile), districts, riskWeight);
+            allocation.readRoutes(routesFile);
+
+            long start = System.nanoTime();
+            Result result = allocation.solve();
+            double solveMs = (System.nanoTime() - start) / 1e6;
+
+            try (Writer out = outFile != null
+                        ? Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)
+                        : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+                out.write("depot,district,shipped,unitCost\n");
+                for (int r = 0; r < allocation.getRouteCount(); r++) {
+                    if (result.getShipped(r) > 0) {
+                        out.write(BatchAllocationCli.csv(allocation.getRouteDepot(r).getName()) + ','
+                                + BatchAllocationCli.csv(allocation.getRouteDistrict(r).getName()) + ','
+                                + result.getShipped(r) + ',' + allocation.getRouteCost(r) + '\n');
+                    }
+                }
+            }
+
+            long demand = 0;
+            int funded = 0;
+            for (int d = 0; d < districts.size(); d++) {
+                demand += districts.get(d).getResourceDemand();
+                if (result.getAllocated(d) > 0) {
+                    funded++;
+                }
+            }
+            System.err.printf("Delivered %d of %d demanded resources to %d of %d districts over %d routes; "
+                    + "shipping cost %d, risk covered %.1f; solved in %.1f ms%n",
+                    result.getDelivered(), demand, funded, districts.size(), allocation.getRouteCount(),
+                    result.getShippingCost(), result.getRiskCovered(), solveMs);
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException | UncheckedIOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
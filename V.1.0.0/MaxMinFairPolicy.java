@@ -0,0 +1,26 @@
+import java.util.Arrays;
+
+/**
+ * Max-min fair share: raises every district's allocation at the same rate
+ * until it reaches its demand or the budget runs out, so the smallest
+ * allocation is as large as possible.
+ */
+public class MaxMinFairPolicy implements AllocationPolicy {
+    @Override
+    public String getName() {
+        return "Max-Min Fair Share";
+    }
+
+    @Override
+    public int allocate(int[] riskScore, int[] demand, int totalResources, int[] allocation) {
+        int[] weights = new int[demand.length];
+        Arrays.fill(weights, 1);
+        long allocated = WaterFilling.fill(demand, weights, totalResources, allocation);
+        return (int) (totalResources - allocated);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
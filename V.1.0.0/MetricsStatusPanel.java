@@ -0,0 +1,54 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Status bar showing live allocation metrics, with a toggle to switch
+ * collection on and off.
+ */
+public class MetricsStatusPanel extends JPanel {
+    private static final int REFRESH_INTERVAL_MS = 1000;
+
+    private final JLabel statusLabel = new JLabel();
+    private final JCheckBox enabledCheckBox = new JCheckBox("Collect metrics");
+    private final Timer refreshTimer;
+
+    /**
+     * Constructor for MetricsStatusPanel
+     *
+     * @param background Background color matching the surrounding frame
+     * @param foreground Text color for the status line
+     */
+    public MetricsStatusPanel(Color background, Color foreground) {
+        super(new BorderLayout(10, 0));
+        setBackground(background);
+        setBorder(BorderFactory.createEmptyBorder(4, 4, 0, 4));
+
+        statusLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        statusLabel.setForeground(foreground);
+
+        enabledCheckBox.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        enabledCheckBox.setBackground(background);
+        enabledCheckBox.setSelected(AllocationMetrics.enabled());
+        enabledCheckBox.addActionListener(e -> {
+            AllocationMetrics.getInstance().setEnabled(enabledCheckBox.isSelected());
+            refresh();
+        });
+
+        add(enabledCheckBox, BorderLayout.WEST);
+        add(statusLabel, BorderLayout.CENTER);
+
+        // Poll once a second so changes made over JMX are picked up too
+        refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> refresh());
+        refreshTimer.start();
+        refresh();
+    }
+
+    /**
+     * Updates the status line from the current metric values
+     */
+    private void refresh() {
+        boolean enabled = AllocationMetrics.enabled();
+        enabledCheckBox.setSelected(enabled);
+        statusLabel.setText(enabled ? AllocationMetrics.getInstance().getSummary() : "Metrics disabled");
+    }
+}
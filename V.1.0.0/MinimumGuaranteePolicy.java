@@ -0,0 +1,52 @@
+/**
+ * Guarantees every district a fixed share of its demand, then funds the
+ * remaining demand greedily in priority order. If the budget cannot cover
+ * every guarantee, the guarantees themselves are shared max-min fairly.
+ */
+public class MinimumGuaranteePolicy implements AllocationPolicy {
+    private final double guaranteedFraction;
+
+    /**
+     * Constructor for MinimumGuaranteePolicy
+     *
+     * @param guaranteedFraction Share of each district's demand guaranteed up front (0-1)
+     */
+    public MinimumGuaranteePolicy(double guaranteedFraction) {
+        if (guaranteedFraction < 0.0 || guaranteedFraction > 1.0) {
+            throw new IllegalArgumentException("Guaranteed fraction must be between 0 and 1");
+        }
+        this.guaranteedFraction = guaranteedFraction;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("Minimum Guarantee (%.0f%%) + Greedy", guaranteedFraction * 100);
+    }
+
+    @Override
+    public int allocate(int[] riskScore, int[] demand, int totalResources, int[] allocation) {
+        int n = demand.length;
+        int[] guarantee = new int[n];
+        int[] weights = new int[n];
+        for (int i = 0; i < n; i++) {
+            guarantee[i] = (int) Math.ceil(demand[i] * guaranteedFraction);
+            weights[i] = 1;
+        }
+
+        // Cover the guarantees first, fairly if they exceed the budget
+        long guaranteed = WaterFilling.fill(guarantee, weights, totalResources, allocation);
+        int remainingResources = (int) (totalResources - guaranteed);
+
+        // Then fund the rest of each district's demand greedily
+        int[] outstanding = new int[n];
+        for (int i = 0; i < n; i++) {
+            outstanding[i] = demand[i] - allocation[i];
+        }
+        return GreedyPolicy.allocateGreedy(outstanding, remainingResources, allocation);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
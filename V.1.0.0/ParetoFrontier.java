@@ -0,0 +1,476 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Trade-off between covering risk and covering population under one budget.
+ *
+ * Every plan covers some total risk and some total population. As with
+ * {@link FundingSensitivity}, a partly funded district counts in proportion
+ * to the share of its demand that is met. A plan is on the frontier if no
+ * other plan covers more of one without covering less of the other.
+ *
+ * Because partial funding is allowed, the set of reachable (risk,
+ * population) pairs is convex, and every frontier point is the best plan
+ * for some weighting of the two. For a weight w, the best plan funds
+ * districts in descending order of
+ * (w * risk / total risk + (1 - w) * population / total population) / demand,
+ * the same greedy cut as the default policy with a blended score. The
+ * frontier is piecewise linear between such plans. It is traced by
+ * repeatedly weighting perpendicular to the segment between two known
+ * points, and splitting the segment if the new point lies more than
+ * epsilon beyond it. Epsilon is measured as a share of the range between
+ * the risk-only and population-only ends, so the number of points does not
+ * depend on the budget or the size of the totals. Independent segments are
+ * refined in parallel on a fork/join pool. Each weighted plan only needs
+ * the set of districts within budget, found by a weighted quickselect in
+ * linear time rather than a full sort.
+ *
+ * Districts with no demand cost nothing, so every plan funds them first. If
+ * the total risk or total population is zero, that objective drops out of
+ * the blend. When the two ends coincide, for example for an empty list, the
+ * frontier is that single point.
+ */
+public class ParetoFrontier {
+    /** Default tolerance, as a share of the trade-off range between the two ends */
+    public static final double DEFAULT_EPSILON = 0.002;
+
+    // Weight left on the other objective at the two ends, so ties go to the plan that also covers more of it
+    private static final double END_WEIGHT = 1e-6;
+    // Deepest segment subdivision, bounding the frontier at 2^MAX_DEPTH points
+    private static final int MAX_DEPTH = 12;
+
+    private final List<District> districts;
+    private final int totalResources;
+    private final int[] risk;
+    private final int[] population;
+    private final int[] demand;
+    private final long totalRisk;
+    private final long totalPopulation;
+    private final double epsilon;
+    // Risk and population covered between the two ends of the frontier
+    private double riskSpan;
+    private double populationSpan;
+    private final List<Point> points;
+
+    /**
+     * One plan on the frontier, identified by the weight that produces it
+     */
+    public static class Point {
+        private final double riskWeight;
+        private final double coveredRisk;
+        private final double coveredPopulation;
+        private final int fundedDistricts;
+
+        Point(double riskWeight, double coveredRisk, double coveredPopulation, int fundedDistricts) {
+            this.riskWeight = riskWeight;
+            this.coveredRisk = coveredRisk;
+            this.coveredPopulation = coveredPopulation;
+            this.fundedDistricts = fundedDistricts;
+        }
+
+        /**
+         * Weight on risk, from 0 (population only) to 1 (risk only), or NaN
+         * for a point measured from an existing plan
+         */
+        public double getRiskWeight() {
+            return riskWeight;
+        }
+
+        public double getCoveredRisk() {
+            return coveredRisk;
+        }
+
+        public double getCoveredPopulation() {
+            return coveredPopulation;
+        }
+
+        /**
+         * Number of districts receiving any resources, counting districts
+         * with no demand
+         */
+        public int getFundedDistricts() {
+            return fundedDistricts;
+        }
+    }
+
+    private ParetoFrontier(List<District> districts, int totalResources, double epsilon, ForkJoinPool pool) {
+        int n = districts.size();
+        this.districts = districts;
+        this.totalResources = totalResources;
+        this.epsilon = epsilon;
+        risk = new int[n];
+        population = new int[n];
+        demand = new int[n];
+        long riskSum = 0;
+        long populationSum = 0;
+        for (int i = 0; i < n; i++) {
+            District district = districts.get(i);
+            risk[i] = district.getRiskScore();
+            population[i] = district.getPopulation();
+            demand[i] = district.getResourceDemand();
+            riskSum += risk[i];
+            populationSum += population[i];
+        }
+        totalRisk = riskSum;
+        totalPopulation = populationSum;
+        points = Collections.unmodifiableList(trace(pool));
+    }
+
+    /**
+     * Computes the frontier with the default tolerance on the common fork/join pool
+     */
+    public static ParetoFrontier compute(List<District> districts, int totalResources) {
+        return compute(districts, totalResources, DEFAULT_EPSILON, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the frontier
+     *
+     * @param districts Districts to allocate to (not modified)
+     * @param totalResources Total resources available
+     * @param epsilon Largest gap left between the traced frontier and the true one,
+     *        as a share of the range between its two ends
+     * @param pool Pool the weighted plans are computed on
+     */
+    public static ParetoFrontier compute(List<District> districts, int totalResources, double epsilon,
+            ForkJoinPool pool) {
+        if (totalResources < 0 || !(epsilon > 0)) {
+            throw new IllegalArgumentException("Budget must not be negative and epsilon must be positive");
+        }
+        return new ParetoFrontier(districts, totalResources, epsilon, pool);
+    }
+
+    /**
+     * Measures the risk and population covered by an existing plan
+     */
+    public static Point measure(AllocationPlan plan) {
+        double coveredRisk = 0;
+        double coveredPopulation = 0;
+        for (AllocationResult result : plan.getAllocationResults()) {
+            int demand = result.district.getResourceDemand();
+            double share = demand == 0 ? 1 : (double) result.allocatedResources / demand;
+            coveredRisk += share * result.district.getRiskScore();
+            coveredPopulation += share * result.district.getPopulation();
+        }
+        return new Point(Double.NaN, coveredRisk, coveredPopulation, plan.getAllocationResults().size());
+    }
+
+    public List<District> getDistricts() {
+        return districts;
+    }
+
+    public int getTotalResources() {
+        return totalResources;
+    }
+
+    /**
+     * Frontier points from most risk covered to most population covered;
+     * there is always at least one
+     */
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    public long getTotalRisk() {
+        return totalRisk;
+    }
+
+    public long getTotalPopulation() {
+        return totalPopulation;
+    }
+
+    /**
+     * Builds the full plan for a frontier point. Districts are ranked by
+     * blended score, with ties in list order, and funded greedily.
+     */
+    public AllocationPlan toPlan(Point point) {
+        int n = districts.size();
+        int[] order = IndexSort.sortDescending(blendedKeys(point.getRiskWeight()));
+        List<District> sortedDistricts = new ArrayList<>(n);
+        List<AllocationResult> allocationResults = new ArrayList<>();
+        int remainingResources = totalResources;
+        for (int k = 0; k < n; k++) {
+            District district = districts.get(order[k]);
+            sortedDistricts.add(district);
+            if (demand[order[k]] == 0) {
+                allocationResults.add(new AllocationResult(district, 0, false));
+            } else if (remainingResources > 0) {
+                int allocated = Math.min(remainingResources, demand[order[k]]);
+                remainingResources -= allocated;
+                allocationResults.add(new AllocationResult(district, allocated, allocated < demand[order[k]]));
+            }
+        }
+        return new AllocationPlan(sortedDistricts, allocationResults, totalResources, remainingResources,
+                planName(point.getRiskWeight()));
+    }
+
+    /**
+     * Policy name shown for a plan built from a frontier point
+     */
+    static String planName(double riskWeight) {
+        long riskPercent = Math.round(riskWeight * 100);
+        return "Pareto " + riskPercent + "% risk / " + (100 - riskPercent) + "% population";
+    }
+
+    /**
+     * Finds both ends, then refines the segment between them
+     */
+    private List<Point> trace(ForkJoinPool pool) {
+        ForkJoinTask<Point> riskEnd = pool.submit(() -> solve(1 - END_WEIGHT));
+        ForkJoinTask<Point> populationEnd = pool.submit(() -> solve(END_WEIGHT));
+        Point first = riskEnd.join();
+        Point last = populationEnd.join();
+
+        List<Point> traced = new ArrayList<>();
+        traced.add(first);
+        if (last.coveredRisk < first.coveredRisk && last.coveredPopulation > first.coveredPopulation) {
+            riskSpan = first.coveredRisk - last.coveredRisk;
+            populationSpan = last.coveredPopulation - first.coveredPopulation;
+            traced.addAll(pool.invoke(new Refine(first, last, 0)));
+            traced.add(last);
+        }
+        return traced;
+    }
+
+    /**
+     * Finds the frontier points strictly between two known ones
+     */
+    private class Refine extends RecursiveTask<List<Point>> {
+        private final Point from;
+        private final Point to;
+        private final int depth;
+
+        Refine(Point from, Point to, int depth) {
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected List<Point> compute() {
+            // Normal of the segment, in coordinates scaled to the frontier's range; both parts are positive
+            double riskNormal = (to.coveredPopulation - from.coveredPopulation) / populationSpan;
+            double populationNormal = (from.coveredRisk - to.coveredRisk) / riskSpan;
+            if (depth >= MAX_DEPTH || riskNormal <= 0 || populationNormal <= 0) {
+                return Collections.emptyList();
+            }
+            // Blended scores are shares of the totals, so convert the normal into a weight on those
+            double riskShare = riskNormal / riskSpan * totalRisk;
+            double populationShare = populationNormal / populationSpan * totalPopulation;
+            Point middle = solve(riskShare / (riskShare + populationShare));
+            double gain = (riskNormal * (middle.coveredRisk - from.coveredRisk) / riskSpan
+                    + populationNormal * (middle.coveredPopulation - from.coveredPopulation) / populationSpan)
+                    / Math.hypot(riskNormal, populationNormal);
+            if (gain <= epsilon) {
+                return Collections.emptyList();
+            }
+
+            Refine left = new Refine(from, middle, depth + 1);
+            left.fork();
+            List<Point> right = new Refine(middle, to, depth + 1).compute();
+            List<Point> result = new ArrayList<>(left.join());
+            result.add(middle);
+            result.addAll(right);
+            return result;
+        }
+    }
+
+    /**
+     * Coverage of the greedy plan on blended scores for one weight
+     */
+    private Point solve(double riskWeight) {
+        double[] key = blendedKeys(riskWeight);
+        int n = key.length;
+        int[] index = new int[n];
+        double coveredRisk = 0;
+        double coveredPopulation = 0;
+        int funded = 0;
+        // Districts with no demand are covered in full; the rest go to the quickselect
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (demand[i] == 0) {
+                coveredRisk += risk[i];
+                coveredPopulation += population[i];
+                funded++;
+            } else {
+                key[m] = key[i];
+                index[m++] = i;
+            }
+        }
+
+        long budget = totalResources;
+        int low = 0;
+        int high = m;
+        while (low < high && budget > 0) {
+            // Three-way partition of index[low, high) around a median-of-three pivot:
+            // [low, greater) above it, [greater, less) equal and [less, high) below
+            // Keys move with their indexes so the scan stays sequential
+            double pivot = medianOfThree(key[low], key[(low + high) >>> 1], key[high - 1]);
+            int greater = low;
+            int less = high;
+            int i = low;
+            while (i < less) {
+                double k = key[i];
+                if (k > pivot) {
+                    swap(key, index, i++, greater++);
+                } else if (k < pivot) {
+                    swap(key, index, i, --less);
+                } else {
+                    i++;
+                }
+            }
+
+            long aboveDemand = 0;
+            for (int j = low; j < greater; j++) {
+                aboveDemand += demand[index[j]];
+            }
+            if (aboveDemand > budget) {
+                // The cut falls among the districts above the pivot
+                high = greater;
+                continue;
+            }
+
+            // Everything above the pivot is fully funded
+            for (int j = low; j < greater; j++) {
+                coveredRisk += risk[index[j]];
+                coveredPopulation += population[index[j]];
+            }
+            budget -= aboveDemand;
+            funded += greater - low;
+
+            // Equal keys are funded in list order, as in toPlan
+            Arrays.sort(index, greater, less);
+            for (int j = greater; j < less && budget > 0; j++) {
+                int d = index[j];
+                long allocated = Math.min(budget, demand[d]);
+                double share = (double) allocated / demand[d];
+                coveredRisk += share * risk[d];
+                coveredPopulation += share * population[d];
+                budget -= allocated;
+                funded++;
+            }
+            low = less;
+        }
+        return new Point(riskWeight, coveredRisk, coveredPopulation, funded);
+    }
+
+    private double[] blendedKeys(double riskWeight) {
+        int n = risk.length;
+        // An objective with a zero total cannot be covered, so it gets no weight
+        double riskScale = totalRisk == 0 ? 0 : riskWeight / totalRisk;
+        double populationScale = totalPopulation == 0 ? 0 : (1 - riskWeight) / totalPopulation;
+        double[] key = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Districts with no demand rank first
+            key[i] = demand[i] == 0 ? Double.POSITIVE_INFINITY
+                    : (riskScale * risk[i] + populationScale * population[i]) / demand[i];
+        }
+        return key;
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(double[] key, int[] index, int i, int j) {
+        double k = key[i];
+        key[i] = key[j];
+        key[j] = k;
+        int t = index[i];
+        index[i] = index[j];
+        index[j] = t;
+    }
+
+    /**
+     * Writes one CSV row per frontier point
+     */
+    public void writeCsv(Writer out) throws IOException {
+        out.write("point,riskWeight,coveredRisk,coveredRiskPercent,coveredPopulation,coveredPopulationPercent,"
+                + "fundedDistricts\n");
+        for (int k = 0; k < points.size(); k++) {
+            Point point = points.get(k);
+            out.write(k + "," + String.format("%.6f", point.getRiskWeight())
+                    + ',' + String.format("%.1f", point.getCoveredRisk())
+                    + ',' + String.format("%.3f", 100.0 * point.getCoveredRisk() / Math.max(1, totalRisk))
+                    + ',' + String.format("%.1f", point.getCoveredPopulation())
+                    + ',' + String.format("%.3f", 100.0 * point.getCoveredPopulation() / Math.max(1, totalPopulation))
+                    + ',' + point.getFundedDistricts() + '\n');
+        }
+    }
+
+    /**
+     * Writes the frontier for a district file and budget as CSV
+     *
+     * @param args --districts file --budget n [--epsilon e] [--out file]
+     */
+    public static void main(String[] args) {
+        Path districtsFile = null;
+        Path outFile = null;
+        int budget = -1;
+        double epsilon = DEFAULT_EPSILON;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--districts":
+                        districtsFile = Paths.get(args[++i]);
+                        break;
+                    case "--budget":
+                        budget = Integer.parseInt(args[++i]);
+                        break;
+                    case "--epsilon":
+                        epsilon = Double.parseDouble(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (districtsFile == null || budget < 0) {
+                throw new IllegalArgumentException("--districts and --budget are required");
+            }
+            if (!(epsilon > 0)) {
+                throw new IllegalArgumentException("--epsilon must be positive");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java ParetoFrontier --districts <file> --budget <n> [--epsilon <e>]"
+                    + " [--out <file>]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            List<District> districts = DistrictImporter.readDistricts(districtsFile);
+            long start = System.nanoTime();
+            ParetoFrontier frontier = compute(districts, budget, epsilon, ForkJoinPool.commonPool());
+            long elapsed = System.nanoTime() - start;
+            try (Writer out = outFile != null
+                        ? Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)
+                        : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+                frontier.writeCsv(out);
+            }
+            System.err.printf("Traced %d frontier points over %d districts in %.1f ms%n",
+                    frontier.getPoints().size(), districts.size(), elapsed / 1e6);
+        } catch (IOException | IllegalArgumentException | UncheckedIOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
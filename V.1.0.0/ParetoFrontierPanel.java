@@ -0,0 +1,405 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Path2D;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Plots the risk/population frontier of the current district set and
+ * budget, with the displayed plan marked against it, and lets the user
+ * switch to any plan on the frontier by clicking it or dragging the slider.
+ *
+ * The frontier is only computed once the panel is shown, and again only
+ * when the districts or budget change. Both the frontier and the plan for
+ * a picked point are built on a background thread.
+ */
+public class ParetoFrontierPanel extends JPanel {
+    private static final Color FRONTIER_COLOR = new Color(25, 118, 210);
+    private static final Color SELECTED_COLOR = new Color(220, 53, 69);
+    private static final Color CURRENT_COLOR = new Color(33, 33, 33);
+    private static final Color GRID_COLOR = new Color(230, 230, 230);
+    private static final Font AXIS_FONT = new Font("Segoe UI", Font.PLAIN, 10);
+    // How close, in pixels, the mouse must be to pick a point
+    private static final int PICK_RADIUS = 12;
+    private static final int MARGIN = 40;
+
+    private final Consumer<AllocationPlan> onPick;
+    private final ExecutorService worker;
+    private final JLabel summaryLabel = new JLabel(" ");
+    private final JLabel hoverLabel = new JLabel(" ");
+    private final JSlider slider = new JSlider(0, 0, 0);
+    private final FrontierView view = new FrontierView();
+
+    // Inputs of the frontier, and the frontier itself once computed
+    private List<District> districts;
+    private int budget;
+    private ParetoFrontier frontier;
+    private boolean computing;
+    // Incremented whenever the inputs change so stale results are dropped
+    private long generation;
+
+    // Coverage of the displayed plan, and its frontier index if it was picked here
+    private ParetoFrontier.Point current;
+    private int selected = -1;
+    private int hovered = -1;
+    private AllocationPlan pickedPlan;
+    private int pickedIndex = -1;
+    private boolean updatingSlider;
+
+    /**
+     * Constructor for ParetoFrontierPanel
+     *
+     * @param background Background color matching the surrounding panel
+     * @param onPick Receives the plan for a point the user picks, on the event dispatch thread
+     */
+    public ParetoFrontierPanel(Color background, Consumer<AllocationPlan> onPick) {
+        super(new BorderLayout(0, 10));
+        this.onPick = onPick;
+        setBackground(background);
+        setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "pareto-frontier");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        summaryLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        hoverLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        hoverLabel.setForeground(Color.GRAY);
+        view.setBackground(background);
+        view.setPreferredSize(new Dimension(400, 260));
+
+        slider.setBackground(background);
+        slider.setEnabled(false);
+        slider.addChangeListener(e -> {
+            if (updatingSlider || frontier == null) {
+                return;
+            }
+            hovered = slider.getValue();
+            hoverLabel.setText(describe(frontier.getPoints().get(hovered)));
+            view.repaint();
+            if (!slider.getValueIsAdjusting()) {
+                pick(slider.getValue());
+            }
+        });
+        JPanel sliderPanel = new JPanel(new BorderLayout(10, 0));
+        sliderPanel.setBackground(background);
+        sliderPanel.add(new JLabel("More risk covered"), BorderLayout.WEST);
+        sliderPanel.add(slider, BorderLayout.CENTER);
+        sliderPanel.add(new JLabel("More people covered"), BorderLayout.EAST);
+
+        JPanel southPanel = new JPanel(new BorderLayout(0, 5));
+        southPanel.setBackground(background);
+        southPanel.add(hoverLabel, BorderLayout.NORTH);
+        southPanel.add(sliderPanel, BorderLayout.SOUTH);
+
+        add(summaryLabel, BorderLayout.NORTH);
+        add(view, BorderLayout.CENTER);
+        add(southPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Shows the plan on display. The frontier is recomputed, once the panel
+     * is next shown, if the districts or budget differ from the last plan.
+     *
+     * @param districts District list the plan was calculated from; must not change afterwards
+     * @param plan Plan on display
+     */
+    public void setPlan(List<District> districts, AllocationPlan plan) {
+        if (districts != this.districts || plan.getTotalResources() != budget) {
+            this.districts = districts;
+            budget = plan.getTotalResources();
+            frontier = null;
+            computing = false;
+            pickedPlan = null;
+            generation++;
+        }
+        current = ParetoFrontier.measure(plan);
+        selected = plan == pickedPlan ? pickedIndex : -1;
+        hovered = -1;
+        updateControls();
+        view.repaint();
+    }
+
+    /**
+     * Starts computing the frontier if it is missing
+     */
+    private void ensureFrontier() {
+        if (frontier != null || computing || districts == null) {
+            return;
+        }
+        computing = true;
+        long requested = generation;
+        List<District> input = districts;
+        int resources = budget;
+        worker.execute(() -> {
+            ParetoFrontier computed = ParetoFrontier.compute(input, resources);
+            SwingUtilities.invokeLater(() -> {
+                if (requested == generation) {
+                    frontier = computed;
+                    computing = false;
+                    updateControls();
+                    view.repaint();
+                }
+            });
+        });
+    }
+
+    /**
+     * Builds the plan for a frontier point in the background and hands it to the listener
+     */
+    private void pick(int index) {
+        ParetoFrontier source = frontier;
+        if (source == null || index == selected) {
+            return;
+        }
+        selected = index;
+        view.repaint();
+        ParetoFrontier.Point point = source.getPoints().get(index);
+        worker.execute(() -> {
+            AllocationPlan plan = source.toPlan(point);
+            SwingUtilities.invokeLater(() -> {
+                if (source == frontier && selected == index) {
+                    pickedPlan = plan;
+                    pickedIndex = index;
+                    onPick.accept(plan);
+                }
+            });
+        });
+    }
+
+    private void updateControls() {
+        if (frontier == null) {
+            summaryLabel.setText(districts == null ? " "
+                    : String.format("Computing the risk/population frontier for %,d districts...", districts.size()));
+            slider.setEnabled(false);
+            return;
+        }
+
+        List<ParetoFrontier.Point> points = frontier.getPoints();
+        updatingSlider = true;
+        slider.setMaximum(Math.max(0, points.size() - 1));
+        slider.setValue(selected >= 0 ? selected : nearestTo(current));
+        slider.setEnabled(points.size() > 1);
+        updatingSlider = false;
+
+        if (points.isEmpty()) {
+            summaryLabel.setText("No districts to allocate to");
+            return;
+        }
+        ParetoFrontier.Point first = points.get(0);
+        ParetoFrontier.Point last = points.get(points.size() - 1);
+        summaryLabel.setText(String.format(
+                "<html>Current plan covers <b>%.1f%%</b> of risk and <b>%.1f%%</b> of population<br>"
+                + "%d plans on the frontier, from %.1f%% / %.1f%% to %.1f%% / %.1f%% • "
+                + "click a point or drag the slider to switch</html>",
+                riskPercent(current), populationPercent(current), points.size(),
+                riskPercent(first), populationPercent(first), riskPercent(last), populationPercent(last)));
+    }
+
+    /**
+     * Index of the frontier point closest to a point, in share-of-total coordinates
+     */
+    private int nearestTo(ParetoFrontier.Point target) {
+        List<ParetoFrontier.Point> points = frontier.getPoints();
+        int nearest = 0;
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < points.size(); i++) {
+            double distance = Math.hypot(riskPercent(points.get(i)) - riskPercent(target),
+                    populationPercent(points.get(i)) - populationPercent(target));
+            if (distance < best) {
+                best = distance;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    private String describe(ParetoFrontier.Point point) {
+        return String.format("%s: %.2f%% of risk, %.2f%% of population, %,d districts funded",
+                ParetoFrontier.planName(point.getRiskWeight()), riskPercent(point), populationPercent(point),
+                point.getFundedDistricts());
+    }
+
+    private double riskPercent(ParetoFrontier.Point point) {
+        return 100.0 * point.getCoveredRisk() / Math.max(1, frontier.getTotalRisk());
+    }
+
+    private double populationPercent(ParetoFrontier.Point point) {
+        return 100.0 * point.getCoveredPopulation() / Math.max(1, frontier.getTotalPopulation());
+    }
+
+    /**
+     * Risk covered against population covered, for each frontier point and the current plan
+     */
+    private class FrontierView extends JComponent {
+        // Plotted range, in percent of the totals
+        private double minPopulation;
+        private double maxPopulation;
+        private double minRisk;
+        private double maxRisk;
+
+        FrontierView() {
+            MouseAdapter mouse = new MouseAdapter() {
+                @Override
+                public void mouseMoved(MouseEvent e) {
+                    int index = pointAt(e.getX(), e.getY());
+                    if (index != hovered) {
+                        hovered = index;
+                        hoverLabel.setText(index < 0 ? " " : describe(frontier.getPoints().get(index)));
+                        repaint();
+                    }
+                }
+
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    hovered = -1;
+                    hoverLabel.setText(" ");
+                    repaint();
+                }
+
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    int index = pointAt(e.getX(), e.getY());
+                    if (index >= 0) {
+                        updatingSlider = true;
+                        slider.setValue(index);
+                        updatingSlider = false;
+                        pick(index);
+                    }
+                }
+            };
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
+        }
+
+        private double x(double populationPercent) {
+            return MARGIN + (populationPercent - minPopulation) / (maxPopulation - minPopulation)
+                    * (getWidth() - 2 * MARGIN);
+        }
+
+        private double y(double riskPercent) {
+            return getHeight() - MARGIN - (riskPercent - minRisk) / (maxRisk - minRisk)
+                    * (getHeight() - 2 * MARGIN);
+        }
+
+        /**
+         * Index of the frontier point within the pick radius of (px, py), or -1
+         */
+        private int pointAt(int px, int py) {
+            if (frontier == null) {
+                return -1;
+            }
+            List<ParetoFrontier.Point> points = frontier.getPoints();
+            int nearest = -1;
+            double best = PICK_RADIUS;
+            for (int i = 0; i < points.size(); i++) {
+                double distance = Math.hypot(x(populationPercent(points.get(i))) - px,
+                        y(riskPercent(points.get(i))) - py);
+                if (distance <= best) {
+                    best = distance;
+                    nearest = i;
+                }
+            }
+            return nearest;
+        }
+
+        /**
+         * Fits the plotted range to the frontier and the current plan, with a little room around them
+         */
+        private void fitRange(List<ParetoFrontier.Point> points) {
+            minPopulation = populationPercent(current);
+            maxPopulation = minPopulation;
+            minRisk = riskPercent(current);
+            maxRisk = minRisk;
+            for (ParetoFrontier.Point point : points) {
+                minPopulation = Math.min(minPopulation, populationPercent(point));
+                maxPopulation = Math.max(maxPopulation, populationPercent(point));
+                minRisk = Math.min(minRisk, riskPercent(point));
+                maxRisk = Math.max(maxRisk, riskPercent(point));
+            }
+            double populationPad = Math.max(0.5, (maxPopulation - minPopulation) * 0.1);
+            double riskPad = Math.max(0.5, (maxRisk - minRisk) * 0.1);
+            minPopulation = Math.max(0, minPopulation - populationPad);
+            maxPopulation = Math.min(100, maxPopulation + populationPad);
+            minRisk = Math.max(0, minRisk - riskPad);
+            maxRisk = Math.min(100, maxRisk + riskPad);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g.create();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(getBackground());
+            g2d.fillRect(0, 0, getWidth(), getHeight());
+            ensureFrontier();
+            if (frontier == null || frontier.getPoints().isEmpty()) {
+                g2d.dispose();
+                return;
+            }
+
+            List<ParetoFrontier.Point> points = frontier.getPoints();
+            fitRange(points);
+            paintAxes(g2d);
+
+            Path2D.Double path = new Path2D.Double();
+            for (int i = 0; i < points.size(); i++) {
+                double px = x(populationPercent(points.get(i)));
+                double py = y(riskPercent(points.get(i)));
+                if (i == 0) {
+                    path.moveTo(px, py);
+                } else {
+                    path.lineTo(px, py);
+                }
+            }
+            g2d.setColor(FRONTIER_COLOR);
+            g2d.setStroke(new BasicStroke(2f));
+            g2d.draw(path);
+
+            for (int i = 0; i < points.size(); i++) {
+                int px = (int) Math.round(x(populationPercent(points.get(i))));
+                int py = (int) Math.round(y(riskPercent(points.get(i))));
+                int radius = i == selected || i == hovered ? 6 : 4;
+                g2d.setColor(i == selected ? SELECTED_COLOR : FRONTIER_COLOR);
+                g2d.fillOval(px - radius, py - radius, 2 * radius, 2 * radius);
+            }
+
+            // Current plan, which may lie below the frontier for the other policies
+            int cx = (int) Math.round(x(populationPercent(current)));
+            int cy = (int) Math.round(y(riskPercent(current)));
+            g2d.setColor(CURRENT_COLOR);
+            g2d.setStroke(new BasicStroke(1.5f));
+            g2d.drawRect(cx - 6, cy - 6, 12, 12);
+            g2d.setFont(AXIS_FONT);
+            g2d.drawString("Current plan", cx + 9, cy + 14);
+            g2d.dispose();
+        }
+
+        private void paintAxes(Graphics2D g2d) {
+            g2d.setFont(AXIS_FONT);
+            FontMetrics metrics = g2d.getFontMetrics();
+            int bottom = getHeight() - MARGIN;
+            int right = getWidth() - MARGIN;
+            for (int i = 0; i <= 4; i++) {
+                double population = minPopulation + (maxPopulation - minPopulation) * i / 4;
+                double risk = minRisk + (maxRisk - minRisk) * i / 4;
+                int gx = (int) Math.round(x(population));
+                int gy = (int) Math.round(y(risk));
+                g2d.setColor(GRID_COLOR);
+                g2d.drawLine(gx, MARGIN, gx, bottom);
+                g2d.drawLine(MARGIN, gy, right, gy);
+                g2d.setColor(Color.GRAY);
+                String populationLabel = String.format("%.1f%%", population);
+                g2d.drawString(populationLabel, gx - metrics.stringWidth(populationLabel) / 2, bottom + 14);
+                String riskLabel = String.format("%.1f%%", risk);
+                g2d.drawString(riskLabel, MARGIN - metrics.stringWidth(riskLabel) - 4, gy + 4);
+            }
+            g2d.drawString("Population covered", right - metrics.stringWidth("Population covered"), bottom + 28);
+            g2d.drawString("Risk covered", 4, MARGIN - 10);
+        }
+    }
+}
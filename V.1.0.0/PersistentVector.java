@@ -0,0 +1,297 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list where every edit returns a new version that shares almost
+ * all of its structure with the old one.
+ *
+ * Elements are stored in chunks of up to {@value #CHUNK_SIZE} at the leaves
+ * of a height-balanced (AVL) tree whose inner nodes record their size.
+ * Indexing, appending and removing at any position copy only the path from
+ * the root to one leaf, so they take O(log n) time and space, and keeping an
+ * old version around (for undo, or for a computation still reading it) costs
+ * nothing extra. Appending a whole collection builds a balanced tree from
+ * its chunks and joins it on in O(k + log n).
+ *
+ * @param <E> Element type
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    static final int CHUNK_SIZE = 32;
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(null);
+
+    private final Node root;
+
+    /**
+     * Tree node: a leaf chunk of elements or a branch joining two subtrees
+     */
+    private static final class Node {
+        final Node left;
+        final Node right;
+        final Object[] items;
+        final int size;
+        final int height;
+
+        // Leaf
+        Node(Object[] items) {
+            this.left = null;
+            this.right = null;
+            this.items = items;
+            this.size = items.length;
+            this.height = 0;
+        }
+
+        // Branch
+        Node(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+            this.items = null;
+            this.size = left.size + right.size;
+            this.height = Math.max(left.height, right.height) + 1;
+        }
+
+        boolean isLeaf() {
+            return items != null;
+        }
+    }
+
+    private PersistentVector(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty vector
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Returns a vector holding the given elements in order
+     */
+    public static <E> PersistentVector<E> of(Collection<? extends E> elements) {
+        return PersistentVector.<E>empty().plusAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index);
+        Node node = root;
+        while (!node.isLeaf()) {
+            if (index < node.left.size) {
+                node = node.left;
+            } else {
+                index -= node.left.size;
+                node = node.right;
+            }
+        }
+        return (E) node.items[index];
+    }
+
+    /**
+     * Returns a new version with the element appended
+     */
+    public PersistentVector<E> plus(E element) {
+        return new PersistentVector<>(concat(root, new Node(new Object[] {element})));
+    }
+
+    /**
+     * Returns a new version with all the elements appended in order
+     */
+    public PersistentVector<E> plusAll(Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return this;
+        }
+        Object[] all = elements.toArray();
+        int chunks = (all.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return new PersistentVector<>(concat(root, build(all, 0, chunks)));
+    }
+
+    /**
+     * Returns a new version with the element at the given index removed
+     */
+    public PersistentVector<E> minus(int index) {
+        checkIndex(index);
+        return new PersistentVector<>(remove(root, index));
+    }
+
+    /**
+     * Returns a new version with the element at the given index replaced
+     */
+    public PersistentVector<E> with(int index, E element) {
+        checkIndex(index);
+        return new PersistentVector<>(replace(root, index, element));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+    }
+
+    /**
+     * Builds a perfectly balanced tree over chunks [from, to) of the array
+     */
+    private static Node build(Object[] all, int from, int to) {
+        if (to - from == 1) {
+            int start = from * CHUNK_SIZE;
+            return new Node(Arrays.copyOfRange(all, start, Math.min(all.length, start + CHUNK_SIZE)));
+        }
+        int mid = (from + to) >>> 1;
+        return new Node(build(all, from, mid), build(all, mid, to));
+    }
+
+    private static Node remove(Node node, int index) {
+        if (node.isLeaf()) {
+            if (node.items.length == 1) {
+                return null;
+            }
+            Object[] items = new Object[node.items.length - 1];
+            System.arraycopy(node.items, 0, items, 0, index);
+            System.arraycopy(node.items, index + 1, items, index, items.length - index);
+            return new Node(items);
+        }
+        if (index < node.left.size) {
+            return concat(remove(node.left, index), node.right);
+        }
+        return concat(node.left, remove(node.right, index - node.left.size));
+    }
+
+    private static Node replace(Node node, int index, Object element) {
+        if (node.isLeaf()) {
+            Object[] items = node.items.clone();
+            items[index] = element;
+            return new Node(items);
+        }
+        if (index < node.left.size) {
+            return new Node(replace(node.left, index, element), node.right);
+        }
+        return new Node(node.left, replace(node.right, index - node.left.size, element));
+    }
+
+    /**
+     * Joins two trees, left before right, keeping the result balanced.
+     * Takes time proportional to the difference in their heights.
+     */
+    private static Node concat(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.isLeaf() && right.isLeaf() && left.size + right.size <= CHUNK_SIZE) {
+            // Fill partly used chunks instead of adding another leaf
+            Object[] items = Arrays.copyOf(left.items, left.size + right.size);
+            System.arraycopy(right.items, 0, items, left.size, right.size);
+            return new Node(items);
+        }
+        if (left.height > right.height + 1) {
+            return balance(left.left, concat(left.right, right));
+        }
+        if (right.height > left.height + 1) {
+            return balance(concat(left, right.left), right.right);
+        }
+        if (left.isLeaf() && !right.isLeaf() && right.left.isLeaf()) {
+            // Keep appending into the last chunk when the right side starts with a small one
+            Node merged = concat(left, right.left);
+            if (merged.isLeaf()) {
+                return balance(merged, right.right);
+            }
+        }
+        if (right.isLeaf() && !left.isLeaf() && left.right.isLeaf()
+                && left.right.size + right.size <= CHUNK_SIZE) {
+            return balance(left.left, concat(left.right, right));
+        }
+        return new Node(left, right);
+    }
+
+    /**
+     * Creates a branch, rotating if the two sides differ in height by two
+     */
+    private static Node balance(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.height > right.height + 1) {
+            if (left.left.height >= left.right.height) {
+                return new Node(left.left, new Node(left.right, right));
+            }
+            return new Node(new Node(left.left, left.right.left), new Node(left.right.right, right));
+        }
+        if (right.height > left.height + 1) {
+            if (right.right.height >= right.left.height) {
+                return new Node(new Node(left, right.left), right.right);
+            }
+            return new Node(new Node(left, right.left.left), new Node(right.left.right, right.right));
+        }
+        return new Node(left, right);
+    }
+
+    /**
+     * In-order walk over the leaves with an explicit stack
+     */
+    private class Itr implements Iterator<E> {
+        // A balanced tree over int-sized lists is never deeper than this
+        private final Node[] stack = new Node[64];
+        private int depth = 0;
+        private Object[] chunk;
+        private int position;
+
+        Itr() {
+            if (root != null) {
+                descend(root);
+            }
+        }
+
+        private void descend(Node node) {
+            while (!node.isLeaf()) {
+                stack[depth++] = node.right;
+                node = node.left;
+            }
+            chunk = node.items;
+            position = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return chunk != null && position < chunk.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = (E) chunk[position++];
+            if (position == chunk.length) {
+                if (depth > 0) {
+                    descend(stack[--depth]);
+                } else {
+                    chunk = null;
+                }
+            }
+            return element;
+        }
+    }
+}
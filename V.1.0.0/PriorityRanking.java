@@ -0,0 +1,245 @@
+import java.util.Arrays;
+
+/**
+ * Deterministic priority order of districts by descending risk/resource ratio.
+ *
+ * Each district's ratio is computed once and replaced by its dense rank among
+ * the distinct ratios. The rank is packed above a tiebreak rank in one long
+ * key, so a single LSD radix sort over just the bits in use yields the order,
+ * and equal ratios always come out in tiebreak order whatever order the
+ * districts were passed in.
+ *
+ * Ratios are compared as doubles. For risk scores below 2^16 (the risk model
+ * tops out at {@link RiskStatistics#MAX_TOTAL_RISK}) distinct ratios always
+ * map to distinct doubles, so the ordering is exact.
+ */
+public class PriorityRanking {
+    // Bits consumed per radix sort pass
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
+
+    // Below this many keys a comparison sort is faster than radix passes
+    private static final int RADIX_SORT_THRESHOLD = 2048;
+
+    // Marks an unused hash slot; never the bit pattern of a non-negative double
+    private static final long EMPTY = -1L;
+
+    /**
+     * Orders positions by descending ratio, breaking ties by position
+     *
+     * @return Positions in priority order
+     */
+    public static int[] rank(int[] riskScore, int[] demand) {
+        return rank(riskScore, demand, null);
+    }
+
+    /**
+     * Orders positions by descending ratio, breaking ties by ascending ID
+     *
+     * @param riskScore Risk score per position
+     * @param demand Resource demand per position, all positive
+     * @param ids Distinct tiebreak IDs per position, or null to break ties by position
+     * @return Positions in priority order
+     */
+    public static int[] rank(int[] riskScore, int[] demand, int[] ids) {
+        int n = riskScore.length;
+        int[] level = ratioLevels(riskScore, demand);
+        int distinctCount = 0;
+        for (int l : level) {
+            distinctCount = Math.max(distinctCount, l + 1);
+        }
+
+        int[] byTiebreak = tiebreakOrder(ids, n);
+        int[] tiebreakRank;
+        if (byTiebreak == null) {
+            tiebreakRank = null;
+        } else {
+            tiebreakRank = new int[n];
+            for (int k = 0; k < n; k++) {
+                tiebreakRank[byTiebreak[k]] = k;
+            }
+        }
+
+        // Pack ratio rank above the tiebreak, using only as many bits as needed
+        int tiebreakBits = bitsFor(n);
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            // Highest ratio has level 0 so an ascending sort puts it first
+            long rank = level[i];
+            keys[i] = (rank << tiebreakBits) | (tiebreakRank == null ? i : tiebreakRank[i]);
+        }
+        radixSort(keys, tiebreakBits + bitsFor(distinctCount));
+
+        long mask = (1L << tiebreakBits) - 1;
+        int[] order = new int[n];
+        for (int k = 0; k < n; k++) {
+            int low = (int) (keys[k] & mask);
+            order[k] = byTiebreak == null ? low : byTiebreak[low];
+        }
+        return order;
+    }
+
+    /**
+     * Returns each position's priority level: the dense rank of its ratio
+     * among the distinct ratios, 0 for the highest. Equal ratios share a level.
+     *
+     * @param riskScore Risk score per position
+     * @param demand Resource demand per position, all positive
+     */
+    public static int[] ratioLevels(int[] riskScore, int[] demand) {
+        int n = riskScore.length;
+        long[] ratioBits = new long[n];
+        for (int i = 0; i < n; i++) {
+            // Non-negative doubles order the same way as their bit patterns
+            ratioBits[i] = Double.doubleToLongBits((double) riskScore[i] / demand[i]);
+        }
+        int[] ratioRank = denseRanks(ratioBits);
+        int distinctCount = 0;
+        for (int r : ratioRank) {
+            distinctCount = Math.max(distinctCount, r + 1);
+        }
+        for (int i = 0; i < n; i++) {
+            ratioRank[i] = distinctCount - 1 - ratioRank[i];
+        }
+        return ratioRank;
+    }
+
+    /**
+     * Replaces each value by its rank among the distinct values, ascending.
+     * Distinct values are collected in a hash table first, so only those are sorted.
+     */
+    private static int[] denseRanks(long[] values) {
+        int capacity = 1024;
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        int distinctCount = 0;
+        for (long value : values) {
+            if (insert(table, value)) {
+                distinctCount++;
+                if (distinctCount * 2 > table.length) {
+                    long[] grown = new long[table.length * 2];
+                    Arrays.fill(grown, EMPTY);
+                    for (long existing : table) {
+                        if (existing != EMPTY) {
+                            insert(grown, existing);
+                        }
+                    }
+                    table = grown;
+                }
+            }
+        }
+
+        long[] distinct = new long[distinctCount];
+        int d = 0;
+        for (long value : table) {
+            if (value != EMPTY) {
+                distinct[d++] = value;
+            }
+        }
+        Arrays.sort(distinct);
+
+        // Reuse the table to map each distinct value to its rank
+        int[] rankBySlot = new int[table.length];
+        for (int r = 0; r < distinctCount; r++) {
+            rankBySlot[slot(table, distinct[r])] = r;
+        }
+        int[] ranks = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ranks[i] = rankBySlot[slot(table, values[i])];
+        }
+        return ranks;
+    }
+
+    /**
+     * Adds a value to an open-addressing table
+     *
+     * @return True if the value was not present
+     */
+    private static boolean insert(long[] table, long value) {
+        int index = slot(table, value);
+        if (table[index] == value) {
+            return false;
+        }
+        table[index] = value;
+        return true;
+    }
+
+    /**
+     * Returns the slot holding the value, or the empty slot where it belongs
+     */
+    private static int slot(long[] table, long value) {
+        int mask = table.length - 1;
+        int index = (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (table[index] != value && table[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int bitsFor(int count) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(count - 1, 1)));
+    }
+
+    /**
+     * LSD radix sort of non-negative keys that fit in the given number of bits
+     */
+    private static void radixSort(long[] keys, int bits) {
+        int n = keys.length;
+        if (n < RADIX_SORT_THRESHOLD) {
+            Arrays.sort(keys);
+            return;
+        }
+        long[] buffer = new long[n];
+        int[] counts = new int[1 << RADIX_BITS];
+        long[] from = keys;
+        long[] to = buffer;
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (long key : from) {
+                counts[(int) (key >>> shift) & RADIX_MASK]++;
+            }
+            int sum = 0;
+            for (int b = 0; b < counts.length; b++) {
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+            for (long key : from) {
+                to[counts[(int) (key >>> shift) & RADIX_MASK]++] = key;
+            }
+            long[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != keys) {
+            System.arraycopy(from, 0, keys, 0, n);
+        }
+    }
+
+    /**
+     * Returns positions ordered by ascending ID, or null if they already are
+     */
+    private static int[] tiebreakOrder(int[] ids, int n) {
+        if (ids == null) {
+            return null;
+        }
+        boolean ascending = true;
+        for (int i = 1; i < n && ascending; i++) {
+            ascending = ids[i - 1] < ids[i];
+        }
+        if (ascending) {
+            return null;
+        }
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[n];
+        for (int k = 0; k < n; k++) {
+            order[k] = (int) keys[k];
+        }
+        return order;
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Allocates resources in proportion to risk score. A district never receives
+ * more than its demand; what a capped district does not need is shared among
+ * the others in the same proportions.
+ */
+public class ProportionalRiskPolicy implements AllocationPolicy {
+    @Override
+    public String getName() {
+        return "Proportional to Risk";
+    }
+
+    @Override
+    public int allocate(int[] riskScore, int[] demand, int totalResources, int[] allocation) {
+        long allocated = WaterFilling.fill(demand, riskScore, totalResources, allocation);
+        return (int) (totalResources - allocated);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
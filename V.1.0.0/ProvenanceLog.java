@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Append-only audit trail of allocation runs.
+ *
+ * Every plan is written as one JSON line holding the run's inputs, the risk
+ * model weights, each decision in priority order and the cut point where
+ * funding ran out, so a past run can be explained and replayed later (see
+ * {@link ProvenanceViewer}).
+ *
+ * Recording a plan only puts it on a bounded {@link RingBuffer}; a daemon
+ * thread does the formatting and file I/O. If the writer falls behind and
+ * the buffer fills, new plans are dropped rather than blocking the caller,
+ * and the next record written carries the number dropped.
+ */
+public class ProvenanceLog implements Consumer<AllocationPlan> {
+    /** System property naming the log file; "off" disables logging */
+    public static final String PATH_PROPERTY = "allocation.provenance";
+    public static final String DEFAULT_PATH = "allocation-provenance.jsonl";
+
+    private static final int BUFFER_CAPACITY = 256;
+
+    private final Path path;
+    private final RingBuffer<AllocationPlan> buffer = new RingBuffer<>(BUFFER_CAPACITY);
+    private final Thread writer;
+    private final String sessionId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong dropped = new AtomicLong();
+    // Drops not yet reported in a written record
+    private final AtomicLong unreportedDrops = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private long sequence = 0;
+    private volatile boolean closed = false;
+
+    // Plans already recorded, so a cached plan shown again is not logged as a new run
+    private final Set<AllocationPlan> recorded = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * Constructor for ProvenanceLog; starts the writer thread
+     *
+     * @param path File to append records to (created if missing)
+     */
+    public ProvenanceLog(Path path) {
+        this.path = path;
+        this.writer = new Thread(this::drainLoop, "provenance-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Creates a log for the file named by the {@value #PATH_PROPERTY} property
+     *
+     * @return The log, or null if logging is turned off
+     */
+    public static ProvenanceLog fromSystemProperty() {
+        String value = System.getProperty(PATH_PROPERTY, DEFAULT_PATH);
+        if (value.isEmpty() || value.equalsIgnoreCase("off")) {
+            return null;
+        }
+        return new ProvenanceLog(Paths.get(value));
+    }
+
+    /**
+     * Queues a plan for writing. Never blocks; drops the plan if the writer is behind.
+     */
+    @Override
+    public void accept(AllocationPlan plan) {
+        if (closed) {
+            return;
+        }
+        synchronized (recorded) {
+            if (!recorded.add(plan)) {
+                return;
+            }
+        }
+        if (buffer.offer(plan)) {
+            LockSupport.unpark(writer);
+        } else {
+            dropped.incrementAndGet();
+            unreportedDrops.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes any queued plans and stops the writer thread. The writer is a
+     * daemon thread, so plans still queued when the JVM exits are lost unless
+     * this is called first, for example from a shutdown hook.
+     */
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drainLoop() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            StringBuilder batch = new StringBuilder(64 * 1024);
+            while (true) {
+                boolean stopping = closed;
+                AllocationPlan plan;
+                while ((plan = buffer.poll()) != null) {
+                    appendRecord(batch, plan, unreportedDrops.getAndSet(0));
+                    written.incrementAndGet();
+                    // Keep batches bounded when a large plan set is queued
+                    if (batch.length() >= 1 << 20) {
+                        flush(channel, batch);
+                    }
+                }
+                if (batch.length() > 0) {
+                    flush(channel, batch);
+                    channel.force(false);
+                }
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(this, 100_000_000L);
+            }
+        } catch (IOException e) {
+            System.err.println("Provenance log disabled: " + e.getMessage());
+            closed = true;
+        }
+    }
+
+    private static void flush(FileChannel channel, StringBuilder batch) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        batch.setLength(0);
+    }
+
+    /**
+     * Formats one plan as a single JSON line
+     */
+    private void appendRecord(StringBuilder sb, AllocationPlan plan, long droppedBefore) {
+        List<District> districts = plan.getSortedDistricts();
+        Map<District, AllocationResult> results = new IdentityHashMap<>();
+        for (AllocationResult result : plan.getAllocationResults()) {
+            results.put(result.getDistrict(), result);
+        }
+
+        sb.append("{\"runId\":\"").append(sessionId).append('-').append(++sequence)
+                .append("\",\"timestamp\":\"").append(Instant.now())
+                .append("\",\"policy\":\"").append(Json.escape(plan.getPolicyName()))
+                .append("\",\"totalResources\":").append(plan.getTotalResources())
+                .append(",\"remainingResources\":").append(plan.getRemainingResources())
+                .append(",\"districtCount\":").append(districts.size())
+                .append(",\"weights\":{\"population\":").append(RiskStatistics.WEIGHT_POPULATION)
+                .append(",\"landType\":").append(RiskStatistics.WEIGHT_LAND_TYPE)
+                .append(",\"urbanization\":").append(RiskStatistics.WEIGHT_URBANIZATION).append('}');
+        if (droppedBefore > 0) {
+            sb.append(",\"dropped\":").append(droppedBefore);
+        }
+
+        // First district, in priority order, that did not receive its full demand
+        int cutPoint = -1;
+        for (int rank = 0; rank < districts.size() && cutPoint < 0; rank++) {
+            District district = districts.get(rank);
+            AllocationResult result = results.get(district);
+            if (result == null || result.getAllocatedResources() < district.getResourceDemand()) {
+                cutPoint = rank;
+            }
+        }
+        sb.append(",\"cutPoint\":").append(cutPoint);
+
+        sb.append(",\"decisions\":[");
+        for (int rank = 0; rank < districts.size(); rank++) {
+            District district = districts.get(rank);
+            AllocationResult result = results.get(district);
+            int allocated = result == null ? 0 : result.getAllocatedResources();
+            if (rank > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"rank\":").append(rank)
+                    .append(",\"id\":").append(district.getId())
+                    .append(",\"name\":\"").append(Json.escape(district.getName()))
+                    .append("\",\"population\":").append(district.getPopulation())
+                    .append(",\"landType\":\"").append(Json.escape(district.getLandType()))
+                    .append("\",\"urbanization\":\"").append(Json.escape(district.getUrbanization()))
+                    .append("\",\"riskScore\":").append(district.getRiskScore())
+                    .append(",\"resourceDemand\":").append(district.getResourceDemand())
+                    .append(",\"ratio\":").append(district.getRiskResourceRatio())
+                    .append(",\"allocated\":").append(allocated)
+                    .append(",\"status\":\"").append(status(allocated, district.getResourceDemand()))
+                    .append("\"}");
+        }
+        sb.append("]}\n");
+    }
+
+    static String status(int allocated, int demand) {
+        if (allocated <= 0) {
+            return "Unfunded";
+        }
+        return allocated >= demand ? "Full" : "Partial";
+    }
+}
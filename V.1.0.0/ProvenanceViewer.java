@@ -0,0 +1,423 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Browses and replays the runs recorded by {@link ProvenanceLog}.
+ *
+ * Replaying a run rebuilds its districts from the record, runs the recorded
+ * policy over them again and checks that every decision comes out the same.
+ * Districts are recreated in the order of their recorded IDs, so ties in the
+ * priority order are broken exactly as in the original run.
+ */
+public class ProvenanceViewer {
+    private static final String[] COLUMNS = {
+            "Rank", "ID", "District", "Population", "Land", "Zone", "Risk", "Demand", "Ratio", "Allocated", "Status"};
+    private static final String[] FIELDS = {
+            "rank", "id", "name", "population", "landType", "urbanization",
+            "riskScore", "resourceDemand", "ratio", "allocated", "status"};
+
+    /**
+     * One recorded allocation run
+     */
+    public static class Run {
+        private final Map<String, Object> record;
+
+        Run(Map<String, Object> record) {
+            this.record = record;
+        }
+
+        public String getRunId() {
+            return (String) record.get("runId");
+        }
+
+        public String getPolicy() {
+            return (String) record.get("policy");
+        }
+
+        public String getTimestamp() {
+            return (String) record.get("timestamp");
+        }
+
+        public int getTotalResources() {
+            return getInt(record, "totalResources");
+        }
+
+        public int getRemainingResources() {
+            return getInt(record, "remainingResources");
+        }
+
+        public int getCutPoint() {
+            return getInt(record, "cutPoint");
+        }
+
+        public long getDroppedBefore() {
+            Object dropped = record.get("dropped");
+            return dropped == null ? 0 : ((Number) dropped).longValue();
+        }
+
+        @SuppressWarnings("unchecked")
+        public List<Map<String, Object>> getDecisions() {
+            return (List<Map<String, Object>>) (List<?>) record.get("decisions");
+        }
+
+        @Override
+        public String toString() {
+            return getRunId() + "  " + getTimestamp() + "  " + getPolicy()
+                    + " (" + getDecisions().size() + " districts)";
+        }
+    }
+
+    /**
+     * Outcome of replaying a run
+     */
+    public static class ReplayResult {
+        private final AllocationPlan plan;
+        private final int mismatches;
+        private final String firstMismatch;
+
+        ReplayResult(AllocationPlan plan, int mismatches, String firstMismatch) {
+            this.plan = plan;
+            this.mismatches = mismatches;
+            this.firstMismatch = firstMismatch;
+        }
+
+        public AllocationPlan getPlan() {
+            return plan;
+        }
+
+        public boolean matches() {
+            return mismatches == 0;
+        }
+
+        public int getMismatches() {
+            return mismatches;
+        }
+
+        @Override
+        public String toString() {
+            if (matches()) {
+                return "Replay matches: " + plan.getSortedDistricts().size() + " decisions, "
+                        + plan.getRemainingResources() + " resources left";
+            }
+            return "Replay differs in " + mismatches + " decision(s); first at " + firstMismatch;
+        }
+    }
+
+    /**
+     * Reads every run in a provenance log, skipping lines that cannot be parsed
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Run> readRuns(Path path) throws IOException {
+        List<Run> runs = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    runs.add(new Run((Map<String, Object>) Json.parse(line)));
+                } catch (IllegalArgumentException | ClassCastException e) {
+                    // A crash mid-write can leave a truncated last line
+                    System.err.println("Skipping line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Reruns the recorded policy over the recorded districts and compares decisions
+     */
+    public static ReplayResult replay(Run run) {
+        List<Map<String, Object>> decisions = new ArrayList<>(run.getDecisions());
+        decisions.sort(Comparator.comparingInt(d -> getInt(d, "id")));
+
+        // New IDs are assigned in creation order, preserving the recorded ID order
+        List<District> districts = new ArrayList<>(decisions.size());
+        Map<District, Integer> recordedIds = new IdentityHashMap<>();
+        for (Map<String, Object> decision : decisions) {
+            District district = new District((String) decision.get("name"), getInt(decision, "population"),
+                    (String) decision.get("landType"), (String) decision.get("urbanization"),
+                    getInt(decision, "resourceDemand"));
+            // Use the recorded score in case the risk model has changed since
+            district.setRiskScore(getInt(decision, "riskScore"));
+            districts.add(district);
+            recordedIds.put(district, getInt(decision, "id"));
+        }
+
+        AllocationPlan plan = AllocationEngine.allocate(districts, run.getTotalResources(),
+                AllocationEngine.findPolicy(run.getPolicy()));
+        Map<District, Integer> allocated = new IdentityHashMap<>();
+        for (AllocationResult result : plan.getAllocationResults()) {
+            allocated.put(result.getDistrict(), result.getAllocatedResources());
+        }
+
+        List<Map<String, Object>> recorded = run.getDecisions();
+        List<District> replayed = plan.getSortedDistricts();
+        int mismatches = Math.abs(recorded.size() - replayed.size());
+        String firstMismatch = mismatches > 0 ? "district count" : null;
+        for (int rank = 0; rank < Math.min(recorded.size(), replayed.size()); rank++) {
+            Map<String, Object> expected = recorded.get(rank);
+            District actual = replayed.get(rank);
+            int actualAllocated = allocated.getOrDefault(actual, 0);
+            if (recordedIds.get(actual) != getInt(expected, "id")
+                    || actualAllocated != getInt(expected, "allocated")) {
+                if (mismatches == 0) {
+                    firstMismatch = "rank " + rank + " (recorded " + expected.get("name") + " = "
+                            + expected.get("allocated") + ", replayed " + actual.getName() + " = "
+                            + actualAllocated + ")";
+                }
+                mismatches++;
+            }
+        }
+        if (plan.getRemainingResources() != run.getRemainingResources() && mismatches == 0) {
+            mismatches = 1;
+            firstMismatch = "remaining resources";
+        }
+        return new ReplayResult(plan, mismatches, firstMismatch);
+    }
+
+    private static int getInt(Map<String, Object> map, String field) {
+        Object value = map.get(field);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Missing numeric field '" + field + "'");
+        }
+        return ((Number) value).intValue();
+    }
+
+    /**
+     * Prints a run's decisions and its replay check
+     */
+    private static ReplayResult printRun(Run run) {
+        System.out.println("Run " + run.getRunId() + " at " + run.getTimestamp());
+        System.out.println("Policy: " + run.getPolicy() + ", resources " + run.getTotalResources()
+                + " (" + run.getRemainingResources() + " left), cut point " + run.getCutPoint());
+        System.out.println(String.join("\t", COLUMNS));
+        for (Map<String, Object> decision : run.getDecisions()) {
+            StringBuilder line = new StringBuilder();
+            for (String field : FIELDS) {
+                if (line.length() > 0) {
+                    line.append('\t');
+                }
+                line.append(decision.get(field));
+            }
+            System.out.println(line);
+        }
+        ReplayResult result = replay(run);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Window listing the recorded runs, with the selected run's decisions
+     */
+    private static class ViewerFrame extends JFrame {
+        private final DecisionTableModel tableModel = new DecisionTableModel();
+        private final JLabel summaryLabel = new JLabel(" ");
+        private final JLabel replayLabel = new JLabel(" ");
+        private final JButton replayButton = new JButton("Replay");
+        private final JList<Run> runList;
+
+        ViewerFrame(Path path, List<Run> runs) {
+            super("Allocation Provenance - " + path.getFileName());
+            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+            runList = new JList<>(runs.toArray(new Run[0]));
+            runList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            runList.addListSelectionListener(e -> {
+                if (!e.getValueIsAdjusting()) {
+                    showRun(runList.getSelectedValue());
+                }
+            });
+
+            JTable table = new JTable(tableModel);
+            table.setAutoCreateRowSorter(true);
+
+            replayButton.setEnabled(false);
+            replayButton.addActionListener(e -> replaySelected());
+
+            JPanel header = new JPanel(new BorderLayout(10, 0));
+            header.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+            header.add(summaryLabel, BorderLayout.CENTER);
+            header.add(replayButton, BorderLayout.EAST);
+
+            JPanel detail = new JPanel(new BorderLayout());
+            detail.add(header, BorderLayout.NORTH);
+            detail.add(new JScrollPane(table), BorderLayout.CENTER);
+            replayLabel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+            detail.add(replayLabel, BorderLayout.SOUTH);
+
+            JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
+                    new JScrollPane(runList), detail);
+            split.setDividerLocation(380);
+            add(split);
+            setSize(1200, 700);
+            setLocationRelativeTo(null);
+
+            if (!runs.isEmpty()) {
+                runList.setSelectedIndex(runs.size() - 1);
+            }
+        }
+
+        private void showRun(Run run) {
+            replayLabel.setText(" ");
+            replayButton.setEnabled(run != null);
+            if (run == null) {
+                summaryLabel.setText(" ");
+                tableModel.setDecisions(new ArrayList<>());
+                return;
+            }
+            int cutPoint = run.getCutPoint();
+            summaryLabel.setText(String.format(
+                    "<html><b>%s</b> • %s • Resources %d (%d left) • %s%s</html>",
+                    run.getRunId(), run.getPolicy(), run.getTotalResources(), run.getRemainingResources(),
+                    cutPoint < 0 ? "All districts fully funded" : "Funding cut at rank " + cutPoint,
+                    run.getDroppedBefore() > 0 ? " • " + run.getDroppedBefore() + " earlier run(s) not recorded" : ""));
+            tableModel.setDecisions(run.getDecisions());
+        }
+
+        private void replaySelected() {
+            Run run = runList.getSelectedValue();
+            if (run == null) {
+                return;
+            }
+            replayButton.setEnabled(false);
+            replayLabel.setText("Replaying...");
+            new SwingWorker<ReplayResult, Void>() {
+                @Override
+                protected ReplayResult doInBackground() {
+                    return replay(run);
+                }
+
+                @Override
+                protected void done() {
+                    replayButton.setEnabled(true);
+                    try {
+                        ReplayResult result = get();
+                        replayLabel.setForeground(result.matches() ? new Color(40, 167, 69) : new Color(220, 53, 69));
+                        replayLabel.setText(result.toString());
+                    } catch (Exception e) {
+                        replayLabel.setForeground(new Color(220, 53, 69));
+                        replayLabel.setText("Replay failed: " + e.getMessage());
+                    }
+                }
+            }.execute();
+        }
+    }
+
+    private static class DecisionTableModel extends AbstractTableModel {
+        private List<Map<String, Object>> decisions = new ArrayList<>();
+
+        void setDecisions(List<Map<String, Object>> decisions) {
+            this.decisions = decisions;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return decisions.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            switch (FIELDS[column]) {
+                case "name":
+                case "landType":
+                case "urbanization":
+                case "status":
+                    return String.class;
+                case "ratio":
+                    return Double.class;
+                default:
+                    return Long.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Object value = decisions.get(row).get(FIELDS[column]);
+            // Whole-number ratios are parsed as Long
+            if (value instanceof Long && getColumnClass(column) == Double.class) {
+                return ((Long) value).doubleValue();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Opens the viewer, or with --replay prints one run and its replay check
+     *
+     * @param args [--file path] [--replay runId]
+     */
+    public static void main(String[] args) {
+        Path file = Paths.get(System.getProperty(ProvenanceLog.PATH_PROPERTY, ProvenanceLog.DEFAULT_PATH));
+        String replayId = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--file":
+                        file = Paths.get(args[++i]);
+                        break;
+                    case "--replay":
+                        replayId = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java ProvenanceViewer [--file <log>] [--replay <runId>]");
+            System.exit(2);
+            return;
+        }
+
+        List<Run> runs;
+        try {
+            runs = readRuns(file);
+        } catch (IOException e) {
+            System.err.println("Cannot read " + file + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (replayId != null) {
+            for (Run run : runs) {
+                if (replayId.equals(run.getRunId())) {
+                    System.exit(printRun(run).matches() ? 0 : 1);
+                }
+            }
+            System.err.println("No run " + replayId + " in " + file);
+            System.exit(1);
+            return;
+        }
+
+        Path shown = file;
+        SwingUtilities.invokeLater(() -> new ViewerFrame(shown, runs).setVisible(true));
+    }
+}
@@ -0,0 +1,627 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the risk assessment and allocation of a plan as a report file,
+ * straight from the plan and without building any Swing tables.
+ *
+ * The report has one row per district in priority order, with the columns
+ * of the Risk Scores and Allocation Results tabs combined, plus a summary of
+ * the run. Three formats are supported, chosen by file extension:
+ * <ul>
+ *   <li>.csv: the district table only</li>
+ *   <li>.xlsx: a Summary sheet and a Districts sheet, written as a
+ *       streaming SpreadsheetML package with inline strings</li>
+ *   <li>.pdf: landscape A4 pages with the summary on the first page and
+ *       the table header repeated on every page, using the standard
+ *       Helvetica fonts</li>
+ * </ul>
+ * Rows are written as they are produced. Apart from the plan itself, the
+ * exporters hold at most one PDF page in memory, so reports of any size
+ * can be written headlessly, e.g. from a scheduled job.
+ *
+ * Usage:
+ * <pre>
+ * java ReportExporter --districts districts.csv --budget n --out report.xlsx [--policy name]
+ * </pre>
+ */
+public class ReportExporter {
+    static final String[] COLUMNS = {
+        "Rank", "District", "Population", "Land Type", "Urbanization", "Risk Score", "Risk/Resource Ratio",
+        "Resource Demand", "Allocated Resources", "Status"
+    };
+    // Columns holding numbers, written as numeric cells
+    private static final boolean[] NUMERIC = {true, false, true, false, false, true, true, true, true, false};
+
+    private static final DecimalFormat RATIO_FORMAT = new DecimalFormat("0.####");
+
+    private final AllocationPlan plan;
+
+    /**
+     * Receives the report one row at a time
+     */
+    interface RowWriter extends AutoCloseable {
+        void summary(List<String[]> lines) throws IOException;
+
+        void header(String[] columns) throws IOException;
+
+        void row(Object[] cells) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * Constructor for ReportExporter
+     *
+     * @param plan Plan to report on
+     */
+    public ReportExporter(AllocationPlan plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Writes the report to a file, choosing the format from its extension
+     */
+    public void export(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            export(formatOf(file), out);
+        }
+    }
+
+    /**
+     * Writes the report in the given format ("csv", "xlsx" or "pdf")
+     */
+    public void export(String format, OutputStream out) throws IOException {
+        try (RowWriter writer = createWriter(format, new BufferedOutputStream(out, 1 << 16))) {
+            writer.summary(summaryLines());
+            writer.header(COLUMNS);
+
+            // Funded districts appear in the allocation results in the same order
+            List<District> sorted = plan.getSortedDistricts();
+            List<AllocationResult> results = plan.getAllocationResults();
+            Object[] cells = new Object[COLUMNS.length];
+            int next = 0;
+            for (int i = 0; i < sorted.size(); i++) {
+                District district = sorted.get(i);
+                AllocationResult result = next < results.size() && results.get(next).district == district
+                        ? results.get(next++) : null;
+                cells[0] = i + 1;
+                cells[1] = district.getName();
+                cells[2] = district.getPopulation();
+                cells[3] = district.getLandType();
+                cells[4] = district.getUrbanization();
+                cells[5] = district.getRiskScore();
+                cells[6] = district.getRiskResourceRatio();
+                cells[7] = district.getResourceDemand();
+                cells[8] = result == null ? 0 : result.allocatedResources;
+                cells[9] = result == null ? "Unfunded" : result.isPartial ? "Partial" : "Full";
+                writer.row(cells);
+            }
+        }
+    }
+
+    /**
+     * Returns the export format matching a file name
+     */
+    public static String formatOf(Path file) {
+        String fileName = file.getFileName().toString().toLowerCase();
+        if (fileName.endsWith(".xlsx")) {
+            return "xlsx";
+        }
+        return fileName.endsWith(".pdf") ? "pdf" : "csv";
+    }
+
+    private static RowWriter createWriter(String format, OutputStream out) throws IOException {
+        switch (format) {
+            case "csv":
+                return new CsvWriter(out);
+            case "xlsx":
+                return new XlsxWriter(out);
+            case "pdf":
+                return new PdfWriter(out);
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    private List<String[]> summaryLines() {
+        int partial = 0;
+        for (AllocationResult result : plan.getAllocationResults()) {
+            if (result.isPartial) {
+                partial++;
+            }
+        }
+        int funded = plan.getAllocationResults().size();
+        List<String[]> lines = new ArrayList<>();
+        lines.add(new String[] {"Generated", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))});
+        lines.add(new String[] {"Policy", plan.getPolicyName()});
+        lines.add(new String[] {"Total Resources", String.format("%,d", plan.getTotalResources())});
+        lines.add(new String[] {"Allocated", String.format("%,d", plan.getAllocatedResources())});
+        lines.add(new String[] {"Remaining", String.format("%,d", plan.getRemainingResources())});
+        lines.add(new String[] {"Districts", String.format("%,d (%,d full, %,d partial, %,d unfunded)",
+                plan.getSortedDistricts().size(), funded - partial, partial,
+                plan.getSortedDistricts().size() - funded)});
+        return lines;
+    }
+
+    private static String cellText(Object cell) {
+        if (cell instanceof Double) {
+            synchronized (RATIO_FORMAT) {
+                return RATIO_FORMAT.format(cell);
+            }
+        }
+        return String.valueOf(cell);
+    }
+
+    /**
+     * Plain CSV of the district table
+     */
+    private static class CsvWriter implements RowWriter {
+        private final Writer out;
+        private final StringBuilder line = new StringBuilder(128);
+
+        CsvWriter(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        }
+
+        @Override
+        public void summary(List<String[]> lines) {
+            // CSV holds the table only
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            row(columns);
+        }
+
+        @Override
+        public void row(Object[] cells) throws IOException {
+            line.setLength(0);
+            for (int c = 0; c < cells.length; c++) {
+                if (c > 0) {
+                    line.append(',');
+                }
+                line.append(BatchAllocationCli.csv(cellText(cells[c])));
+            }
+            out.append(line).append('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Streaming SpreadsheetML writer. The package parts are written in
+     * order, and the Districts sheet is written row by row into its zip
+     * entry with inline strings, so no shared string table is kept.
+     */
+    private static class XlsxWriter implements RowWriter {
+        private final ZipOutputStream zip;
+        private final Writer out;
+        private int rowNumber = 0;
+
+        XlsxWriter(OutputStream stream) throws IOException {
+            zip = new ZipOutputStream(stream, StandardCharsets.UTF_8);
+            out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 1 << 16);
+
+            part("[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+                    + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "<Override PartName=\"/xl/worksheets/sheet2.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "</Types>");
+            part("_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            part("xl/workbook.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                    + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>"
+                    + "<sheet name=\"Summary\" sheetId=\"1\" r:id=\"rId1\"/>"
+                    + "<sheet name=\"Districts\" sheetId=\"2\" r:id=\"rId2\"/>"
+                    + "</sheets></workbook>");
+            part("xl/_rels/workbook.xml.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet2.xml\"/>"
+                    + "<Relationship Id=\"rId3\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+                    + "</Relationships>");
+            // Style 1 is bold, for headers
+            part("xl/styles.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                    + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+                    + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                    + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+                    + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                    + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                    + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                    + "<cellXfs count=\"2\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                    + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/></cellXfs>"
+                    + "</styleSheet>");
+        }
+
+        private void part(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            out.write(content);
+            out.flush();
+            zip.closeEntry();
+        }
+
+        @Override
+        public void summary(List<String[]> lines) throws IOException {
+            StringBuilder sheet = new StringBuilder();
+            sheet.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                    .append("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">")
+                    .append("<cols><col min=\"1\" max=\"1\" width=\"18\" customWidth=\"1\"/>")
+                    .append("<col min=\"2\" max=\"2\" width=\"48\" customWidth=\"1\"/></cols><sheetData>");
+            for (int r = 0; r < lines.size(); r++) {
+                sheet.append("<row r=\"").append(r + 1).append("\">");
+                appendString(sheet, r + 1, 0, lines.get(r)[0], true);
+                appendString(sheet, r + 1, 1, lines.get(r)[1], false);
+                sheet.append("</row>");
+            }
+            sheet.append("</sheetData></worksheet>");
+            part("xl/worksheets/sheet1.xml", sheet.toString());
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet2.xml"));
+            StringBuilder start = new StringBuilder();
+            start.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                    .append("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">")
+                    // Keep the header row visible while scrolling
+                    .append("<sheetViews><sheetView workbookViewId=\"0\"><pane ySplit=\"1\" topLeftCell=\"A2\" ")
+                    .append("activePane=\"bottomLeft\" state=\"frozen\"/></sheetView></sheetViews>")
+                    .append("<cols><col min=\"2\" max=\"2\" width=\"28\" customWidth=\"1\"/>")
+                    .append("<col min=\"3\" max=\"").append(columns.length)
+                    .append("\" width=\"16\" customWidth=\"1\"/></cols><sheetData>");
+            out.write(start.toString());
+            rowNumber = 1;
+            StringBuilder row = new StringBuilder("<row r=\"1\">");
+            for (int c = 0; c < columns.length; c++) {
+                appendString(row, 1, c, columns[c], true);
+            }
+            out.append(row).append("</row>");
+        }
+
+        @Override
+        public void row(Object[] cells) throws IOException {
+            rowNumber++;
+            StringBuilder row = new StringBuilder(256);
+            row.append("<row r=\"").append(rowNumber).append("\">");
+            for (int c = 0; c < cells.length; c++) {
+                if (NUMERIC[c]) {
+                    row.append("<c r=\"");
+                    appendReference(row, rowNumber, c);
+                    row.append("\"><v>").append(cells[c]).append("</v></c>");
+                } else {
+                    appendString(row, rowNumber, c, cellText(cells[c]), false);
+                }
+            }
+            out.append(row).append("</row>");
+        }
+
+        private static void appendString(StringBuilder sb, int row, int column, String value, boolean bold) {
+            sb.append("<c r=\"");
+            appendReference(sb, row, column);
+            sb.append(bold ? "\" s=\"1\"" : "\"").append(" t=\"inlineStr\"><is><t>");
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                switch (ch) {
+                    case '<': sb.append("&lt;"); break;
+                    case '>': sb.append("&gt;"); break;
+                    case '&': sb.append("&amp;"); break;
+                    case '"': sb.append("&quot;"); break;
+                    default:
+                        // Control characters other than tab and newlines are not allowed in XML
+                        if (ch >= 0x20 || ch == '\t' || ch == '\n' || ch == '\r') {
+                            sb.append(ch);
+                        }
+                }
+            }
+            sb.append("</t></is></c>");
+        }
+
+        private static void appendReference(StringBuilder sb, int row, int column) {
+            // Report columns never go past Z
+            sb.append((char) ('A' + column)).append(row);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.write("</sheetData></worksheet>");
+            out.flush();
+            zip.closeEntry();
+            zip.finish();
+            zip.close();
+        }
+    }
+
+    /**
+     * Paginated PDF writer. Objects are written in order with their byte
+     * offsets noted for the cross-reference table. Each page's content is
+     * built in memory, written, and discarded before the next page starts;
+     * the page tree that lists them all goes last.
+     */
+    private static class PdfWriter implements RowWriter {
+        private static final float PAGE_WIDTH = 842;
+        private static final float PAGE_HEIGHT = 595;
+        private static final float MARGIN = 36;
+        private static final float FONT_SIZE = 8;
+        private static final float ROW_HEIGHT = 12;
+        // Relative column widths, scaled to the printable width
+        private static final float[] COLUMN_WEIGHTS = {4, 16, 7, 7, 8, 6, 9, 8, 9, 6};
+
+        // Object numbers fixed up front: catalog, page tree and the two fonts
+        private static final int CATALOG = 1;
+        private static final int PAGES = 2;
+        private static final int FONT = 3;
+        private static final int BOLD_FONT = 4;
+
+        private final OutputStream out;
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Integer> pageObjects = new ArrayList<>();
+        private final float[] columnX = new float[COLUMNS.length + 1];
+        private final Deflater deflater = new Deflater();
+        private final byte[] deflateBuffer = new byte[8192];
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        private long position = 0;
+        private int nextObject = BOLD_FONT + 1;
+
+        private String[] columns;
+        private List<String[]> summaryLines;
+        private StringBuilder page;
+        private float y;
+
+        PdfWriter(OutputStream out) throws IOException {
+            this.out = out;
+            float total = 0;
+            for (float weight : COLUMN_WEIGHTS) {
+                total += weight;
+            }
+            columnX[0] = MARGIN;
+            for (int c = 0; c < COLUMN_WEIGHTS.length; c++) {
+                columnX[c + 1] = columnX[c] + COLUMN_WEIGHTS[c] / total * (PAGE_WIDTH - 2 * MARGIN);
+            }
+            write("%PDF-1.4\n%âãÏÓ\n");
+            object(FONT, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+            object(BOLD_FONT, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+        }
+
+        @Override
+        public void summary(List<String[]> lines) {
+            summaryLines = lines;
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            this.columns = columns;
+            startPage();
+        }
+
+        @Override
+        public void row(Object[] cells) throws IOException {
+            if (y < MARGIN + ROW_HEIGHT) {
+                endPage();
+                startPage();
+            }
+            for (int c = 0; c < cells.length; c++) {
+                cell(cellText(cells[c]), c, false);
+            }
+            y -= ROW_HEIGHT;
+        }
+
+        private void startPage() {
+            page = new StringBuilder(8192);
+            y = PAGE_HEIGHT - MARGIN;
+            text("Disaster Response Allocation Report", MARGIN, y, true, 14);
+            y -= 22;
+            if (pageObjects.isEmpty() && summaryLines != null) {
+                for (String[] line : summaryLines) {
+                    text(line[0] + ":", MARGIN, y, true, 10);
+                    text(line[1], MARGIN + 100, y, false, 10);
+                    y -= 14;
+                }
+                y -= 10;
+            }
+            for (int c = 0; c < columns.length; c++) {
+                cell(columns[c], c, true);
+            }
+            page.append("0.5 w ");
+            appendNumber(MARGIN).append(' ');
+            appendNumber(y - 3).append(" m ");
+            appendNumber(PAGE_WIDTH - MARGIN).append(' ');
+            appendNumber(y - 3).append(" l S\n");
+            y -= ROW_HEIGHT + 2;
+        }
+
+        private void endPage() throws IOException {
+            text("Page " + (pageObjects.size() + 1), PAGE_WIDTH - MARGIN - 40, MARGIN / 2, false, FONT_SIZE);
+            byte[] content = page.toString().getBytes(StandardCharsets.ISO_8859_1);
+            deflater.reset();
+            deflater.setInput(content);
+            deflater.finish();
+            compressed.reset();
+            while (!deflater.finished()) {
+                compressed.write(deflateBuffer, 0, deflater.deflate(deflateBuffer));
+            }
+            int contentObject = nextObject++;
+            int pageObject = nextObject++;
+            startObject(contentObject);
+            write("<< /Length " + compressed.size() + " /Filter /FlateDecode >>\nstream\n");
+            write(compressed.toByteArray());
+            write("\nendstream\nendobj\n");
+            object(pageObject, "<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + (int) PAGE_WIDTH + " "
+                    + (int) PAGE_HEIGHT + "] /Resources << /Font << /F1 " + FONT + " 0 R /F2 " + BOLD_FONT
+                    + " 0 R >> >> /Contents " + contentObject + " 0 R >>");
+            pageObjects.add(pageObject);
+            page = null;
+        }
+
+        /**
+         * Writes a cell, cut short with "..." if it is wider than its column
+         */
+        private void cell(String value, int column, boolean bold) {
+            float width = columnX[column + 1] - columnX[column] - 4;
+            // Helvetica averages a little over half an em per character
+            int maxChars = (int) (width / (FONT_SIZE * 0.55f));
+            if (value.length() > maxChars) {
+                value = value.substring(0, Math.max(0, maxChars - 3)) + "...";
+            }
+            text(value, columnX[column], y, bold, FONT_SIZE);
+        }
+
+        private void text(String value, float x, float y, boolean bold, float size) {
+            page.append("BT /").append(bold ? "F2 " : "F1 ");
+            appendNumber(size).append(" Tf ");
+            appendNumber(x).append(' ');
+            appendNumber(y).append(" Td (");
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                if (ch == '(' || ch == ')' || ch == '\\') {
+                    page.append('\\').append(ch);
+                } else if (ch < 0x20 || ch > 0xFF) {
+                    // Outside what the standard fonts can show through WinAnsiEncoding
+                    page.append('?');
+                } else {
+                    page.append(ch);
+                }
+            }
+            page.append(") Tj ET\n");
+        }
+
+        /**
+         * Appends a non-negative number with one decimal, independent of locale
+         */
+        private StringBuilder appendNumber(float value) {
+            int tenths = Math.round(value * 10);
+            return page.append(tenths / 10).append('.').append(tenths % 10);
+        }
+
+        private void object(int number, String body) throws IOException {
+            startObject(number);
+            write(body + "\nendobj\n");
+        }
+
+        private void startObject(int number) throws IOException {
+            while (offsets.size() < number) {
+                offsets.add(0L);
+            }
+            offsets.set(number - 1, position);
+            write(number + " 0 obj\n");
+        }
+
+        private void write(String text) throws IOException {
+            write(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (page != null) {
+                endPage();
+            }
+            StringBuilder kids = new StringBuilder();
+            for (int pageObject : pageObjects) {
+                kids.append(pageObject).append(" 0 R ");
+            }
+            object(PAGES, "<< /Type /Pages /Kids [" + kids + "] /Count " + pageObjects.size() + " >>");
+            object(CATALOG, "<< /Type /Catalog /Pages " + PAGES + " 0 R >>");
+
+            long xref = position;
+            StringBuilder table = new StringBuilder();
+            table.append("xref\n0 ").append(offsets.size() + 1).append("\n0000000000 65535 f \n");
+            for (long offset : offsets) {
+                table.append(String.format("%010d 00000 n \n", offset));
+            }
+            table.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root ").append(CATALOG)
+                    .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+            write(table.toString());
+            deflater.end();
+            out.close();
+        }
+    }
+
+    /**
+     * Main method - allocates a district file and writes the report
+     *
+     * @param args Command line arguments, see class documentation
+     */
+    public static void main(String[] args) {
+        Path districtsFile = null;
+        Path outFile = null;
+        int budget = -1;
+        AllocationPolicy policy = AllocationEngine.DEFAULT_POLICY;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--districts":
+                        districtsFile = Paths.get(args[++i]);
+                        break;
+                    case "--budget":
+                        budget = Integer.parseInt(args[++i]);
+                        break;
+                    case "--policy":
+                        policy = AllocationEngine.findPolicy(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (districtsFile == null || outFile == null || budget < 0) {
+                throw new IllegalArgumentException("--districts, --budget and --out are required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java ReportExporter --districts <file> --budget <n> --out <file.csv|.xlsx|.pdf>"
+                    + " [--policy <name>]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            AllocationPlan plan = AllocationEngine.allocate(DistrictImporter.readDistricts(districtsFile), budget, policy);
+            long allocated = System.nanoTime();
+            new ReportExporter(plan).export(outFile);
+            System.err.printf("Wrote %,d districts to %s: allocation %.1f ms, export %.1f ms%n",
+                    plan.getSortedDistricts().size(), outFile, (allocated - start) / 1e6,
+                    (System.nanoTime() - allocated) / 1e6);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,30 +1,108 @@
-import javax.swing.UIManager;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import javax.swing.SwingUtilities;
 
 /**
  * Main application class that starts the Disaster Response Resource Allocation application.
  */
 public class ResourceAllocationApp {
+    /** Argument that runs a short scripted session and exits, used to record a CDS archive */
+    private static final String CDS_TRAINING_ARG = "--cds-training";
+
     /**
      * Main method - entry point for the application
      * 
-     * @param args Command line arguments (not used)
+     * @param args Command line arguments ({@value #CDS_TRAINING_ARG} to run the training workload)
      */
     public static void main(String[] args) {
+        StartupTimer.mark("main() entered");
+        boolean training = args.length > 0 && CDS_TRAINING_ARG.equals(args[0]);
+        
         // Use the Event Dispatch Thread for Swing applications
-        javax.swing.SwingUtilities.invokeLater(() -> {
-            try {
-                // Set look and feel to system default
-                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-            
-            // Create and show the GUI
+        SwingUtilities.invokeLater(() -> {
+            // Create and show the GUI (the constructor also sets the look and feel)
             DisasterResponseGUI gui = new DisasterResponseGUI();
+            StartupTimer.mark("Frame constructed");
+            
+            gui.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    // Runs once the events queued by showing the window have been handled
+                    SwingUtilities.invokeLater(() -> onFirstFrame(gui, training));
+                }
+            });
             gui.setVisible(true);
+            StartupTimer.mark("Frame visible");
             
             // Initialize with first district name
             gui.initializeForm();
         });
     }
-}
\ No newline at end of file
+    
+    /**
+     * Finishes startup work that is not needed to show the first frame
+     */
+    private static void onFirstFrame(DisasterResponseGUI gui, boolean training) {
+        StartupTimer.mark("First interactive frame");
+        if (StartupTimer.isReportEnabled()) {
+            StartupTimer.report(System.out);
+        }
+        
+        // Record every allocation run unless allocation.provenance=off. The listener
+        // goes in before any workload starts, so every run is logged.
+        ProvenanceLog provenance = ProvenanceLog.fromSystemProperty();
+        if (provenance != null) {
+            // The writer is a daemon thread, so drain and flush the queue on exit
+            Runtime.getRuntime().addShutdownHook(new Thread(provenance::close, "provenance-close"));
+            gui.addPlanListener(provenance);
+        }
+        
+        // Loading the JMX and HTTP server classes is slow, so do it off the EDT
+        Thread background = new Thread(() -> {
+            // Expose allocation metrics over JMX
+            AllocationMetrics.registerMBean();
+            
+            // Optionally stream allocation updates to dashboards
+            startEventServer(gui);
+        }, "deferred-startup");
+        background.setDaemon(true);
+        background.start();
+        
+        if (training) {
+            gui.runTrainingWorkload();
+            System.exit(0);
+        }
+    }
+    
+    /**
+     * Starts the server-sent event stream if the allocation.sse.port property is set.
+     * It listens on loopback unless allocation.sse.bind names another address, and
+     * allocation.sse.origin sets the origin allowed to read it from a browser.
+     * Districts posted by dashboards are added to the district list; they show
+     * up in the stream with the next calculated plan. A posted budget replaces
+     * the total resources and recalculates the plan straight away.
+     */
+    private static void startEventServer(DisasterResponseGUI gui) {
+        String port = System.getProperty("allocation.sse.port");
+        if (port == null) {
+            return;
+        }
+        try {
+            AllocationEventServer server = new AllocationEventServer(
+                    AllocationEventServer.bindAddress(System.getProperty("allocation.sse.bind"), Integer.parseInt(port)),
+                    System.getProperty("allocation.sse.origin"), AllocationEventServer.DEFAULT_MAX_CLIENTS);
+            server.setDistrictHandler(line -> {
+                District district = DistrictPipeline.parseDistrict(line);
+                SwingUtilities.invokeLater(() -> gui.addDistricts(List.of(district)));
+            });
+            server.setBudgetHandler(budget -> SwingUtilities.invokeLater(() -> gui.setTotalResources(budget)));
+            server.start();
+            SwingUtilities.invokeLater(() -> gui.addPlanListener(server));
+            System.out.println("Streaming allocation updates on port " + server.getPort()
+                    + AllocationEventServer.STREAM_PATH);
+        } catch (Exception e) {
+            System.err.println("Allocation stream disabled: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for handing work from any number of producer
+ * threads to a single consumer thread.
+ *
+ * {@link #offer} never blocks: when the buffer is full it returns false and
+ * the caller decides what to do with the item.
+ *
+ * @param <T> Element type
+ */
+public class RingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    // Next sequence to claim (producers) and to read (consumer)
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Constructor for RingBuffer
+     *
+     * @param capacity Number of slots, rounded up to a power of two (at least 2)
+     */
+    public RingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an item if there is room
+     *
+     * @return False if the buffer was full
+     */
+    public boolean offer(T item) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head.get() >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.set((int) sequence & mask, item);
+        return true;
+    }
+
+    /**
+     * Removes the oldest item. Must only be called from the consumer thread.
+     *
+     * @return The item, or null if none is ready
+     */
+    public T poll() {
+        long sequence = head.get();
+        int index = (int) sequence & mask;
+        T item = slots.get(index);
+        if (item == null) {
+            // Empty, or the producer that claimed this slot has not published yet
+            return null;
+        }
+        slots.set(index, null);
+        head.lazySet(sequence + 1);
+        return item;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
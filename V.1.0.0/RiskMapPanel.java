@@ -0,0 +1,367 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Zoomable heatmap of every district, colored by risk score and faded by
+ * how much of its demand the current plan leaves unfunded.
+ *
+ * The map is drawn from {@link RiskTilePyramid} tiles held in a
+ * {@link RiskTileCache}. Tiles are rendered on a background pool; until a
+ * tile is ready the matching part of a coarser cached tile is scaled up in
+ * its place, so panning and zooming never wait for rendering. The pyramid
+ * is only rebuilt when the district list changes. A new plan for the same
+ * list only re-renders the tiles whose districts changed allocation.
+ *
+ * Drag to pan, use the mouse wheel to zoom and double-click to fit the map.
+ */
+public class RiskMapPanel extends JPanel {
+    private static final int CACHE_TILES = 192;
+    // Zoom levels rendered up front so a coarse placeholder always exists
+    private static final int PRERENDER_ZOOM = 2;
+    private static final double WHEEL_ZOOM_STEP = 1.25;
+
+    private static final Color BACKGROUND_COLOR = new Color(250, 250, 250);
+    private static final Color OUTLINE_COLOR = new Color(200, 200, 200);
+    private static final Color TEXT_COLOR = new Color(33, 37, 41);
+    private static final Font LABEL_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+    private static final Font MESSAGE_FONT = new Font("Segoe UI", Font.PLAIN, 14);
+    private static final DecimalFormat NUMBER_FORMAT = new DecimalFormat("#,###");
+
+    private final RiskTileCache cache = new RiskTileCache(CACHE_TILES);
+    private final ExecutorService renderPool;
+    // Builds pyramids and applies plans in submission order
+    private final ExecutorService updates;
+
+    // Pyramid being shown, and the district list last passed to showPlan
+    private volatile RiskTilePyramid pyramid;
+    private List<District> source;
+    // Newest pyramid, only touched on the update thread
+    private RiskTilePyramid latest;
+
+    // View: map cell at the panel center, and pixels per cell
+    private double centerX;
+    private double centerY;
+    private double scale;
+    private boolean needsFit = true;
+    private volatile VisibleTiles visibleTiles;
+    private Point dragStart;
+
+    /**
+     * Constructor for RiskMapPanel
+     */
+    public RiskMapPanel() {
+        setBackground(BACKGROUND_COLOR);
+        setPreferredSize(new Dimension(600, 400));
+
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        renderPool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "risk-map-tiles");
+            thread.setDaemon(true);
+            return thread;
+        });
+        updates = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "risk-map-updates");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null || scale == 0) {
+                    return;
+                }
+                centerX -= (e.getX() - dragStart.x) / scale;
+                centerY -= (e.getY() - dragStart.y) / scale;
+                dragStart = e.getPoint();
+                repaint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    needsFit = true;
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAround(e.getX(), e.getY(), Math.pow(WHEEL_ZOOM_STEP, -e.getPreciseWheelRotation()));
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    /**
+     * Shows a plan. The map is rebuilt in the background if the district
+     * list is a different one from the last call; otherwise only the tiles
+     * of districts whose allocation changed are redrawn.
+     *
+     * @param districts District list the plan was calculated from; must not change afterwards
+     * @param plan Plan to show
+     */
+    public void showPlan(List<District> districts, AllocationPlan plan) {
+        source = districts;
+        updates.execute(() -> {
+            if (latest == null || latest.getDistricts() != districts) {
+                RiskTilePyramid built = new RiskTilePyramid(districts);
+                built.applyPlan(plan);
+                latest = built;
+                SwingUtilities.invokeLater(() -> install(built));
+            } else {
+                cache.invalidate(latest.applyPlan(plan));
+                SwingUtilities.invokeLater(this::repaint);
+            }
+        });
+    }
+
+    /**
+     * Switches to a newly built pyramid, dropping every tile of the old one
+     */
+    private void install(RiskTilePyramid built) {
+        if (built.getDistricts() != source) {
+            return;
+        }
+        RiskTilePyramid previous = pyramid;
+        cache.clear();
+        pyramid = built;
+        if (previous == null || previous.getSide() != built.getSide()) {
+            needsFit = true;
+        }
+        for (int zoom = 0; zoom <= Math.min(PRERENDER_ZOOM, built.getMaxZoom()); zoom++) {
+            for (int ty = 0; ty < (1 << zoom); ty++) {
+                for (int tx = 0; tx < (1 << zoom); tx++) {
+                    requestTile(built, zoom, tx, ty);
+                }
+            }
+        }
+        repaint();
+    }
+
+    /**
+     * Queues a tile for rendering unless it is cached and current or already queued
+     */
+    private void requestTile(RiskTilePyramid target, int zoom, int tileX, int tileY) {
+        long key = RiskTilePyramid.tileKey(zoom, tileX, tileY);
+        long generation = cache.claim(key);
+        if (generation < 0) {
+            return;
+        }
+        renderPool.execute(() -> {
+            // Skip tiles scrolled out of view while waiting in the queue
+            VisibleTiles visible = visibleTiles;
+            if (zoom > PRERENDER_ZOOM && (visible == null || !visible.contains(zoom, tileX, tileY))) {
+                cache.release(key, generation);
+                return;
+            }
+            cache.put(key, target.renderTile(zoom, tileX, tileY), generation);
+            SwingUtilities.invokeLater(this::repaint);
+        });
+    }
+
+    /**
+     * Scales the view by a factor, keeping the map point under (x, y) in place
+     */
+    private void zoomAround(int x, int y, double factor) {
+        RiskTilePyramid current = pyramid;
+        if (current == null || scale == 0) {
+            return;
+        }
+        double newScale = Math.max(minScale(current), Math.min(maxScale(current), scale * factor));
+        double cellX = centerX + (x - getWidth() / 2.0) / scale;
+        double cellY = centerY + (y - getHeight() / 2.0) / scale;
+        centerX = cellX - (x - getWidth() / 2.0) / newScale;
+        centerY = cellY - (y - getHeight() / 2.0) / newScale;
+        scale = newScale;
+        repaint();
+    }
+
+    private double minScale(RiskTilePyramid current) {
+        return Math.min(getWidth(), getHeight()) * 0.25 / current.getSide();
+    }
+
+    private double maxScale(RiskTilePyramid current) {
+        // Twice the cell size of the deepest zoom level
+        return 2.0 * RiskTilePyramid.TILE_SIZE * (1 << current.getMaxZoom()) / current.getSide();
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        RiskTilePyramid current = pyramid;
+        if (current == null || scale == 0) {
+            return null;
+        }
+        District district = current.districtAt(centerX + (e.getX() - getWidth() / 2.0) / scale,
+                centerY + (e.getY() - getHeight() / 2.0) / scale);
+        if (district == null) {
+            return null;
+        }
+        float funded = current.getFundedShare(district);
+        return String.format("<html><b>%s</b><br>Risk Score: %d<br>Allocated: %s of %s (%.0f%%)</html>",
+                district.getName(), district.getRiskScore(),
+                NUMBER_FORMAT.format(Math.round(funded * district.getResourceDemand())),
+                NUMBER_FORMAT.format(district.getResourceDemand()), funded * 100);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g.create();
+        int width = getWidth();
+        int height = getHeight();
+        RiskTilePyramid current = pyramid;
+        if (current == null) {
+            g2d.setFont(MESSAGE_FONT);
+            g2d.setColor(Color.GRAY);
+            String message = source == null ? "Calculate an allocation to show the map" : "Building map...";
+            FontMetrics metrics = g2d.getFontMetrics();
+            g2d.drawString(message, (width - metrics.stringWidth(message)) / 2, height / 2);
+            g2d.dispose();
+            return;
+        }
+
+        int side = current.getSide();
+        if (needsFit && width > 0 && height > 0) {
+            scale = Math.min(width, height) * 0.9 / side;
+            centerX = side / 2.0;
+            centerY = side / 2.0;
+            needsFit = false;
+        }
+
+        // Coarsest zoom whose tiles are at least as detailed as the screen
+        int zoom = 0;
+        while (zoom < current.getMaxZoom()
+                && (double) RiskTilePyramid.TILE_SIZE * (1 << zoom) / side < scale) {
+            zoom++;
+        }
+        int tiles = 1 << zoom;
+        double tilePixels = scale * (side >> zoom);
+        double originX = width / 2.0 - centerX * scale;
+        double originY = height / 2.0 - centerY * scale;
+        int firstX = Math.max(0, (int) Math.floor(-originX / tilePixels));
+        int firstY = Math.max(0, (int) Math.floor(-originY / tilePixels));
+        int lastX = Math.min(tiles - 1, (int) Math.floor((width - originX) / tilePixels));
+        int lastY = Math.min(tiles - 1, (int) Math.floor((height - originY) / tilePixels));
+        visibleTiles = new VisibleTiles(zoom, firstX, firstY, lastX, lastY);
+
+        for (int ty = firstY; ty <= lastY; ty++) {
+            for (int tx = firstX; tx <= lastX; tx++) {
+                int x0 = (int) Math.floor(originX + tx * tilePixels);
+                int y0 = (int) Math.floor(originY + ty * tilePixels);
+                int x1 = (int) Math.floor(originX + (tx + 1) * tilePixels);
+                int y1 = (int) Math.floor(originY + (ty + 1) * tilePixels);
+                BufferedImage tile = cache.get(RiskTilePyramid.tileKey(zoom, tx, ty));
+                if (tile != null) {
+                    g2d.drawImage(tile, x0, y0, x1, y1, 0, 0, tile.getWidth(), tile.getHeight(), null);
+                } else {
+                    drawPlaceholder(g2d, zoom, tx, ty, x0, y0, x1, y1);
+                }
+                requestTile(current, zoom, tx, ty);
+            }
+        }
+
+        g2d.setColor(OUTLINE_COLOR);
+        g2d.drawRect((int) Math.floor(originX), (int) Math.floor(originY),
+                (int) Math.round(side * scale), (int) Math.round(side * scale));
+        paintLegend(g2d, current, zoom, height);
+        g2d.dispose();
+    }
+
+    /**
+     * Draws the matching part of the nearest cached ancestor of a missing tile
+     */
+    private void drawPlaceholder(Graphics2D g2d, int zoom, int tileX, int tileY, int x0, int y0, int x1, int y1) {
+        for (int up = 1; up <= zoom; up++) {
+            int span = RiskTilePyramid.TILE_SIZE >> up;
+            if (span == 0) {
+                return;
+            }
+            BufferedImage parent = cache.get(RiskTilePyramid.tileKey(zoom - up, tileX >> up, tileY >> up));
+            if (parent != null) {
+                int sx = (tileX - ((tileX >> up) << up)) * span;
+                int sy = (tileY - ((tileY >> up) << up)) * span;
+                g2d.drawImage(parent, x0, y0, x1, y1, sx, sy, sx + span, sy + span, null);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Draws the risk ramp, the funded/unfunded swatches and the zoom level
+     */
+    private void paintLegend(Graphics2D g2d, RiskTilePyramid current, int zoom, int height) {
+        int rampWidth = 120;
+        int x = 10;
+        int y = height - 48;
+        g2d.setColor(new Color(255, 255, 255, 220));
+        g2d.fillRoundRect(x - 6, y - 16, 240, 50, 8, 8);
+
+        g2d.setFont(LABEL_FONT);
+        g2d.setColor(TEXT_COLOR);
+        g2d.drawString("Risk: low", x, y - 3);
+        FontMetrics metrics = g2d.getFontMetrics();
+        g2d.drawString("high", x + rampWidth - metrics.stringWidth("high"), y - 3);
+        for (int i = 0; i < rampWidth; i++) {
+            g2d.setColor(new Color(RiskTilePyramid.rampColor((float) i / (rampWidth - 1))));
+            g2d.fillRect(x + i, y, 1, 10);
+        }
+
+        int swatchX = x + rampWidth + 20;
+        g2d.setColor(new Color(RiskTilePyramid.cellColor(0.5f, 1f)));
+        g2d.fillRect(swatchX, y - 12, 10, 10);
+        g2d.setColor(new Color(RiskTilePyramid.cellColor(0.5f, 0f)));
+        g2d.fillRect(swatchX, y + 2, 10, 10);
+        g2d.setColor(TEXT_COLOR);
+        g2d.drawString("Funded", swatchX + 15, y - 3);
+        g2d.drawString("Unfunded", swatchX + 15, y + 11);
+
+        g2d.setColor(Color.GRAY);
+        g2d.drawString(NUMBER_FORMAT.format(current.getDistricts().size()) + " districts • zoom "
+                + zoom + "/" + current.getMaxZoom(), x, y + 26);
+    }
+
+    /**
+     * Range of tiles on screen at the last paint, read by the render threads
+     */
+    private static final class VisibleTiles {
+        final int zoom;
+        final int firstX;
+        final int firstY;
+        final int lastX;
+        final int lastY;
+
+        VisibleTiles(int zoom, int firstX, int firstY, int lastX, int lastY) {
+            this.zoom = zoom;
+            this.firstX = firstX;
+            this.firstY = firstY;
+            this.lastX = lastX;
+            this.lastY = lastY;
+        }
+
+        boolean contains(int tileZoom, int tileX, int tileY) {
+            return tileZoom == zoom && tileX >= firstX && tileX <= lastX && tileY >= firstY && tileY <= lastY;
+        }
+    }
+}
@@ -3,6 +3,15 @@
  * for disaster response resource allocation.
  */
 public class RiskStatistics {
+    // Weights applied to each risk component
+    public static final int WEIGHT_POPULATION = 3;
+    public static final int WEIGHT_LAND_TYPE = 2;
+    public static final int WEIGHT_URBANIZATION = 1;
+    
+    // Range of total risk scores the default weights can produce
+    public static final int MIN_TOTAL_RISK = WEIGHT_POPULATION + WEIGHT_LAND_TYPE + WEIGHT_URBANIZATION;
+    public static final int MAX_TOTAL_RISK = 4 * WEIGHT_POPULATION + 4 * WEIGHT_LAND_TYPE + 3 * WEIGHT_URBANIZATION;
+
     /**
      * Calculates the risk score based on population size
      * 
@@ -73,10 +82,32 @@ public class RiskStatistics {
      * @return Total weighted risk score
      */
     public static int calculateTotalRisk(int populationRisk, int landTypeRisk, int urbanizationRisk) {
-        int weightPopulation = 3;
-        int weightLandType = 2;
-        int weightUrbanization = 1;
+        return (populationRisk * WEIGHT_POPULATION) + (landTypeRisk * WEIGHT_LAND_TYPE) + (urbanizationRisk * WEIGHT_URBANIZATION);
+    }
 
+    /**
+     * Calculates the total risk score using custom component weights
+     * 
+     * @param populationRisk Risk score from population
+     * @param landTypeRisk Risk score from land type
+     * @param urbanizationRisk Risk score from urbanization
+     * @param weightPopulation Weight of the population component
+     * @param weightLandType Weight of the land type component
+     * @param weightUrbanization Weight of the urbanization component
+     * @return Total weighted risk score
+     */
+    public static int calculateTotalRisk(int populationRisk, int landTypeRisk, int urbanizationRisk,
+            int weightPopulation, int weightLandType, int weightUrbanization) {
         return (populationRisk * weightPopulation) + (landTypeRisk * weightLandType) + (urbanizationRisk * weightUrbanization);
     }
+
+    /**
+     * Returns a signature identifying the current risk model weights, so
+     * cached results can be keyed on the model they were computed with
+     * 
+     * @return The weights packed into a single value
+     */
+    public static long getModelSignature() {
+        return ((long) WEIGHT_POPULATION << 32) | ((long) WEIGHT_LAND_TYPE << 16) | WEIGHT_URBANIZATION;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,287 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregate statistics over a set of districts: totals, a histogram of risk
+ * scores, quantiles, per-group totals by land type and urbanization, and the
+ * tier thresholds derived from them.
+ *
+ * Everything is gathered in a single pass over primitive columns. Risk scores
+ * are small integers, so the histogram is a counting array and quantiles are
+ * exact.
+ */
+public class RiskSummary {
+    /**
+     * Risk tier of a district relative to the current district set
+     */
+    public enum Tier {
+        LOW, MEDIUM, HIGH
+    }
+
+    // Share of districts below each tier threshold
+    public static final double MEDIUM_TIER_QUANTILE = 0.5;
+    public static final double HIGH_TIER_QUANTILE = 0.8;
+
+    private final int count;
+    private final long totalPopulation;
+    private final long totalDemand;
+    private final long totalRisk;
+    private final int minRisk;
+    private final int maxRisk;
+    private final int[] histogram;
+    private final List<Group> landTypeGroups;
+    private final List<Group> urbanizationGroups;
+    private final int mediumThreshold;
+    private final int highThreshold;
+
+    /**
+     * Totals for the districts sharing one land type or urbanization level
+     */
+    public static class Group {
+        private final String name;
+        private final int count;
+        private final long population;
+        private final long demand;
+        private final long risk;
+
+        Group(String name, int count, long population, long demand, long risk) {
+            this.name = name;
+            this.count = count;
+            this.population = population;
+            this.demand = demand;
+            this.risk = risk;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getPopulation() {
+            return population;
+        }
+
+        public long getDemand() {
+            return demand;
+        }
+
+        public double getMeanRisk() {
+            return count == 0 ? 0 : (double) risk / count;
+        }
+    }
+
+    private RiskSummary(int count, long totalPopulation, long totalDemand, long totalRisk, int minRisk,
+            int maxRisk, int[] histogram, List<Group> landTypeGroups, List<Group> urbanizationGroups) {
+        this.count = count;
+        this.totalPopulation = totalPopulation;
+        this.totalDemand = totalDemand;
+        this.totalRisk = totalRisk;
+        this.minRisk = minRisk;
+        this.maxRisk = maxRisk;
+        this.histogram = histogram;
+        this.landTypeGroups = landTypeGroups;
+        this.urbanizationGroups = urbanizationGroups;
+
+        if (count == 0) {
+            // Nothing to derive from: split the model's possible range instead
+            int range = RiskStatistics.MAX_TOTAL_RISK - RiskStatistics.MIN_TOTAL_RISK;
+            this.mediumThreshold = RiskStatistics.MIN_TOTAL_RISK + (int) Math.ceil(range * MEDIUM_TIER_QUANTILE);
+            this.highThreshold = RiskStatistics.MIN_TOTAL_RISK + (int) Math.ceil(range * HIGH_TIER_QUANTILE);
+        } else {
+            // A threshold at the minimum would put every district in the tier
+            int medium = Math.max(getQuantile(MEDIUM_TIER_QUANTILE), minRisk + 1);
+            this.mediumThreshold = medium;
+            this.highThreshold = Math.max(getQuantile(HIGH_TIER_QUANTILE), medium);
+        }
+    }
+
+    /**
+     * Summarizes district columns
+     *
+     * @param n Number of districts; each array holds at least this many values
+     * @param risk Total risk scores
+     * @param population Populations
+     * @param demand Resource demands
+     * @param landTypeCode Land type codes as in {@link DistrictCodec#LAND_TYPES}
+     * @param urbanizationCode Urbanization codes as in {@link DistrictCodec#URBANIZATION_TYPES}
+     */
+    public static RiskSummary compute(int n, int[] risk, int[] population, int[] demand,
+            byte[] landTypeCode, byte[] urbanizationCode) {
+        int landTypes = DistrictCodec.LAND_TYPES.length;
+        int urbanizations = DistrictCodec.URBANIZATION_TYPES.length;
+        int[] landCount = new int[landTypes];
+        long[] landPopulation = new long[landTypes];
+        long[] landDemand = new long[landTypes];
+        long[] landRisk = new long[landTypes];
+        int[] urbanCount = new int[urbanizations];
+        long[] urbanPopulation = new long[urbanizations];
+        long[] urbanDemand = new long[urbanizations];
+        long[] urbanRisk = new long[urbanizations];
+
+        int[] histogram = new int[RiskStatistics.MAX_TOTAL_RISK + 1];
+        long totalPopulation = 0;
+        long totalDemand = 0;
+        long totalRisk = 0;
+        int minRisk = Integer.MAX_VALUE;
+        int maxRisk = Integer.MIN_VALUE;
+
+        for (int i = 0; i < n; i++) {
+            int r = Math.max(risk[i], 0);
+            int p = population[i];
+            int d = demand[i];
+            if (r >= histogram.length) {
+                // Only reachable with scores set outside the default model
+                histogram = Arrays.copyOf(histogram, Math.max(r + 1, histogram.length * 2));
+            }
+            histogram[r]++;
+            totalPopulation += p;
+            totalDemand += d;
+            totalRisk += r;
+            minRisk = Math.min(minRisk, r);
+            maxRisk = Math.max(maxRisk, r);
+
+            int land = landTypeCode[i];
+            landCount[land]++;
+            landPopulation[land] += p;
+            landDemand[land] += d;
+            landRisk[land] += r;
+
+            int urban = urbanizationCode[i];
+            urbanCount[urban]++;
+            urbanPopulation[urban] += p;
+            urbanDemand[urban] += d;
+            urbanRisk[urban] += r;
+        }
+
+        if (n == 0) {
+            minRisk = 0;
+            maxRisk = 0;
+        }
+        return new RiskSummary(n, totalPopulation, totalDemand, totalRisk, minRisk, maxRisk,
+                Arrays.copyOfRange(histogram, minRisk, maxRisk + 1),
+                groups(DistrictCodec.LAND_TYPES, landCount, landPopulation, landDemand, landRisk),
+                groups(DistrictCodec.URBANIZATION_TYPES, urbanCount, urbanPopulation, urbanDemand, urbanRisk));
+    }
+
+    /**
+     * Summarizes a list of districts, copying their fields into columns first
+     */
+    public static RiskSummary of(List<District> districts) {
+        int n = districts.size();
+        int[] risk = new int[n];
+        int[] population = new int[n];
+        int[] demand = new int[n];
+        byte[] landTypeCode = new byte[n];
+        byte[] urbanizationCode = new byte[n];
+        for (int i = 0; i < n; i++) {
+            District d = districts.get(i);
+            risk[i] = d.getRiskScore();
+            population[i] = d.getPopulation();
+            demand[i] = d.getResourceDemand();
+            landTypeCode[i] = (byte) DistrictCodec.landTypeCode(d.getLandType());
+            urbanizationCode[i] = (byte) DistrictCodec.urbanizationCode(d.getUrbanization());
+        }
+        return compute(n, risk, population, demand, landTypeCode, urbanizationCode);
+    }
+
+    private static List<Group> groups(String[] names, int[] count, long[] population, long[] demand, long[] risk) {
+        List<Group> groups = new ArrayList<>();
+        for (int code = 0; code < names.length; code++) {
+            // Code 0 only appears for unrecognised values
+            if (code > 0 || count[code] > 0) {
+                groups.add(new Group(code == 0 ? "Other" : names[code], count[code],
+                        population[code], demand[code], risk[code]));
+            }
+        }
+        return groups;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getTotalPopulation() {
+        return totalPopulation;
+    }
+
+    public long getTotalDemand() {
+        return totalDemand;
+    }
+
+    public double getMeanRisk() {
+        return count == 0 ? 0 : (double) totalRisk / count;
+    }
+
+    public int getMinRisk() {
+        return minRisk;
+    }
+
+    public int getMaxRisk() {
+        return maxRisk;
+    }
+
+    /**
+     * Returns the number of districts with the given risk score
+     */
+    public int getHistogramCount(int riskScore) {
+        int index = riskScore - minRisk;
+        return index >= 0 && index < histogram.length ? histogram[index] : 0;
+    }
+
+    /**
+     * Returns the smallest risk score at or below which the given share of districts fall
+     *
+     * @param quantile Share between 0 and 1
+     */
+    public int getQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        // Shares like 0.07 are not exact in binary and would round past a whole count
+        long target = Math.max(1, (long) Math.ceil(quantile * count - 1e-9));
+        long cumulative = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            cumulative += histogram[i];
+            if (cumulative >= target) {
+                return minRisk + i;
+            }
+        }
+        return maxRisk;
+    }
+
+    public List<Group> getLandTypeGroups() {
+        return landTypeGroups;
+    }
+
+    public List<Group> getUrbanizationGroups() {
+        return urbanizationGroups;
+    }
+
+    /**
+     * Lowest risk score in the medium tier
+     */
+    public int getMediumThreshold() {
+        return mediumThreshold;
+    }
+
+    /**
+     * Lowest risk score in the high tier
+     */
+    public int getHighThreshold() {
+        return highThreshold;
+    }
+
+    public Tier getTier(int riskScore) {
+        if (riskScore >= highThreshold) {
+            return Tier.HIGH;
+        }
+        if (riskScore >= mediumThreshold) {
+            return Tier.MEDIUM;
+        }
+        return Tier.LOW;
+    }
+}
@@ -0,0 +1,140 @@
+import javax.swing.*;
+import java.awt.*;
+import java.text.DecimalFormat;
+import java.util.List;
+
+/**
+ * Compact summary of the current district set: a risk histogram colored by
+ * tier, headline totals and a breakdown by land type and urbanization.
+ */
+public class RiskSummaryPanel extends JPanel {
+    private static final Color LOW_COLOR = new Color(40, 167, 69);
+    private static final Color MEDIUM_COLOR = new Color(255, 193, 7);
+    private static final Color HIGH_COLOR = new Color(220, 53, 69);
+
+    private static final DecimalFormat NUMBER_FORMAT = new DecimalFormat("#,###");
+    private static final DecimalFormat MEAN_FORMAT = new DecimalFormat("0.0");
+
+    private final JLabel totalsLabel = new JLabel();
+    private final JLabel breakdownLabel = new JLabel();
+    private final HistogramView histogramView = new HistogramView();
+    private RiskSummary summary;
+
+    /**
+     * Constructor for RiskSummaryPanel
+     *
+     * @param background Background color matching the surrounding panel
+     * @param foreground Text color for the summary lines
+     */
+    public RiskSummaryPanel(Color background, Color foreground) {
+        super(new BorderLayout(10, 5));
+        setBackground(background);
+
+        totalsLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        totalsLabel.setForeground(foreground);
+        breakdownLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+        breakdownLabel.setForeground(foreground);
+        histogramView.setBackground(background);
+        histogramView.setPreferredSize(new Dimension(160, 60));
+
+        add(histogramView, BorderLayout.WEST);
+        add(totalsLabel, BorderLayout.CENTER);
+        add(breakdownLabel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Returns the display color for a risk tier
+     */
+    public static Color getTierColor(RiskSummary.Tier tier) {
+        switch (tier) {
+            case HIGH:
+                return HIGH_COLOR;
+            case MEDIUM:
+                return MEDIUM_COLOR;
+            default:
+                return LOW_COLOR;
+        }
+    }
+
+    /**
+     * Shows a new summary
+     */
+    public void setSummary(RiskSummary summary) {
+        this.summary = summary;
+
+        totalsLabel.setText(String.format(
+                "<html>Districts: <b>%s</b> • Population: <b>%s</b> • Demand: <b>%s</b><br>" +
+                "Risk min/median/P90/max: <b>%d / %d / %d / %d</b> (mean %s)<br>" +
+                "Tiers: <span style='color: #dc3545;'>High ≥ %d</span> • " +
+                "<span style='color: #b8860b;'>Medium ≥ %d</span></html>",
+                NUMBER_FORMAT.format(summary.getCount()),
+                NUMBER_FORMAT.format(summary.getTotalPopulation()),
+                NUMBER_FORMAT.format(summary.getTotalDemand()),
+                summary.getMinRisk(), summary.getQuantile(0.5), summary.getQuantile(0.9), summary.getMaxRisk(),
+                MEAN_FORMAT.format(summary.getMeanRisk()),
+                summary.getHighThreshold(), summary.getMediumThreshold()));
+
+        StringBuilder breakdown = new StringBuilder("<html><table cellpadding='1' cellspacing='0'>");
+        breakdown.append("<tr><td></td><td align='right'>Districts</td><td align='right'>Population</td>")
+                .append("<td align='right'>Demand</td><td align='right'>Mean risk</td></tr>");
+        appendGroups(breakdown, summary.getLandTypeGroups());
+        appendGroups(breakdown, summary.getUrbanizationGroups());
+        breakdown.append("</table></html>");
+        breakdownLabel.setText(breakdown.toString());
+
+        histogramView.repaint();
+    }
+
+    private static void appendGroups(StringBuilder html, List<RiskSummary.Group> groups) {
+        for (RiskSummary.Group group : groups) {
+            html.append("<tr><td><b>").append(group.getName()).append("</b></td>")
+                    .append("<td align='right'>").append(NUMBER_FORMAT.format(group.getCount())).append("</td>")
+                    .append("<td align='right'>").append(NUMBER_FORMAT.format(group.getPopulation())).append("</td>")
+                    .append("<td align='right'>").append(NUMBER_FORMAT.format(group.getDemand())).append("</td>")
+                    .append("<td align='right'>").append(MEAN_FORMAT.format(group.getMeanRisk())).append("</td></tr>");
+        }
+    }
+
+    /**
+     * Bar chart of district counts per risk score
+     */
+    private class HistogramView extends JComponent {
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g.create();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(getBackground());
+            g2d.fillRect(0, 0, getWidth(), getHeight());
+            if (summary == null || summary.getCount() == 0) {
+                g2d.dispose();
+                return;
+            }
+
+            int min = summary.getMinRisk();
+            int max = summary.getMaxRisk();
+            int peak = 1;
+            for (int r = min; r <= max; r++) {
+                peak = Math.max(peak, summary.getHistogramCount(r));
+            }
+
+            int labelHeight = 12;
+            int chartHeight = getHeight() - labelHeight;
+            int bars = max - min + 1;
+            double barWidth = (double) getWidth() / bars;
+            for (int r = min; r <= max; r++) {
+                int height = (int) Math.round((double) summary.getHistogramCount(r) / peak * (chartHeight - 2));
+                int x = (int) Math.round((r - min) * barWidth);
+                int w = Math.max(1, (int) Math.round((r - min + 1) * barWidth) - x - 1);
+                g2d.setColor(getTierColor(summary.getTier(r)));
+                g2d.fillRect(x, chartHeight - height, w, height);
+            }
+
+            g2d.setColor(Color.GRAY);
+            g2d.setFont(new Font("Segoe UI", Font.PLAIN, 10));
+            g2d.drawString(String.valueOf(min), 0, getHeight() - 1);
+            String maxLabel = String.valueOf(max);
+            g2d.drawString(maxLabel, getWidth() - g2d.getFontMetrics().stringWidth(maxLabel), getHeight() - 1);
+            g2d.dispose();
+        }
+    }
+}
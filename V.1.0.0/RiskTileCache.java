@@ -0,0 +1,133 @@
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LRU cache of rendered map tiles keyed by {@link RiskTilePyramid#tileKey}.
+ *
+ * Tiles invalidated by a new plan keep their image but are marked stale,
+ * so the map keeps showing them until the replacement is ready. The cache
+ * also tracks which tiles are being rendered, so each tile is only queued
+ * once. A render that was invalidated while it ran is stored as stale.
+ */
+public class RiskTileCache {
+    private final int maxEntries;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Tiles being rendered, mapped to whether they were invalidated since the render started
+    private final Map<Long, Boolean> inFlight = new HashMap<>();
+    // Incremented by clear() so renders of a replaced pyramid are dropped
+    private long generation = 0;
+
+    /**
+     * Constructor for RiskTileCache
+     *
+     * @param maxEntries Maximum number of cached tiles
+     */
+    public RiskTileCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Looks up a tile, stale or not
+     *
+     * @return The tile image, or null if absent
+     */
+    public synchronized BufferedImage get(long key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.image;
+    }
+
+    /**
+     * Claims a tile for rendering if it is missing or stale and not already queued
+     *
+     * @return The generation to pass to {@link #put}, or -1 if no render is needed
+     */
+    public synchronized long claim(long key) {
+        if (inFlight.containsKey(key)) {
+            return -1;
+        }
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.stale) {
+            return -1;
+        }
+        inFlight.put(key, Boolean.FALSE);
+        return generation;
+    }
+
+    /**
+     * Releases a claimed tile without storing anything
+     */
+    public synchronized void release(long key, long claimedGeneration) {
+        if (claimedGeneration == generation) {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Stores a rendered tile, evicting least recently used tiles if over capacity
+     */
+    public synchronized void put(long key, BufferedImage image, long claimedGeneration) {
+        if (claimedGeneration != generation) {
+            return;
+        }
+        Boolean invalidated = inFlight.remove(key);
+        entries.put(key, new Entry(image, Boolean.TRUE.equals(invalidated)));
+        evict();
+    }
+
+    /**
+     * Marks tiles stale after the data behind them changed
+     */
+    public synchronized void invalidate(Set<Long> keys) {
+        for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+            if (keys.contains(entry.getKey())) {
+                entry.getValue().stale = true;
+            }
+        }
+        for (Map.Entry<Long, Boolean> entry : inFlight.entrySet()) {
+            if (keys.contains(entry.getKey())) {
+                entry.setValue(Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Removes all tiles and forgets pending renders
+     */
+    public synchronized void clear() {
+        entries.clear();
+        inFlight.clear();
+        generation++;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Evicts least recently used tiles until the capacity is respected
+     */
+    private void evict() {
+        Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Cached tile image and whether it predates the current data
+     */
+    private static final class Entry {
+        final BufferedImage image;
+        boolean stale;
+
+        Entry(BufferedImage image, boolean stale) {
+            this.image = image;
+            this.stale = stale;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Multi-resolution grid of district risk and funding, rendered as map tiles.
+ *
+ * Districts carry no coordinates, so each one gets a square cell along a
+ * Hilbert curve in list order. Districts next to each other in the list
+ * stay next to each other on the map, and a range of imported rows forms a
+ * compact region rather than a stripe.
+ *
+ * The grid is stored as a pyramid: level 0 has one cell per district and
+ * each level above sums 2x2 cells of the one below. A tile pixel therefore
+ * always reads a single aggregated cell, whatever the zoom, so a tile
+ * costs the same to render with 1,000 or 1,000,000 districts. Cells are
+ * colored by mean risk score, faded toward white by the share of demand
+ * left unfunded.
+ *
+ * A new plan only changes funding. {@link #applyPlan} updates the cells
+ * whose allocation changed, plus their ancestors, and returns the tiles
+ * that cover them so that only those are redrawn.
+ */
+public class RiskTilePyramid {
+    public static final int TILE_SIZE = 256;
+
+    // Smallest cell drawn at the deepest zoom, in pixels
+    private static final int MAX_CELL_PIXELS = 64;
+    private static final int EMPTY_RGB = 0xF5F5F5;
+    private static final int BORDER_RGB = 0xFFFFFF;
+    // Colors along the risk ramp, from lowest to highest risk
+    private static final int[] RISK_RAMP = {0xFFEDA0, 0xFEB24C, 0xF03B20, 0xBD0026};
+    // How far an unfunded cell is faded toward white
+    private static final float UNFUNDED_FADE = 0.75f;
+
+    private final List<District> districts;
+    private final int size;
+    private final int side;
+    private final int levels;
+    private final int maxZoom;
+    // List position of each district, by ID
+    private final DistrictIdMap indexById;
+
+    // Per level, row-major: district count, risk sum and funded share sum
+    private final int[][] count;
+    private final float[][] riskSum;
+    private final float[][] fundedSum;
+    private final float[] funded;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Lays out the districts and builds the pyramid, with nothing funded
+     *
+     * @param districts Districts to show, in layout order; must not change afterwards
+     */
+    public RiskTilePyramid(List<District> districts) {
+        this.districts = districts;
+        this.size = districts.size();
+        int bits = 0;
+        while ((1L << (2 * bits)) < size) {
+            bits++;
+        }
+        this.levels = bits + 1;
+        this.side = 1 << bits;
+        // At zoom z a tile spans side >> z cells; stop where a cell reaches MAX_CELL_PIXELS
+        this.maxZoom = Math.max(0, bits - Integer.numberOfTrailingZeros(TILE_SIZE / MAX_CELL_PIXELS));
+
+        count = new int[levels][];
+        riskSum = new float[levels][];
+        fundedSum = new float[levels][];
+        for (int k = 0; k < levels; k++) {
+            int levelSide = side >> k;
+            count[k] = new int[levelSide * levelSide];
+            riskSum[k] = new float[levelSide * levelSide];
+            fundedSum[k] = new float[levelSide * levelSide];
+        }
+        funded = new float[size];
+
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minId = Math.min(minId, districts.get(i).getId());
+            maxId = Math.max(maxId, districts.get(i).getId());
+        }
+        indexById = new DistrictIdMap(size, minId, maxId);
+        for (int i = 0; i < size; i++) {
+            District district = districts.get(i);
+            indexById.put(district.getId(), i);
+            int cell = cellOf(i);
+            count[0][cell] = 1;
+            riskSum[0][cell] = district.getRiskScore();
+        }
+
+        for (int k = 1; k < levels; k++) {
+            int levelSide = side >> k;
+            int childSide = levelSide << 1;
+            for (int y = 0; y < levelSide; y++) {
+                for (int x = 0; x < levelSide; x++) {
+                    int c = (2 * y) * childSide + 2 * x;
+                    int parent = y * levelSide + x;
+                    count[k][parent] = count[k - 1][c] + count[k - 1][c + 1]
+                            + count[k - 1][c + childSide] + count[k - 1][c + childSide + 1];
+                    riskSum[k][parent] = riskSum[k - 1][c] + riskSum[k - 1][c + 1]
+                            + riskSum[k - 1][c + childSide] + riskSum[k - 1][c + childSide + 1];
+                }
+            }
+        }
+    }
+
+    public List<District> getDistricts() {
+        return districts;
+    }
+
+    /**
+     * Cells along each side of the full map
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Deepest zoom level; zoom 0 shows the whole map in one tile
+     */
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Sets the funded share of every district from a plan
+     *
+     * @return Keys ({@link #tileKey}) of every tile whose image changed
+     */
+    public Set<Long> applyPlan(AllocationPlan plan) {
+        float[] next = new float[size];
+        for (AllocationResult result : plan.getAllocationResults()) {
+            int index = indexOf(result.district);
+            if (index >= 0) {
+                next[index] = (float) result.allocatedResources / result.district.getResourceDemand();
+            }
+        }
+
+        // Changed tiles at the deepest zoom; their ancestors are added at the end
+        int bits = levels - 1;
+        int shift = bits - maxZoom;
+        int tiles = 1 << maxZoom;
+        boolean[] changed = new boolean[tiles * tiles];
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                if (next[i] == funded[i]) {
+                    continue;
+                }
+                funded[i] = next[i];
+                int cell = cellOf(i);
+                int x = cell % side;
+                int y = cell / side;
+                fundedSum[0][cell] = next[i];
+                // Re-add the children rather than applying the delta, so rounding never accumulates
+                for (int k = 1; k < levels; k++) {
+                    int levelSide = side >> k;
+                    int childSide = levelSide << 1;
+                    int c = (2 * (y >> k)) * childSide + 2 * (x >> k);
+                    fundedSum[k][(y >> k) * levelSide + (x >> k)] = fundedSum[k - 1][c] + fundedSum[k - 1][c + 1]
+                            + fundedSum[k - 1][c + childSide] + fundedSum[k - 1][c + childSide + 1];
+                }
+                changed[(y >> shift) * tiles + (x >> shift)] = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Set<Long> dirty = new HashSet<>();
+        for (int ty = 0; ty < tiles; ty++) {
+            for (int tx = 0; tx < tiles; tx++) {
+                if (!changed[ty * tiles + tx]) {
+                    continue;
+                }
+                // Walk up until an ancestor already added through a neighbouring tile
+                int z = maxZoom;
+                while (z >= 0 && dirty.add(tileKey(z, tx >> (maxZoom - z), ty >> (maxZoom - z)))) {
+                    z--;
+                }
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Districts in a cell of a pyramid level, where level 0 has one cell per district
+     */
+    int getCount(int level, int x, int y) {
+        return count[level][y * (side >> level) + x];
+    }
+
+    /**
+     * Sum of the risk scores in a cell of a pyramid level
+     */
+    float getRiskSum(int level, int x, int y) {
+        return riskSum[level][y * (side >> level) + x];
+    }
+
+    /**
+     * Sum of the funded shares in a cell of a pyramid level
+     */
+    float getFundedSum(int level, int x, int y) {
+        lock.readLock().lock();
+        try {
+            return fundedSum[level][y * (side >> level) + x];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the district drawn at a point of the full map, in cells
+     *
+     * @return The district, or null if the point is outside every district's cell
+     */
+    public District districtAt(double cellX, double cellY) {
+        if (cellX < 0 || cellY < 0 || cellX >= side || cellY >= side) {
+            return null;
+        }
+        int index = (int) hilbertIndex(side, (int) cellX, (int) cellY);
+        return index < size ? districts.get(index) : null;
+    }
+
+    /**
+     * Share of demand funded for a district, as of the last plan
+     */
+    public float getFundedShare(District district) {
+        int index = indexOf(district);
+        return index < 0 ? 0f : funded[index];
+    }
+
+    /**
+     * Renders one tile
+     *
+     * @param zoom Zoom level, 0 to {@link #getMaxZoom()}
+     * @param tileX Tile column, 0 to 2^zoom - 1
+     * @param tileY Tile row, 0 to 2^zoom - 1
+     */
+    public BufferedImage renderTile(int zoom, int tileX, int tileY) {
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int tileCells = side >> zoom;
+
+        lock.readLock().lock();
+        try {
+            if (tileCells >= TILE_SIZE) {
+                // Each pixel is one aggregated cell
+                int k = Integer.numberOfTrailingZeros(tileCells / TILE_SIZE);
+                int levelSide = side >> k;
+                for (int py = 0; py < TILE_SIZE; py++) {
+                    int row = (tileY * TILE_SIZE + py) * levelSide + tileX * TILE_SIZE;
+                    for (int px = 0; px < TILE_SIZE; px++) {
+                        pixels[py * TILE_SIZE + px] = color(k, row + px);
+                    }
+                }
+            } else {
+                // Each cell is a block of pixels, with a border once cells are large enough
+                int cellPixels = TILE_SIZE / tileCells;
+                int border = cellPixels >= 8 ? 1 : 0;
+                for (int cy = 0; cy < tileCells; cy++) {
+                    for (int cx = 0; cx < tileCells; cx++) {
+                        int rgb = color(0, (tileY * tileCells + cy) * side + tileX * tileCells + cx);
+                        for (int py = cy * cellPixels; py < (cy + 1) * cellPixels; py++) {
+                            int rowStart = py * TILE_SIZE + cx * cellPixels;
+                            boolean edgeRow = border > 0 && py == (cy + 1) * cellPixels - 1;
+                            for (int px = 0; px < cellPixels; px++) {
+                                boolean edge = edgeRow || (border > 0 && px == cellPixels - 1);
+                                pixels[rowStart + px] = edge && rgb != EMPTY_RGB ? BORDER_RGB : rgb;
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return image;
+    }
+
+    /**
+     * Packs a tile address into one key
+     */
+    public static long tileKey(int zoom, int tileX, int tileY) {
+        return ((long) zoom << 56) | ((long) tileX << 28) | tileY;
+    }
+
+    /**
+     * Color of the mean risk ramp for a value from 0 to 1
+     */
+    static int rampColor(float t) {
+        float position = Math.max(0f, Math.min(1f, t)) * (RISK_RAMP.length - 1);
+        int i = Math.min((int) position, RISK_RAMP.length - 2);
+        return mix(RISK_RAMP[i], RISK_RAMP[i + 1], position - i);
+    }
+
+    /**
+     * Color for a risk level from 0 to 1 and the share of its demand funded
+     */
+    static int cellColor(float risk, float fundedShare) {
+        return mix(rampColor(risk), 0xFFFFFF, UNFUNDED_FADE * (1f - fundedShare));
+    }
+
+    private int color(int level, int cell) {
+        int n = count[level][cell];
+        if (n == 0) {
+            return EMPTY_RGB;
+        }
+        float meanRisk = riskSum[level][cell] / n;
+        float risk = (meanRisk - RiskStatistics.MIN_TOTAL_RISK)
+                / (RiskStatistics.MAX_TOTAL_RISK - RiskStatistics.MIN_TOTAL_RISK);
+        return cellColor(risk, fundedSum[level][cell] / n);
+    }
+
+    private static int mix(int from, int to, float t) {
+        int r = (int) (((from >> 16) & 0xFF) + ((((to >> 16) & 0xFF) - ((from >> 16) & 0xFF)) * t));
+        int g = (int) (((from >> 8) & 0xFF) + ((((to >> 8) & 0xFF) - ((from >> 8) & 0xFF)) * t));
+        int b = (int) ((from & 0xFF) + (((to & 0xFF) - (from & 0xFF)) * t));
+        return (r << 16) | (g << 8) | b;
+    }
+
+    private int indexOf(District district) {
+        int index = indexById.get(district.getId());
+        return index >= 0 && districts.get(index) == district ? index : -1;
+    }
+
+    /**
+     * Row-major level 0 cell of the district at a list position
+     */
+    private int cellOf(int index) {
+        long xy = hilbertPoint(side, index);
+        return (int) (xy & 0xFFFFFFFFL) * side + (int) (xy >>> 32);
+    }
+
+    /**
+     * Point at distance d along the Hilbert curve filling an n x n grid,
+     * packed as x in the high and y in the low 32 bits
+     */
+    static long hilbertPoint(int n, long d) {
+        int x = 0;
+        int y = 0;
+        for (int s = 1; s < n; s <<= 1) {
+            int rx = (int) (1 & (d >>> 1));
+            int ry = (int) (1 & (d ^ rx));
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+            x += s * rx;
+            y += s * ry;
+            d >>>= 2;
+        }
+        return ((long) x << 32) | y;
+    }
+
+    /**
+     * Distance along the Hilbert curve of a cell in an n x n grid
+     */
+    static long hilbertIndex(int n, int x, int y) {
+        long d = 0;
+        for (int s = n >>> 1; s > 0; s >>>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+}
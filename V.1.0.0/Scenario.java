@@ -0,0 +1,134 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One what-if scenario for batch runs: a budget, an allocation policy and
+ * the risk model weights.
+ */
+public class Scenario {
+    // Largest weight, so each fits its 16-bit field of the weight signature
+    public static final int MAX_WEIGHT = 0xFFFF;
+
+    private final String name;
+    private final int totalResources;
+    private final AllocationPolicy policy;
+    private final int weightPopulation;
+    private final int weightLandType;
+    private final int weightUrbanization;
+
+    /**
+     * Constructor for Scenario
+     *
+     * @throws IllegalArgumentException if a weight is outside 0..{@value #MAX_WEIGHT}
+     */
+    public Scenario(String name, int totalResources, AllocationPolicy policy,
+            int weightPopulation, int weightLandType, int weightUrbanization) {
+        checkWeight("Population", weightPopulation);
+        checkWeight("Land type", weightLandType);
+        checkWeight("Urbanization", weightUrbanization);
+        this.name = name;
+        this.totalResources = totalResources;
+        this.policy = policy;
+        this.weightPopulation = weightPopulation;
+        this.weightLandType = weightLandType;
+        this.weightUrbanization = weightUrbanization;
+    }
+
+    /**
+     * Reads scenarios from a CSV file with columns
+     * name,totalResources[,policy[,weightPopulation,weightLandType,weightUrbanization]].
+     * Missing columns default to the greedy policy and the standard weights.
+     * Fields may be quoted as written by {@link BatchAllocationCli#csv}.
+     */
+    public static List<Scenario> readCsv(Path file) throws IOException {
+        List<Scenario> scenarios = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (lineNumber == 1 && line.toLowerCase().startsWith("name,")) {
+                    continue;
+                }
+                String[] fields;
+                try {
+                    fields = BatchAllocationCli.splitCsv(line);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid scenario at line " + lineNumber + ": " + e.getMessage());
+                }
+                if (fields.length != 2 && fields.length != 3 && fields.length != 6) {
+                    throw new IOException("Invalid scenario at line " + lineNumber + ": expected 2, 3 or 6 fields");
+                }
+                try {
+                    int totalResources = Integer.parseInt(fields[1].trim());
+                    if (totalResources <= 0) {
+                        throw new IOException("Invalid scenario at line " + lineNumber
+                                + ": total resources must be positive");
+                    }
+                    AllocationPolicy policy = fields.length > 2
+                            ? AllocationEngine.findPolicy(fields[2].trim()) : AllocationEngine.DEFAULT_POLICY;
+                    int weightPopulation = RiskStatistics.WEIGHT_POPULATION;
+                    int weightLandType = RiskStatistics.WEIGHT_LAND_TYPE;
+                    int weightUrbanization = RiskStatistics.WEIGHT_URBANIZATION;
+                    if (fields.length == 6) {
+                        weightPopulation = Integer.parseInt(fields[3].trim());
+                        weightLandType = Integer.parseInt(fields[4].trim());
+                        weightUrbanization = Integer.parseInt(fields[5].trim());
+                    }
+                    scenarios.add(new Scenario(fields[0].trim(), totalResources, policy,
+                            weightPopulation, weightLandType, weightUrbanization));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid scenario at line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTotalResources() {
+        return totalResources;
+    }
+
+    public AllocationPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getWeightPopulation() {
+        return weightPopulation;
+    }
+
+    public int getWeightLandType() {
+        return weightLandType;
+    }
+
+    public int getWeightUrbanization() {
+        return weightUrbanization;
+    }
+
+    /**
+     * Returns the weights packed the same way as {@link RiskStatistics#getModelSignature()}.
+     * Weights are limited to 16 bits, so different weights never share a signature.
+     */
+    public long getWeightSignature() {
+        return ((long) weightPopulation << 32) | ((long) weightLandType << 16) | weightUrbanization;
+    }
+
+    private static void checkWeight(String label, int weight) {
+        if (weight < 0 || weight > MAX_WEIGHT) {
+            throw new IllegalArgumentException(label + " weight must be between 0 and " + MAX_WEIGHT + ": " + weight);
+        }
+    }
+}
@@ -0,0 +1,685 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Greedy allocation over districts partitioned across several worker processes.
+ *
+ * Each worker owns one shard of the district file (every k-th row), scores
+ * its districts and ranks them by risk/resource ratio once. It keeps the
+ * ranked run together with prefix sums of resource demand, and serves the run
+ * to a coordinator in pages on request.
+ *
+ * The coordinator merges the heads of the shards' runs and performs the
+ * greedy cut. It pulls pages lazily, starting small and doubling, so it only
+ * fetches districts up to the point where resources run out rather than whole
+ * shards. Once the cut is made it tells each shard how far into its run
+ * funding reached; the shard answers with its funded demand from its prefix
+ * sums, which the coordinator checks against its own total.
+ *
+ * Ties are broken by row number in the district file, which gives the same
+ * priority order as loading the whole file into {@link AllocationEngine}.
+ *
+ * Workers listen on loopback unless started with --bind, so coordinators on
+ * other hosts need a worker bound to a reachable address.
+ */
+public class ShardedAllocation {
+    // Requests from the coordinator to a worker
+    private static final byte OP_SUMMARY = 'S';
+    private static final byte OP_PAGE = 'P';
+    private static final byte OP_CUT = 'C';
+    private static final byte OP_SHUTDOWN = 'X';
+
+    // Line a worker prints once it is loaded and listening
+    private static final String READY_PREFIX = "READY ";
+
+    private static final int FIRST_PAGE_SIZE = 256;
+    private static final int MAX_PAGE_SIZE = 16 * 1024;
+
+    /**
+     * Receives funded districts in global priority order
+     */
+    public interface ResultSink {
+        void result(int row, String name, int riskScore, int resourceDemand, int allocatedResources)
+                throws IOException;
+    }
+
+    /**
+     * Totals from one sharded allocation
+     */
+    public static class Result {
+        private long districts;
+        private long funded;
+        private long partial;
+        private long fetched;
+        private int allocatedResources;
+        private int remainingResources;
+
+        public long getDistricts() {
+            return districts;
+        }
+
+        public long getFunded() {
+            return funded;
+        }
+
+        public long getPartial() {
+            return partial;
+        }
+
+        /**
+         * Number of districts the coordinator had to fetch from the workers
+         */
+        public long getFetched() {
+            return fetched;
+        }
+
+        public int getAllocatedResources() {
+            return allocatedResources;
+        }
+
+        public int getRemainingResources() {
+            return remainingResources;
+        }
+    }
+
+    /**
+     * One shard's districts, ranked by descending ratio
+     */
+    static class ShardRun {
+        final int[] row;
+        final int[] riskScore;
+        final int[] demand;
+        final String[] names;
+        // Total demand of the first i + 1 districts in the run
+        final long[] prefixDemand;
+
+        ShardRun(int[] row, int[] riskScore, int[] demand, String[] names) {
+            int n = row.length;
+            // Rows are ascending, so ties by position are ties by row
+            int[] order = PriorityRanking.rank(riskScore, demand);
+            this.row = new int[n];
+            this.riskScore = new int[n];
+            this.demand = new int[n];
+            this.names = new String[n];
+            this.prefixDemand = new long[n];
+            long sum = 0;
+            for (int k = 0; k < n; k++) {
+                int i = order[k];
+                this.row[k] = row[i];
+                this.riskScore[k] = riskScore[i];
+                this.demand[k] = demand[i];
+                this.names[k] = names[i];
+                sum += demand[i];
+                this.prefixDemand[k] = sum;
+            }
+        }
+
+        /**
+         * Loads and ranks the rows of a district file that belong to one shard
+         *
+         * @param shard Index of this shard, from 0
+         * @param shards Total number of shards
+         */
+        static ShardRun load(Path districtFile, int shard, int shards) throws IOException {
+            int[] capacity = {1024};
+            int[][] columns = {new int[1024], new int[1024], new int[1024]};
+            String[][] names = {new String[1024]};
+            int[] count = {0};
+            int[] nextRow = {0};
+            DistrictImporter.read(districtFile, (name, population, land, urban, demand) -> {
+                int row = nextRow[0]++;
+                if (row % shards != shard) {
+                    return;
+                }
+                if (count[0] == capacity[0]) {
+                    capacity[0] *= 2;
+                    for (int c = 0; c < columns.length; c++) {
+                        columns[c] = Arrays.copyOf(columns[c], capacity[0]);
+                    }
+                    names[0] = Arrays.copyOf(names[0], capacity[0]);
+                }
+                int i = count[0]++;
+                columns[0][i] = row;
+                columns[1][i] = RiskStatistics.calculateTotalRisk(
+                        RiskStatistics.calculatePopulationRisk(population), land, urban);
+                columns[2][i] = demand;
+                names[0][i] = name;
+            });
+            int n = count[0];
+            return new ShardRun(Arrays.copyOf(columns[0], n), Arrays.copyOf(columns[1], n),
+                    Arrays.copyOf(columns[2], n), Arrays.copyOf(names[0], n));
+        }
+
+        int size() {
+            return row.length;
+        }
+
+        long totalDemand() {
+            return row.length == 0 ? 0 : prefixDemand[row.length - 1];
+        }
+    }
+
+    /**
+     * Serves a shard's ranked run to coordinators, one connection at a time,
+     * until one of them requests a shutdown. A connection that fails or sends
+     * a malformed request is dropped and the worker keeps accepting.
+     */
+    static void serve(ShardRun run, ServerSocket server, String label) throws IOException {
+        while (true) {
+            try (Socket socket = server.accept()) {
+                try {
+                    if (serveConnection(run, socket, label)) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    String reason = e instanceof EOFException ? "closed in the middle of a request" : e.getMessage();
+                    System.err.printf("%s: dropped connection from %s: %s%n",
+                            label, socket.getRemoteSocketAddress(), reason);
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers requests on one connection until it closes
+     *
+     * @return True if the coordinator requested a shutdown
+     */
+    private static boolean serveConnection(ShardRun run, Socket socket, String label) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+        while (true) {
+            byte op;
+            try {
+                op = in.readByte();
+            } catch (EOFException e) {
+                return false;
+            }
+            switch (op) {
+                case OP_SUMMARY:
+                    out.writeInt(run.size());
+                    out.writeLong(run.totalDemand());
+                    break;
+                case OP_PAGE: {
+                    int from = in.readInt();
+                    int length = in.readInt();
+                    if (from < 0 || length < 0) {
+                        throw new IOException("Invalid page request " + from + "+" + length);
+                    }
+                    int to = (int) Math.min(run.size(), (long) from + length);
+                    out.writeInt(Math.max(0, to - from));
+                    for (int k = from; k < to; k++) {
+                        out.writeDouble((double) run.riskScore[k] / run.demand[k]);
+                        out.writeInt(run.row[k]);
+                        out.writeInt(run.riskScore[k]);
+                        out.writeInt(run.demand[k]);
+                        out.writeLong(run.prefixDemand[k]);
+                        out.writeUTF(run.names[k]);
+                    }
+                    break;
+                }
+                case OP_CUT: {
+                    int fullCount = in.readInt();
+                    int partialAmount = in.readInt();
+                    if (fullCount < 0 || fullCount > run.size() || partialAmount < 0) {
+                        throw new IOException("Invalid cut " + fullCount + "+" + partialAmount);
+                    }
+                    long funded = (fullCount == 0 ? 0 : run.prefixDemand[fullCount - 1]) + partialAmount;
+                    System.err.printf("%s: funded %d of %d districts (%d resources)%n",
+                            label, fullCount + (partialAmount > 0 ? 1 : 0), run.size(), funded);
+                    out.writeLong(funded);
+                    break;
+                }
+                case OP_SHUTDOWN:
+                    out.flush();
+                    return true;
+                default:
+                    throw new IOException("Unknown request " + op);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Coordinator's connection to one worker, buffering the current page of its run
+     */
+    private static class ShardClient implements AutoCloseable {
+        private final String address;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final int size;
+        private final long totalDemand;
+
+        // Current page and the run position of its first entry
+        private int pageStart = 0;
+        private int pageLength = 0;
+        private int nextPageSize = FIRST_PAGE_SIZE;
+        private double[] ratio = new double[0];
+        private int[] row = new int[0];
+        private int[] riskScore = new int[0];
+        private int[] demand = new int[0];
+        private long[] prefixDemand = new long[0];
+        private String[] names = new String[0];
+        private int cursor = 0;
+
+        // Cut within this shard's run
+        private int fullCount = 0;
+        private int partialAmount = 0;
+
+        ShardClient(String address) throws IOException {
+            this.address = address;
+            int colon = address.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Worker address must be host:port: " + address);
+            }
+            socket = new Socket(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(OP_SUMMARY);
+            out.flush();
+            size = in.readInt();
+            totalDemand = in.readLong();
+        }
+
+        /**
+         * Makes sure the head is buffered
+         *
+         * @return False if the run is exhausted
+         */
+        boolean ensureHead() throws IOException {
+            if (cursor < pageLength) {
+                return true;
+            }
+            int from = pageStart + pageLength;
+            if (from >= size) {
+                return false;
+            }
+            out.writeByte(OP_PAGE);
+            out.writeInt(from);
+            out.writeInt(nextPageSize);
+            out.flush();
+            int n = in.readInt();
+            if (ratio.length < n) {
+                ratio = new double[n];
+                row = new int[n];
+                riskScore = new int[n];
+                demand = new int[n];
+                prefixDemand = new long[n];
+                names = new String[n];
+            }
+            for (int k = 0; k < n; k++) {
+                ratio[k] = in.readDouble();
+                row[k] = in.readInt();
+                riskScore[k] = in.readInt();
+                demand[k] = in.readInt();
+                prefixDemand[k] = in.readLong();
+                names[k] = in.readUTF();
+            }
+            pageStart = from;
+            pageLength = n;
+            cursor = 0;
+            // Fetch more at a time the deeper the cut goes into this shard
+            nextPageSize = Math.min(MAX_PAGE_SIZE, nextPageSize * 2);
+            return n > 0;
+        }
+
+        double headRatio() {
+            return ratio[cursor];
+        }
+
+        int headRow() {
+            return row[cursor];
+        }
+
+        /**
+         * Sends the cut to the worker and returns the funded demand it reports
+         */
+        long sendCut() throws IOException {
+            out.writeByte(OP_CUT);
+            out.writeInt(fullCount);
+            out.writeInt(partialAmount);
+            out.flush();
+            return in.readLong();
+        }
+
+        void shutdown() throws IOException {
+            out.writeByte(OP_SHUTDOWN);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Runs the greedy allocation across the given workers
+     *
+     * @param workers Worker addresses as host:port
+     * @param totalResources Resources to allocate
+     * @param shutdownWorkers Whether to stop the workers afterwards
+     * @param sink Receives each funded district in priority order
+     */
+    public static Result allocate(List<String> workers, int totalResources, boolean shutdownWorkers,
+            ResultSink sink) throws IOException {
+        List<ShardClient> clients = new ArrayList<>();
+        try {
+            for (String worker : workers) {
+                clients.add(new ShardClient(worker));
+            }
+            Result result = new Result();
+            long start = AllocationMetrics.start();
+
+            // Highest ratio first, ties by lowest row
+            PriorityQueue<ShardClient> heads = new PriorityQueue<>(Math.max(1, clients.size()), (a, b) -> {
+                int c = Double.compare(b.headRatio(), a.headRatio());
+                return c != 0 ? c : Integer.compare(a.headRow(), b.headRow());
+            });
+            for (ShardClient client : clients) {
+                result.districts += client.size;
+                if (client.ensureHead()) {
+                    heads.add(client);
+                }
+            }
+
+            int remaining = totalResources;
+            while (remaining > 0 && !heads.isEmpty()) {
+                ShardClient shard = heads.poll();
+                int k = shard.cursor;
+                int demand = shard.demand[k];
+                int allocated = Math.min(demand, remaining);
+                remaining -= allocated;
+                result.funded++;
+                result.fetched++;
+                if (allocated < demand) {
+                    result.partial++;
+                    shard.partialAmount = allocated;
+                    AllocationMetrics.recordPartialAllocation();
+                } else {
+                    shard.fullCount = shard.pageStart + k + 1;
+                }
+                sink.result(shard.row[k], shard.names[k], shard.riskScore[k], demand, allocated);
+                shard.cursor++;
+                if (shard.ensureHead()) {
+                    heads.add(shard);
+                }
+            }
+            AllocationMetrics.record(AllocationMetrics.Stage.ALLOCATION, start,
+                    (int) Math.min(Integer.MAX_VALUE, result.funded));
+            result.allocatedResources = totalResources - remaining;
+            result.remainingResources = remaining;
+
+            // Each shard recomputes its funded demand from its prefix sums
+            long reported = 0;
+            for (ShardClient client : clients) {
+                result.fetched += client.pageLength - client.cursor;
+                reported += client.sendCut();
+            }
+            if (reported != result.allocatedResources) {
+                throw new IOException("Workers report " + reported + " resources funded, expected "
+                        + result.allocatedResources);
+            }
+
+            if (shutdownWorkers) {
+                for (ShardClient client : clients) {
+                    client.shutdown();
+                }
+            }
+            return result;
+        } finally {
+            for (ShardClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * Checks a sharded result against a single-process allocation of the same file
+     *
+     * @param funded Funded rows from the sharded run, in priority order, as row/allocated pairs
+     * @return Null if they match, otherwise a description of the first difference
+     */
+    static String verify(Path districtFile, int totalResources, List<int[]> funded) throws IOException {
+        List<District> districts = DistrictImporter.readDistricts(districtFile);
+        Map<District, Integer> rows = new IdentityHashMap<>();
+        for (int i = 0; i < districts.size(); i++) {
+            rows.put(districts.get(i), i);
+        }
+        AllocationPlan plan = AllocationEngine.allocate(districts, totalResources);
+        List<AllocationResult> expected = plan.getAllocationResults();
+        if (expected.size() != funded.size()) {
+            return "single process funded " + expected.size() + " districts, sharded " + funded.size();
+        }
+        for (int k = 0; k < expected.size(); k++) {
+            AllocationResult e = expected.get(k);
+            int row = rows.get(e.getDistrict());
+            if (row != funded.get(k)[0] || e.getAllocatedResources() != funded.get(k)[1]) {
+                return "rank " + k + ": single process row " + row + " = " + e.getAllocatedResources()
+                        + ", sharded row " + funded.get(k)[0] + " = " + funded.get(k)[1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts one worker JVM per shard on loopback and waits until each is listening
+     *
+     * @return Worker addresses as host:port
+     */
+    private static List<String> startLocalWorkers(Path districtFile, int shards, List<Process> processes)
+            throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        for (int shard = 0; shard < shards; shard++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    "ShardedAllocation", "worker", "--districts", districtFile.toString(),
+                    "--shard", Integer.toString(shard), "--shards", Integer.toString(shards));
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            processes.add(builder.start());
+        }
+        List<String> addresses = new ArrayList<>();
+        for (Process process : processes) {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            if (line == null || !line.startsWith(READY_PREFIX)) {
+                throw new IOException("Worker failed to start");
+            }
+            addresses.add(InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                    + line.substring(READY_PREFIX.length()).trim());
+        }
+        return addresses;
+    }
+
+    /**
+     * Loads one shard and serves it until a coordinator requests a shutdown
+     *
+     * @param bindHost Address to listen on, or null for loopback only
+     */
+    private static void runWorker(Path districtFile, int shard, int shards, String bindHost, int port)
+            throws IOException {
+        long start = System.nanoTime();
+        ShardRun run = ShardRun.load(districtFile, shard, shards);
+        String label = "Shard " + shard + "/" + shards;
+        System.err.printf("%s: ranked %d districts in %.1f ms%n", label, run.size(), (System.nanoTime() - start) / 1e6);
+        try (ServerSocket server = new ServerSocket()) {
+            InetAddress address = bindHost == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindHost);
+            server.bind(new InetSocketAddress(address, port));
+            System.out.println(READY_PREFIX + server.getLocalPort());
+            System.out.flush();
+            serve(run, server, label);
+        }
+    }
+
+    /**
+     * Entry point for the worker, coordinator and all-local modes
+     *
+     * @param args worker|coordinate|local followed by that mode's options
+     */
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "";
+        Path districtsFile = null;
+        Path outFile = null;
+        List<String> workers = new ArrayList<>();
+        int shard = -1;
+        int shards = -1;
+        int port = 0;
+        String bindHost = null;
+        int totalResources = -1;
+        boolean verify = false;
+
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--districts":
+                        districtsFile = Paths.get(args[++i]);
+                        break;
+                    case "--shard":
+                        shard = Integer.parseInt(args[++i]);
+                        break;
+                    case "--shards":
+                        shards = Integer.parseInt(args[++i]);
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--bind":
+                        bindHost = args[++i];
+                        break;
+                    case "--workers":
+                        workers.addAll(Arrays.asList(args[++i].split(",")));
+                        break;
+                    case "--resources":
+                        totalResources = Integer.parseInt(args[++i]);
+                        break;
+                    case "--out":
+                        outFile = Paths.get(args[++i]);
+                        break;
+                    case "--verify":
+                        verify = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            switch (mode) {
+                case "worker":
+                    if (districtsFile == null || shards <= 0 || shard < 0 || shard >= shards) {
+                        throw new IllegalArgumentException("--districts, --shard and --shards are required");
+                    }
+                    break;
+                case "coordinate":
+                    if (workers.isEmpty() || totalResources < 0 || (verify && districtsFile == null)) {
+                        throw new IllegalArgumentException("--workers and --resources are required"
+                                + " (and --districts with --verify)");
+                    }
+                    break;
+                case "local":
+                    if (districtsFile == null || shards <= 0 || totalResources < 0) {
+                        throw new IllegalArgumentException("--districts, --shards and --resources are required");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java ShardedAllocation worker --districts <file> --shard <i> --shards <n>"
+                    + " [--port <n>] [--bind <host>]");
+            System.err.println("       java ShardedAllocation coordinate --workers <host:port,...> --resources <n>"
+                    + " [--out <file>] [--verify --districts <file>]");
+            System.err.println("       java ShardedAllocation local --districts <file> --shards <n> --resources <n>"
+                    + " [--out <file>] [--verify]");
+            System.exit(2);
+            return;
+        }
+
+        if (mode.equals("worker")) {
+            try {
+                runWorker(districtsFile, shard, shards, bindHost, port);
+            } catch (IOException | IllegalArgumentException | UncheckedIOException e) {
+                System.err.println("Error: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
+        List<Process> processes = new ArrayList<>();
+        long start = System.nanoTime();
+        try (Writer out = outFile != null
+                    ? Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)
+                    : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+            if (mode.equals("local")) {
+                workers = startLocalWorkers(districtsFile, shards, processes);
+                System.err.printf("Started %d workers in %.1f ms%n", shards, (System.nanoTime() - start) / 1e6);
+            }
+
+            long allocationStart = System.nanoTime();
+            // Only kept when the result is to be checked afterwards
+            List<int[]> funded = verify ? new ArrayList<>() : null;
+            out.write("row,district,riskScore,resourceDemand,allocated,status\n");
+            Result result = allocate(workers, totalResources, mode.equals("local"),
+                    (row, name, risk, demand, allocated) -> {
+                        out.write(Integer.toString(row));
+                        out.write(',');
+                        out.write(BatchAllocationCli.csv(name));
+                        out.write(',' + Integer.toString(risk) + ',' + demand + ',' + allocated + ',');
+                        out.write(allocated < demand ? "Partial" : "Full");
+                        out.write('\n');
+                        if (funded != null) {
+                            funded.add(new int[] {row, allocated});
+                        }
+                    });
+            out.flush();
+            System.err.printf("Allocated %d of %d resources to %d of %d districts (%d partial) "
+                    + "across %d shards, fetching %d districts, in %.1f ms%n",
+                    result.getAllocatedResources(), totalResources, result.getFunded(), result.getDistricts(),
+                    result.getPartial(), workers.size(), result.getFetched(),
+                    (System.nanoTime() - allocationStart) / 1e6);
+
+            if (verify) {
+                String difference = verify(districtsFile, totalResources, funded);
+                if (difference != null) {
+                    System.err.println("Verification failed: " + difference);
+                    System.exit(1);
+                }
+                System.err.println("Verified against single-process allocation");
+            }
+        } catch (IOException | IllegalArgumentException | UncheckedIOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Changes applied during one tick of an incident simulation: population and
+ * demand deltas for a subset of districts, and resources arriving in the pool.
+ */
+public class SimulationStep {
+    private final int[] districtIndices;
+    private final int[] populationDeltas;
+    private final int[] demandDeltas;
+    private final int replenishment;
+
+    /**
+     * Constructor for SimulationStep
+     *
+     * @param districtIndices Indexes (into the simulated district list) of changed districts
+     * @param populationDeltas Population change for each listed district
+     * @param demandDeltas Resource demand change for each listed district
+     * @param replenishment Resources added to the pool this tick
+     */
+    public SimulationStep(int[] districtIndices, int[] populationDeltas, int[] demandDeltas, int replenishment) {
+        if (populationDeltas.length != districtIndices.length || demandDeltas.length != districtIndices.length) {
+            throw new IllegalArgumentException("Delta arrays must match the number of district indices");
+        }
+        this.districtIndices = districtIndices;
+        this.populationDeltas = populationDeltas;
+        this.demandDeltas = demandDeltas;
+        this.replenishment = replenishment;
+    }
+
+    /**
+     * Creates a step that only adds resources to the pool
+     */
+    public static SimulationStep replenishOnly(int replenishment) {
+        return new SimulationStep(new int[0], new int[0], new int[0], replenishment);
+    }
+
+    public int size() {
+        return districtIndices.length;
+    }
+
+    public int getDistrictIndex(int i) {
+        return districtIndices[i];
+    }
+
+    public int getPopulationDelta(int i) {
+        return populationDeltas[i];
+    }
+
+    public int getDemandDelta(int i) {
+        return demandDeltas[i];
+    }
+
+    public int getReplenishment() {
+        return replenishment;
+    }
+}
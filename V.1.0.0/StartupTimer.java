@@ -0,0 +1,53 @@
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Records named startup phases so time to the first interactive frame can be
+ * measured. The report is printed when the {@code startup.report} system
+ * property is set.
+ */
+public class StartupTimer {
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static final List<String> PHASES = new ArrayList<>();
+    private static final List<Long> TIMES = new ArrayList<>();
+
+    /**
+     * Records that a startup phase has completed
+     */
+    public static synchronized void mark(String phase) {
+        PHASES.add(phase);
+        TIMES.add(System.nanoTime());
+    }
+
+    public static boolean isReportEnabled() {
+        return Boolean.getBoolean("startup.report");
+    }
+
+    /**
+     * Prints each phase with its time since the previous phase and since main() started
+     */
+    public static synchronized void report(PrintStream out) {
+        // Time spent by the JVM before main(), if the platform reports a start instant
+        Optional<Instant> processStart = ProcessHandle.current().info().startInstant();
+        long jvmStartupMillis = processStart
+                .map(start -> Duration.between(start, Instant.now()).toMillis()
+                        - (System.nanoTime() - ORIGIN_NANOS) / 1_000_000)
+                .orElse(-1L);
+
+        out.println("Startup timing:");
+        if (jvmStartupMillis >= 0) {
+            out.printf("  %-32s %8d ms%n", "JVM start to main()", jvmStartupMillis);
+        }
+        long previous = ORIGIN_NANOS;
+        for (int i = 0; i < PHASES.size(); i++) {
+            long time = TIMES.get(i);
+            out.printf("  %-32s %8.1f ms  (+%.1f ms)%n", PHASES.get(i),
+                    (time - ORIGIN_NANOS) / 1e6, (time - previous) / 1e6);
+            previous = time;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.Arrays;
+
+/**
+ * Weighted water-filling over primitive arrays.
+ *
+ * Finds the level λ at which giving every district min(cap, λ · weight)
+ * exactly spends the budget. The sorted breakpoints cap/weight are searched
+ * with a binary search of linear passes, so the whole fill is O(n log n).
+ */
+public class WaterFilling {
+    /**
+     * Fills allocations up to each cap in proportion to the weights
+     *
+     * @param caps Maximum allocation of each district
+     * @param weights Relative rate at which each district fills (0 = never filled)
+     * @param budget Resources to distribute
+     * @param allocation Output array, overwritten with the allocations
+     * @return Total resources allocated
+     */
+    public static long fill(int[] caps, int[] weights, long budget, int[] allocation) {
+        int n = caps.length;
+        Arrays.fill(allocation, 0);
+
+        long totalCap = 0;
+        int active = 0;
+        for (int i = 0; i < n; i++) {
+            if (weights[i] > 0 && caps[i] > 0) {
+                totalCap += caps[i];
+                active++;
+            }
+        }
+
+        // Everyone can be fully funded
+        if (budget >= totalCap) {
+            for (int i = 0; i < n; i++) {
+                if (weights[i] > 0) {
+                    allocation[i] = Math.max(0, caps[i]);
+                }
+            }
+            return totalCap;
+        }
+        if (budget <= 0) {
+            return 0;
+        }
+
+        // Level at which each district saturates
+        double[] breakpoints = new double[active];
+        int b = 0;
+        for (int i = 0; i < n; i++) {
+            if (weights[i] > 0 && caps[i] > 0) {
+                breakpoints[b++] = (double) caps[i] / weights[i];
+            }
+        }
+        Arrays.sort(breakpoints);
+
+        // Largest breakpoint whose fill does not exceed the budget
+        int lo = 0;
+        int hi = active - 1;
+        int saturatedBound = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (fillAt(caps, weights, breakpoints[mid]) <= budget) {
+                saturatedBound = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        double bound = saturatedBound >= 0 ? breakpoints[saturatedBound] : Double.NEGATIVE_INFINITY;
+
+        // Between breakpoints the fill is linear in the level
+        long saturatedSum = 0;
+        long openWeight = 0;
+        for (int i = 0; i < n; i++) {
+            if (weights[i] > 0 && caps[i] > 0) {
+                if ((double) caps[i] / weights[i] <= bound) {
+                    saturatedSum += caps[i];
+                } else {
+                    openWeight += weights[i];
+                }
+            }
+        }
+        double level = openWeight > 0 ? (double) (budget - saturatedSum) / openWeight : 0.0;
+
+        long allocated = 0;
+        for (int i = 0; i < n; i++) {
+            if (weights[i] > 0 && caps[i] > 0) {
+                if ((double) caps[i] / weights[i] <= bound) {
+                    allocation[i] = caps[i];
+                } else {
+                    allocation[i] = (int) Math.min(caps[i], Math.floor(level * weights[i]));
+                }
+                allocated += allocation[i];
+            }
+        }
+
+        // Guard against floating-point overshoot
+        for (int i = n - 1; i >= 0 && allocated > budget; i--) {
+            int excess = (int) Math.min(allocation[i], allocated - budget);
+            allocation[i] -= excess;
+            allocated -= excess;
+        }
+
+        // Hand out the units lost to rounding, one each in priority order
+        for (int i = 0; i < n && allocated < budget; i++) {
+            if (weights[i] > 0 && allocation[i] < caps[i]) {
+                allocation[i]++;
+                allocated++;
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Total allocated when every district is filled to the given level
+     */
+    private static double fillAt(int[] caps, int[] weights, double level) {
+        double sum = 0;
+        for (int i = 0; i < caps.length; i++) {
+            if (weights[i] > 0 && caps[i] > 0) {
+                sum += Math.min(caps[i], level * weights[i]);
+            }
+        }
+        return sum;
+    }
+}
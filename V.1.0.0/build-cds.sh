@@ -0,0 +1,14 @@
+#!/bin/sh
+# Compiles the application and records an AppCDS archive from a scripted
+# training session, so later launches can map the pre-parsed classes instead
+# of loading and verifying them again. Needs a display for the training run.
+set -e
+cd "$(dirname "$0")"
+
+mkdir -p build/classes
+javac -encoding UTF-8 -d build/classes *.java
+java -XX:ArchiveClassesAtExit=build/app-cds.jsa -cp build/classes ResourceAllocationApp --cds-training
+
+echo "Archive written to build/app-cds.jsa. Launch with:"
+echo "  java -XX:SharedArchiveFile=build/app-cds.jsa -Xshare:auto -cp build/classes ResourceAllocationApp"
+echo "Add -Dstartup.report=true to print startup timing."
@@ -0,0 +1,15 @@
+#!/bin/sh
+# Compiles the application together with the tests and runs every test
+# class. Tests are plain classes whose main method throws on the first
+# failed check, so the script stops at the first failing test.
+set -e
+cd "$(dirname "$0")"
+
+mkdir -p build/test-classes
+javac -encoding UTF-8 -d build/test-classes *.java tests/*.java
+for test in tests/*Test.java; do
+    name=$(basename "$test" .java)
+    echo "Running $name"
+    java -ea -cp build/test-classes "$name"
+done
+echo "All tests passed."
@@ -0,0 +1,55 @@
+import java.util.List;
+
+/**
+ * Checks hits, LRU eviction and invalidation in {@link AllocationCache}.
+ */
+public class AllocationCacheTest {
+
+    public static void main(String[] args) {
+        PersistentVector<District> original = PersistentVector.of(List.of(
+                new District("Harbor", 90_000, "Coastal", "Urban", 40),
+                new District("Ridge", 5_000, "Forest", "Rural", 20)));
+        AllocationPolicy greedy = AllocationEngine.DEFAULT_POLICY;
+        AllocationPlan plan = AllocationEngine.allocate(original, 50, greedy);
+
+        AllocationCache cache = new AllocationCache(2, Long.MAX_VALUE);
+        cache.put(original, 50, plan);
+        TestChecks.check(cache.get(original, 50, greedy.getName()) == plan, "hit on the same snapshot");
+        TestChecks.check(cache.get(original, 60, greedy.getName()) == null, "miss on another budget");
+        TestChecks.check(cache.get(original, 50, "Proportional") == null, "miss on another policy");
+
+        // An edit is a new snapshot; undoing it restores the old one and its plans
+        EditHistory<PersistentVector<District>> history = new EditHistory<>(EditHistory.DEFAULT_LIMIT);
+        history.record(original);
+        PersistentVector<District> edited = original.plus(new District("Mesa", 20_000, "Desert", "Rural", 10));
+        TestChecks.check(cache.get(edited, 50, greedy.getName()) == null, "miss after an edit");
+        AllocationPlan editedPlan = AllocationEngine.allocate(edited, 50, greedy);
+        cache.put(edited, 50, editedPlan);
+        PersistentVector<District> undone = history.undo(edited);
+        TestChecks.check(cache.get(undone, 50, greedy.getName()) == plan, "hit after undo");
+        PersistentVector<District> redone = history.redo(undone);
+        TestChecks.check(cache.get(redone, 50, greedy.getName()) == editedPlan, "hit after redo");
+
+        // The redo lookup used the edited plan last, so the original plan is the least recently used
+        AllocationPlan thirdPlan = AllocationEngine.allocate(original, 70, greedy);
+        cache.put(original, 70, thirdPlan);
+        TestChecks.checkEquals(2, cache.size(), "entry limit");
+        TestChecks.check(cache.get(original, 50, greedy.getName()) == null, "least recently used plan evicted");
+        TestChecks.check(cache.get(edited, 50, greedy.getName()) == editedPlan, "recently used plan kept");
+        TestChecks.check(cache.get(original, 70, greedy.getName()) == thirdPlan, "new plan kept");
+
+        // A byte limit below two plans keeps only the newest one
+        AllocationCache small = new AllocationCache(10, 300);
+        small.put(original, 50, plan);
+        small.put(edited, 50, editedPlan);
+        TestChecks.checkEquals(1, small.size(), "byte limit");
+        TestChecks.check(small.getEstimatedBytes() <= 300, "estimated bytes within the limit");
+        TestChecks.check(small.get(edited, 50, greedy.getName()) == editedPlan, "newest plan kept");
+
+        cache.clear();
+        TestChecks.checkEquals(0, cache.size(), "cleared");
+        TestChecks.checkEquals(0, cache.getEstimatedBytes(), "cleared bytes");
+        TestChecks.check(cache.get(edited, 50, greedy.getName()) == null, "miss after clear");
+        System.out.println("AllocationCacheTest passed");
+    }
+}
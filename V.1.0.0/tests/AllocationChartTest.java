@@ -0,0 +1,103 @@
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+
+/**
+ * Renders a small batch of scenarios headlessly with
+ * {@link AllocationChart#renderScenarios}, at two sizes, and checks that
+ * every PNG has the right name and size and the same pixels as a chart of
+ * the scenario's plan drawn directly.
+ */
+public class AllocationChartTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        Random random = new Random(48L);
+        List<District> districts = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            districts.add(new District("D" + i, 1 + random.nextInt(150_000),
+                    LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                    URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], 1 + random.nextInt(100)));
+        }
+        DistrictTable table = DistrictTable.fromDistricts(districts);
+        AllocationPolicy[] policies = AllocationEngine.getBuiltInPolicies();
+        // Three weight signatures, interleaved so groups do not follow scenario order
+        List<Scenario> scenarios = List.of(
+                new Scenario("Base case", 800, policies[0], 1, 1, 1),
+                new Scenario("Flood/coast", 1_500, policies[1], 1, 3, 1),
+                new Scenario("Base, tight", 200, policies[2], 1, 1, 1),
+                new Scenario("Dense cities", 1_000, policies[0], 2, 1, 3),
+                new Scenario("Flood tight", 300, policies[0], 1, 3, 1));
+
+        Path outDir = Files.createTempDirectory("allocation-chart-test");
+        try {
+            for (int[] size : new int[][] {{320, 240}, {400, 300}}) {
+                List<Path> files = AllocationChart.renderScenarios(table, scenarios, outDir, size[0], size[1], 2);
+                TestChecks.checkEquals(List.of("001-Base_case.png", "002-Flood_coast.png", "003-Base_tight.png",
+                        "004-Dense_cities.png", "005-Flood_tight.png"), fileNames(files), "files in scenario order");
+                for (int s = 0; s < scenarios.size(); s++) {
+                    BufferedImage image = ImageIO.read(files.get(s).toFile());
+                    String label = files.get(s).getFileName() + " at " + size[0] + "x" + size[1];
+                    TestChecks.check(image != null, label + " is a PNG");
+                    TestChecks.checkEquals(size[0], image.getWidth(), label + " width");
+                    TestChecks.checkEquals(size[1], image.getHeight(), label + " height");
+                    BufferedImage expected = AllocationChart.render(plan(table, districts, scenarios.get(s)),
+                            size[0], size[1]);
+                    TestChecks.check(samePixels(expected, image), label + " matches a direct render");
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(outDir)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(outDir);
+        }
+        System.out.println("AllocationChartTest passed");
+    }
+
+    /**
+     * Allocates the scenario over copies of the districts rescored with its weights, in the same order
+     */
+    private static AllocationPlan plan(DistrictTable table, List<District> districts, Scenario scenario) {
+        int[] riskScore = table.computeRiskScores(scenario.getWeightPopulation(), scenario.getWeightLandType(),
+                scenario.getWeightUrbanization());
+        List<District> scored = new ArrayList<>();
+        for (int i = 0; i < districts.size(); i++) {
+            District district = districts.get(i);
+            District copy = new District(district, district.getPopulation(), district.getLandType(),
+                    district.getUrbanization(), district.getResourceDemand());
+            copy.setRiskScore(riskScore[i]);
+            scored.add(copy);
+        }
+        return AllocationEngine.allocate(scored, scenario.getTotalResources(), scenario.getPolicy());
+    }
+
+    private static List<String> fileNames(List<Path> files) {
+        List<String> names = new ArrayList<>();
+        for (Path file : files) {
+            names.add(file.getFileName().toString());
+        }
+        return names;
+    }
+
+    private static boolean samePixels(BufferedImage a, BufferedImage b) {
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                if ((a.getRGB(x, y) & 0xFFFFFF) != (b.getRGB(x, y) & 0xFFFFFF)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
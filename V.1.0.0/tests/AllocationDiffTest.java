@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares {@link AllocationDiff} with a map-based reference on random pairs
+ * of plans over overlapping district sets, including districts whose IDs
+ * are far apart and districts updated between the plans.
+ */
+public class AllocationDiffTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+
+    public static void main(String[] args) {
+        Random random = new Random(28L);
+        AllocationPolicy[] policies = AllocationEngine.getBuiltInPolicies();
+        for (int trial = 0; trial < 300; trial++) {
+            List<District> pool = new ArrayList<>();
+            int size = random.nextInt(trial < 10 ? 3 : 300);
+            for (int i = 0; i < size; i++) {
+                pool.add(randomDistrict(random));
+                if (trial % 3 == 0 && random.nextInt(50) == 0) {
+                    // Spread the IDs out so the diff cannot rely on a dense range
+                    for (int skip = random.nextInt(20_000); skip > 0; skip--) {
+                        randomDistrict(random);
+                    }
+                }
+            }
+            AllocationPlan baseline = randomPlan(random, pool, policies);
+            AllocationPlan current = randomPlan(random, revise(random, pool), policies);
+            check(baseline, current, "trial " + trial);
+            check(current, current, "trial " + trial + " against itself");
+        }
+        System.out.println("AllocationDiffTest passed");
+    }
+
+    private static District randomDistrict(Random random) {
+        return new District("D" + random.nextInt(1000), 1 + random.nextInt(150_000),
+                LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], 1 + random.nextInt(200));
+    }
+
+    /**
+     * Replaces some districts with a new version that keeps the ID but has a different demand
+     */
+    private static List<District> revise(Random random, List<District> pool) {
+        List<District> revised = new ArrayList<>(pool.size());
+        for (District district : pool) {
+            revised.add(random.nextInt(5) != 0 ? district : new District(district, district.getPopulation(),
+                    district.getLandType(), district.getUrbanization(), 1 + random.nextInt(200)));
+        }
+        return revised;
+    }
+
+    /**
+     * Allocates to a random subset of the pool with a random policy and budget
+     */
+    private static AllocationPlan randomPlan(Random random, List<District> pool, AllocationPolicy[] policies) {
+        List<District> subset = new ArrayList<>();
+        long demand = 0;
+        for (District district : pool) {
+            if (random.nextInt(4) != 0) {
+                subset.add(district);
+                demand += district.getResourceDemand();
+            }
+        }
+        int budget = (int) (random.nextDouble() * 1.1 * demand);
+        return AllocationEngine.allocate(subset, budget, policies[random.nextInt(policies.length)]);
+    }
+
+    private static void check(AllocationPlan baseline, AllocationPlan current, String label) {
+        Map<Integer, AllocationResult> baselineResults = resultsById(baseline);
+        Map<Integer, AllocationResult> currentResults = resultsById(current);
+        Map<Integer, District> inBaseline = new HashMap<>();
+        for (District district : baseline.getSortedDistricts()) {
+            inBaseline.put(district.getId(), district);
+        }
+        Map<Integer, District> inCurrent = new HashMap<>();
+        for (District district : current.getSortedDistricts()) {
+            inCurrent.put(district.getId(), district);
+        }
+
+        // Expected deltas: changed districts in current priority order, then removed ones
+        List<String> expected = new ArrayList<>();
+        int unchanged = 0;
+        for (District district : current.getSortedDistricts()) {
+            AllocationResult now = currentResults.get(district.getId());
+            if (!inBaseline.containsKey(district.getId())) {
+                expected.add(describe(district, AllocationDiff.ChangeType.ADDED, 0, allocated(now), "-", status(now)));
+                continue;
+            }
+            AllocationResult before = baselineResults.get(district.getId());
+            int delta = allocated(now) - allocated(before);
+            District previous = inBaseline.get(district.getId());
+            boolean detailsChanged = previous.getRiskScore() != district.getRiskScore()
+                    || previous.getResourceDemand() != district.getResourceDemand()
+                    || previous.getPopulation() != district.getPopulation();
+            AllocationDiff.ChangeType type = delta > 0 ? AllocationDiff.ChangeType.INCREASED
+                    : delta < 0 ? AllocationDiff.ChangeType.DECREASED
+                    : !status(before).equals(status(now)) ? AllocationDiff.ChangeType.STATUS
+                    : detailsChanged ? AllocationDiff.ChangeType.CHANGED : null;
+            if (type == null) {
+                unchanged++;
+            } else {
+                expected.add(describe(district, type, allocated(before), allocated(now), status(before), status(now)));
+            }
+        }
+        for (District district : baseline.getSortedDistricts()) {
+            if (!inCurrent.containsKey(district.getId())) {
+                AllocationResult before = baselineResults.get(district.getId());
+                expected.add(describe(district, AllocationDiff.ChangeType.REMOVED, allocated(before), 0,
+                        status(before), "-"));
+            }
+        }
+
+        AllocationDiff diff = AllocationDiff.compare(baseline, current);
+        List<String> actual = new ArrayList<>();
+        for (AllocationDiff.AllocationDelta delta : diff.getDeltas()) {
+            TestChecks.checkEquals(delta.getCurrentAllocated() - delta.getBaselineAllocated(), delta.getDelta(),
+                    label + " delta of " + delta.getDistrict().getName());
+            actual.add(describe(delta.getDistrict(), delta.getChangeType(), delta.getBaselineAllocated(),
+                    delta.getCurrentAllocated(), delta.getBaselineStatus(), delta.getCurrentStatus()));
+        }
+        TestChecks.checkEquals(expected, actual, label + " deltas");
+        TestChecks.checkEquals(unchanged, diff.getUnchangedCount(), label + " unchanged count");
+        TestChecks.checkEquals(baseline.getAllocatedResources(), diff.getBaselineAllocated(),
+                label + " baseline total");
+        TestChecks.checkEquals(current.getAllocatedResources(), diff.getCurrentAllocated(), label + " current total");
+    }
+
+    private static Map<Integer, AllocationResult> resultsById(AllocationPlan plan) {
+        Map<Integer, AllocationResult> results = new HashMap<>();
+        for (AllocationResult result : plan.getAllocationResults()) {
+            results.put(result.getDistrict().getId(), result);
+        }
+        return results;
+    }
+
+    private static int allocated(AllocationResult result) {
+        return result == null ? 0 : result.getAllocatedResources();
+    }
+
+    private static String status(AllocationResult result) {
+        if (result != null && result.isPartial) {
+            return "Partial";
+        }
+        return allocated(result) > 0 ? "Full" : "Unfunded";
+    }
+
+    private static String describe(District district, AllocationDiff.ChangeType type, int baselineAllocated,
+            int currentAllocated, String baselineStatus, String currentStatus) {
+        return district.getId() + " " + type + " " + baselineAllocated + "->" + currentAllocated
+                + " " + baselineStatus + "->" + currentStatus;
+    }
+}
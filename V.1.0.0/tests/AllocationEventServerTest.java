@@ -0,0 +1,120 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams plans through {@link AllocationEventServer} and checks that a
+ * district updated without a change to its allocation still reaches the
+ * client in the next delta, and that posted districts and budgets reach
+ * their handlers.
+ */
+public class AllocationEventServerTest {
+
+    public static void main(String[] args) throws IOException {
+        District harbor = new District("Harbor", 200_000, "Urban", "Urban", 10);
+        District ridge = new District("Ridge", 5_000, "Forest", "Rural", 50);
+        District ridgeUpdated = new District(ridge, 5_000, "Forest", "Rural", 60);
+
+        // Harbor takes the whole budget in both plans, so only Ridge's demand differs
+        AllocationPlan before = AllocationEngine.allocate(List.of(harbor, ridge), 10);
+        AllocationPlan after = AllocationEngine.allocate(List.of(harbor, ridgeUpdated), 10);
+        TestChecks.checkEquals(0, before.getRemainingResources(), "budget used before");
+        TestChecks.checkEquals(1, after.getAllocationResults().size(), "Ridge stays unfunded");
+
+        AllocationEventServer server = new AllocationEventServer(0);
+        server.start();
+        HttpURLConnection connection = null;
+        try {
+            server.publish(before);
+            URL url = new URL("http://127.0.0.1:" + server.getPort() + AllocationEventServer.STREAM_PATH);
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setReadTimeout(10_000);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+
+            List<String> snapshot = readEvent(reader);
+            TestChecks.checkEquals("event: snapshot", snapshot.get(0), "first event");
+
+            server.publish(after);
+            List<String> delta = readEvent(reader);
+            TestChecks.checkEquals("event: delta", delta.get(0), "second event");
+            String data = delta.get(2);
+            TestChecks.check(data.contains("{\"id\":" + ridge.getId() + ",\"name\":\"Ridge\",\"change\":\"CHANGED\""),
+                    "updated district streamed: " + data);
+            TestChecks.check(data.contains("\"resourceDemand\":60"), "new demand streamed: " + data);
+            TestChecks.check(!data.contains("\"id\":" + harbor.getId() + ","), "unchanged district left out: " + data);
+
+            String line = "Delta,1200,Coastal,Rural,7";
+            String districts = AllocationEventServer.DISTRICTS_PATH;
+            TestChecks.checkEquals(404, post(server, districts, "text/csv", line), "post without a handler");
+            List<String> received = new ArrayList<>();
+            server.setDistrictHandler(posted -> {
+                DistrictPipeline.parseDistrict(posted);
+                received.add(posted);
+            });
+            TestChecks.checkEquals(202, post(server, districts, "text/csv", line), "post accepted");
+            TestChecks.checkEquals(List.of(line), received, "posted district");
+            TestChecks.checkEquals(415, post(server, districts, "text/plain", line),
+                    "simple cross-origin content type");
+            TestChecks.checkEquals(400, post(server, districts, "text/csv", "Delta,many,Coastal,Rural,7"),
+                    "invalid district");
+            TestChecks.checkEquals(1, received.size(), "rejected districts not passed on");
+
+            String budget = AllocationEventServer.BUDGET_PATH;
+            TestChecks.checkEquals(404, post(server, budget, "text/csv", "500"), "budget without a handler");
+            List<Integer> budgets = new ArrayList<>();
+            server.setBudgetHandler(budgets::add);
+            TestChecks.checkEquals(202, post(server, budget, "text/csv", " 500\n"), "budget accepted");
+            TestChecks.checkEquals(415, post(server, budget, "text/plain", "600"),
+                    "budget as a simple cross-origin content type");
+            for (String invalid : new String[] {"0", "-5", "lots", "12.5", "99999999999", "1\n2"}) {
+                TestChecks.checkEquals(400, post(server, budget, "text/csv", invalid), "invalid budget " + invalid);
+            }
+            TestChecks.checkEquals(List.of(500), budgets, "posted budgets");
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            server.stop();
+        }
+        System.out.println("AllocationEventServerTest passed");
+    }
+
+    private static int post(AllocationEventServer server, String path, String contentType, String body)
+            throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", contentType);
+            connection.setDoOutput(true);
+            connection.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Reads the lines of the next event, skipping heartbeat comments
+     */
+    private static List<String> readEvent(BufferedReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (!lines.isEmpty()) {
+                    return lines;
+                }
+            } else if (!line.startsWith(":")) {
+                lines.add(line);
+            }
+        }
+        throw new IOException("Stream ended before an event");
+    }
+}
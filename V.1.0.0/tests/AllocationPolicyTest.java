@@ -0,0 +1,45 @@
+import java.util.Arrays;
+
+/**
+ * Checks each built-in {@link AllocationPolicy} against allocations worked
+ * out by hand. Inputs are already in priority order.
+ */
+public class AllocationPolicyTest {
+
+    public static void main(String[] args) {
+        AllocationPolicy greedy = new GreedyPolicy();
+        check(greedy, new int[] {9, 9, 9}, new int[] {40, 20, 8}, 50, new int[] {40, 10, 0}, 0);
+
+        // Weights 20:10:10 reach a level of 2.5 once the third district is capped at 5
+        AllocationPolicy proportional = new ProportionalRiskPolicy();
+        check(proportional, new int[] {20, 10, 10}, new int[] {100, 100, 5}, 80, new int[] {50, 25, 5}, 0);
+        check(proportional, new int[] {20, 10, 10}, new int[] {100, 100, 5}, 300, new int[] {100, 100, 5}, 95);
+        // 10 / 3 rounds down to 3 each; the unit left over goes to the first district
+        check(proportional, new int[] {7, 7, 7}, new int[] {10, 10, 10}, 10, new int[] {4, 3, 3}, 0);
+
+        // The capped district's share is split evenly between the others
+        AllocationPolicy maxMin = new MaxMinFairPolicy();
+        check(maxMin, new int[] {20, 10, 10}, new int[] {2, 10, 10}, 14, new int[] {2, 6, 6}, 0);
+        check(maxMin, new int[] {20, 10, 10}, new int[] {2, 10, 10}, 40, new int[] {2, 10, 10}, 18);
+
+        // Guarantees of 10, 5 and 2 are covered, then the rest goes to the first district
+        AllocationPolicy guarantee = new MinimumGuaranteePolicy(0.25);
+        check(guarantee, new int[] {9, 9, 9}, new int[] {40, 20, 8}, 30, new int[] {23, 5, 2}, 0);
+        // Guarantees of 17 exceed a budget of 9, so they are shared max-min fairly
+        check(guarantee, new int[] {9, 9, 9}, new int[] {40, 20, 8}, 9, new int[] {4, 3, 2}, 0);
+        check(guarantee, new int[] {9, 9, 9}, new int[] {40, 20, 8}, 100, new int[] {40, 20, 8}, 32);
+
+        TestChecks.checkThrows(IllegalArgumentException.class, () -> new MinimumGuaranteePolicy(1.5),
+                "guaranteed fraction above 1");
+        System.out.println("AllocationPolicyTest passed");
+    }
+
+    private static void check(AllocationPolicy policy, int[] riskScore, int[] demand, int budget,
+            int[] expected, int expectedRemaining) {
+        String label = policy.getName() + " with budget " + budget;
+        int[] allocation = new int[demand.length];
+        int remaining = policy.allocate(riskScore, demand, budget, allocation);
+        TestChecks.checkEquals(Arrays.toString(expected), Arrays.toString(allocation), label);
+        TestChecks.checkEquals(expectedRemaining, remaining, label + " remaining");
+    }
+}
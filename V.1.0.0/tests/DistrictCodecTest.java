@@ -0,0 +1,240 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Round-trips random districts and plans through {@link DistrictCodec}, with
+ * small buffers so records straddle refills, and checks that malformed
+ * streams are rejected with IOException.
+ */
+public class DistrictCodecTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(32L);
+        for (int trial = 0; trial < 50; trial++) {
+            List<District> districts = randomDistricts(random, random.nextInt(trial < 5 ? 3 : 2000));
+            int bufferSize = trial % 2 == 0 ? 64 : 4096;
+            checkDistrictRoundTrip(districts, bufferSize, "trial " + trial);
+            checkPlanRoundTrip(random, districts, bufferSize, "trial " + trial);
+        }
+        checkStringTableLimit();
+        checkRejectedRecords();
+        checkMalformed();
+        System.out.println("DistrictCodecTest passed");
+    }
+
+    private static List<District> randomDistricts(Random random, int count) {
+        List<District> districts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Repeated names exercise back-references
+            String name = random.nextInt(3) == 0 ? "District " + random.nextInt(20)
+                    : "Zone-" + i + (random.nextInt(10) == 0 ? " é中" : "");
+            int population = random.nextInt(4) == 0 ? 1 + random.nextInt(Integer.MAX_VALUE) : 1 + random.nextInt(200_000);
+            districts.add(new District(name, population, LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                    URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], 1 + random.nextInt(1000)));
+        }
+        return districts;
+    }
+
+    private static void checkDistrictRoundTrip(List<District> districts, int bufferSize, String label)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DistrictCodec.Encoder encoder = new DistrictCodec.Encoder(Channels.newChannel(bytes),
+                DistrictCodec.KIND_DISTRICTS, ByteBuffer.allocate(bufferSize))) {
+            for (District district : districts) {
+                encoder.writeDistrict(district);
+            }
+        }
+        DistrictCodec.Decoder decoder = decoder(bytes.toByteArray(), bufferSize);
+        TestChecks.checkEquals((long) DistrictCodec.KIND_DISTRICTS, decoder.getKind(), label + " kind");
+        List<District> decoded = decoder.readDistrictList();
+        TestChecks.checkEquals(districts.size(), decoded.size(), label + " district count");
+        for (int i = 0; i < districts.size(); i++) {
+            District expected = districts.get(i);
+            District actual = decoded.get(i);
+            String row = label + " district " + i;
+            TestChecks.checkEquals(expected.getName(), actual.getName(), row + " name");
+            TestChecks.checkEquals(expected.getPopulation(), actual.getPopulation(), row + " population");
+            TestChecks.checkEquals(expected.getLandType(), actual.getLandType(), row + " land type");
+            TestChecks.checkEquals(expected.getUrbanization(), actual.getUrbanization(), row + " urbanization");
+            TestChecks.checkEquals(expected.getResourceDemand(), actual.getResourceDemand(), row + " demand");
+            TestChecks.checkEquals(expected.getRiskScore(), actual.getRiskScore(), row + " risk score");
+        }
+    }
+
+    /**
+     * Allocation records must point at the right district records, whatever the stream order
+     */
+    private static void checkPlanRoundTrip(Random random, List<District> districts, int bufferSize, String label)
+            throws IOException {
+        AllocationPolicy[] policies = AllocationEngine.getBuiltInPolicies();
+        AllocationPolicy policy = policies[random.nextInt(policies.length)];
+        long totalDemand = 0;
+        for (District district : districts) {
+            totalDemand += district.getResourceDemand();
+        }
+        int budget = (int) Math.min(Integer.MAX_VALUE, (long) (random.nextDouble() * 1.2 * totalDemand));
+        AllocationPlan plan = AllocationEngine.allocate(new ArrayList<>(districts), budget, policy);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DistrictCodec.Encoder encoder = new DistrictCodec.Encoder(Channels.newChannel(bytes),
+                DistrictCodec.KIND_ALLOCATIONS, ByteBuffer.allocate(bufferSize))) {
+            encoder.writePlan(plan, districts);
+        }
+
+        Map<District, AllocationResult> results = new IdentityHashMap<>();
+        for (AllocationResult result : plan.getAllocationResults()) {
+            results.put(result.getDistrict(), result);
+        }
+        int[] expectedAllocated = new int[districts.size()];
+        int[] expectedStatus = new int[districts.size()];
+        Arrays.fill(expectedStatus, DistrictCodec.STATUS_UNFUNDED);
+        for (int i = 0; i < districts.size(); i++) {
+            AllocationResult result = results.get(districts.get(i));
+            if (result != null) {
+                expectedAllocated[i] = result.getAllocatedResources();
+                expectedStatus[i] = result.isPartial ? DistrictCodec.STATUS_PARTIAL : DistrictCodec.STATUS_FULL;
+            }
+        }
+
+        boolean[] seen = new boolean[districts.size()];
+        int records = decoder(bytes.toByteArray(), bufferSize).readAllocations((index, allocated, status) -> {
+            TestChecks.check(index >= 0 && index < seen.length, label + ": district index " + index);
+            TestChecks.check(!seen[index], label + ": district " + index + " written twice");
+            seen[index] = true;
+            TestChecks.checkEquals(expectedAllocated[index], allocated, label + " allocation of district " + index);
+            TestChecks.checkEquals(expectedStatus[index], status, label + " status of district " + index);
+        });
+        TestChecks.checkEquals(districts.size(), records, label + " allocation record count");
+    }
+
+    /**
+     * Names first seen after the table is full are written inline each time
+     * and must still decode to the right name
+     */
+    private static void checkStringTableLimit() throws IOException {
+        int unique = DistrictCodec.MAX_STRING_TABLE + 100;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DistrictCodec.Encoder encoder = new DistrictCodec.Encoder(Channels.newChannel(bytes),
+                DistrictCodec.KIND_DISTRICTS, ByteBuffer.allocate(4096))) {
+            for (int i = 0; i < unique; i++) {
+                encoder.writeDistrict("N" + i, 1, 1, 1, 1);
+            }
+            // Repeat names from both sides of the limit
+            for (int i = 0; i < unique; i += 997) {
+                encoder.writeDistrict("N" + i, 1, 1, 1, 1);
+            }
+        }
+        List<String> names = new ArrayList<>();
+        decoder(bytes.toByteArray(), 4096).readDistricts((name, population, land, urban, demand) -> names.add(name));
+        int k = 0;
+        for (int i = 0; i < unique; i++) {
+            TestChecks.checkEquals("N" + i, names.get(k++), "name " + i);
+        }
+        for (int i = 0; i < unique; i += 997) {
+            TestChecks.checkEquals("N" + i, names.get(k++), "repeated name " + i);
+        }
+        TestChecks.checkEquals(k, names.size(), "names past the string table limit");
+    }
+
+    /**
+     * A record the encoder rejects must leave nothing behind in the stream
+     */
+    private static void checkRejectedRecords() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DistrictCodec.Encoder encoder = new DistrictCodec.Encoder(Channels.newChannel(bytes),
+                DistrictCodec.KIND_DISTRICTS, ByteBuffer.allocate(64))) {
+            encoder.writeDistrict("a", 10, 1, 1, 5);
+            TestChecks.checkThrows(IllegalArgumentException.class,
+                    () -> encoder.writeDistrict("x".repeat(100), 10, 1, 1, 5), "name longer than the buffer");
+            TestChecks.checkThrows(IllegalArgumentException.class,
+                    () -> encoder.writeDistrict("b", -1, 1, 1, 5), "negative population");
+            TestChecks.checkThrows(IllegalArgumentException.class,
+                    () -> encoder.writeDistrict("a", 10, 1, 1, -5), "negative demand");
+            TestChecks.checkThrows(IllegalArgumentException.class,
+                    () -> encoder.writeDistrict("a", 10, DistrictCodec.LAND_TYPES.length, 1, 5), "unknown land type");
+            TestChecks.checkThrows(IllegalArgumentException.class,
+                    () -> encoder.writeDistrict("a", 10, 1, -1, 5), "unknown urbanization");
+            encoder.writeDistrict("b", 20, 2, 2, 6);
+        }
+        List<String> records = new ArrayList<>();
+        decoder(bytes.toByteArray(), 64).readDistricts((name, population, land, urban, demand) ->
+                records.add(name + "," + population + "," + land + "," + urban + "," + demand));
+        TestChecks.checkEquals(List.of("a,10,1,1,5", "b,20,2,2,6"), records, "records around rejected ones");
+
+        bytes.reset();
+        try (DistrictCodec.Encoder encoder = new DistrictCodec.Encoder(Channels.newChannel(bytes),
+                DistrictCodec.KIND_ALLOCATIONS, ByteBuffer.allocate(64))) {
+            encoder.writeAllocation(0, 5, DistrictCodec.STATUS_FULL);
+            // A truncated byte would read back as a different status
+            for (int status : new int[] {-1, 3, 256 + DistrictCodec.STATUS_FULL}) {
+                TestChecks.checkThrows(IllegalArgumentException.class, () -> encoder.writeAllocation(1, 5, status),
+                        "allocation status " + status);
+            }
+            encoder.writeAllocation(1, 0, DistrictCodec.STATUS_UNFUNDED);
+            encoder.writeAllocation(2, 3, DistrictCodec.STATUS_PARTIAL);
+        }
+        records.clear();
+        decoder(bytes.toByteArray(), 64).readAllocations((index, allocated, status) ->
+                records.add(index + "," + allocated + "," + status));
+        TestChecks.checkEquals(List.of("0,5,1", "1,0,0", "2,3,2"), records, "allocations around rejected ones");
+    }
+
+    private static void checkMalformed() {
+        byte[] good = {'D', 'R', 'M', DistrictCodec.FORMAT_VERSION, DistrictCodec.KIND_DISTRICTS,
+                1, 3, 'a', 10, 1, 1, 5, 0};
+        TestChecks.checkThrows(IOException.class, () -> decoder(Arrays.copyOf(good, good.length - 3), 64)
+                .readDistrictList(), "truncated stream");
+
+        byte[] badReference = good.clone();
+        badReference[6] = 2 << 1;
+        TestChecks.checkThrows(IOException.class, () -> decoder(badReference, 64).readDistrictList(),
+                "name reference before its definition");
+
+        byte[] badLand = good.clone();
+        badLand[9] = 9;
+        TestChecks.checkThrows(IOException.class, () -> decoder(badLand, 64).readDistrictList(),
+                "unknown land type code");
+
+        byte[] badUrbanization = good.clone();
+        badUrbanization[10] = -1;
+        TestChecks.checkThrows(IOException.class, () -> decoder(badUrbanization, 64).readDistrictList(),
+                "unknown urbanization code");
+
+        // Population of -1 as a five-byte varint
+        byte[] negativePopulation = {'D', 'R', 'M', DistrictCodec.FORMAT_VERSION, DistrictCodec.KIND_DISTRICTS,
+                1, 3, 'a', -1, -1, -1, -1, 0x0F, 1, 1, 5, 0};
+        TestChecks.checkThrows(IOException.class, () -> decoder(negativePopulation, 64).readDistrictList(),
+                "negative population");
+        byte[] negativeDemand = {'D', 'R', 'M', DistrictCodec.FORMAT_VERSION, DistrictCodec.KIND_DISTRICTS,
+                1, 3, 'a', 10, 1, 1, -1, -1, -1, -1, 0x0F, 0};
+        TestChecks.checkThrows(IOException.class, () -> decoder(negativeDemand, 64).readDistrictList(),
+                "negative demand");
+
+        for (byte status : new byte[] {3, -1}) {
+            byte[] badStatus = {'D', 'R', 'M', DistrictCodec.FORMAT_VERSION, DistrictCodec.KIND_ALLOCATIONS,
+                    1, 0, 5, DistrictCodec.STATUS_FULL, 1, 1, 5, status, 0};
+            TestChecks.checkThrows(IOException.class, () -> decoder(badStatus, 64).readAllocations(
+                    (index, allocated, s) -> { }), "unknown allocation status " + status);
+        }
+
+        byte[] badVersion = good.clone();
+        badVersion[3] = 99;
+        TestChecks.checkThrows(IOException.class, () -> decoder(badVersion, 64), "unsupported version");
+    }
+
+    private static DistrictCodec.Decoder decoder(byte[] bytes, int bufferSize) throws IOException {
+        return new DistrictCodec.Decoder(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                ByteBuffer.allocate(bufferSize));
+    }
+}
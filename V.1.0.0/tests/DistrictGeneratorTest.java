@@ -0,0 +1,29 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Checks that {@link DistrictGenerator} output is reproducible and that CSV
+ * pieces concatenate into the same file as a single run.
+ */
+public class DistrictGeneratorTest {
+
+    public static void main(String[] args) throws IOException {
+        DistrictGenerator generator = new DistrictGenerator(7, 50);
+        String whole = csv(generator, 0, 1000);
+        TestChecks.checkEquals(whole, csv(new DistrictGenerator(7, 50), 0, 1000), "same seed, same rows");
+        TestChecks.checkEquals(1001L, whole.lines().count(), "header and rows");
+
+        StringBuilder pieces = new StringBuilder();
+        for (long from = 0; from < 1000; from += 300) {
+            pieces.append(csv(generator, from, Math.min(300, 1000 - from)));
+        }
+        TestChecks.checkEquals(whole, pieces.toString(), "concatenated pieces");
+        System.out.println("DistrictGeneratorTest passed");
+    }
+
+    private static String csv(DistrictGenerator generator, long from, long count) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.write(from, count, "csv", out);
+        return out.toString("UTF-8");
+    }
+}
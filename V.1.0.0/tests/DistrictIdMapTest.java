@@ -0,0 +1,49 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares {@link DistrictIdMap} with a HashMap under random puts and gets,
+ * over both dense ID ranges (direct mode) and sparse ones (hashed mode).
+ */
+public class DistrictIdMapTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(36L);
+        for (int trial = 0; trial < 200; trial++) {
+            int entries = random.nextInt(trial < 10 ? 4 : 3000);
+            int minId = random.nextInt(1_000_000);
+            // Alternate between ranges kept in a direct array and ranges too sparse for one
+            int spread = trial % 2 == 0 ? Math.max(1, entries) : Integer.MAX_VALUE - minId;
+            int maxId = minId + spread - 1;
+            boolean declared = trial % 3 != 0;
+            DistrictIdMap map = declared ? new DistrictIdMap(entries, minId, maxId) : new DistrictIdMap(entries);
+            Map<Integer, Integer> expected = new HashMap<>();
+            String label = "trial " + trial;
+
+            for (int step = 0; step < entries * 2; step++) {
+                int id = minId + random.nextInt(spread);
+                if (random.nextBoolean()) {
+                    int value = random.nextInt(Integer.MAX_VALUE);
+                    map.put(id, value);
+                    expected.put(id, value);
+                } else {
+                    TestChecks.checkEquals((long) expected.getOrDefault(id, -1), map.get(id), label + " get " + id);
+                }
+            }
+            TestChecks.checkEquals(expected.size(), map.size(), label + " size");
+            for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+                TestChecks.checkEquals((long) entry.getValue(), map.get(entry.getKey()),
+                        label + " entry " + entry.getKey());
+            }
+            TestChecks.checkEquals(-1, map.get(minId - 1), label + " ID below the range");
+            TestChecks.checkThrows(IllegalArgumentException.class, () -> map.put(minId, -1),
+                    label + " negative value");
+            if (declared && spread < entries * 4 + 64) {
+                TestChecks.checkThrows(IllegalArgumentException.class, () -> map.put(minId - 1, 0),
+                        label + " ID outside the declared range");
+            }
+        }
+        System.out.println("DistrictIdMapTest passed");
+    }
+}
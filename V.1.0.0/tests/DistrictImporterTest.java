@@ -0,0 +1,168 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Imports CSV, JSON and DRM files through {@link DistrictImporter} and checks
+ * the districts read, the JSON escapes and skipped fields, and that bad
+ * records are rejected with the line or record they came from.
+ */
+public class DistrictImporterTest {
+
+    public static void main(String[] args) throws IOException {
+        checkJson();
+        checkJsonErrors();
+        checkCsv();
+        checkDrm();
+        System.out.println("DistrictImporterTest passed");
+    }
+
+    private static void checkJson() throws IOException {
+        String json = "[\n"
+                + "  {\"name\": \"Quote \\\" slash \\\\ \\/ tab\\tend\", \"population\": 1200,\n"
+                + "   \"landType\": \"Coastal\", \"urbanization\": \"Urban\", \"resourceDemand\": 40},\n"
+                + "  {\"id\": 7, \"tags\": [\"a]\", {\"b\": \"}{\"}, [[]]], \"meta\": {\"x\": [1, 2.5e3, null]},\n"
+                + "   \"name\": \"Z\\u00fcrich \\u6771\\u4eac \\ud83d\\ude00\", \"active\": true, \"score\": -1.5,\n"
+                + "   \"population\": 2147483647, \"landType\": \" Forest \", \"urbanization\": \"Rural\",\n"
+                + "   \"resourceDemand\": 1, \"note\": \"\\n\\r\\b\\f\"}\n"
+                + "]\n";
+        List<District> districts = DistrictImporter.readDistricts(write(".json", json));
+        TestChecks.checkEquals(2, districts.size(), "JSON districts");
+        checkDistrict(districts.get(0), "Quote \" slash \\ / tab\tend", 1200, "Coastal", "Urban", 40);
+        checkDistrict(districts.get(1), "Zürich 東京 😀", Integer.MAX_VALUE, "Forest", "Rural", 1);
+        TestChecks.check(districts.get(0).getId() < districts.get(1).getId(), "IDs in file order");
+
+        TestChecks.checkEquals(0, DistrictImporter.readDistricts(write(".json", " [ ] ")).size(), "empty array");
+    }
+
+    private static void checkJsonErrors() throws IOException {
+        String valid = "{\"name\": \"A\", \"population\": 10, \"landType\": \"Urban\", \"urbanization\": \"Urban\","
+                + " \"resourceDemand\": 5}";
+        checkRejected(".json", "[\n" + valid + ",\n\n  {\"name\": \"B\", \"population\": 2147483648}]",
+                "Invalid JSON at line 4: integer out of range");
+        checkRejected(".json", "[" + valid + ",\n{\"name\": \"B\",\n \"population\": 99999999999999999999}]",
+                "Invalid JSON at line 3: integer out of range");
+        checkRejected(".json", "[\n{\"name\": \"B\", \"population\": 10.5}]",
+                "Invalid JSON at line 2: expected an integer");
+        checkRejected(".json", "[{\"name\": \"B\", \"population\": 1e3}]",
+                "Invalid JSON at line 1: expected an integer");
+        checkRejected(".json", "[{\"name\": \"B\", \"population\": \"10\"}]",
+                "Invalid JSON at line 1: expected an integer");
+        checkRejected(".json", "[{\"name\": \"\\u00zz\"}]", "Invalid JSON at line 1: invalid unicode escape");
+        checkRejected(".json", "[{\"name\": \"open\n", "Invalid JSON at line 2: unterminated string");
+        checkRejected(".json", "[{\"tags\": [1, {\"a\": \"]\"}\n", "Invalid JSON at line 2: unexpected end of input");
+        checkRejected(".json", "[" + valid + "\n" + valid + "]", "Invalid JSON at line 2: expected ']'");
+        checkRejected(".json", "{}", "Invalid JSON at line 1: expected '['");
+
+        // Validation errors name the line the object starts on
+        checkRejected(".json", "[" + valid + ",\n\n  {\"name\": \"B\",\n \"population\": 10,\n \"landType\": \"Swamp\","
+                + " \"urbanization\": \"Urban\", \"resourceDemand\": 5}]",
+                "Invalid district at line 3: unknown land type 'Swamp'");
+        checkRejected(".json", "[\n" + valid + ",\n  {\"name\": \"B\", \"population\": -10, \"landType\": \"Urban\","
+                + " \"urbanization\": \"Urban\", \"resourceDemand\": 5}]",
+                "Invalid district at line 3: population and resource demand must be positive");
+        checkRejected(".json", "[\n\n {\"name\": \" \", \"population\": 10, \"landType\": \"Urban\","
+                + " \"urbanization\": \"Urban\", \"resourceDemand\": 5}]",
+                "Invalid district at line 3: district name cannot be empty");
+        checkRejected(".json", "[\n  {\"name\": \"B\",\n \"population\": 10}]",
+                "district at line 2 is missing name, landType or urbanization");
+    }
+
+    private static void checkCsv() throws IOException {
+        String csv = "Name,Population,LandType,Urbanization,ResourceDemand\n"
+                + "# comment line\n"
+                + "\n"
+                + " North , 500 ,Desert, Suburban ,7\n"
+                + "   \n"
+                + "#name,1,Urban,Urban,1\n"
+                + "South,800,Urban,Rural,12\n";
+        List<District> districts = DistrictImporter.readDistricts(write(".csv", csv));
+        TestChecks.checkEquals(2, districts.size(), "CSV districts");
+        checkDistrict(districts.get(0), "North", 500, "Desert", "Suburban", 7);
+        checkDistrict(districts.get(1), "South", 800, "Urban", "Rural", 12);
+
+        // Any extension other than .json and .drm is read as CSV, without a header
+        districts = DistrictImporter.readDistricts(write(".txt", "West,300,Forest,Urban,3"));
+        checkDistrict(districts.get(0), "West", 300, "Forest", "Urban", 3);
+
+        // A header is only skipped on the first line
+        checkRejected(".csv", "North,500,Desert,Suburban,7\nname,population,landType,urbanization,resourceDemand\n",
+                "Invalid district at line 2:");
+        checkRejected(".csv", "name,population,landType,urbanization,resourceDemand\n# c\nNorth,500,Desert\n",
+                "Invalid district at line 3: expected 5 fields");
+        checkRejected(".csv", "North,500,Desert,Suburban,7,extra", "Invalid district at line 1: expected 5 fields");
+        checkRejected(".csv", "\n\nNorth,lots,Desert,Suburban,7", "Invalid district at line 3:");
+        checkRejected(".csv", "North,500,Desert,Suburban,0", "Invalid district at line 1: population and resource");
+        checkRejected(".csv", "North,500,Desert,Downtown,7",
+                "Invalid district at line 1: unknown urbanization 'Downtown'");
+        checkRejected(".csv", ",500,Desert,Suburban,7", "Invalid district at line 1: district name cannot be empty");
+    }
+
+    private static void checkDrm() throws IOException {
+        Path file = Files.createTempFile("importer-test", ".drm");
+        try {
+            writeDrm(file, 1, 2);
+            List<District> districts = DistrictImporter.readDistricts(file);
+            TestChecks.checkEquals(3, districts.size(), "DRM districts");
+            checkDistrict(districts.get(0), "Harbor", 1000, "Coastal", "Urban", 20);
+            checkDistrict(districts.get(1), "Ridge", 2000, "Forest", "Rural", 30);
+            checkDistrict(districts.get(2), "Harbor", 3000, "Desert", "Suburban", 40);
+
+            // Records the codec accepts but the form would not
+            writeDrm(file, 0, 2);
+            checkRejected(file, "Invalid district at record 2: unknown land type ''");
+            writeDrm(file, 1, 0);
+            checkRejected(file, "Invalid district at record 2: population and resource demand must be positive");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes three districts, the second with the given land code and population scale
+     */
+    private static void writeDrm(Path file, int landCode, int scale) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                DistrictCodec.Encoder encoder = new DistrictCodec.Encoder(channel, DistrictCodec.KIND_DISTRICTS)) {
+            encoder.writeDistrict("Harbor", 1000, 2, 3, 20);
+            encoder.writeDistrict("Ridge", 1000 * scale, landCode, 1, 30);
+            encoder.writeDistrict("Harbor", 3000, 3, 2, 40);
+        }
+    }
+
+    private static void checkDistrict(District district, String name, int population, String landType,
+            String urbanization, int resourceDemand) {
+        TestChecks.checkEquals(name, district.getName(), "name");
+        TestChecks.checkEquals(population, district.getPopulation(), name + " population");
+        TestChecks.checkEquals(landType, district.getLandType(), name + " land type");
+        TestChecks.checkEquals(urbanization, district.getUrbanization(), name + " urbanization");
+        TestChecks.checkEquals(resourceDemand, district.getResourceDemand(), name + " demand");
+    }
+
+    private static void checkRejected(String extension, String content, String message) throws IOException {
+        Path file = write(extension, content);
+        checkRejected(file, message);
+    }
+
+    private static void checkRejected(Path file, String message) throws IOException {
+        try {
+            DistrictImporter.readDistricts(file);
+            throw new AssertionError("accepted, expected: " + message);
+        } catch (IOException e) {
+            TestChecks.check(e.getMessage().contains(message), "expected '" + message + "' but got '"
+                    + e.getMessage() + "'");
+        }
+    }
+
+    private static Path write(String extension, String content) throws IOException {
+        Path file = Files.createTempFile("importer-test", extension);
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
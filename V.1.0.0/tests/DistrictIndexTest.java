@@ -0,0 +1,77 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link DistrictIndex#query} with {@link DistrictIndex#scan} on
+ * random district lists and random combinations of filters and sort orders.
+ * Populations and demands are drawn from small ranges in some lists so
+ * sorted columns have long runs of equal values.
+ */
+public class DistrictIndexTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+    private static final String[] NAME_PARTS = {"North", "south", "Harbor", "ridge", "Mesa", "Valley"};
+
+    public static void main(String[] args) {
+        Random random = new Random(36L);
+        for (int trial = 0; trial < 60; trial++) {
+            int size = random.nextInt(trial < 10 ? 5 : 3000);
+            boolean fewValues = trial % 2 == 0;
+            List<District> districts = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                String name = NAME_PARTS[random.nextInt(NAME_PARTS.length)] + " " + random.nextInt(100);
+                int population = fewValues ? 1 + random.nextInt(5) * 30_000 : 1 + random.nextInt(200_000);
+                int demand = fewValues ? 10 + random.nextInt(3) * 10 : 1 + random.nextInt(500);
+                districts.add(new District(name, population, LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                        URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], demand));
+            }
+
+            DistrictIndex index = new DistrictIndex(districts);
+            for (int q = 0; q < 50; q++) {
+                DistrictQuery query = randomQuery(random);
+                int[] expected = DistrictIndex.scan(districts, query);
+                int[] actual = index.query(query);
+                if (!Arrays.equals(expected, actual)) {
+                    throw new AssertionError("trial " + trial + " query " + q + ": index returned "
+                            + actual.length + " positions, scan " + expected.length);
+                }
+            }
+        }
+        System.out.println("DistrictIndexTest passed");
+    }
+
+    private static DistrictQuery randomQuery(Random random) {
+        DistrictQuery query = new DistrictQuery();
+        if (random.nextInt(3) == 0) {
+            for (int k = random.nextInt(3); k >= 0; k--) {
+                query.addLandType(LAND_TYPES[random.nextInt(LAND_TYPES.length)]);
+            }
+        }
+        if (random.nextInt(3) == 0) {
+            query.addUrbanization(URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            int a = random.nextInt(200_000);
+            int b = random.nextInt(200_000);
+            query.setPopulationRange(Math.min(a, b), random.nextBoolean() ? Math.max(a, b) : Integer.MAX_VALUE);
+        }
+        if (random.nextInt(3) == 0) {
+            int min = RiskStatistics.MIN_TOTAL_RISK + random.nextInt(10);
+            query.setRiskRange(min, min + random.nextInt(10));
+        }
+        if (random.nextInt(4) == 0) {
+            double a = random.nextDouble() * 2;
+            double b = random.nextDouble() * 2;
+            query.setRatioRange(Math.min(a, b), Math.max(a, b));
+        }
+        if (random.nextInt(4) == 0) {
+            String part = NAME_PARTS[random.nextInt(NAME_PARTS.length)];
+            query.setNameContains(random.nextBoolean() ? part.toUpperCase() : part.substring(1, 3));
+        }
+        DistrictQuery.SortKey[] keys = DistrictQuery.SortKey.values();
+        query.setSort(keys[random.nextInt(keys.length)], random.nextBoolean());
+        return query;
+    }
+}
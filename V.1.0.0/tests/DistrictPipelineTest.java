@@ -0,0 +1,241 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feeds updates through {@link DistrictPipeline} and checks each plan
+ * against a synchronous allocation of the same districts, along with
+ * window closing by size and by time, coalescing, district IDs, rejected
+ * rows, and backpressure for both {@link DistrictPipeline#submit} and
+ * {@link DistrictPipeline#offer}.
+ */
+public class DistrictPipelineTest {
+    private static final long NEVER_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int BUDGET = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        checkSizeWindows();
+        checkTimeWindow();
+        checkSubmitBlocks();
+        checkOfferDrops();
+        System.out.println("DistrictPipelineTest passed");
+    }
+
+    /**
+     * Windows of three distinct districts, with repeated names, bad rows and updates across windows
+     */
+    private static void checkSizeWindows() {
+        List<List<String>> windows = List.of(
+                List.of("Harbor,90000,Coastal,Urban,40", "Ridge,5000,forest,countryside,20",
+                        "Harbor,120000,coast,Urban,35", "not a district", "Mesa,20000,Desert,Rural,10"),
+                List.of("Delta,1200,Moon,Rural,7", "Delta,1200,Coastal,Rural,-7", "Delta,1200,Coastal,Rural,7",
+                        "Ridge,8000,Forest,Rural,25"));
+
+        List<AllocationPlan> plans = new CopyOnWriteArrayList<>();
+        DistrictPipeline pipeline = new DistrictPipeline(BUDGET, AllocationEngine.DEFAULT_POLICY,
+                DistrictPipeline.DEFAULT_BUFFER_SIZE, 3, NEVER_MILLIS);
+        pipeline.addPlanListener(plans::add);
+        for (List<String> window : windows) {
+            for (String line : window) {
+                pipeline.submit(line);
+            }
+        }
+        pipeline.close();
+
+        // The first window closes on Mesa, its third distinct name; the second when the input ends
+        TestChecks.checkEquals(2, plans.size(), "windows");
+        Map<String, String> reference = new LinkedHashMap<>();
+        for (int w = 0; w < windows.size(); w++) {
+            for (String line : windows.get(w)) {
+                try {
+                    DistrictPipeline.parseDistrict(line);
+                    reference.put(line.substring(0, line.indexOf(',')), line);
+                } catch (IllegalArgumentException e) {
+                    // Rejected by the pipeline too
+                }
+            }
+            List<District> districts = new ArrayList<>();
+            for (String line : reference.values()) {
+                districts.add(DistrictPipeline.parseDistrict(line));
+            }
+            TestChecks.checkEquals(describe(AllocationEngine.allocate(districts, BUDGET)), describe(plans.get(w)),
+                    "window " + w);
+        }
+
+        // Updates keep the first version's ID
+        Map<String, Integer> firstIds = new LinkedHashMap<>();
+        for (District district : plans.get(0).getSortedDistricts()) {
+            firstIds.put(district.getName(), district.getId());
+        }
+        for (District district : plans.get(1).getSortedDistricts()) {
+            if (firstIds.containsKey(district.getName())) {
+                TestChecks.checkEquals(firstIds.get(district.getName()).intValue(), district.getId(),
+                        district.getName() + " keeps its ID");
+            }
+        }
+        TestChecks.checkEquals(25, find(plans.get(1), "Ridge").getResourceDemand(), "Ridge updated");
+
+        TestChecks.checkEquals(9, metrics(pipeline, "parse").getReceived(), "lines parsed");
+        TestChecks.checkEquals(1, metrics(pipeline, "parse").getRejected(), "rows rejected by parse");
+        TestChecks.checkEquals(2, metrics(pipeline, "normalize").getRejected(), "rows rejected by normalize");
+        TestChecks.checkEquals(6, metrics(pipeline, "window").getReceived(), "districts windowed");
+        TestChecks.checkEquals(2, metrics(pipeline, "window").getEmitted(), "windows emitted");
+        // Harbor's two updates in the first window were coalesced into one
+        TestChecks.checkEquals(5, metrics(pipeline, "allocate").getReceived(), "districts allocated");
+        TestChecks.checkEquals(0, metrics(pipeline, "allocate").getRejected(), "failed allocations");
+    }
+
+    /**
+     * A window below its size limit still closes once its time is up
+     */
+    private static void checkTimeWindow() throws InterruptedException {
+        CountDownLatch planned = new CountDownLatch(1);
+        List<AllocationPlan> plans = new CopyOnWriteArrayList<>();
+        DistrictPipeline pipeline = new DistrictPipeline(BUDGET, AllocationEngine.DEFAULT_POLICY,
+                DistrictPipeline.DEFAULT_BUFFER_SIZE, 1_000, 50);
+        pipeline.addPlanListener(plan -> {
+            plans.add(plan);
+            planned.countDown();
+        });
+        pipeline.submit("Harbor,90000,Coastal,Urban,40");
+        pipeline.submit("Ridge,5000,Forest,Rural,20");
+        try {
+            TestChecks.check(planned.await(10, TimeUnit.SECONDS), "window closed by time");
+            TestChecks.checkEquals(2, plans.get(0).getSortedDistricts().size(), "districts in the timed window");
+        } finally {
+            pipeline.close();
+        }
+        TestChecks.checkEquals(1, plans.size(), "no empty window after close");
+    }
+
+    /**
+     * While the allocation listener is stuck, submit blocks the producer instead of buffering without limit
+     */
+    private static void checkSubmitBlocks() throws InterruptedException {
+        int updates = 1_000;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger planCount = new AtomicInteger();
+        DistrictPipeline pipeline = blockedPipeline(release, planCount);
+        AtomicInteger submitted = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < updates; i++) {
+                pipeline.submit("D" + i + ",1000,Forest,Rural,5");
+                submitted.incrementAndGet();
+            }
+        }, "district-pipeline-test-producer");
+        producer.start();
+
+        int stalled = waitForStall(submitted);
+        TestChecks.check(stalled < updates, "producer blocked after " + stalled + " updates");
+        TestChecks.check(producer.isAlive(), "producer still waiting");
+
+        release.countDown();
+        producer.join(10_000);
+        TestChecks.check(!producer.isAlive(), "producer finished once released");
+        pipeline.close();
+        TestChecks.checkEquals(updates, metrics(pipeline, "allocate").getReceived(), "every update allocated");
+        TestChecks.checkEquals(updates, planCount.get(), "one plan per window");
+        TestChecks.checkEquals(0, pipeline.getDroppedCount(), "nothing dropped by submit");
+    }
+
+    /**
+     * While the allocation listener is stuck, offer drops updates and counts them
+     */
+    private static void checkOfferDrops() throws InterruptedException {
+        int updates = 1_000;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger planCount = new AtomicInteger();
+        DistrictPipeline pipeline = blockedPipeline(release, planCount);
+        int accepted = 0;
+        int rejected = 0;
+        for (int i = 0; i < updates; i++) {
+            if (pipeline.offer("D" + i + ",1000,Forest,Rural,5", 0, TimeUnit.MILLISECONDS)) {
+                accepted++;
+            } else {
+                rejected++;
+            }
+            if (i == updates / 2) {
+                // Give the stages time to fill up behind the stuck listener
+                Thread.sleep(200);
+            }
+        }
+        TestChecks.check(rejected > 0, "updates dropped while full");
+        TestChecks.checkEquals(rejected, pipeline.getDroppedCount(), "dropped count");
+
+        release.countDown();
+        pipeline.close();
+        TestChecks.checkEquals(accepted, metrics(pipeline, "allocate").getReceived(), "accepted updates allocated");
+        TestChecks.checkEquals(accepted, planCount.get(), "one plan per accepted update");
+    }
+
+    /**
+     * A pipeline with tiny buffers and one district per window, whose listener waits for the latch
+     */
+    private static DistrictPipeline blockedPipeline(CountDownLatch release, AtomicInteger planCount) {
+        DistrictPipeline pipeline = new DistrictPipeline(BUDGET, AllocationEngine.DEFAULT_POLICY, 1, 1,
+                NEVER_MILLIS);
+        pipeline.addPlanListener(plan -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            planCount.incrementAndGet();
+        });
+        return pipeline;
+    }
+
+    /**
+     * Waits until the counter stops moving and returns its value
+     */
+    private static int waitForStall(AtomicInteger counter) throws InterruptedException {
+        int previous = -1;
+        int current = counter.get();
+        while (current != previous) {
+            Thread.sleep(200);
+            previous = current;
+            current = counter.get();
+        }
+        return current;
+    }
+
+    private static DistrictPipeline.StageMetrics metrics(DistrictPipeline pipeline, String name) {
+        for (DistrictPipeline.StageMetrics stage : pipeline.getMetrics()) {
+            if (stage.getName().equals(name)) {
+                return stage;
+            }
+        }
+        throw new AssertionError("No stage named " + name);
+    }
+
+    private static District find(AllocationPlan plan, String name) {
+        for (District district : plan.getSortedDistricts()) {
+            if (district.getName().equals(name)) {
+                return district;
+            }
+        }
+        throw new AssertionError("No district named " + name);
+    }
+
+    /**
+     * Plan contents that do not depend on district IDs
+     */
+    private static List<String> describe(AllocationPlan plan) {
+        Map<String, Integer> allocated = new LinkedHashMap<>();
+        for (AllocationResult result : plan.getAllocationResults()) {
+            allocated.put(result.getDistrict().getName(), result.getAllocatedResources());
+        }
+        List<String> lines = new ArrayList<>();
+        for (District district : plan.getSortedDistricts()) {
+            lines.add(district.getName() + " " + district.getPopulation() + " " + district.getLandType() + " "
+                    + district.getUrbanization() + " " + district.getResourceDemand() + " "
+                    + allocated.getOrDefault(district.getName(), 0));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,96 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link ExternalAllocation} at its smallest heap limit over a file
+ * large enough to spill more runs than one merge takes, and checks that its
+ * results match a greedy {@link AllocationEngine} plan over the same
+ * districts, in the same order.
+ */
+public class ExternalAllocationTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+
+    // Long names fill the 1 MB buffer after a few hundred districts
+    private static final String NAME_PADDING = "x".repeat(1000);
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("external-allocation-test");
+        try {
+            Path file = directory.resolve("districts.csv");
+            Random random = new Random(38L);
+            long totalDemand = 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < 40_000; i++) {
+                    // Few distinct values, so many districts tie on their ratio
+                    int population = 1_000 * (1 + random.nextInt(20));
+                    int demand = 10 * (1 + random.nextInt(10));
+                    totalDemand += demand;
+                    writer.write("D" + i + NAME_PADDING + "," + population + ","
+                            + LAND_TYPES[random.nextInt(LAND_TYPES.length)] + ","
+                            + URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)] + "," + demand);
+                    writer.newLine();
+                }
+            }
+            List<District> districts = DistrictImporter.readDistricts(file);
+
+            for (int budget : new int[] {0, (int) (totalDemand / 3) + 7, (int) totalDemand + 1}) {
+                List<String> actual = new ArrayList<>();
+                ExternalAllocation external = new ExternalAllocation(1024L * 1024, directory);
+                ExternalAllocation.Result result = external.allocate(file, budget,
+                        (name, risk, demand, allocated) -> actual.add(describe(name, risk, demand, allocated)));
+                TestChecks.check(result.getRuns() > 64, "several runs per merge: " + result.getRuns());
+                TestChecks.checkEquals(1, result.getMergePasses(), "merge passes");
+
+                AllocationPlan plan = AllocationEngine.allocate(districts, budget);
+                Map<Integer, AllocationResult> results = new HashMap<>();
+                for (AllocationResult r : plan.getAllocationResults()) {
+                    results.put(r.getDistrict().getId(), r);
+                }
+                List<String> expected = new ArrayList<>();
+                long funded = 0;
+                long partial = 0;
+                for (District district : plan.getSortedDistricts()) {
+                    AllocationResult r = results.get(district.getId());
+                    int allocated = r == null ? 0 : r.getAllocatedResources();
+                    funded += allocated > 0 ? 1 : 0;
+                    partial += r != null && r.isPartial ? 1 : 0;
+                    expected.add(describe(district.getName(), district.getRiskScore(),
+                            district.getResourceDemand(), allocated));
+                }
+                TestChecks.checkEquals(expected, actual, "results at budget " + budget);
+                TestChecks.checkEquals(districts.size(), result.getDistricts(), "district count");
+                TestChecks.checkEquals(funded, result.getFunded(), "funded count at budget " + budget);
+                TestChecks.checkEquals(partial, result.getPartial(), "partial count at budget " + budget);
+                TestChecks.checkEquals(plan.getAllocatedResources(), result.getAllocatedResources(),
+                        "allocated at budget " + budget);
+                TestChecks.checkEquals(plan.getRemainingResources(), result.getRemainingResources(),
+                        "remaining at budget " + budget);
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                TestChecks.checkEquals(1, files.count(), "run files removed");
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(directory);
+        }
+        System.out.println("ExternalAllocationTest passed");
+    }
+
+    private static String describe(String name, int risk, int demand, int allocated) {
+        return name.substring(0, name.indexOf('x')) + " " + risk + " " + demand + " " + allocated;
+    }
+}
@@ -0,0 +1,173 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares {@link FlowNetwork} with a successive shortest path solver on
+ * random networks: both must find the same flow value and total cost, and
+ * FlowNetwork's arc flows must be a valid flow.
+ */
+public class FlowNetworkTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(20261019L);
+        for (int trial = 0; trial < 500; trial++) {
+            int nodes = 2 + random.nextInt(12);
+            int arcs = random.nextInt(nodes * 4);
+            int maxCapacity = 1 + random.nextInt(trial % 2 == 0 ? 10 : 1000);
+            int maxCost = 1 + random.nextInt(trial % 3 == 0 ? 5 : 10_000);
+            int[] from = new int[arcs];
+            int[] to = new int[arcs];
+            long[] capacity = new long[arcs];
+            long[] cost = new long[arcs];
+            FlowNetwork network = new FlowNetwork(nodes);
+            for (int a = 0; a < arcs; a++) {
+                from[a] = random.nextInt(nodes);
+                to[a] = random.nextInt(nodes);
+                capacity[a] = random.nextInt(maxCapacity + 1);
+                cost[a] = random.nextInt(maxCost + 1);
+                network.addArc(from[a], to[a], capacity[a], cost[a]);
+            }
+            int source = 0;
+            int sink = nodes - 1;
+
+            long flow = network.solve(source, sink);
+            long[] reference = referenceMinCostFlow(nodes, from, to, capacity, cost, source, sink);
+            String label = "trial " + trial;
+            TestChecks.checkEquals(reference[0], flow, label + " flow value");
+            TestChecks.checkEquals(reference[1], network.getTotalCost(), label + " total cost");
+            checkValidFlow(network, nodes, from, to, capacity, source, sink, flow, label);
+        }
+
+        // Larger sparse networks shaped like a logistics problem
+        for (int trial = 0; trial < 20; trial++) {
+            checkLogisticsShape(random, trial);
+        }
+        System.out.println("FlowNetworkTest passed");
+    }
+
+    /**
+     * Source to depots, depots to districts, districts to sink
+     */
+    private static void checkLogisticsShape(Random random, int trial) {
+        int depots = 1 + random.nextInt(8);
+        int districts = 1 + random.nextInt(60);
+        int nodes = depots + districts + 2;
+        int sink = nodes - 1;
+        int routes = districts * (1 + random.nextInt(3));
+        int arcs = depots + routes + districts;
+        int[] from = new int[arcs];
+        int[] to = new int[arcs];
+        long[] capacity = new long[arcs];
+        long[] cost = new long[arcs];
+        int a = 0;
+        for (int p = 0; p < depots; p++, a++) {
+            from[a] = 0;
+            to[a] = 1 + p;
+            capacity[a] = random.nextInt(500);
+        }
+        for (int r = 0; r < routes; r++, a++) {
+            from[a] = 1 + random.nextInt(depots);
+            to[a] = 1 + depots + random.nextInt(districts);
+            capacity[a] = 1 + random.nextInt(100);
+            cost[a] = random.nextInt(50);
+        }
+        for (int d = 0; d < districts; d++, a++) {
+            from[a] = 1 + depots + d;
+            to[a] = sink;
+            capacity[a] = 1 + random.nextInt(100);
+            cost[a] = random.nextInt(1000);
+        }
+        FlowNetwork network = new FlowNetwork(nodes);
+        for (int k = 0; k < arcs; k++) {
+            network.addArc(from[k], to[k], capacity[k], cost[k]);
+        }
+        long flow = network.solve(0, sink);
+        long[] reference = referenceMinCostFlow(nodes, from, to, capacity, cost, 0, sink);
+        String label = "logistics trial " + trial;
+        TestChecks.checkEquals(reference[0], flow, label + " flow value");
+        TestChecks.checkEquals(reference[1], network.getTotalCost(), label + " total cost");
+        checkValidFlow(network, nodes, from, to, capacity, 0, sink, flow, label);
+    }
+
+    private static void checkValidFlow(FlowNetwork network, int nodes, int[] from, int[] to, long[] capacity,
+            int source, int sink, long flowValue, String label) {
+        long[] balance = new long[nodes];
+        for (int a = 0; a < from.length; a++) {
+            long flow = network.getFlow(a);
+            TestChecks.check(flow >= 0 && flow <= capacity[a], label + ": flow " + flow + " on arc " + a
+                    + " outside capacity " + capacity[a]);
+            balance[from[a]] -= flow;
+            balance[to[a]] += flow;
+        }
+        for (int v = 0; v < nodes; v++) {
+            long expected = v == source && v != sink ? -flowValue : v == sink && v != source ? flowValue : 0;
+            TestChecks.checkEquals(expected, balance[v], label + ": net flow at node " + v);
+        }
+    }
+
+    /**
+     * Min-cost maximum flow by successive shortest paths with Bellman-Ford,
+     * which handles the negative-cost residual arcs directly
+     *
+     * @return The flow value and total cost
+     */
+    static long[] referenceMinCostFlow(int nodes, int[] from, int[] to, long[] capacity, long[] cost,
+            int source, int sink) {
+        if (source == sink) {
+            return new long[] {0, 0};
+        }
+        int arcs = from.length;
+        // Residual arc 2a is arc a, 2a + 1 its reverse
+        long[] residual = new long[2 * arcs];
+        for (int a = 0; a < arcs; a++) {
+            residual[2 * a] = capacity[a];
+        }
+        long flow = 0;
+        long totalCost = 0;
+        long[] distance = new long[nodes];
+        int[] via = new int[nodes];
+        while (true) {
+            Arrays.fill(distance, Long.MAX_VALUE);
+            Arrays.fill(via, -1);
+            distance[source] = 0;
+            for (int round = 0; round < nodes; round++) {
+                boolean changed = false;
+                for (int r = 0; r < 2 * arcs; r++) {
+                    if (residual[r] == 0) {
+                        continue;
+                    }
+                    int a = r >> 1;
+                    boolean reverse = (r & 1) == 1;
+                    int u = reverse ? to[a] : from[a];
+                    int v = reverse ? from[a] : to[a];
+                    long c = reverse ? -cost[a] : cost[a];
+                    if (distance[u] != Long.MAX_VALUE && distance[u] + c < distance[v]) {
+                        distance[v] = distance[u] + c;
+                        via[v] = r;
+                        changed = true;
+                    }
+                }
+                if (!changed) {
+                    break;
+                }
+            }
+            if (distance[sink] == Long.MAX_VALUE) {
+                return new long[] {flow, totalCost};
+            }
+            long push = Long.MAX_VALUE;
+            for (int v = sink; v != source; ) {
+                int r = via[v];
+                push = Math.min(push, residual[r]);
+                v = (r & 1) == 1 ? to[r >> 1] : from[r >> 1];
+            }
+            for (int v = sink; v != source; ) {
+                int r = via[v];
+                residual[r] -= push;
+                residual[r ^ 1] += push;
+                v = (r & 1) == 1 ? to[r >> 1] : from[r >> 1];
+            }
+            flow += push;
+            totalCost += push * distance[sink];
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks {@link FundingSensitivity#getRiskCovered} against a fresh greedy
+ * allocation at budgets sampled around every breakpoint and at random,
+ * for random district sets with many tied ratios.
+ */
+public class FundingSensitivityTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+
+    public static void main(String[] args) {
+        Random random = new Random(42L);
+        for (int trial = 0; trial < 30; trial++) {
+            List<District> districts = new ArrayList<>();
+            int size = random.nextInt(trial < 3 ? 3 : 150);
+            for (int i = 0; i < size; i++) {
+                districts.add(new District("D" + i, 1_000 * (1 + random.nextInt(trial % 2 == 0 ? 5 : 150)),
+                        LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                        URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)],
+                        1 + random.nextInt(trial % 2 == 0 ? 4 : 200)));
+            }
+            FundingSensitivity sensitivity = FundingSensitivity.of(districts);
+            FundingSensitivity fromPlan = FundingSensitivity.of(AllocationEngine.allocate(districts, 0));
+            long total = sensitivity.getTotalDemand();
+
+            List<Long> budgets = new ArrayList<>();
+            budgets.add(0L);
+            budgets.add(total + 10);
+            for (int k = 0; k < sensitivity.getDistrictCount(); k++) {
+                budgets.add(sensitivity.getPartialThreshold(k));
+                budgets.add(sensitivity.getFullThreshold(k) - 1);
+                budgets.add(sensitivity.getFullThreshold(k));
+            }
+            for (int i = 0; i < 20; i++) {
+                budgets.add((long) random.nextInt((int) total + 1));
+            }
+
+            for (long budget : budgets) {
+                double expected = riskCovered(AllocationEngine.allocate(districts, (int) budget));
+                String label = "trial " + trial + " budget " + budget;
+                checkClose(expected, sensitivity.getRiskCovered(budget), label);
+                checkClose(expected, fromPlan.getRiskCovered(budget), label + " from plan");
+            }
+        }
+        System.out.println("FundingSensitivityTest passed");
+    }
+
+    /**
+     * Risk covered by a plan, counting partial funding proportionally
+     */
+    private static double riskCovered(AllocationPlan plan) {
+        double covered = 0;
+        for (AllocationResult result : plan.getAllocationResults()) {
+            District district = result.getDistrict();
+            covered += (double) district.getRiskScore() * result.getAllocatedResources()
+                    / district.getResourceDemand();
+        }
+        return covered;
+    }
+
+    private static void checkClose(double expected, double actual, String label) {
+        TestChecks.check(Math.abs(expected - actual) <= 1e-9 * Math.max(1, Math.abs(expected)),
+                label + ": expected " + expected + ", got " + actual);
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks that population and demand updates in {@link IncidentSimulation}
+ * saturate at the int range instead of wrapping around, and that the
+ * initial allocation matches {@link AllocationEngine} on a list whose
+ * order differs from ID order.
+ */
+public class IncidentSimulationTest {
+
+    public static void main(String[] args) {
+        List<District> districts = List.of(
+                new District("Harbor", Integer.MAX_VALUE - 10, "Coastal", "Urban", 40),
+                new District("Ridge", 5_000, "Forest", "Rural", 20));
+        IncidentSimulation simulation = new IncidentSimulation(districts, 0);
+        int riskBefore = simulation.getRiskScore(0);
+
+        simulation.step(new SimulationStep(new int[] {0, 1}, new int[] {1_000, 0},
+                new int[] {0, Integer.MAX_VALUE}, 0));
+        TestChecks.checkEquals(Integer.MAX_VALUE, simulation.getPopulation(0), "population saturates");
+        TestChecks.checkEquals(riskBefore, simulation.getRiskScore(0), "risk of a saturated population");
+        TestChecks.checkEquals(Integer.MAX_VALUE, simulation.getDemand(1), "demand saturates");
+
+        simulation.step(new SimulationStep(new int[] {0, 1}, new int[] {Integer.MIN_VALUE, 0},
+                new int[] {0, Integer.MIN_VALUE}, 0));
+        TestChecks.checkEquals(0, simulation.getPopulation(0), "population stops at zero");
+        TestChecks.checkEquals(0, simulation.getDemand(1), "demand stops at zero");
+
+        checkTiesByDistrictId();
+        System.out.println("IncidentSimulationTest passed");
+    }
+
+    /**
+     * Funds half of a set of tied districts passed in shuffled order
+     */
+    private static void checkTiesByDistrictId() {
+        Random random = new Random(39L);
+        List<District> districts = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            // Two kinds of district, so every district ties with half of the others
+            districts.add(i % 2 == 0 ? new District("Harbor" + i, 90_000, "Coastal", "Urban", 30)
+                    : new District("Ridge" + i, 5_000, "Forest", "Rural", 20));
+        }
+        Collections.shuffle(districts, random);
+        for (int budget : new int[] {0, 15, 310, 605, 1_000, 2_000}) {
+            IncidentSimulation simulation = new IncidentSimulation(districts, budget);
+            AllocationPlan plan = AllocationEngine.allocate(districts, budget);
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (AllocationResult result : plan.getAllocationResults()) {
+                expected.put(result.getDistrict().getId(), result.getAllocatedResources());
+            }
+            for (int i = 0; i < districts.size(); i++) {
+                TestChecks.checkEquals(expected.getOrDefault(districts.get(i).getId(), 0).intValue(),
+                        simulation.getCommitted(i), "budget " + budget + " district " + districts.get(i));
+            }
+        }
+    }
+}
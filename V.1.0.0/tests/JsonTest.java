@@ -0,0 +1,42 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that {@link Json#escape} output parses back to the original
+ * string, that {@link Json#parse} builds the documented value types, and
+ * that malformed documents are rejected.
+ */
+public class JsonTest {
+
+    public static void main(String[] args) {
+        String[] strings = {"", "plain", "quote \" and backslash \\", "line\nfeed\r\ttab", "\u0001\u001f control",
+            "Zürich 東京 😀", "slash / stays"};
+        for (String value : strings) {
+            TestChecks.checkEquals(value, Json.parse("\"" + Json.escape(value) + "\""), "round trip of " + value);
+        }
+        TestChecks.checkEquals("A\u00e9\b\f/", Json.parse("\"\\u0041\\u00E9\\b\\f\\/\""), "escapes");
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("name", "Harbor");
+        expected.put("count", 42L);
+        expected.put("negative", -7L);
+        expected.put("ratio", 0.25);
+        expected.put("exponent", 1.5e3);
+        expected.put("flags", Arrays.asList(true, false, null));
+        expected.put("nested", Map.of("empty", List.of(), "object", Map.of()));
+        Object parsed = Json.parse(" {\"name\" : \"Harbor\", \"count\":42,\"negative\":-7, \"ratio\":0.25,"
+                + "\"exponent\":1.5e3,\n\"flags\":[true, false, null],\"nested\":{\"empty\":[],\"object\":{}}} ");
+        TestChecks.checkEquals(expected, parsed, "document");
+        TestChecks.checkEquals(List.copyOf(expected.keySet()), List.copyOf(((Map<?, ?>) parsed).keySet()),
+                "field order kept");
+
+        String[] invalid = {"", "{", "[1,]", "{\"a\" 1}", "{a:1}", "\"open", "\"\\u12\"", "\"\\uZZZZ\"", "tru",
+            "1 2", "[1] x", "--1", "1.2.3", "{\"a\":1,}"};
+        for (String text : invalid) {
+            TestChecks.checkThrows(IllegalArgumentException.class, () -> Json.parse(text), "rejects " + text);
+        }
+        System.out.println("JsonTest passed");
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that {@link LatencyHistogram} buckets tile the value range without
+ * gaps and within the documented error, and that percentiles match a sorted
+ * copy of the recorded values to within one bucket.
+ */
+public class LatencyHistogramTest {
+
+    public static void main(String[] args) {
+        // Every bucket starts right after the previous one ends
+        long lowest = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            long highest = LatencyHistogram.highestValueInBucket(i);
+            TestChecks.check(highest >= lowest, "bucket " + i + " not empty");
+            TestChecks.checkEquals(i, LatencyHistogram.indexFor(lowest), "lowest value of bucket " + i);
+            TestChecks.checkEquals(i, LatencyHistogram.indexFor(highest), "highest value of bucket " + i);
+            // Width within 1/16 of the values held
+            TestChecks.check(highest - lowest <= lowest / 16, "width of bucket " + i);
+            if (highest == Long.MAX_VALUE) {
+                TestChecks.checkEquals(LatencyHistogram.BUCKET_COUNT - 1, i, "last bucket reaches Long.MAX_VALUE");
+                break;
+            }
+            lowest = highest + 1;
+        }
+
+        LatencyHistogram empty = new LatencyHistogram();
+        TestChecks.checkEquals(0, empty.getValueAtPercentile(50), "empty histogram");
+        TestChecks.check(empty.getMean() == 0, "empty mean");
+
+        // Small values are exact, so the percentile arithmetic can be checked on its own
+        LatencyHistogram hundred = new LatencyHistogram();
+        long[] exact = new long[100];
+        for (int i = 0; i < exact.length; i++) {
+            exact[i] = i % 32;
+            hundred.record(exact[i]);
+        }
+        checkPercentiles(hundred, exact, "exact values");
+
+        Random random = new Random(27L);
+        for (int trial = 0; trial < 50; trial++) {
+            int n = 1 + random.nextInt(trial < 10 ? 20 : 20_000);
+            long[] values = new long[n];
+            LatencyHistogram histogram = new LatencyHistogram();
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                // Latency-like spread from nanoseconds to seconds
+                values[i] = (long) Math.exp(random.nextDouble() * Math.log(5e9));
+                if (random.nextInt(100) == 0) {
+                    values[i] = -values[i];
+                }
+                histogram.record(values[i]);
+                values[i] = Math.max(values[i], 0);
+                total += values[i];
+            }
+            String label = "trial " + trial;
+            TestChecks.checkEquals(n, histogram.getCount(), label + " count");
+            TestChecks.check(histogram.getMean() == (double) total / n, label + " mean");
+            checkPercentiles(histogram, values, label);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.reset();
+        TestChecks.checkEquals(0, histogram.getCount(), "reset count");
+        TestChecks.checkEquals(0, histogram.getMax(), "reset max");
+        TestChecks.checkEquals(0, histogram.getValueAtPercentile(100), "reset percentile");
+        System.out.println("LatencyHistogramTest passed");
+    }
+
+    /**
+     * Each percentile must come from the bucket of the exact value, capped at the maximum
+     */
+    private static void checkPercentiles(LatencyHistogram histogram, long[] values, String label) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        long max = sorted[sorted.length - 1];
+        TestChecks.checkEquals(max, histogram.getMax(), label + " max");
+        for (int percent = 0; percent <= 100; percent++) {
+            long exact = sorted[Math.max(1, (percent * sorted.length + 99) / 100) - 1];
+            long expected = Math.min(LatencyHistogram.highestValueInBucket(LatencyHistogram.indexFor(exact)), max);
+            TestChecks.checkEquals(expected, histogram.getValueAtPercentile(percent), label + " p" + percent);
+        }
+        for (double percentile : new double[] {99.9, 99.99}) {
+            long exact = sorted[(int) Math.max(1, Math.ceil(percentile * sorted.length / 100 - 1e-9)) - 1];
+            long reported = histogram.getValueAtPercentile(percentile);
+            TestChecks.check(reported >= exact && reported - exact <= exact / 16, label + " p" + percentile);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks route file handling and risk priority in {@link LogisticsAllocation}.
+ */
+public class LogisticsAllocationTest {
+
+    public static void main(String[] args) throws IOException {
+        List<Depot> depots = List.of(new Depot("North", 100), new Depot("South", 50));
+        List<District> districts = new ArrayList<>();
+        districts.add(new District("Harbor", 40_000, "Coastal", "Urban", 30));
+        districts.add(new District("Ridge", 5_000, "Forest", "Rural", 20));
+        districts.add(new District("Harbor", 90_000, "Urban", "Urban", 60));
+
+        LogisticsAllocation allocation = new LogisticsAllocation(depots, districts,
+                LogisticsAllocation.DEFAULT_RISK_WEIGHT);
+        allocation.readRoutes(routes("depot,district,cost\nNorth,Ridge,4\nSouth,Ridge,2\n"));
+        TestChecks.checkEquals(2, allocation.getRouteCount(), "routes read");
+        TestChecks.checkEquals("Ridge", allocation.getRouteDistrict(0).getName(), "route district");
+
+        LogisticsAllocation.Result result = allocation.solve();
+        TestChecks.checkEquals(20, result.getAllocated(1), "Ridge allocation");
+        TestChecks.checkEquals(20, result.getShipped(1), "cheaper route used first");
+
+        // Two districts share the name, so a route to it is ambiguous
+        LogisticsAllocation ambiguous = new LogisticsAllocation(depots, districts,
+                LogisticsAllocation.DEFAULT_RISK_WEIGHT);
+        TestChecks.checkThrows(IOException.class,
+                () -> ambiguous.readRoutes(routes("North,Harbor,1\n")), "route to a duplicated name");
+
+        TestChecks.checkThrows(IOException.class,
+                () -> ambiguous.readRoutes(routes("East,Ridge,1\n")), "route from an unknown depot");
+        checkClosePriorities();
+        System.out.println("LogisticsAllocationTest passed");
+    }
+
+    /**
+     * Ratios of 0.23 and 0.22 are one priority level apart, which must
+     * outweigh a route that is 4 cheaper per unit
+     */
+    private static void checkClosePriorities() throws IOException {
+        List<District> districts = List.of(
+                new District("Higher", 200_000, "Urban", "Urban", 100),
+                new District("Lower", 200_000, "Urban", "Suburban", 100));
+        TestChecks.checkEquals(23, districts.get(0).getRiskScore(), "higher risk score");
+        TestChecks.checkEquals(22, districts.get(1).getRiskScore(), "lower risk score");
+
+        LogisticsAllocation allocation = new LogisticsAllocation(List.of(new Depot("North", 100)), districts,
+                LogisticsAllocation.DEFAULT_RISK_WEIGHT);
+        allocation.readRoutes(routes("North,Higher,5\nNorth,Lower,1\n"));
+        LogisticsAllocation.Result result = allocation.solve();
+        TestChecks.checkEquals(100, result.getAllocated(0), "higher ratio served first");
+        TestChecks.checkEquals(0, result.getAllocated(1), "lower ratio left unserved");
+    }
+
+    private static Path routes(String content) throws IOException {
+        Path file = Files.createTempFile("routes", ".csv");
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
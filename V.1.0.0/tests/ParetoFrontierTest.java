@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks {@link ParetoFrontier} on small random district lists: each point's
+ * coverage must match the plan built from it, the points must trade risk for
+ * population monotonically, and no weighted greedy plan may beat the traced
+ * frontier by more than its tolerance. Some lists have districts with no
+ * demand, no risk or no population.
+ */
+public class ParetoFrontierTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+
+    public static void main(String[] args) {
+        Random random = new Random(50L);
+        for (int trial = 0; trial < 200; trial++) {
+            List<District> districts = new ArrayList<>();
+            int n = 1 + random.nextInt(40);
+            // Narrow ranges give many tied scores
+            boolean ties = trial % 4 == 0;
+            boolean zeroDemand = trial % 5 == 1;
+            boolean zeroRisk = trial % 7 == 2;
+            boolean zeroPopulation = trial % 11 == 3;
+            long totalDemand = 0;
+            for (int i = 0; i < n; i++) {
+                int population = zeroPopulation ? 0
+                        : ties ? 1000 * (1 + random.nextInt(3)) : 1 + random.nextInt(200_000);
+                int demand = zeroDemand && random.nextInt(4) == 0 ? 0
+                        : ties ? 10 * (1 + random.nextInt(2)) : 1 + random.nextInt(500);
+                District district = new District("D" + i, population, LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                        URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], demand);
+                if (zeroRisk) {
+                    district.setRiskScore(0);
+                }
+                districts.add(district);
+                totalDemand += district.getResourceDemand();
+            }
+            int budget = (int) (random.nextDouble() * 1.1 * totalDemand);
+            check(random, ParetoFrontier.compute(districts, budget), "trial " + trial);
+        }
+
+        ParetoFrontier empty = ParetoFrontier.compute(new ArrayList<>(), 100);
+        TestChecks.checkEquals(1, empty.getPoints().size(), "points for an empty list");
+        TestChecks.checkEquals(0, empty.getPoints().get(0).getFundedDistricts(), "districts funded in an empty list");
+        check(random, empty, "empty list");
+
+        // No budget still covers districts that need nothing
+        List<District> free = new ArrayList<>();
+        free.add(new District("Free", 5000, "Urban", "Urban", 0));
+        free.add(new District("Costly", 9000, "Forest", "Rural", 10));
+        ParetoFrontier noBudget = ParetoFrontier.compute(free, 0);
+        TestChecks.checkEquals(1, noBudget.getPoints().size(), "points without a budget");
+        TestChecks.checkEquals(5000, (long) noBudget.getPoints().get(0).getCoveredPopulation(),
+                "population covered without a budget");
+        check(random, noBudget, "no budget");
+        System.out.println("ParetoFrontierTest passed");
+    }
+
+    private static void check(Random random, ParetoFrontier frontier, String label) {
+        List<ParetoFrontier.Point> points = frontier.getPoints();
+        TestChecks.check(!points.isEmpty(), label + ": no frontier points");
+
+        for (int i = 0; i < points.size(); i++) {
+            ParetoFrontier.Point point = points.get(i);
+            ParetoFrontier.Point measured = ParetoFrontier.measure(frontier.toPlan(point));
+            checkClose(point.getCoveredRisk(), measured.getCoveredRisk(), label + " point " + i + " risk");
+            checkClose(point.getCoveredPopulation(), measured.getCoveredPopulation(),
+                    label + " point " + i + " population");
+            TestChecks.checkEquals(point.getFundedDistricts(), measured.getFundedDistricts(),
+                    label + " point " + i + " funded districts");
+            if (i > 0) {
+                ParetoFrontier.Point previous = points.get(i - 1);
+                TestChecks.check(point.getCoveredRisk() < previous.getCoveredRisk()
+                        && point.getCoveredPopulation() > previous.getCoveredPopulation(),
+                        label + ": point " + i + " does not trade risk for population");
+            }
+        }
+
+        ParetoFrontier.Point first = points.get(0);
+        ParetoFrontier.Point last = points.get(points.size() - 1);
+        double riskSpan = first.getCoveredRisk() - last.getCoveredRisk();
+        double populationSpan = last.getCoveredPopulation() - first.getCoveredPopulation();
+        for (int k = 0; k < 20; k++) {
+            double weight = 0.01 + 0.98 * random.nextDouble();
+            ParetoFrontier.Point best = ParetoFrontier.measure(
+                    frontier.toPlan(new ParetoFrontier.Point(weight, 0, 0, 0)));
+            if (points.size() == 1) {
+                TestChecks.check(best.getCoveredRisk() <= first.getCoveredRisk() * (1 + 1e-9)
+                        && best.getCoveredPopulation() <= first.getCoveredPopulation() * (1 + 1e-9),
+                        label + ": weight " + weight + " beats the only frontier point");
+                continue;
+            }
+            // The weighted objective as a direction in coordinates scaled to the frontier's range
+            double riskDirection = weight * riskSpan / frontier.getTotalRisk();
+            double populationDirection = (1 - weight) * populationSpan / frontier.getTotalPopulation();
+            double length = Math.hypot(riskDirection, populationDirection);
+            riskDirection /= length;
+            populationDirection /= length;
+            double bestValue = riskDirection * best.getCoveredRisk() / riskSpan
+                    + populationDirection * best.getCoveredPopulation() / populationSpan;
+            double frontierValue = Double.NEGATIVE_INFINITY;
+            for (ParetoFrontier.Point point : points) {
+                frontierValue = Math.max(frontierValue, riskDirection * point.getCoveredRisk() / riskSpan
+                        + populationDirection * point.getCoveredPopulation() / populationSpan);
+            }
+            TestChecks.check(bestValue <= frontierValue + ParetoFrontier.DEFAULT_EPSILON + 1e-9,
+                    label + ": weight " + weight + " is " + (bestValue - frontierValue) + " beyond the frontier");
+        }
+    }
+
+    private static void checkClose(double expected, double actual, String message) {
+        TestChecks.check(Math.abs(expected - actual) <= 1e-9 * Math.max(1, Math.abs(expected)),
+                message + ": expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Applies random edits to {@link PersistentVector} and to an ArrayList side
+ * by side, checking that every version matches its list and that older
+ * versions are left untouched by later edits.
+ */
+public class PersistentVectorTest {
+
+    public static void main(String[] args) {
+        Random random = new Random(44L);
+        for (int trial = 0; trial < 40; trial++) {
+            runTrial(random, trial);
+        }
+        checkOf();
+        System.out.println("PersistentVectorTest passed");
+    }
+
+    private static void runTrial(Random random, int trial) {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+        List<PersistentVector<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> snapshots = new ArrayList<>();
+        int next = 0;
+
+        for (int step = 0; step < 600; step++) {
+            int op = random.nextInt(10);
+            if (op < 4 || expected.isEmpty()) {
+                vector = vector.plus(next);
+                expected.add(next++);
+            } else if (op < 5) {
+                // Bulk append, sometimes spanning several chunks
+                int count = random.nextInt(3 * PersistentVector.CHUNK_SIZE + 2);
+                List<Integer> added = new ArrayList<>();
+                for (int k = 0; k < count; k++) {
+                    added.add(next++);
+                }
+                vector = vector.plusAll(added);
+                expected.addAll(added);
+            } else if (op < 8) {
+                int index = random.nextInt(expected.size());
+                vector = vector.minus(index);
+                expected.remove(index);
+            } else {
+                int index = random.nextInt(expected.size());
+                vector = vector.with(index, -next);
+                expected.set(index, -next++);
+            }
+
+            if (step % 7 == 0) {
+                versions.add(vector);
+                snapshots.add(new ArrayList<>(expected));
+            }
+            checkSame(expected, vector, "trial " + trial + " step " + step);
+        }
+
+        for (int v = 0; v < versions.size(); v++) {
+            checkSame(snapshots.get(v), versions.get(v), "trial " + trial + " saved version " + v);
+        }
+    }
+
+    private static void checkOf() {
+        for (int n : new int[] {0, 1, PersistentVector.CHUNK_SIZE, PersistentVector.CHUNK_SIZE + 1, 5000}) {
+            List<Integer> list = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                list.add(i * 3);
+            }
+            checkSame(list, PersistentVector.of(list), "of(" + n + ")");
+        }
+    }
+
+    private static void checkSame(List<Integer> expected, PersistentVector<Integer> actual, String label) {
+        TestChecks.checkEquals(expected.size(), actual.size(), label + " size");
+        for (int i = 0; i < expected.size(); i++) {
+            TestChecks.checkEquals(expected.get(i), actual.get(i), label + " element " + i);
+        }
+        Iterator<Integer> iterator = actual.iterator();
+        for (Integer value : expected) {
+            TestChecks.check(iterator.hasNext(), label + ": iterator ended early");
+            TestChecks.checkEquals(value, iterator.next(), label + " iterated element");
+        }
+        TestChecks.check(!iterator.hasNext(), label + ": iterator has extra elements");
+        TestChecks.checkThrows(IndexOutOfBoundsException.class, () -> actual.get(expected.size()),
+                label + " index past the end");
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ranks random inputs with many tied ratios through {@link PriorityRanking},
+ * on both sides of the radix sort threshold, and checks that the order of
+ * IDs matches a comparison sort and does not change when the same districts
+ * are passed in a shuffled order.
+ */
+public class PriorityRankingTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+
+    public static void main(String[] args) {
+        Random random = new Random(39L);
+        for (int trial = 0; trial < 200; trial++) {
+            int n = random.nextInt(trial % 10 == 0 ? 10_000 : 300);
+            int[] risk = new int[n];
+            int[] demand = new int[n];
+            int[] ids = new int[n];
+            int nextId = random.nextInt(1_000);
+            for (int i = 0; i < n; i++) {
+                // Small ranges, so many positions share a ratio
+                risk[i] = random.nextInt(trial % 2 == 0 ? 4 : 1_000);
+                demand[i] = 1 + random.nextInt(trial % 2 == 0 ? 4 : 100);
+                nextId += 1 + random.nextInt(trial % 3 == 0 ? 100_000 : 3);
+                ids[i] = nextId;
+            }
+            shuffle(random, risk, demand, ids);
+
+            List<Integer> expected = referenceOrder(risk, demand, ids);
+            TestChecks.checkEquals(expected, idOrder(PriorityRanking.rank(risk, demand, ids), ids),
+                    "trial " + trial + " order");
+            for (int permutation = 0; permutation < 3; permutation++) {
+                shuffle(random, risk, demand, ids);
+                TestChecks.checkEquals(expected, idOrder(PriorityRanking.rank(risk, demand, ids), ids),
+                        "trial " + trial + " permutation " + permutation);
+            }
+        }
+
+        // The allocation engine's order does not depend on the input order either
+        List<District> districts = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            districts.add(new District("D" + i, 1_000 * (1 + random.nextInt(5)),
+                    LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                    URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], 10 * (1 + random.nextInt(3))));
+        }
+        List<District> expected = AllocationEngine.allocate(districts, 0).getSortedDistricts();
+        for (int permutation = 0; permutation < 3; permutation++) {
+            List<District> shuffled = new ArrayList<>(districts);
+            Collections.shuffle(shuffled, random);
+            TestChecks.checkEquals(expected, AllocationEngine.allocate(shuffled, 0).getSortedDistricts(),
+                    "engine permutation " + permutation);
+        }
+        System.out.println("PriorityRankingTest passed");
+    }
+
+    private static List<Integer> referenceOrder(int[] risk, int[] demand, int[] ids) {
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            positions.add(i);
+        }
+        positions.sort(Comparator.<Integer>comparingDouble(i -> -(double) risk[i] / demand[i])
+                .thenComparingInt(i -> ids[i]));
+        List<Integer> order = new ArrayList<>(positions.size());
+        for (int i : positions) {
+            order.add(ids[i]);
+        }
+        return order;
+    }
+
+    private static List<Integer> idOrder(int[] order, int[] ids) {
+        TestChecks.checkEquals(ids.length, order.length, "ranked positions");
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            TestChecks.checkEquals(i, sorted[i], "each position ranked once");
+        }
+        List<Integer> result = new ArrayList<>(order.length);
+        for (int position : order) {
+            result.add(ids[position]);
+        }
+        return result;
+    }
+
+    /**
+     * Applies the same random permutation to all three arrays
+     */
+    private static void shuffle(Random random, int[] risk, int[] demand, int[] ids) {
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            swap(risk, i, j);
+            swap(demand, i, j);
+            swap(ids, i, j);
+        }
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+}
@@ -0,0 +1,117 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Writes plans through {@link ProvenanceLog}, reads the file back with
+ * {@link ProvenanceViewer#readRuns} and checks that every recorded decision
+ * matches its plan and that {@link ProvenanceViewer#replay} reproduces it.
+ */
+public class ProvenanceLogTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+    // Names that need escaping in JSON
+    private static final String[] NAME_PREFIXES = {"Harbor", "Ridge \"North\"", "Back\\slash", "Tab\there",
+        "Line\nbreak", "Bell\u0007", "Zürich 東京"};
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(40L);
+        List<District> districts = new ArrayList<>();
+        long totalDemand = 0;
+        for (int i = 0; i < 200; i++) {
+            // Few distinct values, so replay has ties to break by ID
+            districts.add(new District(NAME_PREFIXES[i % NAME_PREFIXES.length] + " " + i,
+                    1_000 * (1 + random.nextInt(5)), LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                    URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], 10 * (1 + random.nextInt(3))));
+            totalDemand += districts.get(i).getResourceDemand();
+        }
+        // The recorded order must not depend on the list being in ID order
+        Collections.shuffle(districts, random);
+
+        List<AllocationPlan> plans = new ArrayList<>();
+        for (AllocationPolicy policy : AllocationEngine.getBuiltInPolicies()) {
+            plans.add(AllocationEngine.allocate(districts, (int) (totalDemand / 3), policy));
+        }
+        plans.add(AllocationEngine.allocate(districts, 0));
+        plans.add(AllocationEngine.allocate(districts, (int) totalDemand + 5));
+
+        Path file = Files.createTempFile("provenance-test", ".jsonl");
+        try {
+            ProvenanceLog log = new ProvenanceLog(file);
+            for (AllocationPlan plan : plans) {
+                log.accept(plan);
+            }
+            // A cached plan shown again is not a new run
+            log.accept(plans.get(0));
+            log.close();
+            TestChecks.checkEquals(plans.size(), log.getWrittenCount(), "records written");
+            TestChecks.checkEquals(0, log.getDroppedCount(), "records dropped");
+            log.accept(plans.get(1));
+
+            // A crash mid-write leaves a truncated line, which is skipped
+            Files.write(file, "{\"runId\":\"x\",\"decisions\":[".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+            List<ProvenanceViewer.Run> runs = ProvenanceViewer.readRuns(file);
+            TestChecks.checkEquals(plans.size(), runs.size(), "runs read back");
+            for (int r = 0; r < runs.size(); r++) {
+                checkRun(plans.get(r), runs.get(r), "run " + r);
+            }
+
+            // Replay catches a recorded decision that the policy would not make
+            ProvenanceViewer.Run run = runs.get(0);
+            Map<String, Object> first = run.getDecisions().get(0);
+            first.put("allocated", ((Number) first.get("allocated")).longValue() + 1);
+            TestChecks.checkEquals(1, ProvenanceViewer.replay(run).getMismatches(), "tampered decision found");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.println("ProvenanceLogTest passed");
+    }
+
+    private static void checkRun(AllocationPlan plan, ProvenanceViewer.Run run, String label) {
+        TestChecks.checkEquals(plan.getPolicyName(), run.getPolicy(), label + " policy");
+        TestChecks.checkEquals(plan.getTotalResources(), run.getTotalResources(), label + " total");
+        TestChecks.checkEquals(plan.getRemainingResources(), run.getRemainingResources(), label + " remaining");
+        TestChecks.checkEquals(0, run.getDroppedBefore(), label + " drops");
+
+        Map<District, Integer> allocated = new IdentityHashMap<>();
+        for (AllocationResult result : plan.getAllocationResults()) {
+            allocated.put(result.getDistrict(), result.getAllocatedResources());
+        }
+        List<District> sorted = plan.getSortedDistricts();
+        List<Map<String, Object>> decisions = run.getDecisions();
+        TestChecks.checkEquals(sorted.size(), decisions.size(), label + " decisions");
+        int cutPoint = -1;
+        for (int rank = 0; rank < sorted.size(); rank++) {
+            District district = sorted.get(rank);
+            Map<String, Object> decision = decisions.get(rank);
+            int amount = allocated.getOrDefault(district, 0);
+            if (cutPoint < 0 && amount < district.getResourceDemand()) {
+                cutPoint = rank;
+            }
+            String row = label + " rank " + rank;
+            TestChecks.checkEquals((long) rank, decision.get("rank"), row);
+            TestChecks.checkEquals((long) district.getId(), decision.get("id"), row + " id");
+            TestChecks.checkEquals(district.getName(), decision.get("name"), row + " name");
+            TestChecks.checkEquals((long) district.getPopulation(), decision.get("population"), row + " population");
+            TestChecks.checkEquals(district.getLandType(), decision.get("landType"), row + " land type");
+            TestChecks.checkEquals(district.getUrbanization(), decision.get("urbanization"), row + " urbanization");
+            TestChecks.checkEquals((long) district.getRiskScore(), decision.get("riskScore"), row + " risk");
+            TestChecks.checkEquals((long) district.getResourceDemand(), decision.get("resourceDemand"), row + " demand");
+            TestChecks.checkEquals((long) amount, decision.get("allocated"), row + " allocated");
+            TestChecks.checkEquals(ProvenanceLog.status(amount, district.getResourceDemand()), decision.get("status"),
+                    row + " status");
+        }
+        TestChecks.checkEquals(cutPoint, run.getCutPoint(), label + " cut point");
+
+        ProvenanceViewer.ReplayResult replay = ProvenanceViewer.replay(run);
+        TestChecks.check(replay.matches(), label + " " + replay);
+    }
+}
@@ -0,0 +1,163 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Exports plans with {@link ReportExporter} and checks the CSV rows against
+ * the plan, that every XLSX part is well-formed XML with one row per
+ * district, and that every PDF cross-reference offset points at its object.
+ */
+public class ReportExporterTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+    // Names that need quoting in CSV, escaping in XML or PDF strings, or replacing in WinAnsi
+    private static final String[] NAME_PREFIXES = {"Harbor", "Ridge, North", "Mesa \"Old\"", "A<B & C>",
+        "Delta (East)", "Back\\slash", "Zürich", "東京"};
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(47L);
+        List<District> districts = new ArrayList<>();
+        long totalDemand = 0;
+        for (int i = 0; i < 300; i++) {
+            District district = new District(NAME_PREFIXES[i % NAME_PREFIXES.length] + " " + i,
+                    1 + random.nextInt(150_000), LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                    URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], 1 + random.nextInt(200));
+            districts.add(district);
+            totalDemand += district.getResourceDemand();
+        }
+
+        for (AllocationPolicy policy : AllocationEngine.getBuiltInPolicies()) {
+            AllocationPlan plan = AllocationEngine.allocate(districts, (int) (totalDemand / 2), policy);
+            checkCsv(plan, export(plan, "csv"), policy.getName());
+        }
+        AllocationPlan plan = AllocationEngine.allocate(districts, (int) (totalDemand / 2));
+        checkXlsx(plan, export(plan, "xlsx"));
+        checkPdf(export(plan, "pdf"));
+
+        AllocationPlan empty = AllocationEngine.allocate(new ArrayList<>(), 10);
+        checkCsv(empty, export(empty, "csv"), "empty plan");
+        checkXlsx(empty, export(empty, "xlsx"));
+        checkPdf(export(empty, "pdf"));
+        System.out.println("ReportExporterTest passed");
+    }
+
+    private static byte[] export(AllocationPlan plan, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ReportExporter(plan).export(format, out);
+        return out.toByteArray();
+    }
+
+    private static void checkCsv(AllocationPlan plan, byte[] bytes, String label) {
+        Map<District, AllocationResult> results = resultsByDistrict(plan);
+        String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n");
+        List<District> sorted = plan.getSortedDistricts();
+        TestChecks.checkEquals(sorted.size() + 1, lines.length, label + " CSV lines");
+        TestChecks.checkEquals(List.of(ReportExporter.COLUMNS), List.of(BatchAllocationCli.splitCsv(lines[0])),
+                label + " CSV header");
+        for (int i = 0; i < sorted.size(); i++) {
+            District district = sorted.get(i);
+            AllocationResult result = results.get(district);
+            String[] fields = BatchAllocationCli.splitCsv(lines[i + 1]);
+            String row = label + " CSV row " + (i + 1);
+            TestChecks.checkEquals(10, fields.length, row + " fields");
+            TestChecks.checkEquals(List.of(String.valueOf(i + 1), district.getName(),
+                    String.valueOf(district.getPopulation()), district.getLandType(), district.getUrbanization(),
+                    String.valueOf(district.getRiskScore())), List.of(fields).subList(0, 6), row);
+            TestChecks.check(Math.abs(Double.parseDouble(fields[6]) - district.getRiskResourceRatio()) < 1e-4,
+                    row + " ratio " + fields[6]);
+            TestChecks.checkEquals(List.of(String.valueOf(district.getResourceDemand()),
+                    String.valueOf(allocated(result)), status(result)), List.of(fields).subList(7, 10), row);
+        }
+    }
+
+    private static void checkXlsx(AllocationPlan plan, byte[] bytes) throws Exception {
+        DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Map<District, AllocationResult> results = resultsByDistrict(plan);
+        Set<String> parts = new TreeSet<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                parts.add(entry.getName());
+                // Parsing fails on anything that is not well-formed
+                Document document = parser.parse(new ByteArrayInputStream(zip.readAllBytes()));
+                NodeList rows = document.getElementsByTagName("row");
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    TestChecks.checkEquals(6, rows.getLength(), "summary rows");
+                } else if (entry.getName().equals("xl/worksheets/sheet2.xml")) {
+                    List<District> sorted = plan.getSortedDistricts();
+                    TestChecks.checkEquals(sorted.size() + 1, rows.getLength(), "district rows");
+                    for (int i = 0; i < sorted.size(); i++) {
+                        Element row = (Element) rows.item(i + 1);
+                        TestChecks.checkEquals(String.valueOf(i + 2), row.getAttribute("r"), "row number");
+                        NodeList cells = row.getElementsByTagName("c");
+                        TestChecks.checkEquals(10, cells.getLength(), "cells in row " + (i + 2));
+                        TestChecks.checkEquals(sorted.get(i).getName(), cells.item(1).getTextContent(),
+                                "name in row " + (i + 2));
+                        TestChecks.checkEquals(String.valueOf(allocated(results.get(sorted.get(i)))),
+                                cells.item(8).getTextContent(), "allocated in row " + (i + 2));
+                    }
+                }
+            }
+        }
+        TestChecks.checkEquals(Set.of("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels", "xl/styles.xml", "xl/worksheets/sheet1.xml",
+                "xl/worksheets/sheet2.xml"), parts, "XLSX parts");
+    }
+
+    private static void checkPdf(byte[] bytes) {
+        String pdf = new String(bytes, StandardCharsets.ISO_8859_1);
+        TestChecks.check(pdf.startsWith("%PDF-1.4\n"), "PDF header");
+        Matcher trailer = Pattern.compile("startxref\n(\\d+)\n%%EOF\n$").matcher(pdf);
+        TestChecks.check(trailer.find(), "PDF trailer");
+        int xref = Integer.parseInt(trailer.group(1));
+        TestChecks.check(pdf.startsWith("xref\n0 ", xref), "startxref points at the table");
+
+        String[] lines = pdf.substring(xref).split("\n");
+        int size = Integer.parseInt(lines[1].substring(2));
+        TestChecks.checkEquals("0000000000 65535 f ", lines[2], "free entry");
+        for (int number = 1; number < size; number++) {
+            String entry = lines[number + 2];
+            TestChecks.check(entry.matches("\\d{10} 00000 n "), "xref entry " + entry);
+            int offset = Integer.parseInt(entry.substring(0, 10));
+            TestChecks.check(pdf.startsWith(number + " 0 obj\n", offset), "offset of object " + number);
+        }
+        TestChecks.check(lines[size + 2].equals("trailer"), "trailer after the table");
+        TestChecks.check(pdf.contains("/Size " + size + " "), "trailer size");
+    }
+
+    private static Map<District, AllocationResult> resultsByDistrict(AllocationPlan plan) {
+        Map<District, AllocationResult> results = new IdentityHashMap<>();
+        for (AllocationResult result : plan.getAllocationResults()) {
+            results.put(result.getDistrict(), result);
+        }
+        return results;
+    }
+
+    private static int allocated(AllocationResult result) {
+        return result == null ? 0 : result.getAllocatedResources();
+    }
+
+    private static String status(AllocationResult result) {
+        if (result == null) {
+            return "Unfunded";
+        }
+        return result.isPartial ? "Partial" : "Full";
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks {@link RingBuffer} capacity rounding, FIFO order and full/empty
+ * behaviour, and that items from several producers all reach the consumer
+ * in each producer's order.
+ */
+public class RingBufferTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        int[][] capacities = {{1, 2}, {2, 2}, {3, 4}, {4, 4}, {5, 8}, {256, 256}, {1000, 1024}};
+        for (int[] capacity : capacities) {
+            TestChecks.checkEquals(capacity[1], new RingBuffer<Integer>(capacity[0]).capacity(),
+                    "capacity for " + capacity[0]);
+        }
+
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        TestChecks.check(buffer.poll() == null, "empty buffer");
+        for (int round = 0; round < 3; round++) {
+            // Wraps around the slots on later rounds
+            for (int i = 0; i < 4; i++) {
+                TestChecks.check(buffer.offer(round * 10 + i), "offer " + i + " in round " + round);
+            }
+            TestChecks.check(!buffer.offer(99), "full buffer refuses");
+            for (int i = 0; i < 4; i++) {
+                TestChecks.checkEquals(round * 10 + i, buffer.poll().intValue(), "FIFO order in round " + round);
+            }
+            TestChecks.check(buffer.poll() == null, "drained in round " + round);
+        }
+
+        int producers = 4;
+        int perProducer = 20_000;
+        RingBuffer<long[]> shared = new RingBuffer<>(64);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long[] item = {producer, i};
+                    while (!shared.offer(item)) {
+                        Thread.yield();
+                    }
+                }
+            }, "ring-buffer-test-" + p);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        int[] next = new int[producers];
+        long received = 0;
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (received < (long) producers * perProducer) {
+            long[] item = shared.poll();
+            if (item == null) {
+                TestChecks.check(System.nanoTime() < deadline, "consumer timed out after " + received + " items");
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) item[0];
+            TestChecks.checkEquals(next[producer], item[1], "order of producer " + producer);
+            next[producer]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        TestChecks.check(shared.poll() == null, "nothing left over");
+        System.out.println("RingBufferTest passed");
+    }
+}
@@ -0,0 +1,141 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Checks {@link RiskSummary} totals, histogram, quantiles and tier
+ * thresholds against a sorted copy of the risk scores, for empty, single
+ * and random sets including scores above the model's maximum.
+ */
+public class RiskSummaryTest {
+
+    public static void main(String[] args) {
+        RiskSummary empty = RiskSummary.of(Collections.emptyList());
+        TestChecks.checkEquals(0, empty.getCount(), "empty count");
+        TestChecks.checkEquals(0, empty.getQuantile(0.5), "empty quantile");
+        TestChecks.checkEquals(0, empty.getHistogramCount(RiskStatistics.MIN_TOTAL_RISK), "empty histogram");
+        TestChecks.check(empty.getMeanRisk() == 0, "empty mean");
+        // With nothing to rank, the tiers split the model's range
+        TestChecks.check(RiskStatistics.MIN_TOTAL_RISK < empty.getMediumThreshold()
+                && empty.getMediumThreshold() < empty.getHighThreshold()
+                && empty.getHighThreshold() <= RiskStatistics.MAX_TOTAL_RISK, "empty thresholds inside the range");
+        checkTiers(empty, "empty");
+
+        for (int score : new int[] {0, RiskStatistics.MIN_TOTAL_RISK, RiskStatistics.MAX_TOTAL_RISK,
+            RiskStatistics.MAX_TOTAL_RISK * 5 + 3}) {
+            RiskSummary single = summarize(new int[] {score});
+            String label = "single " + score;
+            checkAgainstSorted(single, new int[] {score}, label);
+            // One district is never in a higher tier than itself
+            TestChecks.checkEquals(score + 1, single.getMediumThreshold(), label + " medium threshold");
+            TestChecks.checkEquals(score + 1, single.getHighThreshold(), label + " high threshold");
+            TestChecks.checkEquals(RiskSummary.Tier.LOW, single.getTier(score), label + " tier");
+        }
+
+        // Negative scores count as zero
+        RiskSummary clamped = summarize(new int[] {-4, 2});
+        TestChecks.checkEquals(0, clamped.getMinRisk(), "negative score clamped");
+        TestChecks.checkEquals(1, clamped.getHistogramCount(0), "clamped score counted at zero");
+
+        // Shares such as 0.07 of 100 districts must land on a whole rank, not one past it
+        int[] hundred = new int[100];
+        for (int i = 0; i < hundred.length; i++) {
+            hundred[i] = RiskStatistics.MIN_TOTAL_RISK + i;
+        }
+        checkAgainstSorted(summarize(hundred), hundred, "hundred distinct");
+
+        Random random = new Random(37L);
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(trial < 20 ? 10 : 2_000);
+            int[] risk = new int[n];
+            int span = 1 + random.nextInt(trial % 4 == 0 ? 3 : RiskStatistics.MAX_TOTAL_RISK);
+            int base = random.nextInt(RiskStatistics.MAX_TOTAL_RISK);
+            for (int i = 0; i < n; i++) {
+                risk[i] = base + random.nextInt(span);
+                if (trial % 5 == 0 && random.nextInt(50) == 0) {
+                    // Past the end of the default histogram, so it has to grow
+                    risk[i] = RiskStatistics.MAX_TOTAL_RISK + 1 + random.nextInt(10 * RiskStatistics.MAX_TOTAL_RISK);
+                }
+            }
+            checkAgainstSorted(summarize(risk), risk, "trial " + trial);
+        }
+        System.out.println("RiskSummaryTest passed");
+    }
+
+    private static RiskSummary summarize(int[] risk) {
+        int n = risk.length;
+        int[] population = new int[n];
+        int[] demand = new int[n];
+        byte[] landTypeCode = new byte[n];
+        byte[] urbanizationCode = new byte[n];
+        Arrays.fill(population, 1_000);
+        Arrays.fill(demand, 10);
+        Arrays.fill(landTypeCode, (byte) 1);
+        Arrays.fill(urbanizationCode, (byte) 1);
+        return RiskSummary.compute(n, risk, population, demand, landTypeCode, urbanizationCode);
+    }
+
+    private static void checkAgainstSorted(RiskSummary summary, int[] risk, String label) {
+        int n = risk.length;
+        int[] sorted = new int[n];
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            sorted[i] = Math.max(risk[i], 0);
+            total += sorted[i];
+        }
+        Arrays.sort(sorted);
+        TestChecks.checkEquals(n, summary.getCount(), label + " count");
+        TestChecks.checkEquals(sorted[0], summary.getMinRisk(), label + " min");
+        TestChecks.checkEquals(sorted[n - 1], summary.getMaxRisk(), label + " max");
+        TestChecks.check(summary.getMeanRisk() == (double) total / n, label + " mean");
+
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && sorted[j] == sorted[i]) {
+                j++;
+            }
+            TestChecks.checkEquals(j - i, summary.getHistogramCount(sorted[i]), label + " histogram at " + sorted[i]);
+            i = j;
+        }
+        TestChecks.checkEquals(0, summary.getHistogramCount(sorted[0] - 1), label + " histogram below min");
+        TestChecks.checkEquals(0, summary.getHistogramCount(sorted[n - 1] + 1), label + " histogram above max");
+
+        for (int percent = 0; percent <= 100; percent++) {
+            TestChecks.checkEquals(quantile(sorted, percent), summary.getQuantile(percent / 100.0),
+                    label + " quantile " + percent + "%");
+        }
+
+        int medium = Math.max(quantile(sorted, percent(RiskSummary.MEDIUM_TIER_QUANTILE)), sorted[0] + 1);
+        int high = Math.max(quantile(sorted, percent(RiskSummary.HIGH_TIER_QUANTILE)), medium);
+        TestChecks.checkEquals(medium, summary.getMediumThreshold(), label + " medium threshold");
+        TestChecks.checkEquals(high, summary.getHighThreshold(), label + " high threshold");
+        checkTiers(summary, label);
+        TestChecks.checkEquals(RiskSummary.Tier.LOW, summary.getTier(sorted[0]), label + " lowest score tier");
+    }
+
+    /**
+     * Smallest score with at least percent% of the districts at or below it
+     */
+    private static int quantile(int[] sorted, int percent) {
+        return sorted[Math.max(1, (percent * sorted.length + 99) / 100) - 1];
+    }
+
+    private static int percent(double quantile) {
+        return (int) Math.round(quantile * 100);
+    }
+
+    /**
+     * Checks the tier on each side of both thresholds
+     */
+    private static void checkTiers(RiskSummary summary, String label) {
+        int medium = summary.getMediumThreshold();
+        int high = summary.getHighThreshold();
+        TestChecks.checkEquals(RiskSummary.Tier.LOW, summary.getTier(medium - 1), label + " below medium");
+        TestChecks.checkEquals(high == medium ? RiskSummary.Tier.HIGH : RiskSummary.Tier.MEDIUM,
+                summary.getTier(medium), label + " at medium");
+        TestChecks.checkEquals(medium == high ? RiskSummary.Tier.LOW : RiskSummary.Tier.MEDIUM,
+                summary.getTier(high - 1), label + " below high");
+        TestChecks.checkEquals(RiskSummary.Tier.HIGH, summary.getTier(high), label + " at high");
+        TestChecks.checkEquals(RiskSummary.Tier.HIGH, summary.getTier(Integer.MAX_VALUE), label + " far above high");
+    }
+}
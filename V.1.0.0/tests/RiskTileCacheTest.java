@@ -0,0 +1,73 @@
+import java.awt.image.BufferedImage;
+import java.util.Set;
+
+/**
+ * Walks {@link RiskTileCache} through claims, stale tiles, invalidation
+ * during a render, renders outliving a clear, and LRU eviction.
+ */
+public class RiskTileCacheTest {
+
+    public static void main(String[] args) {
+        long a = RiskTilePyramid.tileKey(0, 0, 0);
+        long b = RiskTilePyramid.tileKey(1, 1, 0);
+        long c = RiskTilePyramid.tileKey(1, 0, 1);
+        BufferedImage first = image();
+        BufferedImage second = image();
+        RiskTileCache cache = new RiskTileCache(2);
+
+        // A missing tile is claimed once, and a fresh one is not claimed again
+        long generation = cache.claim(a);
+        TestChecks.check(generation >= 0, "missing tile claimed");
+        TestChecks.checkEquals(-1, cache.claim(a), "tile already being rendered");
+        cache.put(a, first, generation);
+        TestChecks.check(cache.get(a) == first, "rendered tile stored");
+        TestChecks.checkEquals(-1, cache.claim(a), "fresh tile not rendered again");
+
+        // A stale tile stays visible until its replacement arrives
+        cache.invalidate(Set.of(a));
+        TestChecks.check(cache.get(a) == first, "stale tile still shown");
+        generation = cache.claim(a);
+        TestChecks.check(generation >= 0, "stale tile claimed");
+        cache.put(a, second, generation);
+        TestChecks.check(cache.get(a) == second, "replacement stored");
+        TestChecks.checkEquals(-1, cache.claim(a), "replacement is fresh");
+
+        // A render invalidated while it ran is stored as stale
+        generation = cache.claim(b);
+        cache.invalidate(Set.of(b));
+        cache.put(b, first, generation);
+        TestChecks.check(cache.get(b) == first, "invalidated render still shown");
+        TestChecks.check(cache.claim(b) >= 0, "invalidated render claimed again");
+        cache.clear();
+
+        // A render claimed before a clear is dropped, and its release leaves newer claims alone
+        long before = cache.claim(a);
+        cache.clear();
+        TestChecks.checkEquals(0, cache.size(), "cleared");
+        cache.put(a, first, before);
+        TestChecks.check(cache.get(a) == null, "render of a cleared generation dropped");
+        long after = cache.claim(a);
+        TestChecks.check(after >= 0 && after != before, "claimed in the new generation");
+        cache.release(a, before);
+        TestChecks.checkEquals(-1, cache.claim(a), "old release keeps the new claim");
+        cache.release(a, after);
+        generation = cache.claim(a);
+        TestChecks.checkEquals(after, generation, "released claim can be claimed again");
+        cache.put(a, first, generation);
+
+        // The least recently used tile goes first
+        generation = cache.claim(b);
+        cache.put(b, second, generation);
+        cache.get(a);
+        generation = cache.claim(c);
+        cache.put(c, first, generation);
+        TestChecks.checkEquals(2, cache.size(), "capacity");
+        TestChecks.check(cache.get(b) == null, "least recently used tile evicted");
+        TestChecks.check(cache.get(a) != null && cache.get(c) != null, "recent tiles kept");
+        System.out.println("RiskTileCacheTest passed");
+    }
+
+    private static BufferedImage image() {
+        return new BufferedImage(RiskTilePyramid.TILE_SIZE, RiskTilePyramid.TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks the invariants the risk map relies on in {@link RiskTilePyramid}:
+ * the Hilbert layout is a bijection, every level sums its 2x2 children,
+ * and {@link RiskTilePyramid#applyPlan} returns exactly the tiles, with
+ * their ancestors, that hold a district whose funding changed.
+ */
+public class RiskTilePyramidTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+
+    public static void main(String[] args) {
+        for (int n = 1; n <= 256; n <<= 1) {
+            Set<Long> seen = new HashSet<>();
+            for (long d = 0; d < (long) n * n; d++) {
+                long xy = RiskTilePyramid.hilbertPoint(n, d);
+                int x = (int) (xy >>> 32);
+                int y = (int) (xy & 0xFFFFFFFFL);
+                TestChecks.check(x >= 0 && x < n && y >= 0 && y < n, "point " + d + " inside " + n + "x" + n);
+                TestChecks.check(seen.add(xy), "point " + d + " visited once in " + n + "x" + n);
+                TestChecks.checkEquals(d, RiskTilePyramid.hilbertIndex(n, x, y), "inverse in " + n + "x" + n);
+                if (d > 0) {
+                    // Consecutive districts get neighbouring cells
+                    long previous = RiskTilePyramid.hilbertPoint(n, d - 1);
+                    int step = Math.abs(x - (int) (previous >>> 32)) + Math.abs(y - (int) (previous & 0xFFFFFFFFL));
+                    TestChecks.checkEquals(1, step, "curve step at " + d);
+                }
+            }
+        }
+
+        Random random = new Random(49L);
+        for (int size : new int[] {1, 5, 64, 1_000, 5_000}) {
+            List<District> districts = new ArrayList<>();
+            long totalDemand = 0;
+            for (int i = 0; i < size; i++) {
+                districts.add(new District("D" + i, 1 + random.nextInt(150_000),
+                        LAND_TYPES[random.nextInt(LAND_TYPES.length)],
+                        URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)], 1 + random.nextInt(100)));
+                totalDemand += districts.get(i).getResourceDemand();
+            }
+            RiskTilePyramid pyramid = new RiskTilePyramid(districts);
+            String label = size + " districts";
+            checkLevels(pyramid, label);
+
+            // Budgets go up and down, so districts gain and lose funding between plans
+            AllocationPolicy[] policies = AllocationEngine.getBuiltInPolicies();
+            for (int step = 0; step < 6; step++) {
+                int budget = (int) (random.nextDouble() * 1.2 * totalDemand);
+                List<District> planned = new ArrayList<>(districts);
+                // A district from outside the pyramid is ignored
+                planned.add(new District("Elsewhere", 10_000, "Urban", "Urban", 5));
+                AllocationPlan plan = AllocationEngine.allocate(planned, budget, policies[step % policies.length]);
+                float[] before = new float[size];
+                for (int i = 0; i < size; i++) {
+                    before[i] = pyramid.getFundedShare(districts.get(i));
+                }
+
+                Set<Long> dirty = pyramid.applyPlan(plan);
+                Set<Long> expected = new HashSet<>();
+                for (AllocationResult result : plan.getAllocationResults()) {
+                    int index = districts.indexOf(result.getDistrict());
+                    if (index >= 0) {
+                        TestChecks.check(pyramid.getFundedShare(result.getDistrict())
+                                == (float) result.getAllocatedResources() / result.getDistrict().getResourceDemand(),
+                                label + " funded share of " + result.getDistrict());
+                    }
+                }
+                for (int i = 0; i < size; i++) {
+                    if (pyramid.getFundedShare(districts.get(i)) != before[i]) {
+                        addTiles(pyramid, i, expected);
+                    }
+                }
+                TestChecks.checkEquals(expected, dirty, label + " dirty tiles at step " + step);
+                checkLevels(pyramid, label + " step " + step);
+                TestChecks.checkEquals(new HashSet<Long>(), pyramid.applyPlan(plan), label + " same plan again");
+            }
+        }
+        System.out.println("RiskTilePyramidTest passed");
+    }
+
+    /**
+     * Adds the tile holding a district's cell at every zoom
+     */
+    private static void addTiles(RiskTilePyramid pyramid, int index, Set<Long> tiles) {
+        long xy = RiskTilePyramid.hilbertPoint(pyramid.getSide(), index);
+        int x = (int) (xy >>> 32);
+        int y = (int) (xy & 0xFFFFFFFFL);
+        for (int zoom = 0; zoom <= pyramid.getMaxZoom(); zoom++) {
+            int cellsPerTile = pyramid.getSide() >> zoom;
+            tiles.add(RiskTilePyramid.tileKey(zoom, x / cellsPerTile, y / cellsPerTile));
+        }
+    }
+
+    private static void checkLevels(RiskTilePyramid pyramid, String label) {
+        int side = pyramid.getSide();
+        List<District> districts = pyramid.getDistricts();
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                int index = (int) RiskTilePyramid.hilbertIndex(side, x, y);
+                District district = index < districts.size() ? districts.get(index) : null;
+                TestChecks.checkEquals(district == null ? 0 : 1, pyramid.getCount(0, x, y), label + " level 0 count");
+                TestChecks.check(pyramid.getRiskSum(0, x, y) == (district == null ? 0 : district.getRiskScore()),
+                        label + " level 0 risk");
+                TestChecks.check(pyramid.getFundedSum(0, x, y) == (district == null ? 0
+                        : pyramid.getFundedShare(district)), label + " level 0 funding");
+                TestChecks.check(district == null || pyramid.districtAt(x + 0.5, y + 0.5) == district,
+                        label + " district at a cell");
+            }
+        }
+        for (int level = 1; (side >> level) > 0; level++) {
+            int levelSide = side >> level;
+            for (int y = 0; y < levelSide; y++) {
+                for (int x = 0; x < levelSide; x++) {
+                    // Summed in the pyramid's order, so the float sums match exactly
+                    int count = 0;
+                    float risk = 0;
+                    float funded = 0;
+                    for (int dy = 0; dy < 2; dy++) {
+                        for (int dx = 0; dx < 2; dx++) {
+                            count += pyramid.getCount(level - 1, 2 * x + dx, 2 * y + dy);
+                            risk += pyramid.getRiskSum(level - 1, 2 * x + dx, 2 * y + dy);
+                            funded += pyramid.getFundedSum(level - 1, 2 * x + dx, 2 * y + dy);
+                        }
+                    }
+                    String cell = label + " level " + level + " cell " + x + "," + y;
+                    TestChecks.checkEquals(count, pyramid.getCount(level, x, y), cell + " count");
+                    TestChecks.check(risk == pyramid.getRiskSum(level, x, y), cell + " risk");
+                    TestChecks.check(funded == pyramid.getFundedSum(level, x, y), cell + " funding");
+                }
+            }
+        }
+    }
+}
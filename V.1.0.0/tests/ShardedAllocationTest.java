@@ -0,0 +1,96 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Serves three shards of a district file from loopback workers, allocates
+ * across them with {@link ShardedAllocation} at several budgets, and checks
+ * each result with {@link ShardedAllocation#verify}.
+ */
+public class ShardedAllocationTest {
+    private static final String[] LAND_TYPES = {"Forest", "Coastal", "Desert", "Urban"};
+    private static final String[] URBANIZATION_TYPES = {"Rural", "Suburban", "Urban"};
+    private static final int SHARDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("sharded-allocation-test", ".csv");
+        List<Thread> workers = new ArrayList<>();
+        try {
+            Random random = new Random(41L);
+            long totalDemand = 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < 20_000; i++) {
+                    // Few distinct values, so ties across shards are common
+                    int demand = 10 * (1 + random.nextInt(10));
+                    totalDemand += demand;
+                    writer.write("D" + i + "," + 1_000 * (1 + random.nextInt(20)) + ","
+                            + LAND_TYPES[random.nextInt(LAND_TYPES.length)] + ","
+                            + URBANIZATION_TYPES[random.nextInt(URBANIZATION_TYPES.length)] + "," + demand);
+                    writer.newLine();
+                }
+            }
+
+            List<String> addresses = new ArrayList<>();
+            for (int shard = 0; shard < SHARDS; shard++) {
+                ShardedAllocation.ShardRun run = ShardedAllocation.ShardRun.load(file, shard, SHARDS);
+                ServerSocket server = new ServerSocket();
+                server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                addresses.add(InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getLocalPort());
+                String label = "Shard " + shard + "/" + SHARDS;
+                Thread worker = new Thread(() -> {
+                    try (ServerSocket s = server) {
+                        ShardedAllocation.serve(run, s, label);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, label);
+                worker.setDaemon(true);
+                worker.start();
+                workers.add(worker);
+            }
+
+            int[] budgets = {0, 1_000, (int) (totalDemand / 2) + 7, (int) totalDemand + 1};
+            for (int b = 0; b < budgets.length; b++) {
+                int budget = budgets[b];
+                List<int[]> funded = new ArrayList<>();
+                ShardedAllocation.Result result = ShardedAllocation.allocate(addresses, budget,
+                        b == budgets.length - 1,
+                        (row, name, risk, demand, allocated) -> funded.add(new int[] {row, allocated}));
+                String mismatch = ShardedAllocation.verify(file, budget, funded);
+                TestChecks.check(mismatch == null, "budget " + budget + ": " + mismatch);
+                TestChecks.checkEquals(20_000, result.getDistricts(), "district count");
+                TestChecks.checkEquals(funded.size(), result.getFunded(), "funded count at budget " + budget);
+                TestChecks.checkEquals(Math.min(budget, totalDemand), result.getAllocatedResources(),
+                        "allocated at budget " + budget);
+                if (budget == 1_000) {
+                    TestChecks.check(result.getFetched() < result.getDistricts(),
+                            "small budget fetches part of the shards: " + result.getFetched());
+                }
+                if (funded.size() > 1) {
+                    // Swapping two funded rows must be caught
+                    int[] first = funded.get(0);
+                    funded.set(0, funded.get(1));
+                    funded.set(1, first);
+                    TestChecks.check(ShardedAllocation.verify(file, budget, funded) != null,
+                            "swapped rows rejected at budget " + budget);
+                }
+            }
+            for (Thread worker : workers) {
+                worker.join(10_000);
+                TestChecks.check(!worker.isAlive(), worker.getName() + " shut down");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.println("ShardedAllocationTest passed");
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Assertions shared by the test classes in this directory.
+ *
+ * Each test is a plain class with a main method run by run-tests.sh; a
+ * failed check throws an AssertionError that names what differed.
+ */
+public class TestChecks {
+
+    public static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    public static void checkEquals(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    public static void checkEquals(Object expected, Object actual, String message) {
+        if (expected == null ? actual != null : !expected.equals(actual)) {
+            throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+        }
+    }
+
+    /**
+     * Checks that the code throws the given exception type
+     */
+    public static void checkThrows(Class<? extends Throwable> type, ThrowingRunnable code, String message) {
+        try {
+            code.run();
+        } catch (Throwable e) {
+            if (type.isInstance(e)) {
+                return;
+            }
+            throw new AssertionError(message + ": expected " + type.getSimpleName() + " but got " + e, e);
+        }
+        throw new AssertionError(message + ": expected " + type.getSimpleName());
+    }
+
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
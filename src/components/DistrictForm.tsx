@@ -18,41 +18,33 @@ import {
   SelectTrigger, 
   SelectValue 
 } from "@/components/ui/select";
-import { toast } from "sonner";
 import { useToast } from "@/hooks/use-toast";
 
-export type District = {
-  id: number;
-  name: string;
-  population: number;
-  landType: string;
-  urbanization: string;
-  resourceDemand: number;
-  riskScore?: number;
-};
-
 type DistrictFormProps = {
-  onAddDistrict: (district: District) => void;
+  districtsUrl: string;
   districtCount: number;
   totalResources: number;
-  setTotalResources: (value: number) => void;
 };
 
+/**
+ * Sends a new district to the allocation engine, which scores it and
+ * includes it in the plans it streams back. The form only checks the input;
+ * risk scoring and allocation stay in the engine.
+ */
 const DistrictForm: React.FC<DistrictFormProps> = ({ 
-  onAddDistrict, 
+  districtsUrl,
   districtCount,
   totalResources,
-  setTotalResources
 }) => {
   const [name, setName] = useState('');
   const [population, setPopulation] = useState('');
   const [landType, setLandType] = useState('');
   const [urbanization, setUrbanization] = useState('');
   const [resourceDemand, setResourceDemand] = useState('');
-  const [resources, setResources] = useState('');
+  const [sending, setSending] = useState(false);
   const { toast } = useToast();
 
-  const handleSubmit = (e: React.FormEvent) => {
+  const handleSubmit = async (e: React.FormEvent) => {
     e.preventDefault();
     
     if (!name || !population || !landType || !urbanization || !resourceDemand) {
@@ -64,6 +56,16 @@ const DistrictForm: React.FC<DistrictFormProps> = ({
       return;
     }
 
+    // The engine reads one CSV line per district
+    if (/[,\r\n]/.test(name)) {
+      toast({
+        title: "Invalid name",
+        description: "District name cannot contain commas or line breaks",
+        variant: "destructive",
+      });
+      return;
+    }
+
     const populationNum = parseInt(population);
     const resourceDemandNum = parseInt(resourceDemand);
 
@@ -85,16 +87,31 @@ const DistrictForm: React.FC<DistrictFormProps> = ({
       return;
     }
 
-    const district: District = {
-      id: Date.now(),
-      name,
-      population: populationNum,
-      landType,
-      urbanization,
-      resourceDemand: resourceDemandNum,
-    };
-
-    onAddDistrict(district);
+    setSending(true);
+    try {
+      const response = await fetch(districtsUrl, {
+        method: "POST",
+        headers: { "Content-Type": "text/csv" },
+        body: [name.trim(), populationNum, landType, urbanization, resourceDemandNum].join(","),
+      });
+      if (!response.ok) {
+        toast({
+          title: "District not added",
+          description: (await response.text()) || `The engine answered ${response.status}`,
+          variant: "destructive",
+        });
+        return;
+      }
+    } catch {
+      toast({
+        title: "District not added",
+        description: "The allocation engine could not be reached",
+        variant: "destructive",
+      });
+      return;
+    } finally {
+      setSending(false);
+    }
     
     // Reset form fields
     setName('');
@@ -104,29 +121,8 @@ const DistrictForm: React.FC<DistrictFormProps> = ({
     setResourceDemand('');
     
     toast({
-      title: "District added",
-      description: `${name} has been added to the list`,
-    });
-  };
-
-  const handleSetResources = () => {
-    const resourcesNum = parseInt(resources);
-    
-    if (isNaN(resourcesNum) || resourcesNum < 0) {
-      toast({
-        title: "Invalid resources",
-        description: "Total resources must be a non-negative number",
-        variant: "destructive",
-      });
-      return;
-    }
-    
-    setTotalResources(resourcesNum);
-    setResources('');
-    
-    toast({
-      title: "Resources updated",
-      description: `Total resources set to ${resourcesNum}`,
+      title: "District sent",
+      description: `${name} will appear with the engine's next plan`,
     });
   };
 
@@ -203,7 +199,7 @@ const DistrictForm: React.FC<DistrictFormProps> = ({
               />
             </div>
             
-            <Button type="submit" className="w-full smooth-transition">
+            <Button type="submit" className="w-full smooth-transition" disabled={sending}>
               Add District
             </Button>
           </form>
@@ -213,24 +209,9 @@ const DistrictForm: React.FC<DistrictFormProps> = ({
       <Card className="hover-scale glass-panel rounded-2xl overflow-hidden">
         <CardHeader>
           <CardTitle>Resource Management</CardTitle>
-          <CardDescription>Set total available resources and view current status</CardDescription>
+          <CardDescription>Current status of the engine's plan</CardDescription>
         </CardHeader>
         <CardContent className="space-y-6">
-          <div className="space-y-2">
-            <Label htmlFor="totalResources">Total Available Resources</Label>
-            <div className="flex space-x-2">
-              <Input
-                id="totalResources"
-                type="number"
-                placeholder="Enter total resources"
-                value={resources}
-                onChange={(e) => setResources(e.target.value)}
-                className="smooth-transition"
-              />
-              <Button onClick={handleSetResources} className="smooth-transition">Set</Button>
-            </div>
-          </div>
-          
           <div className="space-y-4">
             <h3 className="text-lg font-medium">Current Status</h3>
             <div className="grid grid-cols-2 gap-4">
@@ -247,7 +228,7 @@ const DistrictForm: React.FC<DistrictFormProps> = ({
         </CardContent>
         <CardFooter className="flex justify-between border-t px-6 py-4">
           <p className="text-sm text-muted-foreground">
-            Risk scores are calculated automatically based on district data
+            The engine scores every district; set the budget under Resources Balance
           </p>
         </CardFooter>
       </Card>
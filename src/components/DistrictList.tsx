@@ -1,5 +1,5 @@
 
-import React from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import {
   Card,
   CardContent,
@@ -8,13 +8,18 @@ import {
   CardTitle,
 } from "@/components/ui/card";
 import { Badge } from "@/components/ui/badge";
-import { District } from './DistrictForm';
+import { StreamedAllocation } from '@/hooks/use-allocation-stream';
 
 type DistrictListProps = {
-  districts: District[];
-  allocatedResources: Record<number, number>;
+  districts: StreamedAllocation[];
 };
 
+// Every card has the same height, so the visible rows follow from the scroll offset
+const ROW_HEIGHT = 232;
+const ROW_GAP = 16;
+const VIEWPORT_HEIGHT = 720;
+const OVERSCAN_ROWS = 2;
+
 const getRiskLevel = (score: number): string => {
   if (score <= 10) return 'Low';
   if (score <= 15) return 'Medium';
@@ -29,7 +34,100 @@ const getRiskClass = (score: number): string => {
   return 'risk-critical';
 };
 
-const DistrictList: React.FC<DistrictListProps> = ({ districts, allocatedResources }) => {
+const DistrictCard = React.memo(({ district }: { district: StreamedAllocation }) => (
+  <Card className="hover-scale glass-panel rounded-2xl overflow-hidden" style={{ height: ROW_HEIGHT }}>
+    <CardHeader className="pb-2">
+      <div className="flex justify-between items-start">
+        <CardTitle className="text-xl truncate">{district.name}</CardTitle>
+        <Badge className={`${getRiskClass(district.riskScore)}`}>
+          {getRiskLevel(district.riskScore)}
+        </Badge>
+      </div>
+      <CardDescription>District #{district.id}</CardDescription>
+    </CardHeader>
+    <CardContent>
+      <div className="space-y-3">
+        <div className="pt-2 border-t">
+          <div className="flex justify-between items-center">
+            <div className="text-sm">
+              <span className="text-muted-foreground">Resource Demand:</span>
+              <span className="ml-1 font-medium">{district.resourceDemand}</span>
+            </div>
+            <div className="text-sm">
+              <span className="text-muted-foreground">Risk Score:</span>
+              <span className="ml-1 font-medium">{district.riskScore}</span>
+            </div>
+          </div>
+        </div>
+        
+        <div className="pt-2 border-t">
+          <div className="flex justify-between items-center">
+            <div className="text-sm">
+              <span className="text-muted-foreground">Allocated:</span>
+              <span className="ml-1 font-medium">{district.allocated}</span>
+            </div>
+            <Badge variant={district.status === "Full" ? "outline" : "secondary"}>
+              {district.status}
+            </Badge>
+          </div>
+        </div>
+      </div>
+    </CardContent>
+  </Card>
+));
+
+/**
+ * Cards per row for the list's own width, matching the md and lg grid breakpoints
+ */
+const columnsFor = (width: number): number => {
+  if (width >= 1024) return 3;
+  if (width >= 768) return 2;
+  return 1;
+};
+
+/**
+ * Shows the plan's districts as cards. Only the rows inside the scroll
+ * viewport (plus a small overscan) are mounted, so the cost of a render
+ * does not grow with the number of districts, and cards of unchanged
+ * districts are not re-rendered when a delta arrives.
+ */
+const DistrictList: React.FC<DistrictListProps> = ({ districts }) => {
+  const viewportRef = useRef<HTMLDivElement>(null);
+  const [scrollTop, setScrollTop] = useState(0);
+  const [width, setWidth] = useState(0);
+  const isEmpty = districts.length === 0;
+
+  useEffect(() => {
+    const viewport = viewportRef.current;
+    if (!viewport) {
+      return;
+    }
+    const observer = new ResizeObserver(([entry]) => setWidth(entry.contentRect.width));
+    observer.observe(viewport);
+    return () => observer.disconnect();
+  }, [isEmpty]);
+
+  const columns = columnsFor(width);
+  const rowCount = Math.ceil(districts.length / columns);
+  const rowStride = ROW_HEIGHT + ROW_GAP;
+  const firstRow = Math.max(0, Math.floor(scrollTop / rowStride) - OVERSCAN_ROWS);
+  const lastRow = Math.min(rowCount, Math.ceil((scrollTop + VIEWPORT_HEIGHT) / rowStride) + OVERSCAN_ROWS);
+
+  const rows = [];
+  for (let row = firstRow; row < lastRow; row++) {
+    rows.push(
+      <div
+        key={row}
+        className="absolute left-0 right-0 grid gap-4"
+        style={{ top: row * rowStride, gridTemplateColumns: `repeat(${columns}, minmax(0, 1fr))` }}
+      >
+        {districts.slice(row * columns, (row + 1) * columns).map((district) => (
+          <DistrictCard key={district.id} district={district} />
+        ))}
+      </div>
+    );
+  }
+
   return (
     <div className="space-y-6 mt-8 animate-fade-in">
       <div className="flex justify-between items-center">
@@ -39,77 +137,23 @@ const DistrictList: React.FC<DistrictListProps> = ({ districts, allocatedResourc
         </Badge>
       </div>
       
-      {districts.length === 0 ? (
+      {isEmpty ? (
         <Card className="border-dashed hover-scale glass-panel rounded-2xl overflow-hidden">
           <CardContent className="py-8 flex flex-col items-center justify-center text-center">
-            <p className="text-muted-foreground">No districts added yet</p>
-            <p className="text-sm text-muted-foreground mt-1">Add a district using the form above</p>
+            <p className="text-muted-foreground">No districts in the current plan</p>
+            <p className="text-sm text-muted-foreground mt-1">Districts appear once the allocation engine publishes a plan</p>
           </CardContent>
         </Card>
       ) : (
-        <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-4">
-          {districts.map((district, index) => (
-            <Card 
-              key={district.id} 
-              className={`hover-scale glass-panel rounded-2xl overflow-hidden animate-scale-in`} 
-              style={{ animationDelay: `${index * 50}ms` }}
-            >
-              <CardHeader className="pb-2">
-                <div className="flex justify-between items-start">
-                  <CardTitle className="text-xl">{district.name}</CardTitle>
-                  {district.riskScore && (
-                    <Badge className={`${getRiskClass(district.riskScore)}`}>
-                      {getRiskLevel(district.riskScore)}
-                    </Badge>
-                  )}
-                </div>
-                <CardDescription>Population: {district.population.toLocaleString()}</CardDescription>
-              </CardHeader>
-              <CardContent>
-                <div className="space-y-3">
-                  <div className="grid grid-cols-2 gap-2 text-sm">
-                    <div className="flex flex-col">
-                      <span className="text-muted-foreground">Land Type</span>
-                      <span>{district.landType}</span>
-                    </div>
-                    <div className="flex flex-col">
-                      <span className="text-muted-foreground">Urbanization</span>
-                      <span>{district.urbanization}</span>
-                    </div>
-                  </div>
-                  
-                  <div className="pt-2 border-t">
-                    <div className="flex justify-between items-center">
-                      <div className="text-sm">
-                        <span className="text-muted-foreground">Resource Demand:</span>
-                        <span className="ml-1 font-medium">{district.resourceDemand}</span>
-                      </div>
-                      {district.riskScore && (
-                        <div className="text-sm">
-                          <span className="text-muted-foreground">Risk Score:</span>
-                          <span className="ml-1 font-medium">{district.riskScore}</span>
-                        </div>
-                      )}
-                    </div>
-                  </div>
-                  
-                  {allocatedResources[district.id] !== undefined && (
-                    <div className="pt-2 border-t">
-                      <div className="flex justify-between items-center">
-                        <div className="text-sm">
-                          <span className="text-muted-foreground">Allocated:</span>
-                          <span className="ml-1 font-medium">{allocatedResources[district.id]}</span>
-                        </div>
-                        <Badge variant={allocatedResources[district.id] < district.resourceDemand ? "secondary" : "outline"}>
-                          {allocatedResources[district.id] < district.resourceDemand ? "Partial" : "Full"}
-                        </Badge>
-                      </div>
-                    </div>
-                  )}
-                </div>
-              </CardContent>
-            </Card>
-          ))}
+        <div
+          ref={viewportRef}
+          className="overflow-y-auto"
+          style={{ maxHeight: VIEWPORT_HEIGHT }}
+          onScroll={(e) => setScrollTop(e.currentTarget.scrollTop)}
+        >
+          <div className="relative" style={{ height: Math.max(0, rowCount * rowStride - ROW_GAP) }}>
+            {rows}
+          </div>
         </div>
       )}
     </div>
@@ -0,0 +1,118 @@
+import * as React from "react"
+
+export type AllocationChangeType =
+  | "ADDED"
+  | "REMOVED"
+  | "INCREASED"
+  | "DECREASED"
+  | "STATUS"
+  | "CHANGED"
+
+export type StreamedAllocation = {
+  id: number
+  name: string
+  riskScore: number
+  resourceDemand: number
+  allocated: number
+  status: "Full" | "Partial" | "Unfunded"
+}
+
+type AllocationEvent = {
+  sequence: number
+  policy: string
+  totalResources: number
+  remainingResources: number
+  districtCount: number
+  changes: (StreamedAllocation & { change: AllocationChangeType })[]
+}
+
+export type AllocationStreamState = {
+  connected: boolean
+  sequence: number
+  policy: string
+  totalResources: number
+  remainingResources: number
+  allocations: Map<number, StreamedAllocation>
+}
+
+const initialState: AllocationStreamState = {
+  connected: false,
+  sequence: 0,
+  policy: "",
+  totalResources: 0,
+  remainingResources: 0,
+  allocations: new Map(),
+}
+
+/**
+ * Subscribes to the Java engine's server-sent allocation stream
+ * (`/allocations/stream`) and keeps a district-ID keyed view of the latest
+ * plan. Scoring and allocation stay in the engine; the browser only applies
+ * the changed rows from each delta. Deltas arriving within one animation
+ * frame are applied together, so bursts cause a single re-render.
+ */
+export function useAllocationStream(url: string | undefined) {
+  const [state, setState] = React.useState<AllocationStreamState>(initialState)
+
+  React.useEffect(() => {
+    if (!url) {
+      return
+    }
+
+    const allocations = new Map<number, StreamedAllocation>()
+    let latest: AllocationEvent | null = null
+    let frame = 0
+
+    const flush = () => {
+      frame = 0
+      if (!latest) {
+        return
+      }
+      const summary = latest
+      setState({
+        connected: true,
+        sequence: summary.sequence,
+        policy: summary.policy,
+        totalResources: summary.totalResources,
+        remainingResources: summary.remainingResources,
+        allocations: new Map(allocations),
+      })
+    }
+
+    const apply = (event: AllocationEvent, reset: boolean) => {
+      if (reset) {
+        allocations.clear()
+      }
+      for (const { change, ...row } of event.changes) {
+        if (change === "REMOVED") {
+          allocations.delete(row.id)
+        } else {
+          allocations.set(row.id, row)
+        }
+      }
+      latest = event
+      if (!frame) {
+        frame = requestAnimationFrame(flush)
+      }
+    }
+
+    const source = new EventSource(url)
+    source.addEventListener("snapshot", (e) =>
+      apply(JSON.parse((e as MessageEvent).data), true)
+    )
+    source.addEventListener("delta", (e) =>
+      apply(JSON.parse((e as MessageEvent).data), false)
+    )
+    source.onopen = () => setState((s) => ({ ...s, connected: true }))
+    source.onerror = () => setState((s) => ({ ...s, connected: false }))
+
+    return () => {
+      source.close()
+      if (frame) {
+        cancelAnimationFrame(frame)
+      }
+    }
+  }, [url])
+
+  return state
+}
@@ -1,43 +1,79 @@
 
-import React, { useState } from 'react';
+import React, { useMemo, useState } from 'react';
 import Header from '@/components/Header';
-import DistrictForm, { District } from '@/components/DistrictForm';
+import DistrictForm from '@/components/DistrictForm';
 import DistrictList from '@/components/DistrictList';
 import ResourceAllocation from '@/components/ResourceAllocation';
-import { calculateDistrictRisk } from '@/utils/riskCalculator';
+import { useAllocationStream } from '@/hooks/use-allocation-stream';
 import { Card, CardContent, CardHeader, CardTitle } from '@/components/ui/card';
 import { Button } from '@/components/ui/button';
+import { Input } from '@/components/ui/input';
+import { useToast } from '@/hooks/use-toast';
 import { ChevronRight, PlusCircle, BarChart3, MapPin, AlertTriangle } from 'lucide-react';
 import { Toaster } from 'sonner';
 
+// Allocation engine stream; the dev server proxies this path to the engine
+const STREAM_URL = import.meta.env.VITE_ALLOCATION_STREAM_URL ?? "/allocations/stream";
+const DISTRICTS_URL = import.meta.env.VITE_ALLOCATION_DISTRICTS_URL ?? "/allocations/districts";
+const BUDGET_URL = import.meta.env.VITE_ALLOCATION_BUDGET_URL ?? "/allocations/budget";
+
 const Index = () => {
-  const [districts, setDistricts] = useState<District[]>([]);
-  const [totalResources, setTotalResources] = useState<number>(0);
-  const [allocatedResources, setAllocatedResources] = useState<Record<number, number>>({});
+  const stream = useAllocationStream(STREAM_URL);
   const [showForm, setShowForm] = useState<boolean>(false);
+  const [budget, setBudget] = useState('');
+  const [sendingBudget, setSendingBudget] = useState(false);
+  const { toast } = useToast();
+  const districts = useMemo(() => Array.from(stream.allocations.values()), [stream.allocations]);
 
-  const handleAddDistrict = (district: District) => {
-    const riskScore = calculateDistrictRisk(
-      district.population,
-      district.landType,
-      district.urbanization
-    );
-    
-    const districtWithRisk = {
-      ...district,
-      riskScore
-    };
-    
-    setDistricts([...districts, districtWithRisk]);
-    setShowForm(false);
-  };
+  // Totals across all districts in the current plan
+  const totalRisk = districts.reduce((sum, district) => sum + district.riskScore, 0);
+  const totalDemand = districts.reduce((sum, district) => sum + district.resourceDemand, 0);
 
-  const handleAllocateResources = (allocations: Record<number, number>) => {
-    setAllocatedResources(allocations);
-  };
+  // The engine replaces its total resources and streams the recalculated plan back
+  const handleSetBudget = async (e: React.FormEvent) => {
+    e.preventDefault();
+    const resources = parseInt(budget);
+    if (isNaN(resources) || resources <= 0) {
+      toast({
+        title: "Invalid budget",
+        description: "Total resources must be a positive number",
+        variant: "destructive",
+      });
+      return;
+    }
 
-  // Calculate total risk across all districts
-  const totalRisk = districts.reduce((sum, district) => sum + district.riskScore, 0);
+    setSendingBudget(true);
+    try {
+      const response = await fetch(BUDGET_URL, {
+        method: "POST",
+        headers: { "Content-Type": "text/csv" },
+        body: String(resources),
+      });
+      if (!response.ok) {
+        toast({
+          title: "Budget not set",
+          description: (await response.text()) || `The engine answered ${response.status}`,
+          variant: "destructive",
+        });
+        return;
+      }
+    } catch {
+      toast({
+        title: "Budget not set",
+        description: "The allocation engine could not be reached",
+        variant: "destructive",
+      });
+      return;
+    } finally {
+      setSendingBudget(false);
+    }
+
+    setBudget('');
+    toast({
+      title: "Budget sent",
+      description: `The engine will allocate ${resources} total resources`,
+    });
+  };
 
   return (
     <div className="min-h-screen pb-16 bg-background">
@@ -58,8 +94,11 @@ const Index = () => {
               </Button>
             </CardHeader>
             <CardContent>
-              <div className="text-5xl font-bold py-4">{totalResources}</div>
-              <div className="grid grid-cols-2 gap-2">
+              <div className="text-5xl font-bold py-4">{stream.remainingResources}</div>
+              <p className="text-muted-foreground text-sm">
+                Unallocated of {stream.totalResources} total resources
+              </p>
+              <div className="mt-4 flex flex-wrap items-center gap-2">
                 <Button 
                   variant="outline" 
                   onClick={() => setShowForm(true)}
@@ -68,22 +107,25 @@ const Index = () => {
                   <PlusCircle className="h-5 w-5" />
                   Add District
                 </Button>
-                <Button 
-                  variant="outline"
-                  onClick={() => {
-                    const input = window.prompt("Enter total resources:");
-                    if (input) {
-                      const resources = parseInt(input);
-                      if (!isNaN(resources) && resources > 0) {
-                        setTotalResources(resources);
-                      }
-                    }
-                  }}
-                  className="flex items-center justify-center gap-2 bg-muted/50 hover:bg-muted"
-                >
-                  <BarChart3 className="h-5 w-5" />
-                  Set Resources
-                </Button>
+                <form onSubmit={handleSetBudget} className="flex items-center gap-2">
+                  <Input
+                    type="number"
+                    min={1}
+                    placeholder="Enter total resources"
+                    value={budget}
+                    onChange={(e) => setBudget(e.target.value)}
+                    className="w-48"
+                  />
+                  <Button
+                    type="submit"
+                    variant="outline"
+                    disabled={sendingBudget}
+                    className="flex items-center justify-center gap-2 bg-muted/50 hover:bg-muted"
+                  >
+                    <BarChart3 className="h-5 w-5" />
+                    Set Resources
+                  </Button>
+                </form>
               </div>
             </CardContent>
           </Card>
@@ -158,10 +200,9 @@ const Index = () => {
             </CardHeader>
             <CardContent>
               <DistrictForm 
-                onAddDistrict={handleAddDistrict}
+                districtsUrl={DISTRICTS_URL}
                 districtCount={districts.length}
-                totalResources={totalResources}
-                setTotalResources={setTotalResources}
+                totalResources={stream.totalResources}
               />
             </CardContent>
           </Card>
@@ -178,9 +219,8 @@ const Index = () => {
               </CardHeader>
               <CardContent>
                 <ResourceAllocation
-                  districts={districts}
-                  totalResources={totalResources}
-                  onAllocate={handleAllocateResources}
+                  stream={stream}
+                  totalDemand={totalDemand}
                 />
               </CardContent>
             </Card>
@@ -193,10 +233,7 @@ const Index = () => {
                 </CardTitle>
               </CardHeader>
               <CardContent>
-                <DistrictList 
-                  districts={districts}
-                  allocatedResources={allocatedResources}
-                />
+                <DistrictList districts={districts} />
               </CardContent>
             </Card>
           </>
@@ -8,6 +8,10 @@ export default defineConfig(({ mode }) => ({
   server: {
     host: "::",
     port: 8080,
+    proxy: {
+      // Allocation engine's event stream, district and budget input (AllocationEventServer), on loopback
+      "/allocations": process.env.ALLOCATION_ENGINE_URL ?? "http://127.0.0.1:8090",
+    },
   },
   plugins: [
     react(),